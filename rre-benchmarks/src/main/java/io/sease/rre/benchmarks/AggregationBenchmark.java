@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.core.domain.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the aggregation of query metrics up the {@code DomainMember}
+ * hierarchy - query group, topic, corpus and evaluation - when the queries
+ * complete concurrently, as they do with the asynchronous evaluation
+ * managers.
+ * <p>
+ * The hierarchy is rebuilt before every invocation, since the averaged
+ * metrics keep accumulating the values they are notified of.
+ *
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"100", "1000"})
+    public int queries;
+
+    @Param({"1", "4"})
+    public int versionCount;
+
+    @Param({"1", "8"})
+    public int parallelism;
+
+    private JsonNode judgments;
+    private List<Map<String, Object>> hits;
+    private List<String> versions;
+    private List<Query> evaluation;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void prepareData() {
+        judgments = SyntheticData.judgments(100);
+        hits = SyntheticData.hits(20, 100);
+        versions = SyntheticData.versions(versionCount);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareEvaluation() {
+        evaluation = SyntheticData.evaluation(queries, judgments, versions);
+        evaluation.forEach(query -> SyntheticData.collect(query, hits, versions));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object notifyCollectedMetrics() throws Exception {
+        pool.submit(() -> evaluation.parallelStream().forEach(Query::notifyCollectedMetrics)).get();
+        return evaluation.get(0).getParent().orElse(null);
+    }
+}
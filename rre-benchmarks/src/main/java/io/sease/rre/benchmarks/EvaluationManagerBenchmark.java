@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.evaluation.EvaluationManager;
+import io.sease.rre.core.evaluation.impl.AsynchronousEvaluationManager;
+import io.sease.rre.core.evaluation.impl.AsynchronousQueryEvaluationManager;
+import io.sease.rre.core.evaluation.impl.SynchronousEvaluationManager;
+import io.sease.rre.persistence.PersistenceManager;
+import io.sease.rre.search.api.SearchPlatform;
+import io.sease.rre.search.api.impl.SyntheticSearchPlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link EvaluationManager} evaluating a batch of queries
+ * against the synthetic search platform, which simulates the latency of a
+ * real engine, from dispatching the first query until all queries have
+ * been completed.
+ * <p>
+ * Queries are not templated, so the benchmark covers query dispatch,
+ * metric collection and aggregation, but not template rendering.
+ *
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EvaluationManagerBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String INDEX_NAME = "benchmark";
+    private static final int THREADPOOL_SIZE = 8;
+    private static final int RELEVANT_DOC_COUNT = 10;
+
+    @Param({"sync", "async", "asyncQueries"})
+    public String manager;
+
+    @Param({"0", "1000"})
+    public int latencyMicros;
+
+    @Param({"200"})
+    public int queries;
+
+    @Param({"4"})
+    public int versionCount;
+
+    private JsonNode judgments;
+    private List<String> versions;
+    private List<JsonNode> queryNodes;
+    private EvaluationManager evaluationManager;
+    private List<Query> evaluation;
+
+    @Setup(Level.Trial)
+    public void prepareManager() {
+        judgments = SyntheticData.judgments(100);
+        versions = SyntheticData.versions(versionCount);
+        queryNodes = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            queryNodes.add(MAPPER.createObjectNode().put("q", "query" + i));
+        }
+
+        final Map<String, Object> platformConfiguration = new HashMap<>();
+        platformConfiguration.put("meanLatencyMillis", latencyMicros / 1000.0);
+        platformConfiguration.put("minHits", 20);
+        platformConfiguration.put("maxHits", 20);
+        platformConfiguration.put("documentCount", 100);
+        final SearchPlatform platform = new SyntheticSearchPlatform();
+        platform.beforeStart(platformConfiguration);
+        final PersistenceManager persistenceManager = new PersistenceManager();
+        final String[] fields = {SyntheticData.ID_FIELD};
+        // The queries declare no template, so no template manager is required
+        switch (manager) {
+            case "sync":
+                evaluationManager = new SynchronousEvaluationManager(platform, null, persistenceManager, fields, versions, null);
+                break;
+            case "async":
+                evaluationManager = new AsynchronousEvaluationManager(platform, null, persistenceManager, fields, versions, null, THREADPOOL_SIZE);
+                break;
+            case "asyncQueries":
+                evaluationManager = new AsynchronousQueryEvaluationManager(platform, null, persistenceManager, fields, versions, null, THREADPOOL_SIZE);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown evaluation manager " + manager);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareEvaluation() {
+        evaluation = SyntheticData.evaluation(queries, judgments, versions);
+    }
+
+    @Benchmark
+    public int evaluate() {
+        for (int i = 0; i < queries; i++) {
+            evaluationManager.evaluateQuery(evaluation.get(i), INDEX_NAME, queryNodes.get(i), null, RELEVANT_DOC_COUNT);
+        }
+        while (evaluationManager.isRunning()) {
+            Thread.yield();
+        }
+        return evaluationManager.getQueriesRemaining();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.persistence.PersistenceException;
+import io.sease.rre.persistence.impl.JsonPersistenceHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link JsonPersistenceHandler} writing a complete evaluation:
+ * recording the queries, aggregating their metrics and serializing the
+ * evaluation to the output file.
+ *
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonPersistenceBenchmark {
+
+    @Param({"100", "1000"})
+    public int queries;
+
+    @Param({"1", "4"})
+    public int versionCount;
+
+    @Param({"false", "true"})
+    public boolean pretty;
+
+    private JsonNode judgments;
+    private List<Map<String, Object>> hits;
+    private List<String> versions;
+    private File output;
+    private List<Query> evaluation;
+
+    @Setup(Level.Trial)
+    public void prepareData() throws IOException {
+        judgments = SyntheticData.judgments(100);
+        hits = SyntheticData.hits(20, 100);
+        versions = SyntheticData.versions(versionCount);
+        output = File.createTempFile("rre-benchmark", ".json");
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareEvaluation() {
+        evaluation = SyntheticData.evaluation(queries, judgments, versions);
+        evaluation.forEach(query -> SyntheticData.collect(query, hits, versions));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteOutput() throws IOException {
+        Files.deleteIfExists(output.toPath());
+    }
+
+    @Benchmark
+    public long persist() throws PersistenceException {
+        final Map<String, Object> configuration = new HashMap<>();
+        configuration.put("destinationFile", output.getAbsolutePath());
+        configuration.put("pretty", pretty);
+
+        final JsonPersistenceHandler handler = new JsonPersistenceHandler();
+        handler.configure("json", configuration);
+        handler.beforeStart();
+        handler.start();
+        evaluation.forEach(handler::recordQuery);
+        handler.beforeStop();
+        handler.stop();
+        return output.length();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.core.domain.metrics.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures the cost of computing each built-in metric for a single query
+ * version: instantiating the metric, collecting a ranked list and reading
+ * the resulting value.
+ *
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricBenchmark {
+
+    private static final String VERSION = "v1.0";
+
+    @Param({"P", "R", "P@1", "P@2", "P@3", "P@10", "R@K", "AP", "RR", "ERR@K", "NDCG@10", "NDCG@20", "F0.5", "F1", "F2", "F@K"})
+    public String metric;
+
+    @Param({"10", "100", "1000"})
+    public int judgments;
+
+    @Param({"10", "100"})
+    public int hits;
+
+    private JsonNode relevantDocuments;
+    private List<Map<String, Object>> rankedList;
+    private List<String> versions;
+
+    @Setup
+    public void setup() {
+        relevantDocuments = SyntheticData.judgments(judgments);
+        rankedList = SyntheticData.hits(hits, judgments);
+        versions = SyntheticData.versions(1);
+    }
+
+    @Benchmark
+    public BigDecimal computeMetric() {
+        final Metric instance = SyntheticData.metrics(singletonList(metric), relevantDocuments, versions).get(0);
+        instance.setTotalHits(rankedList.size(), VERSION);
+        int rank = 1;
+        for (final Map<String, Object> hit : rankedList) {
+            instance.collect(hit, rank++, VERSION);
+        }
+        return instance.valueFactory(VERSION).value();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.core.domain.Corpus;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.domain.QueryGroup;
+import io.sease.rre.core.domain.Topic;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.core.domain.metrics.impl.AveragePrecision;
+import io.sease.rre.core.domain.metrics.impl.ExpectedReciprocalRank;
+import io.sease.rre.core.domain.metrics.impl.F0_5;
+import io.sease.rre.core.domain.metrics.impl.F1;
+import io.sease.rre.core.domain.metrics.impl.F2;
+import io.sease.rre.core.domain.metrics.impl.FMeasureAtK;
+import io.sease.rre.core.domain.metrics.impl.NDCGAtK;
+import io.sease.rre.core.domain.metrics.impl.NDCGAtTen;
+import io.sease.rre.core.domain.metrics.impl.Precision;
+import io.sease.rre.core.domain.metrics.impl.PrecisionAtOne;
+import io.sease.rre.core.domain.metrics.impl.PrecisionAtTen;
+import io.sease.rre.core.domain.metrics.impl.PrecisionAtThree;
+import io.sease.rre.core.domain.metrics.impl.PrecisionAtTwo;
+import io.sease.rre.core.domain.metrics.impl.Recall;
+import io.sease.rre.core.domain.metrics.impl.RecallAtK;
+import io.sease.rre.core.domain.metrics.impl.ReciprocalRank;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Synthetic judgments, ranked lists and evaluation hierarchies shared by
+ * the benchmarks. All data is generated from a fixed seed, so runs are
+ * comparable with each other.
+ *
+ * @since 1.2
+ */
+final class SyntheticData {
+
+    static final String ID_FIELD = "_id";
+    static final int MAX_GRADE = 3;
+
+    /**
+     * The built-in metrics, by name, in their default configuration.
+     */
+    static final Map<String, Supplier<Metric>> METRICS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("P", Precision::new);
+        METRICS.put("R", Recall::new);
+        METRICS.put("P@1", PrecisionAtOne::new);
+        METRICS.put("P@2", PrecisionAtTwo::new);
+        METRICS.put("P@3", PrecisionAtThree::new);
+        METRICS.put("P@10", PrecisionAtTen::new);
+        METRICS.put("R@K", () -> new RecallAtK(10));
+        METRICS.put("AP", AveragePrecision::new);
+        METRICS.put("RR", ReciprocalRank::new);
+        METRICS.put("ERR@K", () -> new ExpectedReciprocalRank(null, null, 10, null));
+        METRICS.put("NDCG@10", NDCGAtTen::new);
+        METRICS.put("NDCG@20", () -> new NDCGAtK(20));
+        METRICS.put("F0.5", F0_5::new);
+        METRICS.put("F1", F1::new);
+        METRICS.put("F2", F2::new);
+        METRICS.put("F@K", () -> new FMeasureAtK(1, 10));
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long SEED = 1234;
+
+    private SyntheticData() {
+        // Static methods only
+    }
+
+    /**
+     * Builds a judgment set, grading documents doc0 ... doc(size - 1).
+     *
+     * @param size the number of judged documents.
+     * @return the relevant documents, in the ratings format used by RRE.
+     */
+    static JsonNode judgments(final int size) {
+        final Random random = new Random(SEED);
+        final ObjectNode judgments = MAPPER.createObjectNode();
+        for (int i = 0; i < size; i++) {
+            judgments.putObject("doc" + i).put("gain", 1 + random.nextInt(MAX_GRADE));
+        }
+        return judgments;
+    }
+
+    /**
+     * Builds a ranked list, in which roughly half the hits are judged.
+     *
+     * @param size          the number of hits.
+     * @param judgmentCount the size of the judgment set.
+     * @return the ranked hits.
+     */
+    static List<Map<String, Object>> hits(final int size, final int judgmentCount) {
+        final Random random = new Random(SEED);
+        final List<Map<String, Object>> hits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final String id = random.nextBoolean() ? "doc" + random.nextInt(Math.max(1, judgmentCount)) : "unjudged" + i;
+            final Map<String, Object> hit = new HashMap<>();
+            hit.put(ID_FIELD, id);
+            hit.put("title", "Title of " + id);
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    /**
+     * Creates fresh, empty instances of the given metrics.
+     *
+     * @param names     the metric names, as found in {@link #METRICS}.
+     * @param judgments the relevant documents.
+     * @param versions  the evaluated versions.
+     * @return the metric instances.
+     */
+    static List<Metric> metrics(final List<String> names, final JsonNode judgments, final List<String> versions) {
+        return names.stream()
+                .map(name -> {
+                    final Metric metric = METRICS.get(name).get();
+                    metric.setIdFieldName(ID_FIELD);
+                    metric.setRelevantDocuments(judgments);
+                    metric.setVersions(versions);
+                    return metric;
+                })
+                .collect(toList());
+    }
+
+    /**
+     * Builds an evaluation with a single corpus, holding the given number of
+     * queries spread across topics and query groups of ten children each.
+     * The queries are prepared with all the built-in metrics, but not
+     * executed.
+     *
+     * @param queryCount the number of queries.
+     * @param judgments  the relevant documents of each query.
+     * @param versions   the evaluated versions.
+     * @return the queries, all belonging to the same evaluation.
+     */
+    static List<Query> evaluation(final int queryCount, final JsonNode judgments, final List<String> versions) {
+        final Corpus corpus = new Evaluation().findOrCreate("corpus", Corpus::new);
+        final List<String> metricNames = new ArrayList<>(METRICS.keySet());
+        final List<Query> queries = new ArrayList<>(queryCount);
+        for (int i = 0; i < queryCount; i++) {
+            final Topic topic = corpus.findOrCreate("topic" + (i / 100), Topic::new);
+            final QueryGroup group = topic.findOrCreate("group" + (i / 10), QueryGroup::new);
+            final Query query = group.findOrCreate("query" + i, Query::new);
+            query.setIdFieldName(ID_FIELD);
+            query.setRelevantDocuments(judgments);
+            query.prepare(metrics(metricNames, judgments, versions));
+            queries.add(query);
+        }
+        return queries;
+    }
+
+    /**
+     * Collects the same ranked list in every version of a query.
+     *
+     * @param query    the query.
+     * @param hits     the ranked hits.
+     * @param versions the evaluated versions.
+     */
+    static void collect(final Query query, final List<Map<String, Object>> hits, final List<String> versions) {
+        for (final String version : versions) {
+            query.setTotalHits(hits.size(), version);
+            int rank = 1;
+            for (final Map<String, Object> hit : hits) {
+                query.collect(hit, rank++, version);
+            }
+        }
+    }
+
+    static List<String> versions(final int count) {
+        final List<String> versions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            versions.add("v1." + i);
+        }
+        return Collections.unmodifiableList(versions);
+    }
+}
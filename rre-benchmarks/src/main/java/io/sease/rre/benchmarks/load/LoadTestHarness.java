@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks.load;
+
+import io.sease.rre.core.Engine;
+import io.sease.rre.core.domain.metrics.MetricClassConfigurationManager;
+import io.sease.rre.core.domain.metrics.MetricClassManager;
+import io.sease.rre.core.evaluation.EvaluationManager;
+import io.sease.rre.core.evaluation.impl.AsynchronousEvaluationManager;
+import io.sease.rre.core.evaluation.impl.AsynchronousQueryEvaluationManager;
+import io.sease.rre.core.evaluation.impl.SynchronousEvaluationManager;
+import io.sease.rre.core.template.impl.CachingQueryTemplateManager;
+import io.sease.rre.core.version.VersionManager;
+import io.sease.rre.core.version.VersionManagerImpl;
+import io.sease.rre.persistence.PersistenceManager;
+import io.sease.rre.persistence.impl.JsonPersistenceHandler;
+import io.sease.rre.search.api.impl.SyntheticSearchPlatform;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link Engine#evaluate(Map)} end to end over a generated synthetic
+ * evaluation, once for each evaluation manager configuration, and reports
+ * the throughput, heap peak and GC time of each run.
+ * <p>
+ * The harness is configured with key=value arguments:
+ * <ul>
+ * <li>topics, groupsPerTopic, queriesPerGroup, judgmentsPerQuery, documentCount, versions - the shape of the evaluation;</li>
+ * <li>latencyDistribution, meanLatencyMillis, latencySigma, failureRate - the behaviour of the synthetic platform;</li>
+ * <li>threadpoolSize - the thread pool size of the asynchronous managers (default 8);</li>
+ * <li>managers - a comma separated subset of sync, async and asyncQueries (default all);</li>
+ * <li>output - the folder to generate the evaluation in, and keep once the harness completes.</li>
+ * </ul>
+ * The results are written by the JSON persistence handler, next to the
+ * generated evaluation. Without an output folder, the evaluation is generated
+ * in a temporary folder which is deleted when the harness completes. The engine polls for completion once a second, so
+ * small evaluations overstate the elapsed time: size the evaluation to run
+ * for a while.
+ *
+ * @since 1.2
+ */
+public class LoadTestHarness {
+
+    private static final List<String> METRICS = Arrays.asList(
+            "io.sease.rre.core.domain.metrics.impl.Precision",
+            "io.sease.rre.core.domain.metrics.impl.Recall",
+            "io.sease.rre.core.domain.metrics.impl.PrecisionAtTen",
+            "io.sease.rre.core.domain.metrics.impl.AveragePrecision",
+            "io.sease.rre.core.domain.metrics.impl.ReciprocalRank",
+            "io.sease.rre.core.domain.metrics.impl.NDCGAtTen",
+            "io.sease.rre.core.domain.metrics.impl.F1");
+
+    private final Map<String, String> arguments;
+    private final SyntheticEvaluationGenerator generator;
+    private final int threadpoolSize;
+
+    LoadTestHarness(final Map<String, String> arguments) {
+        this.arguments = arguments;
+        this.generator = new SyntheticEvaluationGenerator()
+                .setTopics(intArgument("topics", 10))
+                .setGroupsPerTopic(intArgument("groupsPerTopic", 10))
+                .setQueriesPerGroup(intArgument("queriesPerGroup", 10))
+                .setJudgmentsPerQuery(intArgument("judgmentsPerQuery", 10))
+                .setDocumentCount(intArgument("documentCount", 1000))
+                .setVersions(intArgument("versions", 4));
+        this.threadpoolSize = intArgument("threadpoolSize", 8);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final Map<String, String> arguments = new HashMap<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Arguments must be key=value pairs: " + arg);
+            }
+            arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        Configurator.setLevel("io.sease", Level.WARN);
+        final LoadTestHarness harness = new LoadTestHarness(arguments);
+        final String output = arguments.get("output");
+        final File root = output == null ? Files.createTempDirectory("rre-load").toFile() : new File(output);
+        if (!root.isDirectory() && !root.mkdirs()) {
+            throw new IOException("Unable to create the output folder " + root.getAbsolutePath());
+        }
+        harness.generator.generate(root);
+
+        System.out.printf(Locale.ROOT, "%-14s %8s %11s %8s %10s %12s %12s %10s %8s%n",
+                "Manager", "Queries", "Executions", "Failed", "Seconds", "Queries/sec", "Heap peak MB", "GC ms", "GC count");
+        for (final String manager : arguments.getOrDefault("managers", "sync,async,asyncQueries").split(",")) {
+            final Result result = harness.run(root, manager.trim());
+            System.out.printf(Locale.ROOT, "%-14s %8d %11d %8d %10.2f %12.1f %12.1f %10d %8d%n",
+                    manager, result.queries, result.executions, result.failed, result.seconds,
+                    result.executions / result.seconds, result.heapPeakBytes / 1048576.0, result.gcMillis, result.gcCount);
+        }
+
+        if (output == null) {
+            delete(root.toPath());
+        } else {
+            System.out.println("Evaluation and results written to " + root.getAbsolutePath());
+        }
+
+        // The asynchronous evaluation managers do not stop their thread pools
+        System.exit(0);
+    }
+
+    private static void delete(final Path folder) throws IOException {
+        try (final Stream<Path> paths = Files.walk(folder)) {
+            for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the generated project with the given evaluation manager.
+     *
+     * @param root    the generated project folder.
+     * @param manager the evaluation manager - sync, async or asyncQueries.
+     * @return the throughput and resource usage of the evaluation.
+     * @throws IOException if the query templates cannot be loaded.
+     */
+    Result run(final File root, final String manager) throws IOException {
+        final SyntheticSearchPlatform platform = new SyntheticSearchPlatform();
+        final Map<String, Object> platformConfiguration = new HashMap<>(generator.platformConfiguration());
+        for (final String key : new String[]{"latencyDistribution", "meanLatencyMillis", "latencySigma", "failureRate"}) {
+            if (arguments.containsKey(key)) {
+                platformConfiguration.put(key, arguments.get(key));
+            }
+        }
+
+        final VersionManager versionManager = new VersionManagerImpl(
+                new File(root, SyntheticEvaluationGenerator.CONFIGURATION_SETS_FOLDER), Collections.emptyList(), Collections.emptyList(), false);
+        final CachingQueryTemplateManager templateManager =
+                new CachingQueryTemplateManager(new File(root, SyntheticEvaluationGenerator.TEMPLATES_FOLDER).getAbsolutePath());
+        templateManager.preload(versionManager.getConfigurationVersions());
+        final PersistenceManager persistenceManager = new PersistenceManager();
+        final JsonPersistenceHandler jsonHandler = new JsonPersistenceHandler();
+        jsonHandler.configure("json", Collections.singletonMap("destinationFile", new File(root, "evaluation-" + manager + ".json").getAbsolutePath()));
+        persistenceManager.registerHandler(jsonHandler);
+        final String[] fields = {SyntheticEvaluationGenerator.ID_FIELD};
+
+        final EvaluationManager evaluationManager;
+        switch (manager) {
+            case "sync":
+                evaluationManager = new SynchronousEvaluationManager(platform, templateManager, persistenceManager, fields,
+                        versionManager.getConfigurationVersions(), null);
+                break;
+            case "async":
+                evaluationManager = new AsynchronousEvaluationManager(platform, templateManager, persistenceManager, fields,
+                        versionManager.getConfigurationVersions(), null, threadpoolSize);
+                break;
+            case "asyncQueries":
+                evaluationManager = new AsynchronousQueryEvaluationManager(platform, templateManager, persistenceManager, fields,
+                        versionManager.getConfigurationVersions(), null, threadpoolSize);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown evaluation manager " + manager);
+        }
+
+        final MetricClassManager metricClassManager = MetricClassConfigurationManager.getInstance().buildMetricClassManager(METRICS, null);
+        final Engine engine = new Engine(
+                platform,
+                new File(root, SyntheticEvaluationGenerator.CORPORA_FOLDER),
+                new File(root, SyntheticEvaluationGenerator.RATINGS_FOLDER),
+                null,
+                metricClassManager,
+                persistenceManager,
+                versionManager,
+                evaluationManager);
+
+        System.gc();
+        final List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final long gcMillisBefore = gcMillis();
+        final long gcCountBefore = gcCount();
+        final long start = System.nanoTime();
+
+        engine.evaluate(platformConfiguration);
+
+        final Result result = new Result();
+        result.seconds = (System.nanoTime() - start) / 1e9;
+        result.queries = evaluationManager.getTotalQueries();
+        result.executions = evaluationManager.getTotalQueryExecutions();
+        result.failed = evaluationManager.getFailedQueries();
+        result.heapPeakBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        result.gcMillis = gcMillis() - gcMillisBefore;
+        result.gcCount = gcCount() - gcCountBefore;
+
+        templateManager.close();
+        platform.close();
+        return result;
+    }
+
+    private int intArgument(final String key, final int defaultValue) {
+        return Integer.parseInt(arguments.getOrDefault(key, String.valueOf(defaultValue)));
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    /**
+     * The outcome of a single evaluation run.
+     */
+    static class Result {
+        int queries;
+        int executions;
+        int failed;
+        double seconds;
+        long heapPeakBytes;
+        long gcMillis;
+        long gcCount;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.benchmarks.load;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.sease.rre.search.api.impl.SyntheticSearchPlatform;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a synthetic evaluation - ratings, query template, configuration
+ * sets and corpus - of any size, laid out as an RRE project expects.
+ * <p>
+ * The judgments of each query are derived from its noise-free ranking on
+ * the {@link SyntheticSearchPlatform}, and each configuration version adds
+ * more noise to that ranking, so the metric values decrease from the first
+ * to the last version. Files are streamed, so that large evaluations can be
+ * generated with a small heap.
+ *
+ * @since 1.2
+ */
+public class SyntheticEvaluationGenerator {
+
+    public static final String RATINGS_FOLDER = "ratings";
+    public static final String TEMPLATES_FOLDER = "templates";
+    public static final String CONFIGURATION_SETS_FOLDER = "configuration_sets";
+    public static final String CORPORA_FOLDER = "corpora";
+
+    static final String TEMPLATE_NAME = "synthetic_query.txt";
+    static final String CORPUS_NAME = "synthetic_corpus.json";
+    static final String ID_FIELD = "_id";
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private String indexName = "synthetic";
+    private int topics = 10;
+    private int groupsPerTopic = 10;
+    private int queriesPerGroup = 10;
+    private int judgmentsPerQuery = 10;
+    private int documentCount = 1000;
+    private int versions = 4;
+    private double noiseStep = 0.2;
+    private long seed = 0;
+
+    public SyntheticEvaluationGenerator setIndexName(final String indexName) {
+        this.indexName = indexName;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setTopics(final int topics) {
+        this.topics = topics;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setGroupsPerTopic(final int groupsPerTopic) {
+        this.groupsPerTopic = groupsPerTopic;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setQueriesPerGroup(final int queriesPerGroup) {
+        this.queriesPerGroup = queriesPerGroup;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setJudgmentsPerQuery(final int judgmentsPerQuery) {
+        this.judgmentsPerQuery = judgmentsPerQuery;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setDocumentCount(final int documentCount) {
+        this.documentCount = documentCount;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setVersions(final int versions) {
+        this.versions = versions;
+        return this;
+    }
+
+    /**
+     * @param noiseStep the noise added by each version to the ranking of the previous one.
+     * @return this generator.
+     */
+    public SyntheticEvaluationGenerator setNoiseStep(final double noiseStep) {
+        this.noiseStep = noiseStep;
+        return this;
+    }
+
+    public SyntheticEvaluationGenerator setSeed(final long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getQueryCount() {
+        return topics * groupsPerTopic * queriesPerGroup;
+    }
+
+    /**
+     * @return the settings the synthetic search platform must be started
+     * with, so that its rankings match the generated judgments.
+     */
+    public Map<String, Object> platformConfiguration() {
+        final Map<String, Object> configuration = new HashMap<>();
+        configuration.put("documentCount", documentCount);
+        configuration.put("idField", ID_FIELD);
+        configuration.put("seed", seed);
+        return configuration;
+    }
+
+    /**
+     * Writes the synthetic evaluation.
+     *
+     * @param root the project folder, holding the ratings, templates,
+     *             configuration sets and corpora folders.
+     * @throws IOException if the files cannot be written.
+     */
+    public void generate(final File root) throws IOException {
+        writeTemplate(new File(root, TEMPLATES_FOLDER));
+        writeConfigurationSets(new File(root, CONFIGURATION_SETS_FOLDER));
+        writeCorpus(new File(root, CORPORA_FOLDER));
+        writeRatings(new File(root, RATINGS_FOLDER));
+    }
+
+    private void writeTemplate(final File folder) throws IOException {
+        Files.createDirectories(folder.toPath());
+        Files.write(new File(folder, TEMPLATE_NAME).toPath(), "$query".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeConfigurationSets(final File folder) throws IOException {
+        final List<String> versionNames = versionNames();
+        for (int i = 0; i < versionNames.size(); i++) {
+            final File versionFolder = new File(folder, versionNames.get(i));
+            Files.createDirectories(versionFolder.toPath());
+            final double noise = Math.min(1, noiseStep * i);
+            try (final JsonGenerator generator = JSON.createGenerator(new File(versionFolder, "synthetic-settings.json"), JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeNumberField("noise", noise);
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    private void writeCorpus(final File folder) throws IOException {
+        Files.createDirectories(folder.toPath());
+        try (final JsonGenerator generator = JSON.createGenerator(new File(folder, CORPUS_NAME), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int i = 0; i < documentCount; i++) {
+                generator.writeStartObject();
+                generator.writeStringField(ID_FIELD, "doc" + i);
+                generator.writeStringField("title", "Synthetic document doc" + i);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeRatings(final File folder) throws IOException {
+        Files.createDirectories(folder.toPath());
+        final Random random = new Random(seed);
+        try (final JsonGenerator generator = JSON.createGenerator(new File(folder, "ratings.json"), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("index", indexName);
+            generator.writeStringField("corpora_file", CORPUS_NAME);
+            generator.writeStringField("id_field", ID_FIELD);
+            generator.writeArrayFieldStart("topics");
+            int queryNumber = 0;
+            for (int t = 0; t < topics; t++) {
+                generator.writeStartObject();
+                generator.writeStringField("description", "Topic " + t);
+                generator.writeArrayFieldStart("query_groups");
+                for (int g = 0; g < groupsPerTopic; g++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", "Topic " + t + " group " + g);
+                    generator.writeArrayFieldStart("queries");
+                    for (int q = 0; q < queriesPerGroup; q++) {
+                        final String query = "synthetic query " + (queryNumber++);
+                        generator.writeStartObject();
+                        generator.writeStringField("template", TEMPLATE_NAME);
+                        generator.writeObjectFieldStart("placeholders");
+                        generator.writeStringField("$query", query);
+                        generator.writeEndObject();
+                        writeJudgments(generator, query, random);
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Judges the top of the noise-free ranking of a query, the best
+     * documents being the most likely to get the highest grades.
+     */
+    private void writeJudgments(final JsonGenerator generator, final String query, final Random random) throws IOException {
+        final List<String> ranking = SyntheticSearchPlatform.ranking(seed, indexName, query, documentCount, judgmentsPerQuery);
+        generator.writeObjectFieldStart("relevant_documents");
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            final int grade = Math.max(1, 3 - (rank * 3 / ranking.size()) - (random.nextInt(4) == 0 ? 1 : 0));
+            generator.writeObjectFieldStart(ranking.get(rank));
+            generator.writeNumberField("gain", grade);
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    List<String> versionNames() {
+        final List<String> names = new ArrayList<>(versions);
+        for (int i = 0; i < versions; i++) {
+            names.add("v1." + i);
+        }
+        return names;
+    }
+}
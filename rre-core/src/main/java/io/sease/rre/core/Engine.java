@@ -23,6 +23,7 @@ import io.sease.rre.Field;
 import io.sease.rre.Func;
 import io.sease.rre.core.domain.Corpus;
 import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.core.domain.HitRetentionPolicy;
 import io.sease.rre.core.domain.Query;
 import io.sease.rre.core.domain.QueryGroup;
 import io.sease.rre.core.domain.Topic;
@@ -31,6 +32,12 @@ import io.sease.rre.core.domain.metrics.MetricClassManager;
 import io.sease.rre.core.evaluation.EvaluationConfiguration;
 import io.sease.rre.core.evaluation.EvaluationManager;
 import io.sease.rre.core.evaluation.EvaluationManagerFactory;
+import io.sease.rre.core.evaluation.ResiliencePolicy;
+import io.sease.rre.core.evaluation.impl.DeduplicatingSearchPlatform;
+import io.sease.rre.core.evaluation.impl.ResilientSearchPlatform;
+import io.sease.rre.core.monitoring.FlightRecorderEvents;
+import io.sease.rre.core.monitoring.FlightRecorderEvents.Span;
+import io.sease.rre.core.monitoring.Monitoring;
 import io.sease.rre.core.template.impl.CachingQueryTemplateManager;
 import io.sease.rre.core.version.VersionManager;
 import io.sease.rre.core.version.VersionManagerImpl;
@@ -39,6 +46,7 @@ import io.sease.rre.persistence.PersistenceHandler;
 import io.sease.rre.persistence.PersistenceManager;
 import io.sease.rre.search.api.SearchPlatform;
 import io.sease.rre.search.api.SearchPlatformException;
+import io.sease.rre.search.api.replay.RecordingSearchPlatform;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -102,6 +110,11 @@ public class Engine {
 
     private final VersionManager versionManager;
     private final EvaluationManager evaluationManager;
+    private final CachingQueryTemplateManager templateManager;
+    private final boolean watchTemplates;
+    private final HitRetentionPolicy hitRetentionPolicy;
+    private final boolean jmxEnabled;
+    private final int prometheusPort;
 
     private Integer minimumRequiredResults = null;
 
@@ -136,19 +149,25 @@ public class Engine {
             final EvaluationConfiguration evaluationConfiguration) {
         this.corporaFolder = corporaFolderPath == null ? null : new File(corporaFolderPath);
         this.ratingsFolder = new File(ratingsFolderPath);
-        this.platform = platform;
+        this.platform = decoratePlatform(platform, evaluationConfiguration);
 
         this.metricClassManager = metricClassManager;
+        this.hitRetentionPolicy = evaluationConfiguration.getHitRetentionPolicy();
+        this.jmxEnabled = evaluationConfiguration.isJmxEnabled();
+        this.prometheusPort = evaluationConfiguration.getPrometheusPort();
+        FlightRecorderEvents.setEnabled(evaluationConfiguration.isFlightRecorderEvents());
 
         this.persistenceManager = new PersistenceManager();
         initialisePersistenceManager(persistenceConfiguration);
 
         this.versionManager = new VersionManagerImpl(new File(configurationsFolderPath), include, exclude, persistenceConfiguration.isUseTimestampAsVersion());
+        this.templateManager = initialiseTemplateManager(templatesFolderPath, evaluationConfiguration);
+        this.watchTemplates = evaluationConfiguration.isWatchTemplates();
         this.evaluationManager = EvaluationManagerFactory.instantiateEvaluationManager(
                 evaluationConfiguration,
-                platform,
+                this.platform,
                 persistenceManager,
-                new CachingQueryTemplateManager(templatesFolderPath),
+                templateManager,
                 safe(fields),
                 versionManager.getConfigurationVersions(),
                 versionManager.getVersionTimestamp());
@@ -185,9 +204,58 @@ public class Engine {
         this.persistenceManager = persistenceManager;
         this.versionManager = versionManager;
         this.evaluationManager = evaluationManager;
+        this.templateManager = null;
+        this.watchTemplates = false;
+        this.hitRetentionPolicy = HitRetentionPolicy.RETAIN_ALL;
+        this.jmxEnabled = false;
+        this.prometheusPort = 0;
         initialiseFileUpdateChecker(checksumFile);
     }
 
+    /**
+     * Wrap the search platform with the decorators required by the
+     * evaluation configuration. Duplicate requests are removed before
+     * recording, so that every query execution is still recorded.
+     *
+     * @param platform                the search platform.
+     * @param evaluationConfiguration the evaluation configuration.
+     * @return the platform to use for the evaluation.
+     */
+    private static SearchPlatform decoratePlatform(final SearchPlatform platform, final EvaluationConfiguration evaluationConfiguration) {
+        // Retries and hedged requests must reach the platform, so they are applied beneath deduplication
+        final ResiliencePolicy resiliencePolicy = evaluationConfiguration.getResiliencePolicy();
+        final SearchPlatform resilient = resiliencePolicy.isEnabled()
+                ? new ResilientSearchPlatform(platform, resiliencePolicy, evaluationConfiguration.getThreadpoolSize())
+                : platform;
+        final SearchPlatform deduplicated = evaluationConfiguration.isDeduplicateQueries()
+                ? new DeduplicatingSearchPlatform(resilient)
+                : resilient;
+        return ofNullable(evaluationConfiguration.getRecordingFile())
+                .<SearchPlatform>map(recordingFile -> new RecordingSearchPlatform(deduplicated, new File(recordingFile)))
+                .orElse(deduplicated);
+    }
+
+    private CachingQueryTemplateManager initialiseTemplateManager(final String templatesFolderPath, final EvaluationConfiguration evaluationConfiguration) {
+        final CachingQueryTemplateManager templateManager =
+                new CachingQueryTemplateManager(templatesFolderPath, evaluationConfiguration.isEscapeJsonPlaceholders());
+        try {
+            templateManager.preload(versionManager.getConfigurationVersions());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to load the query templates from " + templatesFolderPath, e);
+        }
+        return templateManager;
+    }
+
+    private void closeTemplateManager() {
+        if (templateManager != null) {
+            try {
+                templateManager.close();
+            } catch (IOException e) {
+                LOGGER.warn("RRE: Unable to stop watching the query templates :: " + e.getMessage());
+            }
+        }
+    }
+
     private void initialiseFileUpdateChecker(String checksumFile) {
         if (checksumFile != null) {
             try {
@@ -228,9 +296,18 @@ public class Engine {
      * @return the evaluation result.
      */
     public Evaluation evaluate(final Map<String, Object> configuration) {
+        final Monitoring monitoring = Monitoring.start(jmxEnabled, prometheusPort);
         try {
             LOGGER.info("RRE: New evaluation session is starting...");
 
+            if (watchTemplates && templateManager != null) {
+                try {
+                    templateManager.startWatching();
+                } catch (IOException e) {
+                    LOGGER.warn("RRE: Unable to watch the query templates for changes :: " + e.getMessage());
+                }
+            }
+
             platform.beforeStart(configuration);
             persistenceManager.beforeStart();
 
@@ -274,6 +351,8 @@ public class Engine {
             LOGGER.info("RRE: " + platform.getName() + " Search Platform shutdown procedure executed.");
             LOGGER.info("RRE: Stopping persistence manager");
             persistenceManager.stop();
+            closeTemplateManager();
+            monitoring.close();
         }
     }
 
@@ -336,6 +415,7 @@ public class Engine {
                                                 final Query queryEvaluation = group.findOrCreate(queryString, Query::new);
                                                 queryEvaluation.setIdFieldName(idFieldName);
                                                 queryEvaluation.setRelevantDocuments(relevantDocuments);
+                                                queryEvaluation.setHitRetentionPolicy(hitRetentionPolicy);
 
                                                 List<Metric> metrics = availableMetrics(idFieldName, relevantDocuments,
                                                         new ArrayList<>(versionManager.getConfigurationVersions()));
@@ -516,8 +596,9 @@ public class Engine {
             LOGGER.info("Preparing platform for " + collection);
         }
 
+        final boolean corporaChanged = folderHasChanged(corporaFolder);
         Collection<File> configFiles = versionManager.getConfigurationVersionFolders().stream()
-                .filter(this::isConfigurationReloadNecessary)
+                .filter(versionFolder -> isConfigurationReloadNecessary(versionFolder, corporaChanged))
                 .flatMap(versionFolder -> stream(safe(versionFolder.listFiles(ONLY_NON_HIDDEN_FILES))))
                 .filter(file -> platform.isSearchPlatformConfiguration(collection, file))
                 .sorted()
@@ -525,7 +606,9 @@ public class Engine {
         for (File searchPlatformConfiguration : configFiles) {
             LOGGER.info("RRE: Loading the Search Engine " + platform.getName() + ", configuration version " + searchPlatformConfiguration.getParentFile().getName());
             String version = searchPlatformConfiguration.getParentFile().getName();
-            platform.load(dataToBeIndexed, searchPlatformConfiguration, collection, version);
+            try (final Span ignored = FlightRecorderEvents.platformLoad(platform.getName(), collection, version)) {
+                platform.load(dataToBeIndexed, searchPlatformConfiguration, collection, version);
+            }
             if (!platform.checkCollection(collection, version)) {
                 throw new SearchPlatformException("Collection check failed for " + collection + " version " + version);
             }
@@ -538,12 +621,15 @@ public class Engine {
         LOGGER.info("RRE: target versions are " + String.join(",", versionManager.getConfigurationVersions()));
     }
 
-    private boolean isConfigurationReloadNecessary(File versionFolder) {
-        boolean corporaChanged = folderHasChanged(corporaFolder);
+    private boolean isConfigurationReloadNecessary(File versionFolder, boolean corporaChanged) {
         return folderHasChanged(versionFolder) || corporaChanged || platform.isRefreshRequired();
     }
 
     private boolean folderHasChanged(File folder) {
+        if (folder == null) {
+            return false;
+        }
+
         boolean ret = true;
 
         if (fileUpdateChecker != null) {
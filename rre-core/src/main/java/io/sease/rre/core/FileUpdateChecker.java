@@ -23,22 +23,34 @@ import org.apache.logging.log4j.Logger;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
-import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Vector;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
 
 /**
  * Manager class to track updates to configuration files.
+ * <p>
+ * Alongside the directory checksums, a manifest holding the size, last
+ * modified time and content hash of each file is kept, so that only the
+ * files whose metadata has changed since the last run need to be read
+ * again. Directory results are memoized for the lifetime of the checker,
+ * meaning the same folder can be checked several times in a run (e.g. the
+ * corpora folder, once per configuration version) at no extra cost.
  *
  * @author Matt Pearce (matt@flax.co.uk)
  */
@@ -46,13 +58,21 @@ public class FileUpdateChecker {
 
     private final static Logger LOGGER = LogManager.getLogger(FileUpdateChecker.class);
 
+    static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final int BUFFER_SIZE = 8192;
+
     private final File checksumFile;
+    private final File manifestFile;
     private final Map<String, String> checksums;
+    private final Map<String, FileEntry> manifest;
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
 
     /**
      * Initialise the class with a checksum file. The checksums are read
      * immediately - if the file does not exist, it will be created, otherwise
-     * the checksums will be read from the file.
+     * the checksums will be read from the file. The file manifest is read
+     * from a sibling file with the same name and a ".manifest" suffix.
      *
      * @param checksumFilepath the path to the checksum file in use. Set in
      *                         config in the pom.xml.
@@ -60,11 +80,15 @@ public class FileUpdateChecker {
      */
     public FileUpdateChecker(String checksumFilepath) throws IOException {
         this.checksumFile = new File(checksumFilepath);
+        this.manifestFile = new File(checksumFilepath + MANIFEST_SUFFIX);
         checksums = readChecksums();
+        manifest = readManifest();
     }
 
     /**
      * Check whether a directory has changed since its checksum was written.
+     * The outcome is memoized, so subsequent calls for the same directory
+     * return the same result without scanning the directory again.
      *
      * @param directoryPath the path to the directory.
      * @return {@code true} if the directory's checksum does not match the
@@ -72,16 +96,28 @@ public class FileUpdateChecker {
      * @throws IOException if the directory cannot be read.
      */
     public boolean directoryHasChanged(String directoryPath) throws IOException {
-        boolean ret = true;
-
-        String dirHash = hashDirectory(directoryPath, true);
-        if (checksums.containsKey(directoryPath)) {
-            ret = !checksums.get(directoryPath).equals(dirHash);
+        final Boolean memoized = results.get(directoryPath);
+        if (memoized != null) {
+            return memoized;
         }
 
-        checksums.put(directoryPath, dirHash);
+        synchronized (this) {
+            if (results.containsKey(directoryPath)) {
+                return results.get(directoryPath);
+            }
+
+            boolean ret = true;
+
+            String dirHash = hashDirectory(new File(directoryPath), true, manifest);
+            if (checksums.containsKey(directoryPath)) {
+                ret = !checksums.get(directoryPath).equals(dirHash);
+            }
 
-        return ret;
+            checksums.put(directoryPath, dirHash);
+            results.put(directoryPath, ret);
+
+            return ret;
+        }
     }
 
     private Map<String, String> readChecksums() throws IOException {
@@ -108,8 +144,35 @@ public class FileUpdateChecker {
         return sums;
     }
 
+    private Map<String, FileEntry> readManifest() throws IOException {
+        Map<String, FileEntry> entries = new ConcurrentHashMap<>();
+
+        if (manifestFile.exists()) {
+            try (BufferedReader br = new BufferedReader(new FileReader(manifestFile))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        String[] parts = line.split("\t");
+                        if (parts.length != 4) {
+                            LOGGER.warn("Could not read manifest line [" + line + "]");
+                        } else {
+                            try {
+                                entries.put(parts[0], new FileEntry(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+                            } catch (NumberFormatException e) {
+                                LOGGER.warn("Could not read manifest line [" + line + "]");
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return entries;
+    }
+
     /**
-     * Write the current checksums to the checksum file.
+     * Write the current checksums to the checksum file, and the file
+     * details to the manifest file.
      *
      * @throws IOException if the file cannot be written.
      */
@@ -121,6 +184,11 @@ public class FileUpdateChecker {
                 checksums.forEach((dir, sum) -> pw.println(dir + "," + sum));
                 pw.flush();
             }
+
+            try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(manifestFile)))) {
+                manifest.forEach((path, entry) -> pw.println(path + "\t" + entry.size + "\t" + entry.lastModified + "\t" + entry.hash));
+                pw.flush();
+            }
         }
     }
 
@@ -128,8 +196,6 @@ public class FileUpdateChecker {
      * Create a hash for the given directory, including all files and
      * directories contained inside, optionally including or excluding
      * hidden files.
-     * <p>
-     * Code taken from this Stackoverflow answer: https://stackoverflow.com/a/46899517
      *
      * @param directoryPath      the path to the directory to be hashed.
      * @param includeHiddenFiles should hidden files be included?
@@ -139,22 +205,87 @@ public class FileUpdateChecker {
      *                     read.
      */
     static String hashDirectory(String directoryPath, boolean includeHiddenFiles) throws IOException {
-        File directory = new File(directoryPath);
+        return hashDirectory(new File(directoryPath), includeHiddenFiles, new ConcurrentHashMap<>());
+    }
 
+    /**
+     * Create a hash for the given directory, using the given manifest to
+     * avoid reading files whose size and last modified time have not changed.
+     * Files which do need to be read are hashed in parallel, one at a time
+     * per thread, and the manifest is updated with their new details.
+     * <p>
+     * The directory hash is built from the relative path and content hash
+     * of each file, so renaming or moving a file is also detected. Manifest
+     * entries for files under the directory which no longer exist are
+     * removed.
+     *
+     * @param directory          the directory to be hashed.
+     * @param includeHiddenFiles should hidden files be included?
+     * @param manifest           the file details from the previous run.
+     * @return a string containing the hash of the directory.
+     * @throws IOException if the directory or any of its files cannot be
+     *                     read.
+     */
+    private static String hashDirectory(File directory, boolean includeHiddenFiles, Map<String, FileEntry> manifest) throws IOException {
         if (!directory.isDirectory()) {
             throw new IllegalArgumentException("Not a directory");
         }
 
-        Vector<FileInputStream> fileStreams = new Vector<>();
-        collectFiles(directory, fileStreams, includeHiddenFiles);
+        final List<File> files = new ArrayList<>();
+        collectFiles(directory, files, includeHiddenFiles);
+
+        final String[] hashes = new String[files.size()];
+        try {
+            IntStream.range(0, hashes.length).parallel().forEach(i -> hashes[i] = hashFile(files.get(i), manifest));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        final String rootPath = directory.getAbsolutePath();
+        final String rootPrefix = rootPath + File.separator;
+        final Set<String> seen = new HashSet<>();
+        files.forEach(file -> seen.add(file.getAbsolutePath()));
+        manifest.keySet().removeIf(path -> path.startsWith(rootPrefix) && !seen.contains(path));
+
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < hashes.length; i++) {
+            builder.append(files.get(i).getAbsolutePath().substring(rootPath.length()))
+                    .append(':')
+                    .append(hashes[i])
+                    .append('\n');
+        }
+
+        return DigestUtils.md5Hex(builder.toString());
+    }
+
+    private static String hashFile(File file, Map<String, FileEntry> manifest) {
+        final String path = file.getAbsolutePath();
+        final long size = file.length();
+        final long lastModified = file.lastModified();
 
-        try (SequenceInputStream sequenceInputStream = new SequenceInputStream(fileStreams.elements())) {
-            return DigestUtils.md5Hex(sequenceInputStream);
+        final FileEntry existing = manifest.get(path);
+        if (existing != null && existing.size == size && existing.lastModified == lastModified) {
+            return existing.hash;
         }
+
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final String hash = Long.toHexString(size) + "-" + Long.toHexString(crc.getValue());
+        manifest.put(path, new FileEntry(size, lastModified, hash));
+        return hash;
     }
 
     private static void collectFiles(File directory,
-                                     List<FileInputStream> fileInputStreams,
+                                     List<File> collected,
                                      boolean includeHiddenFiles) throws IOException {
         File[] files = directory.listFiles();
 
@@ -164,12 +295,27 @@ public class FileUpdateChecker {
             for (File file : files) {
                 if (includeHiddenFiles || !Files.isHidden(file.toPath())) {
                     if (file.isDirectory()) {
-                        collectFiles(file, fileInputStreams, includeHiddenFiles);
+                        collectFiles(file, collected, includeHiddenFiles);
                     } else {
-                        fileInputStreams.add(new FileInputStream(file));
+                        collected.add(file);
                     }
                 }
             }
         }
     }
+
+    /**
+     * The details recorded for a single file in the manifest.
+     */
+    private static class FileEntry {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private FileEntry(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
 }
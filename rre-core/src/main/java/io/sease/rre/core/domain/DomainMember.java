@@ -17,12 +17,14 @@
 package io.sease.rre.core.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.sease.rre.core.domain.metrics.Metric;
 import io.sease.rre.core.domain.metrics.impl.AveragedMetric;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -42,6 +44,10 @@ import static java.util.Optional.ofNullable;
 public abstract class DomainMember<C extends DomainMember> {
     @JsonProperty("metrics")
     protected final Map<String, Metric> metrics = new LinkedHashMap<>();
+    @JsonProperty("latency")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    protected final Map<String, Latency> latency = Collections.synchronizedMap(new LinkedHashMap<>());
+    private boolean latencyNotified;
     private final Map<String, C> childrenLookupCache = new HashMap<>();
     private final List<C> children = new ArrayList<>();
 
@@ -139,6 +145,26 @@ public abstract class DomainMember<C extends DomainMember> {
         return (AveragedMetric) metrics.computeIfAbsent(name, k -> new AveragedMetric(name));
     }
 
+    /**
+     * Returns the {@link Latency} instance associated with the given version.
+     *
+     * @param version the version.
+     * @return the latencies recorded for the given version.
+     */
+    protected Latency latency(final String version) {
+        return latency.computeIfAbsent(version, v -> new Latency());
+    }
+
+    /**
+     * Merges the latencies of a child entity into this entity and its parents.
+     *
+     * @param childLatency the child latencies, by version.
+     */
+    private void collectLatency(final Map<String, Latency> childLatency) {
+        childLatency.forEach((version, value) -> latency(version).merge(value));
+        ofNullable(parent).ifPresent(p -> p.collectLatency(childLatency));
+    }
+
     public void notifyCollectedMetrics() {
         // Make sure all of the versions are set at all levels for each metric
         metrics.values()
@@ -151,12 +177,26 @@ public abstract class DomainMember<C extends DomainMember> {
                                         entry.getKey(),
                                         entry.getValue().value(),
                                         entry.getValue().owner().getName())));
+
+        // Unlike the metric averages, merged latencies would be counted twice if notified again
+        if (!latencyNotified) {
+            latencyNotified = true;
+            final Map<String, Latency> collected;
+            synchronized (latency) {
+                collected = new LinkedHashMap<>(latency);
+            }
+            ofNullable(parent).ifPresent(p -> p.collectLatency(collected));
+        }
     }
 
     public Map<String, Metric> getMetrics() {
         return metrics;
     }
 
+    public Map<String, Latency> getLatency() {
+        return latency;
+    }
+
     @JsonIgnore
     public Optional<DomainMember> getParent() {
         return ofNullable(parent);
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionaries shared between the {@link MutableQueryOrSearchResponse}
+ * instances of a query: field names and document identifiers are stored
+ * once, and referenced by their index in the response columns.
+ *
+ * @since 1.2
+ */
+final class HitDictionary {
+    private final Map<String, Integer> fieldIndexes = new HashMap<>();
+    private final List<String> fields = new ArrayList<>();
+    private final Map<String, Integer> idIndexes = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+
+    synchronized int field(final String name) {
+        return fieldIndexes.computeIfAbsent(name, n -> {
+            fields.add(n);
+            return fields.size() - 1;
+        });
+    }
+
+    synchronized String fieldName(final int index) {
+        return fields.get(index);
+    }
+
+    synchronized int id(final String id) {
+        return idIndexes.computeIfAbsent(id, i -> {
+            ids.add(i);
+            return ids.size() - 1;
+        });
+    }
+
+    synchronized String idValue(final int index) {
+        return ids.get(index);
+    }
+}
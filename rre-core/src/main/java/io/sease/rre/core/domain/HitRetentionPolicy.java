@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.domain;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Defines which parts of the search hits are kept in the query results,
+ * once they have been passed to the metrics. Hits may be projected down to
+ * the id, score and a whitelist of fields, and only the top N hits kept for
+ * each version. Note that the metrics always see the full hits window.
+ * <p>
+ * The policy holds no per-hit state: the query results read the retained
+ * fields straight from the hits returned by the search platform.
+ *
+ * @since 1.2
+ */
+public class HitRetentionPolicy {
+
+    /**
+     * Policy retaining every field of every hit.
+     */
+    public static final HitRetentionPolicy RETAIN_ALL = new HitRetentionPolicy(null, 0);
+
+    static final String SCORE_FIELD = "score";
+
+    private final Set<String> fields;
+    private final int maxHits;
+
+    /**
+     * @param fields  the fields to retain, in addition to the id and score
+     *                fields. If {@code null}, all fields are retained.
+     * @param maxHits the maximum number of hits to retain for each version.
+     *                Values less than 1 retain all hits.
+     */
+    public HitRetentionPolicy(final Collection<String> fields, final int maxHits) {
+        this.fields = fields == null ? null : unmodifiableSet(new LinkedHashSet<>(fields));
+        this.maxHits = maxHits;
+    }
+
+    /**
+     * @param rank the rank of the hit, starting at 1.
+     * @return {@code true} if a hit at the given rank should be retained.
+     */
+    public boolean isRetained(final int rank) {
+        return maxHits <= 0 || rank <= maxHits;
+    }
+
+    /**
+     * Returns the fields that should be requested from the search platform.
+     * When a whitelist is configured, there is no need to retrieve anything
+     * other than the whitelisted, id and score fields.
+     *
+     * @param requested   the configured fields.
+     * @param idFieldName the id field for the query.
+     * @return the fields to request.
+     */
+    public String[] retrievalFields(final String[] requested, final String idFieldName) {
+        if (fields == null) {
+            return requested;
+        }
+
+        final Set<String> retrieved = new LinkedHashSet<>();
+        retrieved.add(idFieldName);
+        retrieved.add(SCORE_FIELD);
+        retrieved.addAll(fields);
+        return retrieved.toArray(new String[0]);
+    }
+
+    /**
+     * @param field       the name of a hit field.
+     * @param idFieldName the id field for the query.
+     * @return {@code true} if the field should be kept in the query results.
+     */
+    public boolean isRetainedField(final String field, final String idFieldName) {
+        return fields == null || fields.contains(field) || field.equals(idFieldName) || field.equals(SCORE_FIELD);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.HdrHistogram.Histogram;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The latencies of a single version of one or more queries.
+ * <p>
+ * Latencies are recorded into histograms, rather than averaged, so that
+ * the latencies of the queries in a group, topic or corpus can be merged
+ * and their percentiles computed exactly, within the histogram precision.
+ * Both the latency observed by RRE and, when the search platform reports
+ * it, the time taken by the server are kept.
+ *
+ * @since 1.2
+ */
+@JsonPropertyOrder({"count", "mean", "p50", "p95", "p99", "max", "took"})
+public class Latency {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final BigDecimal MICROS_PER_MILLI = BigDecimal.valueOf(1000);
+
+    private final Histogram client = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram server = new Histogram(SIGNIFICANT_DIGITS);
+
+    /**
+     * Records the latency of a single request.
+     *
+     * @param latencyMicros the latency observed by the client, in microseconds.
+     * @param tookMillis    the time taken by the server, in milliseconds, or a
+     *                      negative value if it is not known.
+     */
+    public synchronized void record(final long latencyMicros, final long tookMillis) {
+        if (latencyMicros >= 0) {
+            client.recordValue(latencyMicros);
+        }
+        if (tookMillis >= 0) {
+            server.recordValue(tookMillis);
+        }
+    }
+
+    /**
+     * Adds the latencies recorded by another instance to this one.
+     *
+     * @param other the latencies to merge into this instance.
+     */
+    public void merge(final Latency other) {
+        final Histogram otherClient;
+        final Histogram otherServer;
+        synchronized (other) {
+            otherClient = other.client.copy();
+            otherServer = other.server.copy();
+        }
+
+        synchronized (this) {
+            client.add(otherClient);
+            server.add(otherServer);
+        }
+    }
+
+    /**
+     * @return the number of requests recorded.
+     */
+    @JsonProperty("count")
+    public synchronized long getCount() {
+        return client.getTotalCount();
+    }
+
+    /**
+     * @return the mean client latency, in milliseconds.
+     */
+    @JsonProperty("mean")
+    public synchronized BigDecimal getMean() {
+        return millis(client.getTotalCount() == 0 ? 0 : client.getMean());
+    }
+
+    @JsonProperty("p50")
+    public BigDecimal getP50() {
+        return getPercentile(50);
+    }
+
+    @JsonProperty("p95")
+    public BigDecimal getP95() {
+        return getPercentile(95);
+    }
+
+    @JsonProperty("p99")
+    public BigDecimal getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * @return the maximum client latency, in milliseconds.
+     */
+    @JsonProperty("max")
+    public synchronized BigDecimal getMax() {
+        return millis(client.getMaxValue());
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return the given percentile of the client latency, in milliseconds.
+     */
+    public synchronized BigDecimal getPercentile(final double percentile) {
+        return millis(client.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * @return the summary of the time taken by the server, in milliseconds,
+     * or {@code null} if the search platform does not report it.
+     */
+    @JsonProperty("took")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public synchronized Map<String, Object> getTook() {
+        if (server.getTotalCount() == 0) {
+            return null;
+        }
+
+        final Map<String, Object> took = new LinkedHashMap<>();
+        took.put("count", server.getTotalCount());
+        took.put("mean", scaled(BigDecimal.valueOf(server.getMean())));
+        took.put("p50", server.getValueAtPercentile(50));
+        took.put("p95", server.getValueAtPercentile(95));
+        took.put("p99", server.getValueAtPercentile(99));
+        took.put("max", server.getMaxValue());
+        return took;
+    }
+
+    private static BigDecimal millis(final double micros) {
+        return scaled(BigDecimal.valueOf(micros).divide(MICROS_PER_MILLI, 3, RoundingMode.HALF_UP));
+    }
+
+    private static BigDecimal scaled(final BigDecimal value) {
+        return value.setScale(3, RoundingMode.HALF_UP);
+    }
+}
@@ -19,20 +19,66 @@ package io.sease.rre.core.domain;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.sease.rre.core.domain.metrics.HitsCollector;
 
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * A search response whcih gradually collects a set of search hits.
  * The prefix "Mutable" is because the RRE core classes contain a similar class which is supposed to be Immutable.
+ * <p>
+ * Hits are stored in columns rather than as individual maps: document
+ * identifiers as indexes into a dictionary shared with the other versions
+ * of the query, scores as floats and judgment gains as bytes. Any other
+ * fields are stored in one column per field name. The hits are read as map
+ * views over the columns, so the serialized form is unchanged.
  *
  * @author agazzarini
  * @since 1.0
  */
 public class MutableQueryOrSearchResponse implements HitsCollector {
+    static final String IS_RELEVANT = "_isRelevant";
+    static final String GAIN = "_gain";
+    static final String SCORE = "score";
+
+    private static final Object ABSENT = new Object();
+    private static final int NO_ID = -1;
+    private static final int NO_SLOT = -1;
+    private static final byte NO_GAIN = -1;
+    private static final byte OTHER_GAIN = Byte.MAX_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final HitDictionary dictionary;
+    private final String idFieldName;
+
     private long totalHits;
-    private List<Map<String, Object>> hits = new ArrayList<>();
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private float[] scores = new float[INITIAL_CAPACITY];
+    private byte[] gains = new byte[INITIAL_CAPACITY];
+    private Map<Integer, Object> otherGains;
+    private Object[][] columns = new Object[0][];
+
+    public MutableQueryOrSearchResponse() {
+        this(new HitDictionary(), null);
+    }
+
+    /**
+     * @param dictionary  the dictionary shared with the other versions of the query.
+     * @param idFieldName the name of the document identifier field.
+     */
+    MutableQueryOrSearchResponse(final HitDictionary dictionary, final String idFieldName) {
+        this.dictionary = dictionary;
+        this.idFieldName = idFieldName;
+    }
 
     /**
      * Returns the total hits number associated with this response.
@@ -51,12 +97,208 @@ public class MutableQueryOrSearchResponse implements HitsCollector {
      */
     @JsonProperty("hits")
     public List<Map<String, Object>> hits() {
-        return hits;
+        return new AbstractList<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get(final int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return new Hit(index);
+            }
+
+            @Override
+            public int size() {
+                return MutableQueryOrSearchResponse.this.size();
+            }
+        };
     }
 
     @Override
     public void collect(final Map<String, Object> hit, final int rank, final String version) {
-        hits.add(hit);
+        collect(hit, HitRetentionPolicy.RETAIN_ALL, Boolean.TRUE.equals(hit.get(IS_RELEVANT)) ? hit.get(GAIN) : null);
+    }
+
+    /**
+     * Collects the retained fields of a hit, straight from the map returned
+     * by the search platform.
+     *
+     * @param hit    the hit.
+     * @param policy the policy defining the fields to retain.
+     * @param gain   the judgment gain of the hit, or {@code null} if the hit
+     *               has not been judged.
+     */
+    synchronized void collect(final Map<String, Object> hit, final HitRetentionPolicy policy, final Object gain) {
+        ensureCapacity(size + 1);
+
+        final boolean judged = gain != null;
+
+        ids[size] = NO_ID;
+        scores[size] = Float.NaN;
+        gains[size] = judged ? encodeGain(gain) : NO_GAIN;
+
+        hit.forEach((key, value) -> {
+            if (!policy.isRetainedField(key, idFieldName)) {
+                return;
+            }
+
+            if (key.equals(idFieldName) && value instanceof String) {
+                ids[size] = dictionary.id((String) value);
+            } else if (key.equals(SCORE) && value instanceof Float && !((Float) value).isNaN()) {
+                scores[size] = (Float) value;
+            } else if (!judged || !(key.equals(IS_RELEVANT) || key.equals(GAIN))) {
+                column(dictionary.field(key))[size] = value;
+            }
+        });
+
+        size++;
+    }
+
+    private byte encodeGain(final Object gain) {
+        if (gain instanceof BigDecimal) {
+            final BigDecimal decimal = (BigDecimal) gain;
+            if (decimal.scale() == 0 && decimal.signum() >= 0 && decimal.compareTo(BigDecimal.valueOf(OTHER_GAIN)) < 0) {
+                return decimal.byteValue();
+            }
+        }
+
+        if (otherGains == null) {
+            otherGains = new HashMap<>();
+        }
+        otherGains.put(size, gain);
+        return OTHER_GAIN;
+    }
+
+    private Object decodeGain(final int index) {
+        return gains[index] == OTHER_GAIN ? otherGains.get(index) : BigDecimal.valueOf(gains[index]);
+    }
+
+    private synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first field of a hit, starting from the given
+     * slot, which is present. The slots are the id, the score, the columns
+     * and the two judgment fields, in that order.
+     *
+     * @param index   the hit index.
+     * @param slot    the first slot to look at.
+     * @param columns the number of columns when the hit was first read.
+     * @return the slot of the next field, or {@link #NO_SLOT} if there are no
+     * more fields.
+     */
+    private synchronized int nextSlot(final int index, final int slot, final int columns) {
+        for (int s = slot; s < columns + 4; s++) {
+            final boolean present;
+            if (s == 0) {
+                present = ids[index] != NO_ID;
+            } else if (s == 1) {
+                present = !Float.isNaN(scores[index]);
+            } else if (s < columns + 2) {
+                present = this.columns[s - 2] != null && this.columns[s - 2][index] != ABSENT;
+            } else {
+                present = gains[index] != NO_GAIN;
+            }
+
+            if (present) {
+                return s;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private synchronized Map.Entry<String, Object> entry(final int index, final int slot, final int columns) {
+        if (slot == 0) {
+            return new AbstractMap.SimpleImmutableEntry<>(idFieldName, dictionary.idValue(ids[index]));
+        } else if (slot == 1) {
+            return new AbstractMap.SimpleImmutableEntry<>(SCORE, scores[index]);
+        } else if (slot < columns + 2) {
+            return new AbstractMap.SimpleImmutableEntry<>(dictionary.fieldName(slot - 2), this.columns[slot - 2][index]);
+        } else if (slot == columns + 2) {
+            return new AbstractMap.SimpleImmutableEntry<>(IS_RELEVANT, true);
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(GAIN, decodeGain(index));
+    }
+
+    private synchronized int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * A read-only view of a collected hit, reading its fields from the
+     * columns as they are accessed.
+     */
+    private final class Hit extends AbstractMap<String, Object> {
+        private final int index;
+
+        private Hit(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    // Columns added later are absent for this hit, so they can be ignored
+                    final int columns = columnCount();
+                    return new Iterator<Entry<String, Object>>() {
+                        private int slot = nextSlot(index, 0, columns);
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot != NO_SLOT;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (slot == NO_SLOT) {
+                                throw new NoSuchElementException();
+                            }
+                            final Entry<String, Object> entry = entry(index, slot, columns);
+                            slot = nextSlot(index, slot + 1, columns);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (Iterator<Entry<String, Object>> i = iterator(); i.hasNext(); i.next()) {
+                        size++;
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    private Object[] column(final int field) {
+        if (field >= columns.length) {
+            columns = Arrays.copyOf(columns, field + 1);
+        }
+        if (columns[field] == null) {
+            columns[field] = new Object[ids.length];
+            Arrays.fill(columns[field], ABSENT);
+        }
+        return columns[field];
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > ids.length) {
+            final int newCapacity = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            scores = Arrays.copyOf(scores, newCapacity);
+            gains = Arrays.copyOf(gains, newCapacity);
+            for (int f = 0; f < columns.length; f++) {
+                if (columns[f] != null) {
+                    final int oldLength = columns[f].length;
+                    columns[f] = Arrays.copyOf(columns[f], newCapacity);
+                    Arrays.fill(columns[f], oldLength, newCapacity, ABSENT);
+                }
+            }
+        }
     }
 
     @Override
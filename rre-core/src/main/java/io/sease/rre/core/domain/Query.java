@@ -48,6 +48,7 @@ public class Query extends DomainMember<Query> implements HitsCollector {
     protected JsonNode relevantDocuments;
     protected String searchEngineQueryRequest;
     protected String blackBoxQueryRequest;
+    protected HitRetentionPolicy hitRetentionPolicy = HitRetentionPolicy.RETAIN_ALL;
 
     @Override
     public DomainMember setName(final String query) {
@@ -57,6 +58,8 @@ public class Query extends DomainMember<Query> implements HitsCollector {
     @JsonProperty("results")
     private final Map<String, MutableQueryOrSearchResponse> results = Collections.synchronizedMap(new LinkedHashMap<>());
 
+    private final HitDictionary dictionary = new HitDictionary();
+
     @Override
     @JsonProperty("query")
     public String getName() {
@@ -83,20 +86,39 @@ public class Query extends DomainMember<Query> implements HitsCollector {
     @Override
     public void setTotalHits(final long totalHits, final String version) {
         metrics.values().forEach(metric -> metric.setTotalHits(totalHits, version));
-        results.computeIfAbsent(version, v -> new MutableQueryOrSearchResponse()).setTotalHits(totalHits, version);
+        results.computeIfAbsent(version, v -> newResponse()).setTotalHits(totalHits, version);
     }
 
     @Override
     public void collect(final Map<String, Object> hit, final int rank, final String version) {
         metrics.values().forEach(metric -> metric.collect(hit, rank, version));
 
-        judgment(id(hit)).ifPresent(jNode -> {
-            hit.put("_isRelevant", true);
-            hit.put("_gain", Func.gainOrRatingNode(jNode).map(JsonNode::decimalValue)
-                    .orElse(MetricClassConfigurationManager.getInstance().getDefaultMissingGrade()));
-        });
+        if (!hitRetentionPolicy.isRetained(rank)) {
+            return;
+        }
+
+        final Object gain = judgment(id(hit))
+                .map(jNode -> (Object) Func.gainOrRatingNode(jNode).map(JsonNode::decimalValue)
+                        .orElse(MetricClassConfigurationManager.getInstance().getDefaultMissingGrade()))
+                .orElse(null);
+
+        results.computeIfAbsent(version, v -> newResponse()).collect(hit, hitRetentionPolicy, gain);
+    }
+
+    /**
+     * Collects the latency of a single version of this query.
+     *
+     * @param latencyMicros the latency observed by the client, in microseconds.
+     * @param tookMillis    the time taken by the server, in milliseconds, or a
+     *                      negative value if it is not known.
+     * @param version       the version associated with the latency.
+     */
+    public void collectLatency(final long latencyMicros, final long tookMillis, final String version) {
+        latency(version).record(latencyMicros, tookMillis);
+    }
 
-        results.computeIfAbsent(version, v -> new MutableQueryOrSearchResponse()).collect(hit, rank, version);
+    private MutableQueryOrSearchResponse newResponse() {
+        return new MutableQueryOrSearchResponse(dictionary, idFieldName);
     }
 
     /**
@@ -153,6 +175,26 @@ public class Query extends DomainMember<Query> implements HitsCollector {
         this.idFieldName = idFieldName;
     }
 
+    @JsonIgnore
+    public String getIdFieldName() {
+        return idFieldName;
+    }
+
+    /**
+     * Sets the policy defining which parts of the collected hits are kept
+     * in the query results.
+     *
+     * @param hitRetentionPolicy the hit retention policy.
+     */
+    public void setHitRetentionPolicy(final HitRetentionPolicy hitRetentionPolicy) {
+        this.hitRetentionPolicy = hitRetentionPolicy;
+    }
+
+    @JsonIgnore
+    public HitRetentionPolicy getHitRetentionPolicy() {
+        return hitRetentionPolicy;
+    }
+
     /**
      * Sets the relevant documents / judgments for this metric.
      *
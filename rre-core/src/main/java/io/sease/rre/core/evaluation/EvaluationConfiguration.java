@@ -16,6 +16,10 @@
  */
 package io.sease.rre.core.evaluation;
 
+import io.sease.rre.core.domain.HitRetentionPolicy;
+
+import java.util.List;
+
 /**
  * Configuration for the evaluation process. The values set here will define
  * which {@link EvaluationManager} implementation is returned by the
@@ -33,6 +37,21 @@ public class EvaluationConfiguration {
     private boolean runAsync = true;
     private boolean runQueriesAsync = false;
     private int threadpoolSize = 4;
+    private boolean escapeJsonPlaceholders = false;
+    private boolean watchTemplates = false;
+    private boolean deduplicateQueries = true;
+    private String recordingFile;
+    private List<String> retainedFields;
+    private int maxRetainedHits = 0;
+    private long requestTimeoutMillis = 0;
+    private int maxRetries = 0;
+    private long retryBackoffMillis = 100;
+    private double hedgeAfterPercentile = 0;
+    private int circuitBreakerFailures = 0;
+    private long circuitBreakerResetMillis = 30000;
+    private boolean jmxEnabled = false;
+    private int prometheusPort = 0;
+    private boolean flightRecorderEvents = false;
 
     @SuppressWarnings("unused")
     public EvaluationConfiguration() {
@@ -73,6 +92,178 @@ public class EvaluationConfiguration {
         return threadpoolSize;
     }
 
+    /**
+     * Placeholder values are substituted verbatim into query templates by
+     * default. When this is set, values substituted into a JSON string
+     * literal are escaped, so that quotes and backslashes in the query text
+     * do not break the rendered query.
+     *
+     * @return {@code true} if placeholder values should be JSON-escaped.
+     */
+    public boolean isEscapeJsonPlaceholders() {
+        return escapeJsonPlaceholders;
+    }
+
+    /**
+     * When set, the query template folders are watched while the evaluation
+     * runs, and the templates reloaded whenever they change - useful for
+     * long-running evaluations.
+     *
+     * @return {@code true} if the query templates should be watched for changes.
+     */
+    public boolean isWatchTemplates() {
+        return watchTemplates;
+    }
+
+    /**
+     * Identical requests - the same rendered query, sent to the same target,
+     * eg. from different query groups or from versions sharing the same
+     * endpoint - are only executed once when this is set, the response
+     * being shared between the queries.
+     *
+     * @return {@code true} if duplicate requests should only be executed once.
+     */
+    public boolean isDeduplicateQueries() {
+        return deduplicateQueries;
+    }
+
+    /**
+     * When set, every successful search platform response is recorded to
+     * this file, so that the evaluation may later be re-run offline using
+     * the replay search platform.
+     *
+     * @return the path of the file responses should be recorded to, or
+     * {@code null} if responses should not be recorded.
+     */
+    public String getRecordingFile() {
+        return recordingFile;
+    }
+
+    /**
+     * The fields to keep in the query results, in addition to the id and
+     * score. When set, only these fields are requested from the search
+     * platform. By default, all fields are retained.
+     *
+     * @return the whitelist of fields to retain, or {@code null} to retain
+     * all fields.
+     */
+    public List<String> getRetainedFields() {
+        return retainedFields;
+    }
+
+    /**
+     * The number of hits to keep in the query results for each version.
+     * Metrics are still calculated over the full hits window.
+     *
+     * @return the maximum number of hits to retain, or 0 to retain all hits.
+     */
+    public int getMaxRetainedHits() {
+        return maxRetainedHits;
+    }
+
+    /**
+     * @return the hit retention policy defined by this configuration.
+     */
+    public HitRetentionPolicy getHitRetentionPolicy() {
+        return retainedFields == null && maxRetainedHits <= 0
+                ? HitRetentionPolicy.RETAIN_ALL
+                : new HitRetentionPolicy(retainedFields, maxRetainedHits);
+    }
+
+    /**
+     * @return the deadline for each search platform request, in
+     * milliseconds, or 0 for no deadline.
+     */
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    /**
+     * Transient failures - connection errors, timeouts, overloaded servers -
+     * are retried up to this many times, with a jittered exponential
+     * backoff starting from {@link #getRetryBackoffMillis()}.
+     *
+     * @return the maximum number of retries for each request.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return the base delay before retrying a failed request, in milliseconds.
+     */
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    /**
+     * When set, a second, hedged, request is sent if the first has not
+     * completed within this latency percentile of the target's recent
+     * requests, the first response to arrive being used.
+     *
+     * @return the latency percentile after which to hedge requests, or 0
+     * to disable hedging.
+     */
+    public double getHedgeAfterPercentile() {
+        return hedgeAfterPercentile;
+    }
+
+    /**
+     * @return the number of consecutive transient failures after which
+     * requests to a target are rejected, or 0 to disable circuit breaking.
+     */
+    public int getCircuitBreakerFailures() {
+        return circuitBreakerFailures;
+    }
+
+    /**
+     * @return how long requests to a failing target are rejected for,
+     * in milliseconds, before a trial request is allowed through.
+     */
+    public long getCircuitBreakerResetMillis() {
+        return circuitBreakerResetMillis;
+    }
+
+    /**
+     * @return the resilience policy defined by this configuration.
+     */
+    public ResiliencePolicy getResiliencePolicy() {
+        return new ResiliencePolicy(requestTimeoutMillis, maxRetries, retryBackoffMillis,
+                hedgeAfterPercentile, circuitBreakerFailures, circuitBreakerResetMillis);
+    }
+
+    /**
+     * When set, the evaluation metrics - queries dispatched, completed and
+     * failed, search latency, thread pool and persistence queue sizes, JVM
+     * memory - are published as JMX MBeans while the evaluation runs.
+     *
+     * @return {@code true} if the evaluation metrics should be published over JMX.
+     */
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * @return the port on which the evaluation metrics are served in the
+     * Prometheus text format while the evaluation runs, or 0 to disable
+     * the Prometheus endpoint.
+     */
+    public int getPrometheusPort() {
+        return prometheusPort;
+    }
+
+    /**
+     * When set, Java Flight Recorder events are emitted for each query
+     * execution, metric collection, template rendering, persistence and
+     * search platform load, so that a recording started with
+     * {@code -XX:StartFlightRecording} shows the evaluation query by query.
+     *
+     * @return {@code true} if Flight Recorder events should be emitted.
+     */
+    public boolean isFlightRecorderEvents() {
+        return flightRecorderEvents;
+    }
+
     private static EvaluationConfiguration defaultConfiguration() {
         return new EvaluationConfiguration(true, false, 4);
     }
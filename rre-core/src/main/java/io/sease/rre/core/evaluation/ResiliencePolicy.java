@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.evaluation;
+
+/**
+ * Defines how requests to the search platform are protected against slow
+ * or failing targets: a deadline for each request, the number of times a
+ * transient failure is retried, when a hedged (duplicate) request is sent
+ * to cut tail latency, and when a target's circuit breaker opens.
+ *
+ * @since 1.2
+ */
+public class ResiliencePolicy {
+
+    /**
+     * No timeouts, retries, hedging or circuit breaking - requests are sent
+     * to the search platform once, as they arrive.
+     */
+    public static final ResiliencePolicy NONE = new ResiliencePolicy(0, 0, 0, 0, 0, 0);
+
+    private final long requestTimeoutMillis;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final double hedgeAfterPercentile;
+    private final int circuitBreakerFailures;
+    private final long circuitBreakerResetMillis;
+
+    /**
+     * @param requestTimeoutMillis      the deadline for each request, including hedged
+     *                                  requests, or 0 for no deadline.
+     * @param maxRetries                the number of times a transient failure is retried.
+     * @param retryBackoffMillis        the base delay before the first retry, doubled for
+     *                                  each subsequent retry and jittered.
+     * @param hedgeAfterPercentile      the latency percentile (eg. 95) of a target after
+     *                                  which a hedged request is sent, or 0 to disable hedging.
+     * @param circuitBreakerFailures    the number of consecutive transient failures which
+     *                                  open a target's circuit breaker, or 0 to disable it.
+     * @param circuitBreakerResetMillis how long an open circuit breaker rejects requests,
+     *                                  before a trial request is allowed through.
+     */
+    public ResiliencePolicy(final long requestTimeoutMillis,
+                            final int maxRetries,
+                            final long retryBackoffMillis,
+                            final double hedgeAfterPercentile,
+                            final int circuitBreakerFailures,
+                            final long circuitBreakerResetMillis) {
+        if (hedgeAfterPercentile < 0 || hedgeAfterPercentile >= 100) {
+            throw new IllegalArgumentException("The hedging percentile must be between 0 and 100, was " + hedgeAfterPercentile);
+        }
+        this.requestTimeoutMillis = Math.max(0, requestTimeoutMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        this.hedgeAfterPercentile = hedgeAfterPercentile;
+        this.circuitBreakerFailures = Math.max(0, circuitBreakerFailures);
+        this.circuitBreakerResetMillis = Math.max(0, circuitBreakerResetMillis);
+    }
+
+    /**
+     * @return {@code true} if any of the policies are enabled.
+     */
+    public boolean isEnabled() {
+        return requestTimeoutMillis > 0 || maxRetries > 0 || isHedgingEnabled() || isCircuitBreakerEnabled();
+    }
+
+    /**
+     * @return {@code true} if requests need to be run on a separate thread,
+     * so that the caller can stop waiting for them.
+     */
+    public boolean isAsynchronous() {
+        return requestTimeoutMillis > 0 || isHedgingEnabled();
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgeAfterPercentile > 0;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerFailures > 0;
+    }
+
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public double getHedgeAfterPercentile() {
+        return hedgeAfterPercentile;
+    }
+
+    public int getCircuitBreakerFailures() {
+        return circuitBreakerFailures;
+    }
+
+    public long getCircuitBreakerResetMillis() {
+        return circuitBreakerResetMillis;
+    }
+}
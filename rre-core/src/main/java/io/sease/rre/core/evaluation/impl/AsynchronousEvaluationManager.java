@@ -19,6 +19,7 @@ package io.sease.rre.core.evaluation.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.sease.rre.core.domain.Query;
 import io.sease.rre.core.evaluation.EvaluationManager;
+import io.sease.rre.core.monitoring.Monitoring;
 import io.sease.rre.core.template.QueryTemplateManager;
 import io.sease.rre.persistence.PersistenceManager;
 import io.sease.rre.search.api.QueryOrSearchResponse;
@@ -68,6 +69,7 @@ public class AsynchronousEvaluationManager extends BaseEvaluationManager impleme
                                          int threadpoolSize) {
         super(platform, templateManager, persistenceManager, fields, versions, versionTimestamp);
         this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadpoolSize);
+        Monitoring.monitor(executor, "evaluation");
         this.failedQueries = new AtomicInteger();
     }
 
@@ -92,15 +94,12 @@ public class AsynchronousEvaluationManager extends BaseEvaluationManager impleme
         return CompletableFuture.supplyAsync(() -> {
             final CountDownLatch doneSignal = new CountDownLatch(getVersions().size());
             getVersions().forEach(version -> {
-                final AtomicInteger rank = new AtomicInteger(1);
-
-                final QueryOrSearchResponse response = executeQuery(indexName, version, queryNode, defaultTemplate, relevantDocCount);
+                final QueryOrSearchResponse response = executeQuery(query, indexName, version, queryNode, defaultTemplate, relevantDocCount);
 
                 if (response.isFailed()){
                     failedQueries.incrementAndGet();
                 } else {
-                    query.setTotalHits(response.totalHits(), persistVersion(version));
-                    response.hits().forEach(hit -> query.collect(hit, rank.getAndIncrement(), persistVersion(version)));
+                    collectResponse(query, version, response);
                 }
                 doneSignal.countDown();
 
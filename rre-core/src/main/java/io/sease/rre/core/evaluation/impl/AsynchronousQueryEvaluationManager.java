@@ -19,6 +19,7 @@ package io.sease.rre.core.evaluation.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.sease.rre.core.domain.Query;
 import io.sease.rre.core.evaluation.EvaluationManager;
+import io.sease.rre.core.monitoring.Monitoring;
 import io.sease.rre.core.template.QueryTemplateManager;
 import io.sease.rre.persistence.PersistenceManager;
 import io.sease.rre.search.api.SearchPlatform;
@@ -67,6 +68,8 @@ public class AsynchronousQueryEvaluationManager extends BaseEvaluationManager im
         int queryThreadpool = Math.min(threadpoolSize / 2, versions.size());
         this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadpoolSize - queryThreadpool);
         this.queryExecutor = Executors.newFixedThreadPool(queryThreadpool);
+        Monitoring.monitor(executor, "evaluation");
+        Monitoring.monitor(queryExecutor, "query");
         this.failedQueries = new AtomicInteger(0);
     }
 
@@ -91,15 +94,13 @@ public class AsynchronousQueryEvaluationManager extends BaseEvaluationManager im
         return CompletableFuture.supplyAsync(() -> {
             final CountDownLatch doneSignal = new CountDownLatch(getVersions().size());
             getVersions().forEach(version -> {
-                final AtomicInteger rank = new AtomicInteger(1);
                 // Queries are run in their own threadpool
-                CompletableFuture.supplyAsync(() -> executeQuery(indexName, version, queryNode, defaultTemplate, relevantDocCount), queryExecutor)
+                CompletableFuture.supplyAsync(() -> executeQuery(query, indexName, version, queryNode, defaultTemplate, relevantDocCount), queryExecutor)
                         .thenAccept(response -> {
                             if (response.isFailed()){
                                 this.failedQueries.incrementAndGet();
                             } else {
-                                query.setTotalHits(response.totalHits(), persistVersion(version));
-                                response.hits().forEach(hit -> query.collect(hit, rank.getAndIncrement(), persistVersion(version)));
+                                collectResponse(query, version, response);
                             }
                             doneSignal.countDown();
                         });
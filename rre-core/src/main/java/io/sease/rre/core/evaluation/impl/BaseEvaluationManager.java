@@ -17,18 +17,30 @@
 package io.sease.rre.core.evaluation.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.sease.rre.core.Engine;
 import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.monitoring.FlightRecorderEvents;
+import io.sease.rre.core.monitoring.FlightRecorderEvents.Span;
+import io.sease.rre.core.monitoring.Monitoring;
 import io.sease.rre.core.template.QueryTemplateManager;
 import io.sease.rre.persistence.PersistenceManager;
 import io.sease.rre.search.api.QueryOrSearchResponse;
 import io.sease.rre.search.api.SearchPlatform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Base evaluation manager class, defining methods shared between
@@ -38,12 +50,22 @@ import static java.util.Optional.ofNullable;
  */
 abstract class BaseEvaluationManager {
 
+    private static final Logger LOGGER = LogManager.getLogger(BaseEvaluationManager.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static final String QUERIES_DISPATCHED = "rre.queries.dispatched";
+    static final String QUERIES_COMPLETED = "rre.queries.completed";
+    static final String QUERIES_FAILED = "rre.queries.failed";
+    static final String SEARCH_LATENCY = "rre.search.latency";
+    static final String VERSION_TAG = "version";
+
     private final SearchPlatform platform;
     private final QueryTemplateManager templateManager;
     private final PersistenceManager persistenceManager;
     private final String[] fields;
     private final Collection<String> versions;
     private final String versionTimestamp;
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
 
     BaseEvaluationManager(SearchPlatform platform,
                           QueryTemplateManager templateManager,
@@ -64,12 +86,74 @@ abstract class BaseEvaluationManager {
         return versions;
     }
 
-    QueryOrSearchResponse executeQuery(String indexName, String version, JsonNode queryNode, String defaultTemplate, int relevantDocCount) {
-        return platform.executeQuery(
-                indexName, version,
-                query(queryNode, defaultTemplate, version),
-                fields,
-                Math.max(10, relevantDocCount));
+    /**
+     * Execute a single version of a query, recording the latency observed
+     * in the response. Failures - including exceptions thrown while
+     * rendering or running the query - are returned as a failed response,
+     * so that they are counted rather than aborting the evaluation.
+     *
+     * @param query            the query being evaluated.
+     * @param indexName        the base name of the index to query.
+     * @param version          the version being executed.
+     * @param queryNode        the JSON node holding details of the query template.
+     * @param defaultTemplate  the fallback query template.
+     * @param relevantDocCount the number of relevant documents required.
+     * @return the search platform response.
+     */
+    QueryOrSearchResponse executeQuery(Query query, String indexName, String version, JsonNode queryNode, String defaultTemplate, int relevantDocCount) {
+        final String[] retrievalFields = query.getHitRetentionPolicy().retrievalFields(fields, query.getIdFieldName());
+        final MeterRegistry registry = Monitoring.registry();
+        registry.counter(QUERIES_DISPATCHED, VERSION_TAG, version).increment();
+
+        QueryOrSearchResponse response;
+        try (final Span ignored = FlightRecorderEvents.queryExecution(indexName, version, query.getName())) {
+            if (platform.isJsonQuerySupported()) {
+                final JsonNode jsonQuery = jsonQuery(queryNode, defaultTemplate, version);
+                final long start = System.nanoTime();
+                response = platform.executeQuery(indexName, version, jsonQuery, retrievalFields, Math.max(10, relevantDocCount))
+                        .withLatency(NANOSECONDS.toMicros(System.nanoTime() - start));
+            } else {
+                final String queryString = query(queryNode, defaultTemplate, version);
+                final long start = System.nanoTime();
+                response = platform.executeQuery(indexName, version, queryString, retrievalFields, Math.max(10, relevantDocCount))
+                        .withLatency(NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Caught exception executing query " + query.getName() + " version " + version, e);
+            response = new QueryOrSearchResponse(String.valueOf(e.getMessage()));
+        }
+
+        if (response.isFailed()) {
+            registry.counter(QUERIES_FAILED, VERSION_TAG, version).increment();
+        } else {
+            registry.counter(QUERIES_COMPLETED, VERSION_TAG, version).increment();
+            latencyTimers.computeIfAbsent(version, v -> Timer.builder(SEARCH_LATENCY)
+                    .tag(VERSION_TAG, v)
+                    .publishPercentileHistogram()
+                    .register(registry))
+                    .record(response.latencyMicros(), MICROSECONDS);
+        }
+        return response;
+    }
+
+    /**
+     * Collect the hits and latency of a successful response, computing
+     * the metrics of the query for the given version.
+     *
+     * @param query    the query.
+     * @param version  the version which was executed.
+     * @param response the search platform response.
+     */
+    void collectResponse(Query query, String version, QueryOrSearchResponse response) {
+        final String persistVersion = persistVersion(version);
+        try (final Span ignored = FlightRecorderEvents.metricCollection(query.getName(), persistVersion, FlightRecorderEvents.COLLECT_PHASE)) {
+            query.setTotalHits(response.totalHits(), persistVersion);
+            query.collectLatency(response.latencyMicros(), response.tookMillis(), persistVersion);
+            int rank = 1;
+            for (final Map<String, Object> hit : response.hits()) {
+                query.collect(hit, rank++, persistVersion);
+            }
+        }
     }
 
     /**
@@ -79,7 +163,9 @@ abstract class BaseEvaluationManager {
      * @param query the query.
      */
     void completeQuery(Query query) {
-        query.notifyCollectedMetrics();
+        try (final Span ignored = FlightRecorderEvents.metricCollection(query.getName(), null, FlightRecorderEvents.NOTIFY_PHASE)) {
+            query.notifyCollectedMetrics();
+        }
         persistenceManager.recordQuery(query);
     }
 
@@ -95,23 +181,42 @@ abstract class BaseEvaluationManager {
     private String query(final JsonNode queryNode, final String defaultTemplate, final String version) {
         // try to see if the query declares a template
         String template = getQueryTemplate(queryNode).orElse(null);
-        try {
-            // EE case
-            if (template == null && defaultTemplate == null) {
-                return queryNode.toString();
-            } else {
-                String query = templateManager.getTemplate(defaultTemplate, template, version);
-                for (final Iterator<String> iterator = queryNode.get("placeholders").fieldNames(); iterator.hasNext(); ) {
-                    final String name = iterator.next();
-                    query = query.replace(name, queryNode.get("placeholders").get(name).asText());
-                }
-                return query;
-            }
+        // EE case
+        if (template == null && defaultTemplate == null) {
+            return queryNode.toString();
+        }
+
+        try (final Span ignored = FlightRecorderEvents.templateRendering(ofNullable(template).orElse(defaultTemplate), version)) {
+            return templateManager.getQueryTemplate(defaultTemplate, template, version)
+                    .render(queryNode.get("placeholders"));
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Returns a query (as a JSON node) that will be used for executing a specific evaluation.
+     * The query is parsed once here, so that JSON-based search platforms can build their native
+     * request directly, rather than parsing the query string themselves.
+     *
+     * @param queryNode       the JSON query node (in ratings configuration).
+     * @param defaultTemplate the default template that will be used if a query doesn't declare it.
+     * @param version         the version being executed.
+     * @return a query (as a JSON node) that will be used for executing a specific evaluation.
+     */
+    private JsonNode jsonQuery(final JsonNode queryNode, final String defaultTemplate, final String version) {
+        // EE case: the query node is the query, no need to serialize and parse it again
+        if (!getQueryTemplate(queryNode).isPresent() && defaultTemplate == null) {
+            return queryNode;
+        }
+
+        try {
+            return MAPPER.readTree(query(queryNode, defaultTemplate, version));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private Optional<String> getQueryTemplate(JsonNode queryNode) {
         return ofNullable(queryNode.get("template")).map(JsonNode::asText);
     }
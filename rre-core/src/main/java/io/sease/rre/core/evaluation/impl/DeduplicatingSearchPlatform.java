@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.evaluation.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SearchPlatform} decorator which executes each distinct request
+ * once, sharing the response between all callers making the same request.
+ * Requests are identified by the platform's request target, the query,
+ * the fields and the number of rows - so the same query appearing in
+ * several query groups, or in several versions pointing at the same
+ * target, is only sent to the search platform once.
+ * <p>
+ * Concurrent identical requests wait for the first one to complete. Failed
+ * responses are shared with the requests waiting for them, but are not
+ * kept, so that later requests are retried. At most
+ * {@value #DEFAULT_MAX_RESPONSES} responses are kept by default, the
+ * least recently used being discarded first.
+ *
+ * @since 1.2
+ */
+public class DeduplicatingSearchPlatform implements SearchPlatform {
+
+    private static final Logger LOGGER = LogManager.getLogger(DeduplicatingSearchPlatform.class);
+
+    public static final int DEFAULT_MAX_RESPONSES = 10000;
+
+    private final SearchPlatform delegate;
+    private final Map<RequestKey, CompletableFuture<QueryOrSearchResponse>> responses;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong executions = new AtomicLong();
+
+    public DeduplicatingSearchPlatform(final SearchPlatform delegate) {
+        this(delegate, DEFAULT_MAX_RESPONSES);
+    }
+
+    /**
+     * @param delegate     the platform executing the requests.
+     * @param maxResponses the maximum number of responses to keep.
+     */
+    public DeduplicatingSearchPlatform(final SearchPlatform delegate, final int maxResponses) {
+        this.delegate = delegate;
+        this.responses = new LinkedHashMap<RequestKey, CompletableFuture<QueryOrSearchResponse>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RequestKey, CompletableFuture<QueryOrSearchResponse>> eldest) {
+                return size() > maxResponses;
+            }
+        };
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, String query, String[] fields, int maxRows) {
+        return execute(new RequestKey(delegate.getRequestTarget(collection, version), query, fields, maxRows),
+                () -> delegate.executeQuery(collection, version, query, fields, maxRows));
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+        return execute(new RequestKey(delegate.getRequestTarget(collection, version), query, fields, maxRows),
+                () -> delegate.executeQuery(collection, version, query, fields, maxRows));
+    }
+
+    private QueryOrSearchResponse execute(final RequestKey key, final Supplier<QueryOrSearchResponse> request) {
+        requests.incrementAndGet();
+
+        final CompletableFuture<QueryOrSearchResponse> future;
+        final CompletableFuture<QueryOrSearchResponse> existing;
+        synchronized (responses) {
+            existing = responses.get(key);
+            if (existing == null) {
+                future = new CompletableFuture<>();
+                responses.put(key, future);
+            } else {
+                future = existing;
+            }
+        }
+
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        executions.incrementAndGet();
+        try {
+            final QueryOrSearchResponse response = request.get();
+            if (response == null || response.isFailed()) {
+                forget(key, future);
+            }
+            future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            forget(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void forget(final RequestKey key, final CompletableFuture<QueryOrSearchResponse> future) {
+        synchronized (responses) {
+            responses.remove(key, future);
+        }
+    }
+
+    /**
+     * @return the number of requests received.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of requests passed to the search platform.
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    @Override
+    public void beforeStart(Map<String, Object> configuration) {
+        delegate.beforeStart(configuration);
+    }
+
+    @Override
+    public void load(File dataToBeIndexed, File configFolder, String collection, String version) {
+        delegate.load(dataToBeIndexed, configFolder, collection, version);
+    }
+
+    @Override
+    public String getFullyQualifiedDomainName(String indexName, String version) {
+        return delegate.getFullyQualifiedDomainName(indexName, version);
+    }
+
+    @Override
+    public String getRequestTarget(String indexName, String version) {
+        return delegate.getRequestTarget(indexName, version);
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    @Override
+    public void afterStart() {
+        delegate.afterStart();
+    }
+
+    @Override
+    public void beforeStop() {
+        LOGGER.info("RRE: {} distinct search requests executed for {} query executions", executions.get(), requests.get());
+        synchronized (responses) {
+            responses.clear();
+        }
+        delegate.beforeStop();
+    }
+
+    @Override
+    public boolean isJsonQuerySupported() {
+        return delegate.isJsonQuerySupported();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isRefreshRequired() {
+        return delegate.isRefreshRequired();
+    }
+
+    @Override
+    public boolean isSearchPlatformConfiguration(String indexName, File file) {
+        return delegate.isSearchPlatformConfiguration(indexName, file);
+    }
+
+    @Override
+    public boolean isCorporaRequired() {
+        return delegate.isCorporaRequired();
+    }
+
+    @Override
+    public boolean checkCollection(String collection, String version) {
+        return delegate.checkCollection(collection, version);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * Key identifying a distinct request.
+     */
+    private static final class RequestKey {
+        private final String target;
+        private final Object query;
+        private final List<String> fields;
+        private final int maxRows;
+        private final int hashCode;
+
+        private RequestKey(final String target, final Object query, final String[] fields, final int maxRows) {
+            this.target = target;
+            this.query = query;
+            this.fields = Arrays.asList(fields);
+            this.maxRows = maxRows;
+            this.hashCode = Objects.hash(target, query, this.fields, maxRows);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final RequestKey that = (RequestKey) o;
+            return maxRows == that.maxRows &&
+                    Objects.equals(target, that.target) &&
+                    query.equals(that.query) &&
+                    fields.equals(that.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
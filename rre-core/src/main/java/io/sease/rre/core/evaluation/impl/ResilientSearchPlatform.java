@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.evaluation.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.core.evaluation.ResiliencePolicy;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SearchPlatform} decorator applying a {@link ResiliencePolicy} to
+ * each request: requests are given a deadline, transient failures are
+ * retried with a jittered exponential backoff, a hedged request is sent
+ * when the first is slower than the target's usual latency, and a circuit
+ * breaker stops requests being sent to a target which keeps failing.
+ * <p>
+ * Targets are identified by the platform's request target, so each version
+ * client has its own latency history and circuit breaker. Requests run on a
+ * threadpool sized from the evaluation's concurrency; requests which time
+ * out, or lose a hedging race, are cancelled (interrupting the thread running
+ * them), so a target which hangs cannot make the number of threads grow.
+ * <p>
+ * Exceptions thrown by the search platform are treated as transient
+ * failures, and returned as failed responses rather than thrown.
+ *
+ * @since 1.2
+ */
+public class ResilientSearchPlatform implements SearchPlatform {
+
+    private static final Logger LOGGER = LogManager.getLogger(ResilientSearchPlatform.class);
+
+    /**
+     * The number of recent latencies kept for each target.
+     */
+    static final int LATENCY_WINDOW = 512;
+    /**
+     * The number of latencies required before requests to a target are hedged.
+     */
+    static final int MIN_HEDGE_SAMPLES = 20;
+
+    /**
+     * The number of concurrent callers assumed when none is given.
+     */
+    static final int DEFAULT_CONCURRENCY = 4;
+
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final SearchPlatform delegate;
+    private final ResiliencePolicy policy;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * @param delegate the platform executing the requests.
+     * @param policy   the resilience policy to apply.
+     */
+    public ResilientSearchPlatform(final SearchPlatform delegate, final ResiliencePolicy policy) {
+        this(delegate, policy, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param delegate    the platform executing the requests.
+     * @param policy      the resilience policy to apply.
+     * @param concurrency the maximum number of concurrent callers, ie. the
+     *                    evaluation threadpool size. Twice as many request
+     *                    threads are used, so that each caller can hedge.
+     */
+    public ResilientSearchPlatform(final SearchPlatform delegate, final ResiliencePolicy policy, final int concurrency) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.executor = policy.isAsynchronous() ? newRequestExecutor(2 * Math.max(1, concurrency)) : null;
+    }
+
+    private static ThreadPoolExecutor newRequestExecutor(final int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new RequestThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, String query, String[] fields, int maxRows) {
+        return execute(delegate.getRequestTarget(collection, version),
+                () -> delegate.executeQuery(collection, version, query, fields, maxRows));
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+        return execute(delegate.getRequestTarget(collection, version),
+                () -> delegate.executeQuery(collection, version, query, fields, maxRows));
+    }
+
+    private QueryOrSearchResponse execute(final String targetName, final Supplier<QueryOrSearchResponse> request) {
+        final Target target = targets.computeIfAbsent(String.valueOf(targetName), Target::new);
+        for (int attempt = 0; ; attempt++) {
+            if (!target.allowRequest()) {
+                rejections.incrementAndGet();
+                return new QueryOrSearchResponse("Circuit breaker open for " + targetName, true);
+            }
+
+            final QueryOrSearchResponse response = policy.isAsynchronous()
+                    ? executeAsync(target, request)
+                    : executeTimed(target, request);
+            target.recordOutcome(response.isFailed() && response.isRetryable());
+
+            if (!response.isFailed() || !response.isRetryable() || attempt >= policy.getMaxRetries()) {
+                return response;
+            }
+
+            retries.incrementAndGet();
+            try {
+                Thread.sleep(backoffMillis(attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return response;
+            }
+        }
+    }
+
+    /**
+     * Run a request on the calling thread, recording its latency if it
+     * succeeds.
+     */
+    private QueryOrSearchResponse executeTimed(final Target target, final Supplier<QueryOrSearchResponse> request) {
+        final long start = System.nanoTime();
+        QueryOrSearchResponse response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            LOGGER.error("Caught exception querying " + target.name + " :: " + e.getMessage());
+            response = new QueryOrSearchResponse(String.valueOf(e.getMessage()), true);
+        }
+
+        if (!response.isFailed()) {
+            target.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return response;
+    }
+
+    /**
+     * Run a request on the request threadpool, waiting until the deadline
+     * for it to complete. If hedging is enabled, and the request is slower
+     * than the target's latency percentile, a second request is sent and the
+     * first successful response is used.
+     */
+    private QueryOrSearchResponse executeAsync(final Target target, final Supplier<QueryOrSearchResponse> request) {
+        final long timeout = policy.getRequestTimeoutMillis();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        final CompletableFuture<QueryOrSearchResponse> result = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final List<FutureTask<Void>> tasks = new ArrayList<>(2);
+        tasks.add(submit(target, request, result, pending));
+
+        try {
+            final long hedgeDelay = policy.isHedgingEnabled() ? target.latencyPercentile(policy.getHedgeAfterPercentile()) : -1;
+            if (hedgeDelay >= 0 && (timeout == 0 || hedgeDelay < timeout)) {
+                try {
+                    return result.get(hedgeDelay, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    hedges.incrementAndGet();
+                    pending.incrementAndGet();
+                    tasks.add(submit(target, request, result, pending));
+                }
+            }
+
+            return timeout == 0
+                    ? result.get()
+                    : result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            LOGGER.error("Request to " + target.name + " timed out after " + timeout + "ms");
+            return new QueryOrSearchResponse("Request timed out after " + timeout + "ms", true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new QueryOrSearchResponse("Interrupted waiting for response");
+        } catch (ExecutionException e) {
+            return new QueryOrSearchResponse(String.valueOf(e.getCause().getMessage()), true);
+        } finally {
+            // Requests which timed out, or lost the hedging race, are no longer needed
+            for (final FutureTask<Void> task : tasks) {
+                if (!task.isDone()) {
+                    task.cancel(true);
+                    executor.remove(task);
+                }
+            }
+        }
+    }
+
+    private FutureTask<Void> submit(final Target target, final Supplier<QueryOrSearchResponse> request,
+                                    final CompletableFuture<QueryOrSearchResponse> result, final AtomicInteger pending) {
+        final FutureTask<Void> task = new FutureTask<>(() -> {
+            final QueryOrSearchResponse response = executeTimed(target, request);
+            // A failure is only reported once every request in the race has failed
+            if (!response.isFailed() || pending.decrementAndGet() == 0) {
+                result.complete(response);
+            }
+        }, null);
+        executor.execute(task);
+        return task;
+    }
+
+    private long backoffMillis(final int attempt) {
+        final long backoff = policy.getRetryBackoffMillis() << Math.min(attempt, MAX_BACKOFF_SHIFT);
+        if (backoff <= 1) {
+            return backoff;
+        }
+        // Equal jitter - wait at least half the backoff, so retries are spread out without collapsing to 0
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /**
+     * @return the number of failed requests which were retried.
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * @return the number of hedged requests sent.
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+
+    /**
+     * @return the number of requests which did not complete before their deadline.
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return the number of requests rejected by an open circuit breaker.
+     */
+    public long getRejectionCount() {
+        return rejections.get();
+    }
+
+    @Override
+    public void beforeStart(Map<String, Object> configuration) {
+        delegate.beforeStart(configuration);
+    }
+
+    @Override
+    public void load(File dataToBeIndexed, File configFolder, String collection, String version) {
+        delegate.load(dataToBeIndexed, configFolder, collection, version);
+    }
+
+    @Override
+    public String getFullyQualifiedDomainName(String indexName, String version) {
+        return delegate.getFullyQualifiedDomainName(indexName, version);
+    }
+
+    @Override
+    public String getRequestTarget(String indexName, String version) {
+        return delegate.getRequestTarget(indexName, version);
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    @Override
+    public void afterStart() {
+        delegate.afterStart();
+    }
+
+    @Override
+    public void beforeStop() {
+        LOGGER.info("RRE: {} retries, {} hedged requests, {} timeouts, {} requests rejected by circuit breakers",
+                retries.get(), hedges.get(), timeouts.get(), rejections.get());
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        delegate.beforeStop();
+    }
+
+    @Override
+    public boolean isJsonQuerySupported() {
+        return delegate.isJsonQuerySupported();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isRefreshRequired() {
+        return delegate.isRefreshRequired();
+    }
+
+    @Override
+    public boolean isSearchPlatformConfiguration(String indexName, File file) {
+        return delegate.isSearchPlatformConfiguration(indexName, file);
+    }
+
+    @Override
+    public boolean isCorporaRequired() {
+        return delegate.isCorporaRequired();
+    }
+
+    @Override
+    public boolean checkCollection(String collection, String version) {
+        return delegate.checkCollection(collection, version);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        delegate.close();
+    }
+
+    /**
+     * The latency history and circuit breaker state of a single target.
+     */
+    private final class Target {
+        private final String name;
+
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int latencyCount;
+        private int nextLatency;
+        private int recordedSincePercentile;
+        private double percentileOf = -1;
+        private long percentile = -1;
+
+        private int consecutiveFailures;
+        private boolean open;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        private Target(final String name) {
+            this.name = name;
+        }
+
+        synchronized void recordLatency(final long millis) {
+            latencies[nextLatency] = millis;
+            nextLatency = (nextLatency + 1) % LATENCY_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+            recordedSincePercentile++;
+        }
+
+        /**
+         * @return the given percentile of the recent latencies, or -1 if
+         * not enough requests have completed yet.
+         */
+        synchronized long latencyPercentile(final double p) {
+            if (latencyCount < MIN_HEDGE_SAMPLES) {
+                return -1;
+            }
+            // Sorting the window on every request would be wasteful - refresh it every so often
+            if (percentile < 0 || p != percentileOf || recordedSincePercentile >= MIN_HEDGE_SAMPLES) {
+                final long[] sorted = Arrays.copyOf(latencies, latencyCount);
+                Arrays.sort(sorted);
+                percentile = sorted[Math.max(0, (int) Math.ceil(p / 100 * latencyCount) - 1)];
+                percentileOf = p;
+                recordedSincePercentile = 0;
+            }
+            return percentile;
+        }
+
+        synchronized boolean allowRequest() {
+            if (!open) {
+                return true;
+            }
+            if (trialInFlight || System.nanoTime() - openedAt < TimeUnit.MILLISECONDS.toNanos(policy.getCircuitBreakerResetMillis())) {
+                return false;
+            }
+            // Half-open - let a single request through to see whether the target has recovered
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void recordOutcome(final boolean failed) {
+            if (!policy.isCircuitBreakerEnabled()) {
+                return;
+            }
+
+            if (!failed) {
+                if (open) {
+                    LOGGER.info("RRE: closing circuit breaker for {}", name);
+                }
+                consecutiveFailures = 0;
+                open = false;
+                trialInFlight = false;
+            } else if (++consecutiveFailures >= policy.getCircuitBreakerFailures() || trialInFlight) {
+                if (!open) {
+                    LOGGER.warn("RRE: opening circuit breaker for {} after {} consecutive failures", name, consecutiveFailures);
+                }
+                open = true;
+                openedAt = System.nanoTime();
+                trialInFlight = false;
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads, so that requests which ignore cancellation do
+     * not prevent the JVM from exiting.
+     */
+    private static final class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "rre-request-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -25,7 +25,6 @@ import io.sease.rre.search.api.QueryOrSearchResponse;
 import io.sease.rre.search.api.SearchPlatform;
 
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A synchronous implementation of {@link EvaluationManager} - all queries
@@ -60,14 +59,12 @@ public class SynchronousEvaluationManager extends BaseEvaluationManager implemen
 
         getVersions().forEach(version -> {
             queryExecutionCount++;
-            final AtomicInteger rank = new AtomicInteger(1);
-            final QueryOrSearchResponse response = executeQuery(indexName, version, queryNode, defaultTemplate, relevantDocCount);
+            final QueryOrSearchResponse response = executeQuery(query, indexName, version, queryNode, defaultTemplate, relevantDocCount);
 
             if (response.isFailed()) {
                 failedQueries++;
             } else {
-                query.setTotalHits(response.totalHits(), persistVersion(version));
-                response.hits().forEach(hit -> query.collect(hit, rank.getAndIncrement(), persistVersion(version)));
+                collectResponse(query, version, response);
             }
         });
 
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.monitoring;
+
+import io.sease.rre.core.monitoring.jfr.FlightRecorderSpans;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Emits Java Flight Recorder events for the phases of an evaluation - query
+ * execution, metric collection, template rendering, persistence and search
+ * platform loading - so that a recording shows where the evaluation spends
+ * its time, query by query.
+ * <p>
+ * Events are off by default. While they are off, every method returns
+ * {@link Span#NONE} without allocating, and the {@code jdk.jfr} API is never
+ * loaded, so RRE still runs on JVMs without Flight Recorder.
+ *
+ * @since 1.2
+ */
+public final class FlightRecorderEvents {
+
+    private static final Logger LOGGER = LogManager.getLogger(FlightRecorderEvents.class);
+
+    public static final String COLLECT_PHASE = "collect";
+    public static final String NOTIFY_PHASE = "notify";
+
+    private static volatile boolean enabled;
+
+    private FlightRecorderEvents() {
+        // Static methods only
+    }
+
+    /**
+     * The time span covered by an event. Closing the span commits the event.
+     */
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+        /**
+         * A span which records nothing.
+         */
+        Span NONE = () -> {
+        };
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Turns the Flight Recorder events on or off. Events stay off if the
+     * running JVM does not support Flight Recorder.
+     *
+     * @param enable {@code true} if events should be emitted.
+     */
+    public static void setEnabled(final boolean enable) {
+        if (enable && !enabled) {
+            try {
+                enabled = FlightRecorderSpans.isAvailable();
+            } catch (LinkageError e) {
+                enabled = false;
+            }
+            if (!enabled) {
+                LOGGER.warn("RRE: Flight Recorder is not available in this JVM - no events will be emitted.");
+            }
+        } else if (!enable) {
+            enabled = false;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param collection the collection being queried.
+     * @param version    the configuration version being queried.
+     * @param query      the query name.
+     * @return the span covering the execution of a single query version.
+     */
+    public static Span queryExecution(final String collection, final String version, final String query) {
+        return enabled ? FlightRecorderSpans.queryExecution(collection, version, query) : Span.NONE;
+    }
+
+    /**
+     * @param query   the query name.
+     * @param version the version whose hits are collected, or null when
+     *                notifying the completed metrics for all versions.
+     * @param phase   {@link #COLLECT_PHASE} or {@link #NOTIFY_PHASE}.
+     * @return the span covering the metric computation of a query.
+     */
+    public static Span metricCollection(final String query, final String version, final String phase) {
+        return enabled ? FlightRecorderSpans.metricCollection(query, version, phase) : Span.NONE;
+    }
+
+    /**
+     * @param template the template being rendered.
+     * @param version  the configuration version the template belongs to.
+     * @return the span covering the rendering of a query template.
+     */
+    public static Span templateRendering(final String template, final String version) {
+        return enabled ? FlightRecorderSpans.templateRendering(template, version) : Span.NONE;
+    }
+
+    /**
+     * @param query the query name.
+     * @return the span covering the hand-off of a completed query to the persistence handlers.
+     */
+    public static Span persistence(final String query) {
+        return enabled ? FlightRecorderSpans.persistence(query) : Span.NONE;
+    }
+
+    /**
+     * @param platform   the search platform name.
+     * @param collection the collection being loaded.
+     * @param version    the configuration version being loaded.
+     * @return the span covering the loading of a configuration version in the search platform.
+     */
+    public static Span platformLoad(final String platform, final String collection, final String version) {
+        return enabled ? FlightRecorderSpans.platformLoad(platform, collection, version) : Span.NONE;
+    }
+}
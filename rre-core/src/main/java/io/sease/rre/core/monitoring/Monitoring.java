@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.monitoring;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Publishes the RRE runtime metrics - query throughput and latency, thread
+ * pool and persistence queue sizes, JVM memory and allocation rate - over
+ * JMX and, optionally, as a Prometheus text endpoint.
+ * <p>
+ * RRE components record their meters in {@link #registry()}, the Micrometer
+ * global registry. Until monitoring is started, the global registry has no
+ * backing registries, and recording costs next to nothing.
+ *
+ * @since 1.2
+ */
+public final class Monitoring implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(Monitoring.class);
+
+    /**
+     * Monitoring which publishes nothing.
+     */
+    public static final Monitoring DISABLED = new Monitoring(Collections.emptyList(), Collections.emptyList(), null);
+
+    public static final String JMX_DOMAIN = "rre";
+    public static final String PROMETHEUS_PATH = "/metrics";
+
+    private static final String EXECUTOR_NAME_TAG = "name";
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final List<MeterRegistry> registries;
+    private final List<AutoCloseable> binders;
+    private final HttpServer server;
+    private final Set<Meter.Id> existingMeters;
+
+    private Monitoring(final List<MeterRegistry> registries, final List<AutoCloseable> binders, final HttpServer server) {
+        this.registries = registries;
+        this.binders = binders;
+        this.server = server;
+        this.existingMeters = registries.isEmpty() ? Collections.emptySet() : meterIds();
+    }
+
+    /**
+     * @return the registry RRE components should record their meters in.
+     */
+    public static MeterRegistry registry() {
+        return Metrics.globalRegistry;
+    }
+
+    /**
+     * Publishes the size and activity of a thread pool, replacing the meters
+     * of any pool previously published with the same name.
+     *
+     * @param executor the thread pool.
+     * @param name     the name identifying the pool.
+     */
+    public static void monitor(final ExecutorService executor, final String name) {
+        final String executorName = "rre." + name;
+        registry().getMeters().stream()
+                .filter(meter -> executorName.equals(meter.getId().getTag(EXECUTOR_NAME_TAG)))
+                .forEach(registry()::remove);
+        new ExecutorServiceMetrics(executor, executorName, Tags.empty()).bindTo(registry());
+    }
+
+    /**
+     * Starts publishing the RRE metrics.
+     *
+     * @param jmxEnabled     {@code true} if the metrics should be published as JMX MBeans.
+     * @param prometheusPort the port to serve the Prometheus text format on, or 0
+     *                       to disable the Prometheus endpoint.
+     * @return the running monitoring, to be closed when the evaluation completes.
+     */
+    public static Monitoring start(final boolean jmxEnabled, final int prometheusPort) {
+        if (!jmxEnabled && prometheusPort <= 0) {
+            return DISABLED;
+        }
+
+        final List<MeterRegistry> registries = new ArrayList<>();
+        HttpServer server = null;
+        if (jmxEnabled) {
+            registries.add(new JmxMeterRegistry(new RREJmxConfig(), Clock.SYSTEM));
+            LOGGER.info("RRE: publishing metrics over JMX, in domain {}", JMX_DOMAIN);
+        }
+        if (prometheusPort > 0) {
+            final PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            try {
+                server = startPrometheusEndpoint(prometheus, prometheusPort);
+                registries.add(prometheus);
+                LOGGER.info("RRE: publishing metrics at http://localhost:{}{}", prometheusPort, PROMETHEUS_PATH);
+            } catch (IOException e) {
+                LOGGER.error("RRE: unable to start the Prometheus endpoint on port " + prometheusPort + " :: " + e.getMessage());
+                prometheus.close();
+            }
+        }
+        registries.forEach(Metrics::addRegistry);
+
+        final JvmGcMetrics gcMetrics = new JvmGcMetrics();
+        final Monitoring monitoring = new Monitoring(registries, Collections.singletonList(gcMetrics), server);
+        gcMetrics.bindTo(registry());
+        new JvmMemoryMetrics().bindTo(registry());
+        new JvmThreadMetrics().bindTo(registry());
+        new ClassLoaderMetrics().bindTo(registry());
+        new ProcessorMetrics().bindTo(registry());
+
+        return monitoring;
+    }
+
+    private static HttpServer startPrometheusEndpoint(final PrometheusMeterRegistry prometheus, final int port) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(PROMETHEUS_PATH, exchange -> {
+            final byte[] body = prometheus.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PROMETHEUS_CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        binders.forEach(binder -> {
+            try {
+                binder.close();
+            } catch (Exception e) {
+                LOGGER.warn("Caught exception closing metrics binder :: " + e.getMessage());
+            }
+        });
+        registries.forEach(registry -> {
+            Metrics.removeRegistry(registry);
+            registry.close();
+        });
+        if (!registries.isEmpty()) {
+            // Drop the meters registered during this evaluation, keeping those
+            // bound beforehand (e.g. the evaluation manager thread pools)
+            registry().getMeters().stream()
+                    .filter(meter -> !existingMeters.contains(meter.getId()))
+                    .forEach(registry()::remove);
+        }
+    }
+
+    private static Set<Meter.Id> meterIds() {
+        final Set<Meter.Id> ids = new HashSet<>();
+        registry().getMeters().forEach(meter -> ids.add(meter.getId()));
+        return ids;
+    }
+
+    /**
+     * JMX configuration, publishing the RRE meters in their own domain.
+     */
+    private static final class RREJmxConfig implements JmxConfig {
+        @Override
+        public String get(final String key) {
+            return null;
+        }
+
+        @Override
+        public String domain() {
+            return JMX_DOMAIN;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.monitoring.jfr;
+
+import io.sease.rre.core.monitoring.FlightRecorderEvents.Span;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Creates the RRE Flight Recorder events.
+ * <p>
+ * This is the only class outside this package referring to the
+ * {@code jdk.jfr} API, and it is only loaded once Flight Recorder events
+ * have been enabled on a JVM which supports them.
+ *
+ * @since 1.2
+ */
+public final class FlightRecorderSpans {
+
+    private FlightRecorderSpans() {
+        // Static methods only
+    }
+
+    /**
+     * @return {@code true} if the running JVM can record Flight Recorder events.
+     */
+    public static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    public static Span queryExecution(final String collection, final String version, final String query) {
+        final QueryExecutionEvent event = new QueryExecutionEvent();
+        event.collection = collection;
+        event.version = version;
+        event.query = query;
+        return begin(event);
+    }
+
+    public static Span metricCollection(final String query, final String version, final String phase) {
+        final MetricCollectionEvent event = new MetricCollectionEvent();
+        event.query = query;
+        event.version = version;
+        event.phase = phase;
+        return begin(event);
+    }
+
+    public static Span templateRendering(final String template, final String version) {
+        final TemplateRenderingEvent event = new TemplateRenderingEvent();
+        event.template = template;
+        event.version = version;
+        return begin(event);
+    }
+
+    public static Span persistence(final String query) {
+        final PersistenceEvent event = new PersistenceEvent();
+        event.query = query;
+        return begin(event);
+    }
+
+    public static Span platformLoad(final String platform, final String collection, final String version) {
+        final PlatformLoadEvent event = new PlatformLoadEvent();
+        event.platform = platform;
+        event.collection = collection;
+        event.version = version;
+        return begin(event);
+    }
+
+    private static Span begin(final Event event) {
+        if (!event.isEnabled()) {
+            return Span.NONE;
+        }
+        event.begin();
+        return event::commit;
+    }
+}
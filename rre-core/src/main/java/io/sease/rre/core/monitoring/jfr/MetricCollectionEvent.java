@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The metrics of a query, collected from the hits of a version or notified once all versions are complete.
+ *
+ * @since 1.2
+ */
+@Name("io.sease.rre.MetricCollection")
+@Label("Metric Collection")
+@Category({"RRE", "Evaluation"})
+@Description("The metrics of a query, collected from the hits of a version or notified once all versions are complete.")
+@StackTrace(false)
+class MetricCollectionEvent extends Event {
+    @Label("Query")
+    String query;
+
+    @Label("Version")
+    String version;
+
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A query template, compiled into a sequence of literal chunks and
+ * placeholder slots so that it can be rendered in a single pass.
+ * <p>
+ * Placeholders are not delimited within the template, so the template is
+ * compiled against each distinct set of placeholder names it is rendered
+ * with (normally a single set per query group). Where placeholder names
+ * overlap, the longest name is matched first.
+ * <p>
+ * When JSON escaping is enabled, values substituted into a slot which
+ * falls inside a JSON string literal are escaped, so that quotes and
+ * backslashes in a query do not break the rendered query.
+ *
+ * @since 1.2
+ */
+public class QueryTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final String content;
+    private final boolean escapeJsonPlaceholders;
+    private final Map<List<String>, CompiledTemplate> compiled = new ConcurrentHashMap<>();
+
+    /**
+     * Builds a new query template with the given content, without JSON
+     * escaping of placeholder values.
+     *
+     * @param content the raw template content.
+     */
+    public QueryTemplate(final String content) {
+        this(content, false);
+    }
+
+    /**
+     * Builds a new query template with the given content.
+     *
+     * @param content                the raw template content.
+     * @param escapeJsonPlaceholders if values substituted into JSON string
+     *                               literals should be escaped.
+     */
+    public QueryTemplate(final String content, final boolean escapeJsonPlaceholders) {
+        this.content = content;
+        this.escapeJsonPlaceholders = escapeJsonPlaceholders;
+    }
+
+    /**
+     * @return the raw template content.
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Renders this template, replacing all of the given placeholders.
+     *
+     * @param placeholders the placeholders node (in ratings configuration),
+     *                     mapping each placeholder name to its value.
+     * @return the rendered query.
+     */
+    public String render(final JsonNode placeholders) {
+        if (placeholders == null || placeholders.size() == 0) {
+            return content;
+        }
+
+        final List<String> names = new ArrayList<>(placeholders.size());
+        for (final Iterator<String> iterator = placeholders.fieldNames(); iterator.hasNext(); ) {
+            names.add(iterator.next());
+        }
+
+        final CompiledTemplate template = compiled.computeIfAbsent(names, this::compile);
+
+        final StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        for (int i = 0; i < template.slots.length; i++) {
+            builder.append(template.literals[i]);
+            final String value = placeholders.get(template.slots[i]).asText();
+            if (template.escape[i]) {
+                appendJsonEscaped(builder, value);
+            } else {
+                builder.append(value);
+            }
+        }
+        builder.append(template.literals[template.slots.length]);
+
+        return builder.toString();
+    }
+
+    /**
+     * Splits the template content into literal chunks and placeholder slots.
+     *
+     * @param names the placeholder names.
+     * @return the compiled template.
+     */
+    private CompiledTemplate compile(final List<String> names) {
+        final String[] candidates = names.stream()
+                .filter(name -> !name.isEmpty())
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toArray(String[]::new);
+
+        final List<String> literals = new ArrayList<>();
+        final List<String> slots = new ArrayList<>();
+        final List<Boolean> escape = new ArrayList<>();
+
+        boolean inString = false;
+        int literalStart = 0;
+        int i = 0;
+        while (i < content.length()) {
+            final String match = match(i, candidates);
+            if (match != null) {
+                literals.add(content.substring(literalStart, i));
+                slots.add(match);
+                escape.add(escapeJsonPlaceholders && inString);
+                i += match.length();
+                literalStart = i;
+            } else {
+                final char c = content.charAt(i);
+                if (inString && c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = !inString;
+                }
+                i++;
+            }
+        }
+        literals.add(content.substring(literalStart));
+
+        final boolean[] escapeSlots = new boolean[escape.size()];
+        for (int s = 0; s < escapeSlots.length; s++) {
+            escapeSlots[s] = escape.get(s);
+        }
+
+        return new CompiledTemplate(
+                literals.toArray(new String[0]),
+                slots.toArray(new String[0]),
+                escapeSlots);
+    }
+
+    private String match(final int offset, final String[] candidates) {
+        for (final String candidate : candidates) {
+            if (content.startsWith(candidate, offset)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static void appendJsonEscaped(final StringBuilder builder, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * A template compiled for a set of placeholder names: there is always
+     * one more literal chunk than there are slots.
+     */
+    private static class CompiledTemplate {
+        private final String[] literals;
+        private final String[] slots;
+        private final boolean[] escape;
+
+        private CompiledTemplate(final String[] literals, final String[] slots, final boolean[] escape) {
+            this.literals = literals;
+            this.slots = slots;
+            this.escape = escape;
+        }
+    }
+}
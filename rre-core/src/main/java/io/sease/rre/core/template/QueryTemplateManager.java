@@ -45,4 +45,23 @@ public interface QueryTemplateManager {
      * @throws IOException           if problems occur reading the content from the file.
      */
     String getTemplate(String defaultTemplate, String template, String version) throws FileNotFoundException, IOException;
+
+    /**
+     * Retrieve the compiled form of the required query template, following
+     * the same resolution rules as {@link #getTemplate(String, String, String)}.
+     * Implementations are expected to cache the compiled template per
+     * template and version.
+     *
+     * @param defaultTemplate the default (fallback) template.
+     * @param template        the filename of the required template, with optional
+     *                        version placeholder.
+     * @param version         the version of the template required.
+     * @return the compiled template.
+     * @throws FileNotFoundException if no file can be found to match the
+     *                               required template or default template values.
+     * @throws IOException           if problems occur reading the content from the file.
+     */
+    default QueryTemplate getQueryTemplate(String defaultTemplate, String template, String version) throws FileNotFoundException, IOException {
+        return new QueryTemplate(getTemplate(defaultTemplate, template, version));
+    }
 }
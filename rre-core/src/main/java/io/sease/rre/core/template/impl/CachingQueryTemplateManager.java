@@ -16,25 +16,61 @@
  */
 package io.sease.rre.core.template.impl;
 
+import io.sease.rre.core.template.QueryTemplate;
 import io.sease.rre.core.template.QueryTemplateManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.sease.rre.Func.ONLY_NON_HIDDEN_FILES;
+import static io.sease.rre.Func.safe;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
 
 /**
  * An implementation of the {@link QueryTemplateManager} that will cache the
  * template contents.
+ * <p>
+ * The templates for all of the configured versions can be preloaded (and
+ * validated) up front via {@link #preload(Collection)}. The cached contents
+ * are held in an immutable snapshot, which is replaced as a whole when a
+ * template is loaded lazily or the templates are reloaded, so lookups from
+ * the evaluation threads never need to lock. Optionally, the template
+ * folders can be watched for changes, reloading the templates when they
+ * are modified - useful for long-running processes.
  *
  * @author Matt Pearce (matt@flax.co.uk)
  */
-public class CachingQueryTemplateManager implements QueryTemplateManager {
+public class CachingQueryTemplateManager implements QueryTemplateManager, Closeable {
+
+    private final static Logger LOGGER = LogManager.getLogger(CachingQueryTemplateManager.class);
 
-    private final Map<File, String> templatePathMap = new HashMap<>();
     private final File templatesFolder;
+    private final boolean escapeJsonPlaceholders;
+    private final Object lock = new Object();
+
+    private volatile Snapshot snapshot = new Snapshot(emptyMap());
+    private Collection<String> versions = emptyList();
+    private WatchService watchService;
 
     /**
      * Initialise the query template manager with template folder path.
@@ -44,26 +80,177 @@ public class CachingQueryTemplateManager implements QueryTemplateManager {
      *                                  directory, or the directory cannot be read.
      */
     public CachingQueryTemplateManager(String templatesFolderPath) throws IllegalArgumentException {
+        this(templatesFolderPath, false);
+    }
+
+    /**
+     * Initialise the query template manager with template folder path.
+     *
+     * @param templatesFolderPath    the path to the template folder.
+     * @param escapeJsonPlaceholders if placeholder values substituted into
+     *                               JSON string literals should be escaped.
+     * @throws IllegalArgumentException if the folder path doesn't point to a
+     *                                  directory, or the directory cannot be read.
+     */
+    public CachingQueryTemplateManager(String templatesFolderPath, boolean escapeJsonPlaceholders) throws IllegalArgumentException {
         this.templatesFolder = new File(templatesFolderPath);
+        this.escapeJsonPlaceholders = escapeJsonPlaceholders;
         if (!templatesFolder.isDirectory() || !templatesFolder.canRead()) {
             throw new IllegalArgumentException("Unable to read from query template directory " + templatesFolder.getAbsolutePath());
         }
     }
 
+    /**
+     * Load all of the templates available to the given versions - ie. those
+     * in the templates folder, and in each version-specific folder.
+     *
+     * @param versions the configuration versions being evaluated.
+     * @throws IOException if any of the templates cannot be read.
+     */
+    public void preload(final Collection<String> versions) throws IOException {
+        synchronized (lock) {
+            this.versions = new ArrayList<>(versions);
+        }
+        reload();
+    }
+
+    /**
+     * Reload all of the templates for the preloaded versions, discarding any
+     * cached (and compiled) template content.
+     *
+     * @throws IOException if any of the templates cannot be read.
+     */
+    public void reload() throws IOException {
+        synchronized (lock) {
+            final Map<File, String> templates = new HashMap<>();
+            for (final File folder : templateFolders()) {
+                for (final File file : safe(folder.listFiles(ONLY_NON_HIDDEN_FILES))) {
+                    if (file.isFile()) {
+                        templates.put(file, readTemplateContent(file));
+                    }
+                }
+            }
+
+            snapshot = new Snapshot(templates);
+            LOGGER.debug("Loaded " + templates.size() + " query templates from " + templatesFolder.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Start watching the template folders, reloading the templates whenever
+     * a file is created, modified or deleted. The watcher runs on a daemon
+     * thread until this manager is closed.
+     *
+     * @throws IOException if the folders cannot be watched.
+     */
+    public void startWatching() throws IOException {
+        synchronized (lock) {
+            if (watchService != null) {
+                return;
+            }
+
+            watchService = FileSystems.getDefault().newWatchService();
+            for (final File folder : templateFolders()) {
+                folder.toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            }
+
+            final Thread watcher = new Thread(() -> watch(watchService), "rre-template-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (watchService != null) {
+                watchService.close();
+                watchService = null;
+            }
+        }
+    }
+
     @Override
     public String getTemplate(final String defaultTemplate, final String template, final String version) throws IOException {
         String templateName = Optional.ofNullable(getTemplate(defaultTemplate, template))
                 .orElseThrow(() -> new IllegalArgumentException("No template name supplied!"));
         File templatePath = buildTemplatePath(templateName, version);
-        templatePathMap.putIfAbsent(templatePath, readTemplateContent(templatePath));
 
-        return templatePathMap.get(templatePath);
+        final String content = snapshot.templates.get(templatePath);
+        return content != null ? content : loadTemplate(templatePath);
+    }
+
+    @Override
+    public QueryTemplate getQueryTemplate(final String defaultTemplate, final String template, final String version) throws IOException {
+        final Snapshot current = snapshot;
+        final String key = version + File.separator + getTemplate(defaultTemplate, template);
+        QueryTemplate compiled = current.compiled.get(key);
+        if (compiled == null) {
+            compiled = new QueryTemplate(getTemplate(defaultTemplate, template, version), escapeJsonPlaceholders);
+            final QueryTemplate existing = current.compiled.putIfAbsent(key, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
+        }
+
+        return compiled;
     }
 
     private String getTemplate(String defaultTemplate, String template) {
         return template == null ? defaultTemplate : template;
     }
 
+    /**
+     * Load a template which was not preloaded, replacing the current snapshot
+     * with one including the new template.
+     *
+     * @param templatePath the template file.
+     * @return the template content.
+     * @throws IOException if the file cannot be read.
+     */
+    private String loadTemplate(final File templatePath) throws IOException {
+        synchronized (lock) {
+            final Snapshot current = snapshot;
+            String content = current.templates.get(templatePath);
+            if (content == null) {
+                content = readTemplateContent(templatePath);
+
+                final Map<File, String> templates = new HashMap<>(current.templates);
+                templates.put(templatePath, content);
+                snapshot = new Snapshot(templates, current.compiled);
+            }
+            return content;
+        }
+    }
+
+    private List<File> templateFolders() {
+        final List<File> folders = new ArrayList<>();
+        folders.add(templatesFolder);
+        versions.stream()
+                .map(version -> new File(templatesFolder, version))
+                .filter(folder -> folder.isDirectory() && folder.canRead())
+                .forEach(folders::add);
+        return folders;
+    }
+
+    private void watch(final WatchService service) {
+        try {
+            while (true) {
+                final WatchKey key = service.take();
+                key.pollEvents();
+                try {
+                    reload();
+                    LOGGER.info("Query templates reloaded from " + templatesFolder.getAbsolutePath());
+                } catch (IOException e) {
+                    LOGGER.error("Could not reload query templates :: " + e.getMessage());
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOGGER.debug("Query template watcher stopped");
+        }
+    }
+
     private File buildTemplatePath(String template, String version) {
         final File templateFile;
 
@@ -98,4 +285,22 @@ public class CachingQueryTemplateManager implements QueryTemplateManager {
             throw new RuntimeException(exception);
         }
     }
+
+    /**
+     * An immutable view of the template contents, along with the templates
+     * compiled from them. Replaced as a whole when the templates change.
+     */
+    private static class Snapshot {
+        private final Map<File, String> templates;
+        private final Map<String, QueryTemplate> compiled;
+
+        private Snapshot(final Map<File, String> templates) {
+            this(templates, new ConcurrentHashMap<>());
+        }
+
+        private Snapshot(final Map<File, String> templates, final Map<String, QueryTemplate> compiled) {
+            this.templates = unmodifiableMap(templates);
+            this.compiled = compiled;
+        }
+    }
 }
@@ -17,6 +17,8 @@
 package io.sease.rre.persistence;
 
 import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.monitoring.FlightRecorderEvents;
+import io.sease.rre.core.monitoring.FlightRecorderEvents.Span;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -89,7 +91,9 @@ public class PersistenceManager {
     }
 
     public void recordQuery(Query query) {
-        handlers.parallelStream().forEach(h -> h.recordQuery(query));
+        try (final Span ignored = FlightRecorderEvents.persistence(query.getName())) {
+            handlers.parallelStream().forEach(h -> h.recordQuery(query));
+        }
     }
 
     public void beforeStop() {
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.persistence.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Tags;
+import io.sease.rre.core.domain.DomainMember;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.core.domain.metrics.ValueFactory;
+import io.sease.rre.core.monitoring.Monitoring;
+import io.sease.rre.persistence.PersistenceException;
+import io.sease.rre.persistence.PersistenceHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * {@link PersistenceHandler} implementation which reports the progress of an evaluation to RRE Server while it is
+ * running: the completed queries, with their metrics, are posted to the server in batches, so the console can show
+ * partial results long before the evaluation ends.
+ *
+ * Queries are queued by {@link #recordQuery(Query)} and posted by a background thread, so a slow (or unavailable)
+ * server never slows down the evaluation: when the queue is full, queries are dropped from the progress feed.
+ *
+ * @since 1.2
+ */
+public class RREServerPersistenceHandler implements PersistenceHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger(RREServerPersistenceHandler.class);
+
+    static final String SERVER_URL_KEY = "serverUrl";
+    static final String RUN_KEY = "run";
+    static final String BATCH_SIZE_KEY = "batchSize";
+    static final String RUN_INTERVAL_KEY = "runIntervalMs";
+    static final String QUEUE_SIZE_KEY = "queueSize";
+    static final String TIMEOUT_KEY = "timeoutMs";
+
+    static final String DEFAULT_SERVER_URL = "http://localhost:8080";
+    static final int DEFAULT_BATCH_SIZE = 100;
+    static final long DEFAULT_RUN_INTERVAL = 1000;
+    static final int DEFAULT_QUEUE_SIZE = 10000;
+    static final int DEFAULT_TIMEOUT = 5000;
+
+    static final String PROGRESS_ENDPOINT = "/evaluation/progress";
+
+    static final String STATUS_STARTED = "started";
+    static final String STATUS_RUNNING = "running";
+    static final String STATUS_COMPLETED = "completed";
+
+    static final String QUEUE_SIZE_METER = "rre.persistence.queue.size";
+    static final String DROPPED_ITEMS_METER = "rre.persistence.dropped";
+    static final String HANDLER_TAG = "handler";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private String name;
+    private URL progressUrl;
+    private String run;
+    private int batchSize;
+    private long runIntervalMs;
+    private int timeoutMs;
+    private BlockingQueue<Query> queryQueue;
+    private long started;
+
+    private ScheduledExecutorService scheduledExecutor;
+
+    @Override
+    public void configure(final String name, final Map<String, Object> configuration) {
+        this.name = name;
+        final String serverUrl = String.valueOf(configuration.getOrDefault(SERVER_URL_KEY, DEFAULT_SERVER_URL));
+        try {
+            this.progressUrl = new URL(serverUrl.replaceAll("/+$", "") + PROGRESS_ENDPOINT);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Invalid RRE Server URL " + serverUrl, e);
+        }
+        this.run = String.valueOf(configuration.getOrDefault(RUN_KEY, UUID.randomUUID().toString()));
+        this.batchSize = Integer.parseInt(String.valueOf(configuration.getOrDefault(BATCH_SIZE_KEY, DEFAULT_BATCH_SIZE)));
+        this.runIntervalMs = Long.parseLong(String.valueOf(configuration.getOrDefault(RUN_INTERVAL_KEY, DEFAULT_RUN_INTERVAL)));
+        this.timeoutMs = Integer.parseInt(String.valueOf(configuration.getOrDefault(TIMEOUT_KEY, DEFAULT_TIMEOUT)));
+        this.queryQueue = new LinkedBlockingQueue<>(Integer.parseInt(String.valueOf(configuration.getOrDefault(QUEUE_SIZE_KEY, DEFAULT_QUEUE_SIZE))));
+
+        Monitoring.registry().gaugeCollectionSize(QUEUE_SIZE_METER, Tags.of(HANDLER_TAG, name), queryQueue);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void beforeStart() {
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "rre-server-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start() throws PersistenceException {
+        started = System.currentTimeMillis();
+        try {
+            post(STATUS_STARTED, Collections.emptyList());
+        } catch (final IOException e) {
+            throw new PersistenceException("RRE Server at " + progressUrl + " not available: " + e.getMessage(), e);
+        }
+
+        scheduledExecutor.scheduleWithFixedDelay(this::postBatches, runIntervalMs, runIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordQuery(final Query q) {
+        if (!queryQueue.offer(q)) {
+            Monitoring.registry().counter(DROPPED_ITEMS_METER, HANDLER_TAG, name).increment();
+            LOGGER.debug("Progress queue full - query {} dropped", q.getName());
+        }
+    }
+
+    @Override
+    public void beforeStop() {
+        // Stop the scheduled posts, then post what's left from this thread
+        scheduledExecutor.shutdown();
+        try {
+            scheduledExecutor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        postBatches();
+        try {
+            post(STATUS_COMPLETED, Collections.emptyList());
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to post the evaluation completion to RRE Server :: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        scheduledExecutor.shutdownNow();
+    }
+
+    private void postBatches() {
+        final List<Query> batch = new ArrayList<>(batchSize);
+        while (queryQueue.drainTo(batch, batchSize) > 0) {
+            try {
+                post(STATUS_RUNNING, batch);
+            } catch (final IOException e) {
+                LOGGER.warn("Unable to post {} queries to RRE Server :: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Posts the evaluation status, with the given queries, to the server.
+     */
+    private void post(final String status, final List<Query> queries) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) progressUrl.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        connection.setChunkedStreamingMode(0);
+        connection.setRequestProperty("Content-Type", "application/json");
+
+        try (final OutputStream out = connection.getOutputStream()) {
+            write(status, queries, out);
+        }
+
+        final int code = connection.getResponseCode();
+        if (code / 100 != 2) {
+            throw new IOException("HTTP " + code);
+        }
+        connection.getInputStream().close();
+    }
+
+    /**
+     * Writes a progress batch, as {"run", "status", "started", "queries": [{"corpus", "topic", "query-group", "query",
+     * "metrics": {"metric name": {"version": value}}}]}.
+     */
+    void write(final String status, final List<Query> queries, final OutputStream out) throws IOException {
+        try (final JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("run", run);
+            generator.writeStringField("status", status);
+            generator.writeNumberField("started", started);
+
+            generator.writeArrayFieldStart("queries");
+            for (final Query query : queries) {
+                generator.writeStartObject();
+                final Optional<DomainMember> group = query.getParent();
+                final Optional<DomainMember> topic = group.flatMap(DomainMember::getParent);
+                final Optional<DomainMember> corpus = topic.flatMap(DomainMember::getParent);
+                generator.writeStringField("corpus", corpus.map(DomainMember::getName).orElse(null));
+                generator.writeStringField("topic", topic.map(DomainMember::getName).orElse(null));
+                generator.writeStringField("query-group", group.map(DomainMember::getName).orElse(null));
+                generator.writeStringField("query", query.getName());
+
+                generator.writeObjectFieldStart("metrics");
+                for (final Metric metric : query.getMetrics().values()) {
+                    generator.writeObjectFieldStart(metric.getName());
+                    for (final Map.Entry<String, ValueFactory> entry : metric.getVersions().entrySet()) {
+                        final BigDecimal value = entry.getValue().value();
+                        if (value != null) {
+                            generator.writeNumberField(entry.getKey(), value);
+                        }
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
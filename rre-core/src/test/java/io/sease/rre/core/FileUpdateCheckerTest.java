@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -85,6 +86,68 @@ public class FileUpdateCheckerTest {
         assertFalse(checker.directoryHasChanged(existingDirPath));
     }
 
+    @Test
+    public void directoryHasChanged_memoizesResultWithinRun() throws Exception {
+        File checksumFile = tempFolder.newFile("checksums.csv");
+        File newDir = tempFolder.newFolder();
+
+        FileUpdateChecker checker = new FileUpdateChecker(checksumFile.getAbsolutePath());
+
+        assertTrue(checker.directoryHasChanged(newDir.getAbsolutePath()));
+        assertTrue(checker.directoryHasChanged(newDir.getAbsolutePath()));
+    }
+
+    @Test
+    public void directoryHasChanged_returnsTrueForModifiedFileAfterWritingManifest() throws Exception {
+        File checksumFile = tempFolder.newFile("checksums.csv");
+        File dir = tempFolder.newFolder();
+        File tmpFile = new File(dir, "tmp.txt");
+        try (final PrintWriter pw = new PrintWriter(new FileWriter(tmpFile))) {
+            pw.println("Before");
+        }
+
+        FileUpdateChecker checker = new FileUpdateChecker(checksumFile.getAbsolutePath());
+        checker.directoryHasChanged(dir.getAbsolutePath());
+        checker.writeChecksums();
+        assertTrue(new File(checksumFile.getAbsolutePath() + FileUpdateChecker.MANIFEST_SUFFIX).exists());
+
+        assertFalse(new FileUpdateChecker(checksumFile.getAbsolutePath()).directoryHasChanged(dir.getAbsolutePath()));
+
+        try (final PrintWriter pw = new PrintWriter(new FileWriter(tmpFile))) {
+            pw.println("After, and longer");
+        }
+
+        assertTrue(new FileUpdateChecker(checksumFile.getAbsolutePath()).directoryHasChanged(dir.getAbsolutePath()));
+    }
+
+    @Test
+    public void writeChecksums_dropsDeletedFilesFromManifest() throws Exception {
+        File checksumFile = tempFolder.newFile("checksums.csv");
+        File manifestFile = new File(checksumFile.getAbsolutePath() + FileUpdateChecker.MANIFEST_SUFFIX);
+        File dir = tempFolder.newFolder();
+        File kept = new File(dir, "kept.txt");
+        File deleted = new File(dir, "deleted.txt");
+        for (File file : new File[]{ kept, deleted }) {
+            try (final PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+                pw.println(file.getName());
+            }
+        }
+
+        FileUpdateChecker checker = new FileUpdateChecker(checksumFile.getAbsolutePath());
+        checker.directoryHasChanged(dir.getAbsolutePath());
+        checker.writeChecksums();
+        assertTrue(new String(Files.readAllBytes(manifestFile.toPath())).contains(deleted.getAbsolutePath()));
+
+        assertTrue(deleted.delete());
+        checker = new FileUpdateChecker(checksumFile.getAbsolutePath());
+        assertTrue(checker.directoryHasChanged(dir.getAbsolutePath()));
+        checker.writeChecksums();
+
+        String manifest = new String(Files.readAllBytes(manifestFile.toPath()));
+        assertTrue(manifest.contains(kept.getAbsolutePath()));
+        assertFalse(manifest.contains(deleted.getAbsolutePath()));
+    }
+
     private Map<String, String> initialiseChecksumFile(File checksumFile, int testDirCount) throws IOException {
         Map<String, String> checksums = new HashMap<>();
         for (int i = 0; i < testDirCount; i ++) {
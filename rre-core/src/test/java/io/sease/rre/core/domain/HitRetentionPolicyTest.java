@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.core.domain.metrics.ValueFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the hit retention policy, as applied by {@link Query}.
+ *
+ * @since 1.2
+ */
+public class HitRetentionPolicyTest {
+
+    private static final String VERSION = "v1.0";
+
+    private final AtomicInteger collected = new AtomicInteger();
+    private Query query;
+
+    @Before
+    public void setupQuery() throws Exception {
+        query = new Query();
+        query.setRelevantDocuments(new ObjectMapper().readTree("{ \"2\": { \"gain\": 3 } }"));
+        query.prepare(Collections.singletonList(new Metric("counter") {
+            @Override
+            public ValueFactory createValueFactory(String version) {
+                return null;
+            }
+
+            @Override
+            public void collect(Map<String, Object> hit, int rank, String version) {
+                collected.incrementAndGet();
+            }
+        }));
+    }
+
+    @Test
+    public void retainAll_keepsAllFieldsAndHits() {
+        collectHits(3);
+
+        final List<Map<String, Object>> hits = query.getResults().get(VERSION).hits();
+        assertEquals(3, hits.size());
+        assertEquals("Title 1", hits.get(0).get("title"));
+        assertEquals("Body 1", hits.get(0).get("body"));
+        assertFalse(hits.get(0).containsKey("_isRelevant"));
+        assertEquals(true, hits.get(1).get("_isRelevant"));
+        assertEquals(3, ((Number) hits.get(1).get("_gain")).intValue());
+    }
+
+    @Test
+    public void retainedFields_projectsHits() {
+        query.setHitRetentionPolicy(new HitRetentionPolicy(Collections.singletonList("title"), 0));
+        collectHits(3);
+
+        final List<Map<String, Object>> hits = query.getResults().get(VERSION).hits();
+        assertEquals(3, hits.size());
+        assertEquals("1", hits.get(0).get("id"));
+        assertEquals(1.0f, hits.get(0).get("score"));
+        assertEquals("Title 1", hits.get(0).get("title"));
+        assertNull(hits.get(0).get("body"));
+        assertEquals(3, hits.get(0).size());
+        assertEquals(true, hits.get(1).get("_isRelevant"));
+    }
+
+    @Test
+    public void maxHits_limitsRetainedHitsButNotMetrics() {
+        query.setHitRetentionPolicy(new HitRetentionPolicy(null, 2));
+        collectHits(5);
+
+        assertEquals(5, collected.get());
+        assertEquals(2, query.getResults().get(VERSION).hits().size());
+    }
+
+    @Test
+    public void retainAll_keepsHitsUnchanged() {
+        final Map<String, Object> hit = hit(1);
+        hit.put("tags", Arrays.asList("a", "b"));
+        query.collect(hit, 1, VERSION);
+
+        assertEquals(hit, query.getResults().get(VERSION).hits().get(0));
+    }
+
+    @Test
+    public void retainedFields_definesRetrievalFields() {
+        final HitRetentionPolicy policy = new HitRetentionPolicy(Arrays.asList("title", "missing"), 0);
+
+        assertTrue(policy.isRetainedField("title", "id"));
+        assertTrue(policy.isRetainedField("id", "id"));
+        assertTrue(policy.isRetainedField("score", "id"));
+        assertFalse(policy.isRetainedField("body", "id"));
+        assertTrue(HitRetentionPolicy.RETAIN_ALL.isRetainedField("body", "id"));
+        assertArrayEquals(new String[]{"id", "score", "title", "missing"},
+                policy.retrievalFields(new String[]{"*"}, "id"));
+        assertArrayEquals(new String[]{"*"}, HitRetentionPolicy.RETAIN_ALL.retrievalFields(new String[]{"*"}, "id"));
+    }
+
+    private void collectHits(int count) {
+        query.setTotalHits(count, VERSION);
+        for (int i = 1; i <= count; i++) {
+            query.collect(hit(i), i, VERSION);
+        }
+    }
+
+    private static Map<String, Object> hit(int i) {
+        final Map<String, Object> hit = new HashMap<>();
+        hit.put("id", String.valueOf(i));
+        hit.put("score", (float) i);
+        hit.put("title", "Title " + i);
+        hit.put("body", "Body " + i);
+        return hit;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Latency recording and aggregation tests.
+ *
+ * @since 1.2
+ */
+public class LatencyTest {
+
+    private static final double PRECISION = 0.01;
+
+    @Test
+    public void percentilesAreComputedInMillis() {
+        final Latency latency = new Latency();
+        for (int i = 1; i <= 100; i++) {
+            latency.record(i * 1000, -1);
+        }
+
+        assertEquals(100, latency.getCount());
+        assertEquals(50.5, latency.getMean().doubleValue(), PRECISION);
+        assertEquals(50, latency.getP50().doubleValue(), PRECISION * 50);
+        assertEquals(95, latency.getP95().doubleValue(), PRECISION * 95);
+        assertEquals(99, latency.getP99().doubleValue(), PRECISION * 99);
+        assertNull(latency.getTook());
+    }
+
+    @Test
+    public void mergedPercentilesCoverAllRequests() {
+        final Latency fast = new Latency();
+        final Latency slow = new Latency();
+        for (int i = 0; i < 90; i++) {
+            fast.record(1000, 1);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(100000, 90);
+        }
+
+        final Latency merged = new Latency();
+        merged.merge(fast);
+        merged.merge(slow);
+
+        assertEquals(100, merged.getCount());
+        assertEquals(1, merged.getP50().doubleValue(), PRECISION);
+        assertEquals(100, merged.getP95().doubleValue(), 1);
+        assertEquals(100L, merged.getTook().get("count"));
+        assertEquals(90L, merged.getTook().get("p99"));
+    }
+
+    @Test
+    public void queryLatencyIsMergedIntoParentsOnce() {
+        final QueryGroup group = new QueryGroup();
+        final Query first = group.findOrCreate("first", Query::new);
+        final Query second = group.findOrCreate("second", Query::new);
+        first.collectLatency(2000, 1, "v1.0");
+        first.collectLatency(4000, 3, "v1.1");
+        second.collectLatency(6000, 5, "v1.0");
+
+        first.notifyCollectedMetrics();
+        second.notifyCollectedMetrics();
+        // Persistence handlers may notify again
+        first.notifyCollectedMetrics();
+
+        assertEquals(2, group.getLatency().get("v1.0").getCount());
+        assertEquals(4, group.getLatency().get("v1.0").getMean().doubleValue(), PRECISION);
+        assertEquals(1, group.getLatency().get("v1.1").getCount());
+    }
+
+    @Test
+    public void latencyIsSerialisedByVersion() {
+        final Query query = new Query();
+        query.setName("query");
+        query.collectLatency(1500, 2, "v1.0");
+
+        final JsonNode json = new ObjectMapper().valueToTree(query);
+
+        final JsonNode v1 = json.get("latency").get("v1.0");
+        assertEquals(1, v1.get("count").asLong());
+        assertEquals(1.5, v1.get("mean").asDouble(), PRECISION);
+        assertEquals(2, v1.get("took").get("max").asLong());
+        assertFalse(json.has("latencies"));
+    }
+
+    @Test
+    public void emptyLatencyIsNotSerialised() {
+        final Query query = new Query();
+        query.setName("query");
+
+        assertTrue(new ObjectMapper().valueToTree(query).path("latency").isMissingNode());
+    }
+}
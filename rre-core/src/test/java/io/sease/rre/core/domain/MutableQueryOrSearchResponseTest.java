@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the columnar hit storage in {@link MutableQueryOrSearchResponse}.
+ *
+ * @since 1.2
+ */
+public class MutableQueryOrSearchResponseTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void hits_serializeToOriginalShape() {
+        final HitDictionary dictionary = new HitDictionary();
+        final MutableQueryOrSearchResponse response = new MutableQueryOrSearchResponse(dictionary, "id");
+        final List<Map<String, Object>> original = new ArrayList<>();
+
+        for (int i = 0; i < 40; i++) {
+            final Map<String, Object> hit = new LinkedHashMap<>();
+            hit.put("id", i == 3 ? (Object) 3 : "doc" + i);
+            if (i % 5 != 0) {
+                hit.put("score", i % 7 == 0 ? (Object) 0.5d : (Object) (float) i);
+            }
+            if (i % 2 == 0) {
+                hit.put("title", "Title " + i);
+            }
+            if (i == 10) {
+                hit.put("late", Arrays.asList("a", "b"));
+                hit.put("nothing", null);
+            }
+            if (i % 3 == 0) {
+                hit.put("_isRelevant", true);
+                hit.put("_gain", i == 9 ? new BigDecimal("1.5") : BigDecimal.valueOf(i % 4));
+            }
+            original.add(hit);
+            response.collect(hit, i + 1, "v1.0");
+        }
+        response.setTotalHits(1000, "v1.0");
+
+        final ObjectNode expected = mapper.createObjectNode();
+        expected.put("total-hits", 1000L);
+        final ArrayNode hits = expected.putArray("hits");
+        original.forEach(hit -> hits.add(mapper.valueToTree(hit)));
+
+        final JsonNode actual = mapper.valueToTree(response);
+        assertEquals(expected, actual);
+        assertEquals(40, response.hits().size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i), response.hits().get(i));
+            assertEquals(original.get(i).size(), response.hits().get(i).size());
+        }
+        assertEquals("doc20", response.hits().get(20).get("id"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void hits_rejectsIndexPastEnd() {
+        final MutableQueryOrSearchResponse response = new MutableQueryOrSearchResponse(new HitDictionary(), "id");
+        response.collect(new LinkedHashMap<>(), 1, "v1.0");
+
+        response.hits().get(1);
+    }
+
+    @Test
+    public void dictionary_isSharedBetweenVersions() {
+        final HitDictionary dictionary = new HitDictionary();
+        final MutableQueryOrSearchResponse v1 = new MutableQueryOrSearchResponse(dictionary, "id");
+        final MutableQueryOrSearchResponse v2 = new MutableQueryOrSearchResponse(dictionary, "id");
+
+        final Map<String, Object> hit = new LinkedHashMap<>();
+        hit.put("id", "doc1");
+        v1.collect(hit, 1, "v1");
+        v2.collect(hit, 1, "v2");
+
+        assertEquals(0, dictionary.id("doc1"));
+        assertEquals(1, dictionary.id("doc2"));
+        assertEquals(v1.hits().get(0), v2.hits().get(0));
+    }
+}
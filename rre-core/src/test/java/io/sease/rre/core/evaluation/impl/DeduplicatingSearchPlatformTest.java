@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.evaluation.impl;
+
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the deduplicating search platform decorator.
+ *
+ * @since 1.2
+ */
+public class DeduplicatingSearchPlatformTest {
+
+    private static final String INDEX_NAME = "test";
+    private static final String[] FIELDS = new String[]{"id"};
+
+    private final SearchPlatform platform = mock(SearchPlatform.class);
+    private DeduplicatingSearchPlatform deduplicating;
+
+    @Before
+    public void setup() {
+        when(platform.getRequestTarget(INDEX_NAME, "v1.0")).thenReturn("shared");
+        when(platform.getRequestTarget(INDEX_NAME, "v1.1")).thenReturn("shared");
+        when(platform.getRequestTarget(INDEX_NAME, "v2.0")).thenReturn("other");
+        when(platform.executeQuery(eq(INDEX_NAME), anyString(), anyString(), any(String[].class), anyInt()))
+                .thenAnswer(invocation -> new QueryOrSearchResponse(1, Collections.emptyList()));
+        deduplicating = new DeduplicatingSearchPlatform(platform);
+    }
+
+    @Test
+    public void executeQuery_sharesResponseForSameTarget() {
+        final QueryOrSearchResponse first = deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=a", FIELDS, 10);
+        final QueryOrSearchResponse second = deduplicating.executeQuery(INDEX_NAME, "v1.1", "q=a", FIELDS, 10);
+
+        assertSame(first, second);
+        verify(platform, times(1)).executeQuery(eq(INDEX_NAME), anyString(), eq("q=a"), any(String[].class), anyInt());
+        assertEquals(2, deduplicating.getRequestCount());
+        assertEquals(1, deduplicating.getExecutionCount());
+    }
+
+    @Test
+    public void executeQuery_executesDistinctRequests() {
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=a", FIELDS, 10);
+        deduplicating.executeQuery(INDEX_NAME, "v2.0", "q=a", FIELDS, 10);
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=b", FIELDS, 10);
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=a", FIELDS, 20);
+
+        assertEquals(4, deduplicating.getExecutionCount());
+    }
+
+    @Test
+    public void executeQuery_retriesFailedRequests() {
+        when(platform.executeQuery(eq(INDEX_NAME), anyString(), eq("q=fail"), any(String[].class), anyInt()))
+                .thenReturn(new QueryOrSearchResponse("Error"));
+
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=fail", FIELDS, 10);
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=fail", FIELDS, 10);
+
+        assertEquals(2, deduplicating.getExecutionCount());
+    }
+
+    @Test
+    public void executeQuery_discardsLeastRecentlyUsedResponses() {
+        deduplicating = new DeduplicatingSearchPlatform(platform, 1);
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=a", FIELDS, 10);
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=b", FIELDS, 10);
+        deduplicating.executeQuery(INDEX_NAME, "v1.0", "q=a", FIELDS, 10);
+
+        assertEquals(3, deduplicating.getExecutionCount());
+    }
+}
@@ -20,14 +20,20 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.sease.rre.core.domain.Query;
 import io.sease.rre.core.evaluation.EvaluationManager;
+import io.sease.rre.core.template.QueryTemplate;
 import io.sease.rre.core.template.QueryTemplateManager;
 import io.sease.rre.persistence.PersistenceManager;
 import io.sease.rre.search.api.QueryOrSearchResponse;
 import io.sease.rre.search.api.SearchPlatform;
+import io.sease.rre.search.api.replay.RecordingSearchPlatform;
+import io.sease.rre.search.api.replay.ReplaySearchPlatform;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
@@ -41,6 +47,7 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.isA;
 import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -61,6 +68,9 @@ public class EvaluationManagerQueryTests {
     private static final String QUERY_VALUE = "q=" + QUERY_TEXT;
     private static final int THREADPOOL_SIZE = 4;
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     private final SearchPlatform platform = mock(SearchPlatform.class);
     private final PersistenceManager persistenceManager = mock(PersistenceManager.class);
     private final QueryTemplateManager templateManager = mock(QueryTemplateManager.class);
@@ -73,6 +83,8 @@ public class EvaluationManagerQueryTests {
 
 
     private static final String WRONG_TEMPLATE = "wrong_query.json";
+    private static final String JSON_TEMPLATE = "json_query.json";
+    private static final String JSON_QUERY_TEMPLATE = "{ \"q\": \"$query\" }";
 
     @Before
     public void setup() throws Exception {
@@ -83,6 +95,8 @@ public class EvaluationManagerQueryTests {
         // Set up template manager
         when(templateManager.getTemplate(isNull(), eq(TEMPLATE), isA(String.class))).thenReturn(QUERY_TEMPLATE);
         when(templateManager.getTemplate(isNull(), eq(WRONG_TEMPLATE), isA(String.class))).thenReturn(WRONG_QUERY_TEMPLATE);
+        when(templateManager.getQueryTemplate(isNull(), eq(TEMPLATE), isA(String.class))).thenReturn(new QueryTemplate(QUERY_TEMPLATE));
+        when(templateManager.getQueryTemplate(isNull(), eq(WRONG_TEMPLATE), isA(String.class))).thenReturn(new QueryTemplate(WRONG_QUERY_TEMPLATE));
 
         // Set up platform for each version query
         versions.forEach(v -> when(platform.executeQuery(eq(INDEX_NAME), eq(v), eq(QUERY_VALUE), any(String[].class), anyInt()))
@@ -156,6 +170,43 @@ public class EvaluationManagerQueryTests {
 
 
 
+    @Test
+    public void evaluateQuery_passesParsedQueryToJsonPlatforms() throws Exception {
+        final JsonNode jsonQueryNode = buildQueryNode(JSON_TEMPLATE);
+        when(templateManager.getQueryTemplate(isNull(), eq(JSON_TEMPLATE), isA(String.class))).thenReturn(new QueryTemplate(JSON_QUERY_TEMPLATE));
+        when(platform.isJsonQuerySupported()).thenReturn(true);
+        versions.forEach(v -> when(platform.executeQuery(eq(INDEX_NAME), eq(v), any(JsonNode.class), any(String[].class), anyInt()))
+                .thenReturn(new QueryOrSearchResponse(0, Collections.emptyList())));
+
+        final EvaluationManager evaluationManager = new SynchronousEvaluationManager(platform, templateManager, persistenceManager, fields, versions, null);
+        evaluationManager.evaluateQuery(query, INDEX_NAME, jsonQueryNode, null, DOC_IDS.size());
+
+        final JsonNode expected = new ObjectMapper().readTree("{ \"q\": \"" + QUERY_TEXT + "\" }");
+        versions.forEach(v -> verify(platform).executeQuery(eq(INDEX_NAME), eq(v), eq(expected), eq(fields), anyInt()));
+        verifyPersistence();
+    }
+
+    @Test
+    public void evaluateQuery_recordsStringQueriesVerbatim() throws Exception {
+        final File recording = new File(tempFolder.getRoot(), "responses.rec");
+        final SearchPlatform recordingPlatform = new RecordingSearchPlatform(platform, recording);
+        recordingPlatform.beforeStart(Collections.emptyMap());
+
+        final EvaluationManager evaluationManager = new SynchronousEvaluationManager(recordingPlatform, templateManager, persistenceManager, fields, versions, null);
+        evaluateAndWaitUntilDone(evaluationManager);
+        recordingPlatform.close();
+
+        Assert.assertEquals(0, evaluationManager.getFailedQueries());
+        verifySearchPlatform();
+        verify(platform, never()).executeQuery(any(String.class), any(String.class), any(JsonNode.class), any(String[].class), anyInt());
+
+        try (SearchPlatform replay = new ReplaySearchPlatform(recording)) {
+            replay.beforeStart(Collections.emptyMap());
+            Assert.assertFalse(replay.isJsonQuerySupported());
+            versions.forEach(v -> Assert.assertFalse(replay.executeQuery(INDEX_NAME, v, QUERY_VALUE, fields, 10).isFailed()));
+        }
+    }
+
     private void evaluateAndWaitQueriesWithErrorUntilDone(EvaluationManager evaluationManager) {
         evaluationManager.evaluateQuery(query, INDEX_NAME, queryNodeWithWrongTemplate, null, DOC_IDS.size());
         evaluationManager.evaluateQuery(query, INDEX_NAME, queryNode, null, DOC_IDS.size());
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.evaluation.impl;
+
+import io.sease.rre.core.evaluation.ResiliencePolicy;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the resilient search platform decorator.
+ *
+ * @since 1.2
+ */
+public class ResilientSearchPlatformTest {
+
+    private static final String INDEX_NAME = "test";
+    private static final String VERSION = "v1.0";
+    private static final String[] FIELDS = new String[]{"id"};
+
+    private final SearchPlatform platform = mock(SearchPlatform.class);
+
+    @Before
+    public void setup() {
+        when(platform.getRequestTarget(eq(INDEX_NAME), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    public void executeQuery_retriesTransientFailures() {
+        when(platform.executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt()))
+                .thenReturn(new QueryOrSearchResponse("Unavailable", true))
+                .thenThrow(new RuntimeException("Connection reset"))
+                .thenReturn(new QueryOrSearchResponse(1, Collections.emptyList()));
+        final ResilientSearchPlatform resilient = new ResilientSearchPlatform(platform, new ResiliencePolicy(0, 2, 1, 0, 0, 0));
+
+        final QueryOrSearchResponse response = resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+
+        assertFalse(response.isFailed());
+        assertEquals(2, resilient.getRetryCount());
+        verify(platform, times(3)).executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt());
+    }
+
+    @Test
+    public void executeQuery_doesNotRetryPermanentFailures() {
+        when(platform.executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt()))
+                .thenReturn(new QueryOrSearchResponse("Syntax error"));
+        final ResilientSearchPlatform resilient = new ResilientSearchPlatform(platform, new ResiliencePolicy(0, 2, 1, 0, 0, 0));
+
+        final QueryOrSearchResponse response = resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+
+        assertTrue(response.isFailed());
+        assertEquals(0, resilient.getRetryCount());
+        verify(platform, times(1)).executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt());
+    }
+
+    @Test
+    public void executeQuery_failsSlowRequestsAtDeadline() {
+        when(platform.executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(2000);
+                    return new QueryOrSearchResponse(1, Collections.emptyList());
+                });
+        final ResilientSearchPlatform resilient = new ResilientSearchPlatform(platform, new ResiliencePolicy(50, 0, 0, 0, 0, 0));
+
+        final long start = System.currentTimeMillis();
+        final QueryOrSearchResponse response = resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+
+        assertTrue(response.isFailed());
+        assertTrue(response.isRetryable());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals(1, resilient.getTimeoutCount());
+        resilient.beforeStop();
+    }
+
+    @Test
+    public void executeQuery_boundsThreadsWhenTargetHangs() {
+        final CountDownLatch hang = new CountDownLatch(1);
+        final AtomicInteger interrupts = new AtomicInteger();
+        when(platform.executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt()))
+                .thenAnswer(invocation -> {
+                    // Block until the end of the test, whether interrupted or not
+                    while (hang.getCount() > 0) {
+                        try {
+                            hang.await();
+                        } catch (InterruptedException e) {
+                            interrupts.incrementAndGet();
+                        }
+                    }
+                    return new QueryOrSearchResponse(1, Collections.emptyList());
+                });
+        final long before = countRequestThreads();
+        final ResilientSearchPlatform resilient = new ResilientSearchPlatform(platform, new ResiliencePolicy(20, 1, 1, 0, 0, 0), 2);
+
+        try {
+            for (int i = 0; i < 20; i++) {
+                final QueryOrSearchResponse response = resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+                assertTrue(response.isFailed());
+            }
+
+            assertTrue(countRequestThreads() - before <= 4);
+            assertTrue(interrupts.get() > 0);
+            assertEquals(40, resilient.getTimeoutCount());
+        } finally {
+            hang.countDown();
+            resilient.beforeStop();
+        }
+    }
+
+    @Test
+    public void executeQuery_hedgesSlowRequests() {
+        final AtomicInteger calls = new AtomicInteger();
+        when(platform.executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt()))
+                .thenAnswer(invocation -> {
+                    // Every request is fast, apart from the first one after the latency history is built
+                    if (calls.incrementAndGet() == ResilientSearchPlatform.MIN_HEDGE_SAMPLES + 1) {
+                        Thread.sleep(2000);
+                    }
+                    return new QueryOrSearchResponse(1, Collections.emptyList());
+                });
+        final ResilientSearchPlatform resilient = new ResilientSearchPlatform(platform, new ResiliencePolicy(0, 0, 0, 90, 0, 0));
+
+        for (int i = 0; i < ResilientSearchPlatform.MIN_HEDGE_SAMPLES; i++) {
+            assertFalse(resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10).isFailed());
+        }
+        assertEquals(0, resilient.getHedgeCount());
+
+        final long start = System.currentTimeMillis();
+        final QueryOrSearchResponse response = resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+
+        assertFalse(response.isFailed());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals(1, resilient.getHedgeCount());
+        resilient.beforeStop();
+    }
+
+    @Test
+    public void executeQuery_rejectsRequestsWhileCircuitOpen() throws Exception {
+        when(platform.executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt()))
+                .thenReturn(new QueryOrSearchResponse("Unavailable", true))
+                .thenReturn(new QueryOrSearchResponse("Unavailable", true))
+                .thenReturn(new QueryOrSearchResponse(1, Collections.emptyList()));
+        when(platform.executeQuery(eq(INDEX_NAME), eq("v2.0"), anyString(), any(String[].class), anyInt()))
+                .thenReturn(new QueryOrSearchResponse(1, Collections.emptyList()));
+        final ResilientSearchPlatform resilient = new ResilientSearchPlatform(platform, new ResiliencePolicy(0, 0, 0, 0, 2, 100));
+
+        resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+        resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10);
+        assertTrue(resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10).isFailed());
+        assertEquals(1, resilient.getRejectionCount());
+
+        // Other targets are unaffected
+        assertFalse(resilient.executeQuery(INDEX_NAME, "v2.0", "q=a", FIELDS, 10).isFailed());
+
+        // After the reset period, a trial request closes the circuit
+        Thread.sleep(150);
+        assertFalse(resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10).isFailed());
+        assertFalse(resilient.executeQuery(INDEX_NAME, VERSION, "q=a", FIELDS, 10).isFailed());
+        verify(platform, times(4)).executeQuery(eq(INDEX_NAME), eq(VERSION), anyString(), any(String[].class), anyInt());
+    }
+
+    private static long countRequestThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith("rre-request-"))
+                .count();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.monitoring;
+
+import io.sease.rre.core.monitoring.FlightRecorderEvents.Span;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the Flight Recorder events.
+ *
+ * @since 1.2
+ */
+public class FlightRecorderEventsTest {
+
+    @After
+    public void disableEvents() {
+        FlightRecorderEvents.setEnabled(false);
+    }
+
+    @Test
+    public void emitsNothingWhenDisabled() {
+        FlightRecorderEvents.setEnabled(false);
+        assertSame(Span.NONE, FlightRecorderEvents.queryExecution("basses", "v1.0", "fender"));
+        assertSame(Span.NONE, FlightRecorderEvents.persistence("fender"));
+    }
+
+    @Test
+    public void recordsQueryExecution() throws Exception {
+        FlightRecorderEvents.setEnabled(true);
+        assertTrue(FlightRecorderEvents.isEnabled());
+
+        final Path dump = Files.createTempFile("rre", ".jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable("io.sease.rre.QueryExecution");
+            recording.start();
+            try (final Span ignored = FlightRecorderEvents.queryExecution("basses", "v1.0", "fender")) {
+                Thread.sleep(5);
+            }
+            recording.stop();
+            recording.dump(dump);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertEquals(1, events.size());
+            final RecordedEvent event = events.get(0);
+            assertEquals("basses", event.getString("collection"));
+            assertEquals("v1.0", event.getString("version"));
+            assertEquals("fender", event.getString("query"));
+            assertTrue(event.getDuration().toMillis() >= 5);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the monitoring lifecycle.
+ *
+ * @since 1.2
+ */
+public class MonitoringTest {
+
+    @Test
+    public void isDisabledWithoutPublishers() {
+        assertSame(Monitoring.DISABLED, Monitoring.start(false, 0));
+    }
+
+    @Test
+    public void servesPrometheusTextFormat() throws Exception {
+        final int port = freePort();
+        try (final Monitoring ignored = Monitoring.start(false, port)) {
+            Monitoring.registry().counter("rre.queries.dispatched", "version", "v1.0").increment(3);
+
+            final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + Monitoring.PROMETHEUS_PATH).openConnection();
+            assertEquals(200, connection.getResponseCode());
+            final String body = read(connection.getInputStream());
+            assertTrue(body.contains("rre_queries_dispatched_total{version=\"v1.0\",} 3.0"));
+            assertTrue(body.contains("jvm_gc_memory_allocated_bytes_total"));
+        }
+
+        // The endpoint is stopped with the evaluation
+        try (final ServerSocket socket = new ServerSocket(port)) {
+            assertEquals(port, socket.getLocalPort());
+        }
+    }
+
+    @Test
+    public void publishesMBeans() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName pattern = new ObjectName(Monitoring.JMX_DOMAIN + ":*");
+
+        try (final Monitoring ignored = Monitoring.start(true, 0)) {
+            Monitoring.registry().counter("rre.queries.completed", "version", "v1.0").increment();
+            assertFalse(server.queryNames(pattern, null).isEmpty());
+        }
+
+        assertTrue(server.queryNames(pattern, null).isEmpty());
+    }
+
+    @Test
+    public void closeKeepsMetersBoundBeforeStart() {
+        final ExecutorService first = Executors.newFixedThreadPool(1);
+        final ExecutorService second = Executors.newFixedThreadPool(2);
+        final SimpleMeterRegistry simple = new SimpleMeterRegistry();
+        Metrics.addRegistry(simple);
+        try {
+            Monitoring.monitor(first, "test");
+            try (final Monitoring ignored = Monitoring.start(true, 0)) {
+                Monitoring.registry().counter("rre.test.requests", "version", "v1.0").increment();
+            }
+
+            assertNull(Monitoring.registry().find("rre.test.requests").counter());
+            assertEquals(1, Monitoring.registry().find("executor.pool.size").tag("name", "rre.test").gauges().size());
+
+            // Monitoring a new pool with the same name replaces the meters of the previous one
+            second.submit(() -> { }).get();
+            Monitoring.monitor(second, "test");
+            final Collection<Gauge> poolSizes = Monitoring.registry().find("executor.pool.size").tag("name", "rre.test").gauges();
+            assertEquals(1, poolSizes.size());
+            assertEquals(1.0, poolSizes.iterator().next().value(), 0);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        } finally {
+            Metrics.removeRegistry(simple);
+            first.shutdownNow();
+            second.shutdownNow();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        try (final InputStream input = in) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.core.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the compiled {@link QueryTemplate}.
+ *
+ * @since 1.2
+ */
+public class QueryTemplateTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void render_replacesAllPlaceholders() throws Exception {
+        final QueryTemplate template = new QueryTemplate("{ \"q\": \"$query\", \"fq\": \"brand:$brand\", \"qf\": \"$query\" }");
+
+        assertEquals(
+                "{ \"q\": \"fender\", \"fq\": \"brand:fender\", \"qf\": \"fender\" }",
+                template.render(placeholders("{ \"$query\": \"fender\", \"$brand\": \"fender\" }")));
+    }
+
+    @Test
+    public void render_returnsContentWithoutPlaceholders() throws Exception {
+        final QueryTemplate template = new QueryTemplate("q=*:*");
+
+        assertEquals("q=*:*", template.render(null));
+        assertEquals("q=*:*", template.render(placeholders("{}")));
+    }
+
+    @Test
+    public void render_prefersLongestPlaceholder() throws Exception {
+        final QueryTemplate template = new QueryTemplate("q=$query&fq=$q");
+
+        assertEquals("q=jazz&fq=bass", template.render(placeholders("{ \"$q\": \"bass\", \"$query\": \"jazz\" }")));
+    }
+
+    @Test
+    public void render_doesNotReplacePlaceholdersWithinValues() throws Exception {
+        final QueryTemplate template = new QueryTemplate("q=$query&fq=$filter");
+
+        assertEquals("q=$filter&fq=bass", template.render(placeholders("{ \"$query\": \"$filter\", \"$filter\": \"bass\" }")));
+    }
+
+    @Test
+    public void render_escapesValuesInJsonStrings() throws Exception {
+        final QueryTemplate template = new QueryTemplate("{ \"q\": \"title:$query\", \"rows\": $rows }", true);
+
+        final String rendered = template.render(placeholders("{ \"$query\": \"\\\"jazz\\\" bass\", \"$rows\": \"10\" }"));
+
+        assertEquals("{ \"q\": \"title:\\\"jazz\\\" bass\", \"rows\": 10 }", rendered);
+        assertEquals("title:\"jazz\" bass", mapper.readTree(rendered).get("q").asText());
+    }
+
+    @Test
+    public void render_doesNotEscapeValuesByDefault() throws Exception {
+        final QueryTemplate template = new QueryTemplate("{ \"q\": \"$query\" }");
+
+        assertEquals("{ \"q\": \"a\\\"b\" }", template.render(placeholders("{ \"$query\": \"a\\\\\\\"b\" }")));
+    }
+
+    private JsonNode placeholders(final String json) throws IOException {
+        return mapper.readTree(json);
+    }
+}
@@ -16,6 +16,7 @@
  */
 package io.sease.rre.core.template.impl;
 
+import io.sease.rre.core.template.QueryTemplate;
 import io.sease.rre.core.template.QueryTemplateManager;
 import org.junit.Before;
 import org.junit.Rule;
@@ -25,9 +26,13 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * Unit tests for the Caching QueryTemplateManager implementation.
@@ -129,6 +134,76 @@ public class CachingTemplateQueryManagerTest {
     }
 
 
+    @Test
+    public void getQueryTemplate_returnsCachedCompiledTemplate() throws Exception {
+        final String vTemplate = "query.json";
+        createTempFile(folder.getRoot(), vTemplate, "q=$query");
+
+        QueryTemplate template = templateManager.getQueryTemplate(null, vTemplate, "1.0");
+
+        assertNotNull(template);
+        assertEquals("q=$query", template.getContent());
+        assertSame(template, templateManager.getQueryTemplate(vTemplate, null, "1.0"));
+    }
+
+    @Test
+    public void preload_readsTemplatesForAllVersions() throws Exception {
+        final String version = "v1.0";
+        final String vTemplate = "query.json";
+        createTempFile(folder.getRoot(), vTemplate, "root");
+        createTempFile(folder.newFolder(version), vTemplate, "versioned");
+
+        CachingQueryTemplateManager manager = new CachingQueryTemplateManager(folder.getRoot().getAbsolutePath());
+        manager.preload(Arrays.asList(version, "v1.1"));
+
+        // Remove the files - the preloaded content should still be returned
+        Files.delete(new File(folder.getRoot(), vTemplate).toPath());
+        Files.delete(new File(new File(folder.getRoot(), version), vTemplate).toPath());
+
+        assertEquals("versioned", manager.getTemplate(null, vTemplate, version));
+        assertEquals("root", manager.getTemplate(null, vTemplate, "v1.1"));
+    }
+
+    @Test
+    public void reload_replacesCachedTemplates() throws Exception {
+        final String vTemplate = "query.json";
+        createTempFile(folder.getRoot(), vTemplate, "q=$query");
+
+        CachingQueryTemplateManager manager = new CachingQueryTemplateManager(folder.getRoot().getAbsolutePath());
+        manager.preload(Collections.singletonList("1.0"));
+        QueryTemplate template = manager.getQueryTemplate(null, vTemplate, "1.0");
+
+        createTempFile(folder.getRoot(), vTemplate, "q=$query&rows=10");
+        manager.reload();
+
+        assertEquals("q=$query&rows=10", manager.getTemplate(null, vTemplate, "1.0"));
+        assertNotSame(template, manager.getQueryTemplate(null, vTemplate, "1.0"));
+        assertEquals("q=$query&rows=10", manager.getQueryTemplate(null, vTemplate, "1.0").getContent());
+    }
+
+    @Test
+    public void startWatching_reloadsChangedTemplatesUntilClosed() throws Exception {
+        final String vTemplate = "query.json";
+        createTempFile(folder.getRoot(), vTemplate, "q=$query");
+
+        try (CachingQueryTemplateManager manager = new CachingQueryTemplateManager(folder.getRoot().getAbsolutePath())) {
+            manager.preload(Collections.singletonList("1.0"));
+            manager.startWatching();
+
+            createTempFile(folder.getRoot(), vTemplate, "q=$query&rows=10");
+            final long deadline = System.currentTimeMillis() + 30000;
+            while (!"q=$query&rows=10".equals(manager.getTemplate(null, vTemplate, "1.0")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("q=$query&rows=10", manager.getTemplate(null, vTemplate, "1.0"));
+
+            manager.close();
+            createTempFile(folder.getRoot(), vTemplate, "q=$query&rows=20");
+            Thread.sleep(500);
+            assertEquals("q=$query&rows=10", manager.getTemplate(null, vTemplate, "1.0"));
+        }
+    }
+
     private void createTempFile(File destFolder, String fileName, String content) {
         try {
             File outFile = new File(destFolder, fileName);
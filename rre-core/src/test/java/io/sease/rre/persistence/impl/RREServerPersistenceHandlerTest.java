@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.persistence.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import io.sease.rre.core.domain.Corpus;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.domain.QueryGroup;
+import io.sease.rre.core.domain.Topic;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.core.domain.metrics.impl.ReciprocalRank;
+import io.sease.rre.persistence.PersistenceException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the RRE Server progress PersistenceHandler implementation.
+ *
+ * @since 1.2
+ */
+public class RREServerPersistenceHandlerTest {
+
+    private static final String HANDLER_NAME = "serverTest";
+    private static final String VERSION = "v1.0";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<JsonNode> posts = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    private RREServerPersistenceHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(RREServerPersistenceHandler.PROGRESS_ENDPOINT, exchange -> {
+            try (final InputStream in = exchange.getRequestBody()) {
+                posts.add(mapper.readTree(in));
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        handler = new RREServerPersistenceHandler();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void completedQueriesArePostedInBatches() throws Exception {
+        handler.configure(HANDLER_NAME, configuration(2, 100));
+        handler.beforeStart();
+        handler.start();
+        handler.recordQuery(query("first"));
+        handler.recordQuery(query("second"));
+        handler.recordQuery(query("third"));
+        handler.beforeStop();
+        handler.stop();
+
+        assertEquals("started", posts.get(0).get("status").asText());
+        assertEquals("completed", posts.get(posts.size() - 1).get("status").asText());
+
+        int queries = 0;
+        for (final JsonNode post : posts) {
+            assertEquals("nightly", post.get("run").asText());
+            if ("running".equals(post.get("status").asText())) {
+                assertTrue(post.get("queries").size() <= 2);
+                queries += post.get("queries").size();
+            }
+        }
+        assertEquals(3, queries);
+
+        final JsonNode query = posts.get(1).get("queries").get(0);
+        assertEquals("corpus", query.get("corpus").asText());
+        assertEquals("topic", query.get("topic").asText());
+        assertEquals("group", query.get("query-group").asText());
+        assertEquals("first", query.get("query").asText());
+        assertEquals(1, query.get("metrics").get("RR@10").get(VERSION).asDouble(), 0);
+    }
+
+    @Test
+    public void queriesAreDropped_whenQueueIsFull() throws Exception {
+        handler.configure(HANDLER_NAME, configuration(10, 1));
+        handler.beforeStart();
+        handler.recordQuery(query("first"));
+        handler.recordQuery(query("second"));
+        handler.beforeStop();
+        handler.stop();
+
+        int queries = 0;
+        for (final JsonNode post : posts) {
+            queries += post.get("queries").size();
+        }
+        assertEquals(1, queries);
+    }
+
+    @Test
+    public void startThrowsException_whenServerIsNotAvailable() throws Exception {
+        final Map<String, Object> configuration = configuration(10, 100);
+        configuration.put(RREServerPersistenceHandler.SERVER_URL_KEY, "http://localhost:" + server.getAddress().getPort());
+        server.stop(0);
+
+        handler.configure(HANDLER_NAME, configuration);
+        handler.beforeStart();
+        try {
+            handler.start();
+            fail("Expected PersistenceException");
+        } catch (PersistenceException e) {
+            // Expected behaviour
+        } finally {
+            handler.stop();
+        }
+    }
+
+    private Map<String, Object> configuration(final int batchSize, final int queueSize) {
+        final Map<String, Object> configuration = new HashMap<>();
+        configuration.put(RREServerPersistenceHandler.SERVER_URL_KEY, "http://localhost:" + server.getAddress().getPort() + "/");
+        configuration.put(RREServerPersistenceHandler.RUN_KEY, "nightly");
+        configuration.put(RREServerPersistenceHandler.BATCH_SIZE_KEY, String.valueOf(batchSize));
+        configuration.put(RREServerPersistenceHandler.QUEUE_SIZE_KEY, String.valueOf(queueSize));
+        configuration.put(RREServerPersistenceHandler.RUN_INTERVAL_KEY, "10");
+        return configuration;
+    }
+
+    private Query query(final String name) {
+        final Evaluation evaluation = new Evaluation();
+        final Query query = evaluation.findOrCreate("corpus", Corpus::new)
+                .findOrCreate("topic", Topic::new)
+                .findOrCreate("group", QueryGroup::new)
+                .findOrCreate(name, Query::new);
+
+        final ObjectNode judgments = mapper.createObjectNode();
+        final Metric metric = new ReciprocalRank();
+        metric.setVersions(Collections.singletonList(VERSION));
+        metric.setRelevantDocuments(judgments);
+        query.prepare(Collections.singletonList(metric));
+        query.setRelevantDocuments(judgments);
+        query.setTotalHits(0, VERSION);
+        return query;
+    }
+}
@@ -17,12 +17,15 @@
 package io.sease.rre.maven.plugin.report;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
 import io.sease.rre.maven.plugin.report.formats.OutputFormat;
+import io.sease.rre.maven.plugin.report.formats.impl.HtmlOutputFormat;
 import io.sease.rre.maven.plugin.report.formats.impl.RREOutputFormat;
 import io.sease.rre.maven.plugin.report.formats.impl.SpreadsheetOutputFormat;
 import io.sease.rre.maven.plugin.report.formats.impl.UrlRREOutputFormat;
+import io.sease.rre.maven.plugin.report.reader.ConcurrentVisitor;
+import io.sease.rre.maven.plugin.report.reader.EvaluationReader;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
 import io.sease.rre.persistence.impl.JsonPersistenceHandler;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -31,15 +34,12 @@ import org.apache.maven.reporting.AbstractMavenReport;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Spliterator;
 
-import static io.sease.rre.maven.plugin.report.Utility.all;
-import static java.util.Optional.ofNullable;
 import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
@@ -65,58 +65,152 @@ public class RREMavenReport extends AbstractMavenReport {
 
     {
         formatters.put("spreadsheet", new SpreadsheetOutputFormat());
+        formatters.put("html", new HtmlOutputFormat());
         formatters.put("rre-server", new RREOutputFormat());
         formatters.put("url-rre-server", new UrlRREOutputFormat());
     }
 
-    private final ObjectMapper mapper = new ObjectMapper();
-
     @Override
     protected void executeReport(final Locale locale) {
-        final JsonNode evaluationData = evaluationAsJson();
-        final JsonNode corpora = evaluationData.get("corpora");
+        final List<OutputFormat> outputFormats =
+                formats.stream()
+                        .map(formatters::get)
+                        .filter(Objects::nonNull)
+                        .collect(toList());
+
+        final ReportWriter writer = new ReportWriter(outputFormats, locale);
+        RuntimeException failure = null;
+        try {
+            new EvaluationReader().read(evaluationOutputFile(), writer);
+        } catch (final IOException exception) {
+            failure = new RuntimeException("Unable to load the RRE evaluation JSON payload. Are you sure RRE executed successfully?", exception);
+        } catch (final RuntimeException exception) {
+            failure = exception;
+        }
+
+        // A failure of the report writers, thrown on close, must not hide the failure of the read
+        try {
+            writer.close();
+        } catch (final RuntimeException exception) {
+            if (failure == null) {
+                throw exception;
+            }
+            failure.addSuppressed(exception);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
 
-        if (corpora == null || corpora.size() == 0) {
+        if (!writer.started()) {
             getLog().info("No evaluation data has been generated - no reports will be produced.");
-            return;
-        }
-
-        formats.parallelStream()
-                .map(formatters::get)
-                .filter(Objects::nonNull)
-                .forEach(formatter ->
-                        formatter.writeReport(
-                                evaluationData,
-                                evaluationMetadata(evaluationData),
-                                locale,
-                                this));
+        }
     }
 
     /**
-     * Returns the metadata extracted from the current evaluation.
+     * Streams the evaluation to the report writers of the requested output formats, which are created (with the
+     * evaluation metadata) when the first corpus is read. If the evaluation has no corpora, no report is written.
+     */
+    private class ReportWriter implements EvaluationVisitor {
+        private final List<OutputFormat> outputFormats;
+        private final Locale locale;
+
+        private JsonNode evaluation;
+        private ConcurrentVisitor writers;
+
+        private ReportWriter(final List<OutputFormat> outputFormats, final Locale locale) {
+            this.outputFormats = outputFormats;
+            this.locale = locale;
+        }
+
+        @Override
+        public void startEvaluation(final JsonNode evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        public void startCorpus(final JsonNode corpus) {
+            if (writers == null) {
+                final EvaluationMetadata metadata = evaluationMetadata(corpus);
+                writers = new ConcurrentVisitor(
+                        outputFormats.stream()
+                                .map(format -> format.reportWriter(metadata, locale, RREMavenReport.this))
+                                .collect(toList()));
+                writers.startEvaluation(evaluation);
+            }
+            writers.startCorpus(corpus);
+        }
+
+        @Override
+        public void startTopic(final JsonNode topic) {
+            writers.startTopic(topic);
+        }
+
+        @Override
+        public void startQueryGroup(final JsonNode queryGroup) {
+            writers.startQueryGroup(queryGroup);
+        }
+
+        @Override
+        public void query(final JsonNode query) {
+            writers.query(query);
+        }
+
+        @Override
+        public void endQueryGroup(final JsonNode queryGroup) {
+            writers.endQueryGroup(queryGroup);
+        }
+
+        @Override
+        public void endTopic(final JsonNode topic) {
+            writers.endTopic(topic);
+        }
+
+        @Override
+        public void endCorpus(final JsonNode corpus) {
+            writers.endCorpus(corpus);
+        }
+
+        @Override
+        public void endEvaluation(final JsonNode evaluation) {
+            if (writers != null) {
+                writers.endEvaluation(evaluation);
+            }
+        }
+
+        @Override
+        public void failed(final Throwable failure) {
+            if (writers != null) {
+                writers.failed(failure);
+            }
+        }
+
+        private boolean started() {
+            return writers != null;
+        }
+
+        /**
+         * Waits until the report writers are done.
+         */
+        private void close() {
+            if (writers != null) {
+                writers.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the metadata extracted from the first corpus of the current evaluation.
      *
-     * @param evaluationData the evaluation result.
+     * @param corpus the first corpus of the evaluation.
      * @return the metadata extracted from the current evaluation.
      */
-    private EvaluationMetadata evaluationMetadata(final JsonNode evaluationData) {
-        final List<String> metrics =
-                all(evaluationData, "corpora")
-                        .limit(1)
-                        .map(corpusNode -> corpusNode.get("metrics"))
-                        .flatMap(metricsNode -> stream(spliteratorUnknownSize(metricsNode.fieldNames(), Spliterator.ORDERED), false))
-                        .collect(toList());
+    private EvaluationMetadata evaluationMetadata(final JsonNode corpus) {
+        final JsonNode metricsNode = corpus.path("metrics");
+        final List<String> metrics = stream(spliteratorUnknownSize(metricsNode.fieldNames(), Spliterator.ORDERED), false).collect(toList());
 
-        final List<String> versions =
-                all(evaluationData, "corpora")
-                        .limit(1)
-                        .map(corpusNode -> ofNullable(corpusNode.get("metrics"))
-                                                .map(JsonNode::iterator)
-                                                .filter(Iterator::hasNext)
-                                                .map(Iterator::next)
-                                                .map(node -> node.get("versions"))
-                                                .orElseGet(() -> new ObjectMapper().createObjectNode()))
-                        .flatMap(versionsNode -> stream(spliteratorUnknownSize(versionsNode.fieldNames(), Spliterator.ORDERED), false))
-                        .collect(toList());
+        final JsonNode versionsNode = metricsNode.size() > 0 ? metricsNode.iterator().next().path("versions") : metricsNode;
+        final List<String> versions = stream(spliteratorUnknownSize(versionsNode.fieldNames(), Spliterator.ORDERED), false).collect(toList());
 
         return new EvaluationMetadata(versions, metrics);
     }
@@ -150,25 +244,12 @@ public class RREMavenReport extends AbstractMavenReport {
         return endpoint;
     }
 
-    /**
-     * Returns the evaluation data as a JSON object.
-     *
-     * @return the evaluation data as a JSON object.
-     */
-    private JsonNode evaluationAsJson() {
-        try {
-            return mapper.readTree(evaluationOutputFile());
-        } catch (final IOException exception) {
-            throw new RuntimeException("Unable to load the RRE evaluation JSON payload. Are you sure RRE executed successfully?", exception);
-        }
-    }
-
     /**
      * Returns a file reference to the evaluation output.
      *
      * @return a file reference to the evaluation output.
      */
-    File evaluationOutputFile() {
+    public File evaluationOutputFile() {
         final File file = new File(evaluationFile);
         if (!file.canRead()) {
             throw new RuntimeException("Unable to read RRE evaluation output file. Are you sure RRE executed successfully?");
@@ -16,26 +16,30 @@
  */
 package io.sease.rre.maven.plugin.report.formats;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import io.sease.rre.maven.plugin.report.RREMavenReport;
 import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
 
 import java.util.Locale;
 
 /**
  * Interface definition / contract of an RRE output format.
  *
+ * The evaluation is read once, and streamed to the report writers of all the requested output formats, which run
+ * concurrently.
+ *
  * @author agazzarini
  * @since 1.0
  */
 public interface OutputFormat {
     /**
-     * Writes out the report, according with the logic of this concrete implementor.
+     * Returns the writer of the report, which is notified of the members of the evaluation while it is read and
+     * writes out the report according with the logic of this concrete implementor.
      *
-     * @param data     the RRE evaluation result.
      * @param metadata the RRE evaluation metadata.
      * @param locale   the current locale.
      * @param plugin   the owning plugin.
+     * @return the writer of the report.
      */
-    void writeReport(JsonNode data, EvaluationMetadata metadata, Locale locale, RREMavenReport plugin);
+    EvaluationVisitor reportWriter(EvaluationMetadata metadata, Locale locale, RREMavenReport plugin);
 }
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.formats.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.maven.plugin.report.RREMavenReport;
+import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
+import io.sease.rre.maven.plugin.report.formats.OutputFormat;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import static io.sease.rre.maven.plugin.report.Utility.pretty;
+
+/**
+ * RRE Report : static HTML output format, which doesn't need a running RRE Server.
+ *
+ * The report is a directory with an index.html page, holding the metrics of every corpus, topic and query group,
+ * and a shards directory with the query details (metrics and top hits of each version): each query group has its
+ * queries split into shards, which the page loads when the group is expanded, and drops when it is collapsed. Shards
+ * are gzip compressed, and wrapped in a script (rather than fetched) so that the report can also be opened from the
+ * file system.
+ *
+ * Both the page and the shards are written while the evaluation is read, so neither the plugin nor the browser ever
+ * hold more than a few shards in memory.
+ *
+ * @since 1.2
+ */
+public class HtmlOutputFormat implements OutputFormat {
+    /**
+     * The maximum number of queries in a shard.
+     */
+    static final int SHARD_SIZE = 100;
+
+    /**
+     * The maximum number of hits of each query version included in the details.
+     */
+    static final int MAX_HITS = 10;
+
+    private static final String[] RESOURCES = {"report.css", "report.js"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public EvaluationVisitor reportWriter(final EvaluationMetadata metadata, final Locale locale, final RREMavenReport plugin) {
+        return new HtmlWriter(metadata, new File(plugin.getReportOutputDirectory(), plugin.getOutputName()));
+    }
+
+    /**
+     * Writes a row of the page for each corpus, topic and query group, and the queries of each group to its shards.
+     */
+    private class HtmlWriter implements EvaluationVisitor {
+        private final EvaluationMetadata metadata;
+        private final File directory;
+        private final File shardsDirectory;
+
+        private Writer index;
+
+        private int groups;
+        private String group;
+        private int groupQueries;
+        private int groupShards;
+        private ArrayNode shard = mapper.createArrayNode();
+
+        private HtmlWriter(final EvaluationMetadata metadata, final File directory) {
+            this.metadata = metadata;
+            this.directory = directory;
+            this.shardsDirectory = new File(directory, "shards");
+        }
+
+        @Override
+        public void startEvaluation(final JsonNode evaluation) {
+            try {
+                clearShards();
+                shardsDirectory.mkdirs();
+                for (final String resource : RESOURCES) {
+                    try (final InputStream in = HtmlOutputFormat.class.getResourceAsStream("/html-report/" + resource)) {
+                        Files.copy(in, new File(directory, resource).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+
+                index = new BufferedWriter(
+                        new OutputStreamWriter(new FileOutputStream(new File(directory, "index.html")), StandardCharsets.UTF_8));
+                header(evaluation.path("name").asText());
+            } catch (final IOException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        @Override
+        public void startCorpus(final JsonNode corpus) {
+            row("corpus", null, corpus.path("name").asText(), corpus);
+        }
+
+        @Override
+        public void startTopic(final JsonNode topic) {
+            row("topic", null, topic.path("name").asText(), topic);
+        }
+
+        @Override
+        public void startQueryGroup(final JsonNode queryGroup) {
+            group = "g" + groups++;
+            groupQueries = 0;
+            groupShards = 0;
+        }
+
+        @Override
+        public void query(final JsonNode query) {
+            shard.add(details(query));
+            groupQueries++;
+            if (shard.size() == SHARD_SIZE) {
+                writeShard();
+            }
+        }
+
+        /**
+         * Writes the query group row once its queries have been read, as it holds the number of their shards.
+         */
+        @Override
+        public void endQueryGroup(final JsonNode queryGroup) {
+            if (shard.size() > 0) {
+                writeShard();
+            }
+            row("group",
+                    " id=\"" + group + "\" data-shards=\"" + groupShards + "\" data-queries=\"" + groupQueries + "\"",
+                    queryGroup.path("name").asText(),
+                    queryGroup);
+        }
+
+        @Override
+        public void endEvaluation(final JsonNode evaluation) {
+            try {
+                index.write("</tbody>\n</table>\n<script src=\"report.js\"></script>\n</body>\n</html>\n");
+                index.close();
+            } catch (final IOException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        @Override
+        public void failed(final Throwable failure) {
+            if (index != null) {
+                try {
+                    index.close();
+                } catch (final IOException exception) {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+
+        /**
+         * Removes the shards of a previous report, which the new one would otherwise be mixed with.
+         */
+        private void clearShards() throws IOException {
+            final File[] shards = shardsDirectory.listFiles();
+            if (shards != null) {
+                for (final File shard : shards) {
+                    if (!shard.delete()) {
+                        throw new IOException("Unable to delete the previous report shard " + shard);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes the page up to the table header: a column for each metric version, followed by the deltas
+         * between consecutive versions.
+         */
+        private void header(final String name) throws IOException {
+            index.write("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n");
+            index.write("<title>" + escape(name) + "</title>\n");
+            index.write("<link rel=\"stylesheet\" href=\"report.css\">\n<style id=\"metric-filter\"></style>\n</head>\n<body>\n");
+            index.write("<header>\n<h1>" + escape(name) + "</h1>\n<label>Metric <select id=\"metric\">\n<option value=\"\">All</option>\n");
+            for (int i = 0; i < metadata.howManyMetrics(); i++) {
+                index.write("<option value=\"" + i + "\">" + escape(metadata.metrics.get(i)) + "</option>\n");
+            }
+            index.write("</select></label>\n</header>\n");
+
+            index.write("<table id=\"report\" data-metrics=\"" + escape(mapper.writeValueAsString(metadata.metrics))
+                    + "\" data-versions=\"" + escape(mapper.writeValueAsString(metadata.versions)) + "\">\n<thead>\n<tr><th rowspan=\"2\">Name</th>");
+            final int columns = Math.max(1, metadata.howManyVersions() * 2 - 1);
+            for (int i = 0; i < metadata.howManyMetrics(); i++) {
+                index.write("<th colspan=\"" + columns + "\" class=\"metric m" + i + "\">" + escape(metadata.metrics.get(i)) + "</th>");
+            }
+            index.write("</tr>\n<tr>");
+            for (int i = 0; i < metadata.howManyMetrics(); i++) {
+                for (final String version : metadata.versions) {
+                    index.write("<th class=\"metric m" + i + "\">" + escape(version) + "</th>");
+                }
+                for (int v = 1; v < metadata.howManyVersions(); v++) {
+                    index.write("<th class=\"metric m" + i + "\">&Delta; " + escape(metadata.versions.get(v)) + "</th>");
+                }
+            }
+            index.write("</tr>\n</thead>\n<tbody>\n");
+        }
+
+        /**
+         * Writes the row of a member, with its metrics.
+         */
+        private void row(final String type, final String attributes, final String name, final JsonNode member) {
+            final StringBuilder row = new StringBuilder("<tr class=\"").append(type).append('"');
+            if (attributes != null) {
+                row.append(attributes);
+            }
+            row.append("><td class=\"name\">").append(escape(name)).append("</td>");
+
+            for (int i = 0; i < metadata.howManyMetrics(); i++) {
+                final double[] values = values(member, metadata.metrics.get(i));
+                for (final double value : values) {
+                    row.append("<td class=\"metric m").append(i).append("\">")
+                            .append(Double.isNaN(value) ? "" : format(value))
+                            .append("</td>");
+                }
+                for (int v = 1; v < values.length; v++) {
+                    final double delta = values[v] - values[v - 1];
+                    row.append("<td class=\"metric m").append(i).append(" delta ")
+                            .append(delta > 0 ? "up" : delta < 0 ? "down" : "same").append("\">")
+                            .append(Double.isNaN(delta) ? "" : format(delta))
+                            .append("</td>");
+                }
+            }
+            row.append("</tr>\n");
+
+            try {
+                index.write(row.toString());
+            } catch (final IOException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        /**
+         * Returns the values of a metric of a member, for each version (NaN if missing).
+         */
+        private double[] values(final JsonNode member, final String metric) {
+            final JsonNode versions = member.path("metrics").path(metric).path("versions");
+            final double[] values = new double[metadata.howManyVersions()];
+            for (int v = 0; v < values.length; v++) {
+                final JsonNode value = versions.path(metadata.versions.get(v)).path("value");
+                values[v] = value.isMissingNode() ? Double.NaN : value.asDouble();
+            }
+            return values;
+        }
+
+        /**
+         * Returns the details of a query shown in the report: its metric values and top hits, for each version.
+         */
+        private JsonNode details(final JsonNode query) {
+            final ObjectNode details = mapper.createObjectNode();
+            details.put("query", pretty(query.get("query")));
+
+            final ObjectNode metrics = details.putObject("metrics");
+            for (final String metric : metadata.metrics) {
+                final ArrayNode values = metrics.putArray(metric);
+                for (final double value : values(query, metric)) {
+                    if (Double.isNaN(value)) {
+                        values.addNull();
+                    } else {
+                        values.add(value);
+                    }
+                }
+            }
+
+            final ObjectNode results = details.putObject("results");
+            query.path("results").fields().forEachRemaining(entry -> {
+                final ObjectNode result = results.putObject(entry.getKey());
+                result.set("total-hits", entry.getValue().path("total-hits"));
+                final ArrayNode hits = result.putArray("hits");
+                for (final JsonNode hit : entry.getValue().path("hits")) {
+                    if (hits.size() == MAX_HITS) {
+                        break;
+                    }
+                    hits.add(hit);
+                }
+            });
+            return details;
+        }
+
+        /**
+         * Writes the pending queries of the current group to its next shard: a script which passes the gzip
+         * compressed (and base64 encoded) queries to the page.
+         */
+        private void writeShard() {
+            final String id = group + "-" + groupShards++;
+            try {
+                final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (final OutputStream out = new GZIPOutputStream(compressed)) {
+                    mapper.writeValue(out, shard);
+                }
+
+                try (final Writer out = new OutputStreamWriter(new FileOutputStream(new File(shardsDirectory, id + ".js")), StandardCharsets.UTF_8)) {
+                    out.write("rreShard(\"" + id + "\",\"" + Base64.getEncoder().encodeToString(compressed.toByteArray()) + "\");\n");
+                }
+            } catch (final IOException exception) {
+                throw new RuntimeException(exception);
+            }
+            shard = mapper.createArrayNode();
+        }
+    }
+
+    private static String format(final double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static String escape(final String value) {
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -21,9 +21,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.sease.rre.maven.plugin.report.RREMavenReport;
 import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
 import io.sease.rre.maven.plugin.report.formats.OutputFormat;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
 import okhttp3.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static java.util.Objects.requireNonNull;
 
@@ -31,28 +38,188 @@ import static java.util.Objects.requireNonNull;
  * OutputFormat implementor for sending evaluation results to a running RRE Server instance.
  * Clearly, this assumes you're using an RRE Server somewhere.
  *
+ * The evaluation file is sent in gzip encoded chunks, which RRE Server reads as they arrive. A chunk which fails is
+ * retried, and the upload resumes from the offset reported by the server, so a transient failure doesn't restart the
+ * whole upload. An upload which can't be completed is aborted. Servers without chunked uploads receive the file in a
+ * single request.
+ *
  * @author agazzarini
  * @since 1.0
  */
 public class RREOutputFormat implements OutputFormat {
+    /**
+     * The size of a chunk, before compression.
+     */
+    static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * How many times a chunk is sent before giving up.
+     */
+    static final int MAX_ATTEMPTS = 5;
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .readTimeout(5, TimeUnit.MINUTES)
+            .build();
+
     @Override
-    public void writeReport(final JsonNode data, final EvaluationMetadata metadata, final Locale locale, final RREMavenReport plugin) {
+    public EvaluationVisitor reportWriter(final EvaluationMetadata metadata, final Locale locale, final RREMavenReport plugin) {
+        return new EvaluationVisitor() {
+            @Override
+            public void endEvaluation(final JsonNode evaluation) {
+                send(plugin);
+            }
+        };
+    }
+
+    /**
+     * Sends the evaluation file, which has been completely read (i.e. it is a valid evaluation), to RRE Server.
+     *
+     * @param plugin the owning plugin.
+     */
+    private void send(final RREMavenReport plugin) {
         try {
-            final ObjectMapper serializer = new ObjectMapper();
-            Request request = new Request.Builder()
-                    .url(requireNonNull(HttpUrl.parse(plugin.getEndpoint() + "/evaluation")))
-                    .post(RequestBody.create(MediaType.parse("application/json"), serializer.writeValueAsString(data)))
-                    .build();
-
-            try (final Response response = new OkHttpClient().newCall(request).execute()) {
-                if (response.code() != 200) {
+            final File file = plugin.evaluationOutputFile();
+            final String uploads = plugin.getEndpoint() + "/evaluation/uploads";
+
+            final String upload;
+            try (final Response response = client.newCall(post(uploads)).execute()) {
+                if (response.code() == 404) {
+                    plugin.getLog().info("RRE Server doesn't support chunked uploads: the evaluation data will be sent in a single request.");
+                    sendAtOnce(file, plugin);
+                    return;
+                } else if (response.code() != 201) {
                     plugin.getLog().error("Exception while communicating with RREServer. Return code was: " + response.code());
-                } else {
-                    plugin.getLog().info("Evaluation data has been correctly sent to RRE Server located at " + plugin.getEndpoint());
+                    return;
+                }
+                upload = uploads + "/" + mapper.readTree(requireNonNull(response.body()).byteStream()).get("id").asText();
+            }
+
+            boolean completed = false;
+            try {
+                final long length = file.length();
+                if (sendChunks(upload, file, length, plugin)) {
+                    try (final Response response = client.newCall(post(upload + "/complete?length=" + length)).execute()) {
+                        if (response.code() != 200) {
+                            plugin.getLog().error("Exception while communicating with RREServer. Return code was: " + response.code());
+                        } else {
+                            completed = true;
+                            plugin.getLog().info("Evaluation data has been correctly sent to RRE Server located at " + plugin.getEndpoint());
+                        }
+                    }
+                }
+            } finally {
+                if (!completed) {
+                    abort(upload, plugin);
                 }
             }
         } catch (final Exception exception) {
             plugin.getLog().error("RRE: Unable to connect to RRE Server. See below for further details.", exception);
         }
     }
+
+    /**
+     * Sends the file, a chunk at a time, starting from the offset reported by the server.
+     *
+     * @return true if all the chunks have been received by the server.
+     */
+    private boolean sendChunks(final String upload, final File file, final long length, final RREMavenReport plugin)
+            throws IOException, InterruptedException {
+        final byte[] buffer = new byte[CHUNK_SIZE];
+        long offset = 0;
+        int failures = 0;
+
+        try (final RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            while (offset < length) {
+                final int size = (int) Math.min(CHUNK_SIZE, length - offset);
+                in.seek(offset);
+                in.readFully(buffer, 0, size);
+
+                final Request request = new Request.Builder()
+                        .url(requireNonNull(HttpUrl.parse(upload + "?offset=" + offset)))
+                        .header("Content-Encoding", "gzip")
+                        .put(RequestBody.create(JSON, gzip(buffer, size)))
+                        .build();
+
+                try (final Response response = client.newCall(request).execute()) {
+                    if (response.code() == 200 || response.code() == 409) {
+                        // 409: the server has a different offset (e.g. a chunk was received, but the response lost)
+                        failures = response.code() == 200 ? 0 : failures + 1;
+                        offset = mapper.readTree(requireNonNull(response.body()).byteStream()).get("offset").asLong();
+                    } else if (response.code() >= 500) {
+                        throw new IOException("Return code was: " + response.code());
+                    } else {
+                        plugin.getLog().error("RRE Server rejected the evaluation data. Return code was: " + response.code());
+                        return false;
+                    }
+                } catch (final IOException exception) {
+                    if (++failures >= MAX_ATTEMPTS) {
+                        throw exception;
+                    }
+                    plugin.getLog().warn("RRE: Unable to send the evaluation data at offset " + offset + " (" + exception.getMessage() + "), retrying.");
+                    Thread.sleep(1000L * failures);
+                }
+
+                if (failures >= MAX_ATTEMPTS) {
+                    throw new IOException("Unable to send the evaluation data at offset " + offset);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aborts an upload which won't be completed: otherwise, it would hold one of the server upload slots until it
+     * expires.
+     */
+    private void abort(final String upload, final RREMavenReport plugin) {
+        final Request request = new Request.Builder()
+                .url(requireNonNull(HttpUrl.parse(upload)))
+                .delete()
+                .build();
+
+        try (final Response response = client.newCall(request).execute()) {
+            // 404: the server has already discarded the upload (e.g. because its data was not valid)
+            if (response.code() != 204 && response.code() != 404) {
+                plugin.getLog().warn("RRE: Unable to abort the upload " + upload + ". Return code was: " + response.code());
+            }
+        } catch (final IOException exception) {
+            plugin.getLog().warn("RRE: Unable to abort the upload " + upload + " (" + exception.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Sends the file in a single request, to servers which don't support chunked uploads.
+     */
+    private void sendAtOnce(final File file, final RREMavenReport plugin) throws IOException {
+        final Request request = new Request.Builder()
+                .url(requireNonNull(HttpUrl.parse(plugin.getEndpoint() + "/evaluation")))
+                .post(RequestBody.create(JSON, file))
+                .build();
+
+        try (final Response response = client.newCall(request).execute()) {
+            if (response.code() != 200) {
+                plugin.getLog().error("Exception while communicating with RREServer. Return code was: " + response.code());
+            } else {
+                plugin.getLog().info("Evaluation data has been correctly sent to RRE Server located at " + plugin.getEndpoint());
+            }
+        }
+    }
+
+    private Request post(final String url) {
+        return new Request.Builder()
+                .url(requireNonNull(HttpUrl.parse(url)))
+                .post(RequestBody.create(JSON, new byte[0]))
+                .build();
+    }
+
+    private byte[] gzip(final byte[] data, final int length) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4);
+        try (final GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(data, 0, length);
+        }
+        return compressed.toByteArray();
+    }
 }
@@ -20,10 +20,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.sease.rre.maven.plugin.report.RREMavenReport;
 import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
 import io.sease.rre.maven.plugin.report.formats.OutputFormat;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
 import one.util.streamex.DoubleStreamEx;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -33,45 +35,265 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.StreamSupport;
 
-import static io.sease.rre.maven.plugin.report.Utility.all;
 import static io.sease.rre.maven.plugin.report.Utility.pretty;
 import static java.util.Arrays.stream;
-import static java.util.Optional.ofNullable;
 
 /**
  * RRE Report : Excel output format.
  *
+ * The spreadsheet is written while the evaluation is read, through POI's SXSSF, which keeps only a window of rows in
+ * memory and flushes the others to a temporary file: the memory required doesn't depend on the evaluation size.
+ *
  * @author agazzarini
  * @since 1.0
  */
 public class SpreadsheetOutputFormat implements OutputFormat {
-    private void topHeader(final XSSFSheet sheet, EvaluationMetadata metadata) {
-        final XSSFRow header = sheet.createRow(0);
+    /**
+     * How many rows of each sheet are kept in memory.
+     */
+    static final int ROW_WINDOW = 100;
+
+    private static final String LATENCY_SHEET = "Latency";
+    private static final String[] LATENCY_STATISTICS = {"mean", "p50", "p95", "p99"};
+    private static final String[] LATENCY_LEVELS = {"Corpus", "Topic", "Query Group", "Query"};
+
+    /**
+     * The cell styles of a workbook. A workbook has a limited number of styles, so they are created once and shared
+     * by all the cells.
+     */
+    private static class Styles {
+        private final CellStyle bold;
+        private final CellStyle boldAndCentered;
+        private final CellStyle green;
+        private final CellStyle red;
+        private final CellStyle yellow;
+
+        private Styles(final Workbook workbook) {
+            final Font font = workbook.createFont();
+            font.setBold(true);
+
+            bold = workbook.createCellStyle();
+            bold.setFont(font);
+
+            boldAndCentered = workbook.createCellStyle();
+            boldAndCentered.setFont(font);
+            boldAndCentered.setAlignment(HorizontalAlignment.CENTER);
+
+            green = coloured(workbook, IndexedColors.GREEN);
+            red = coloured(workbook, IndexedColors.RED);
+            yellow = coloured(workbook, IndexedColors.ORANGE);
+        }
+
+        private static CellStyle coloured(final Workbook workbook, final IndexedColors color) {
+            final Font font = workbook.createFont();
+            font.setBold(true);
+            font.setColor(color.getIndex());
+
+            final CellStyle style = workbook.createCellStyle();
+            style.setFont(font);
+            return style;
+        }
+    }
+
+    /**
+     * Writes the members of the evaluation, as they are read: a sheet for each corpus and, if latency has been
+     * recorded, a latency sheet with a row for each member.
+     */
+    private class SpreadsheetWriter implements EvaluationVisitor {
+        private final SXSSFWorkbook workbook;
+        private final EvaluationMetadata metadata;
+        private final RREMavenReport plugin;
+        private final Styles styles;
+
+        private SXSSFSheet sheet;
+        private int rowCount;
+
+        private SXSSFSheet latencySheet;
+        private int latencyRowCount;
+
+        private SpreadsheetWriter(final SXSSFWorkbook workbook, final EvaluationMetadata metadata, final RREMavenReport plugin) {
+            this.workbook = workbook;
+            this.metadata = metadata;
+            this.plugin = plugin;
+            this.styles = new Styles(workbook);
+        }
+
+        @Override
+        public void startEvaluation(final JsonNode evaluation) {
+            if (evaluation.has("latency")) {
+                createLatencySheet();
+            }
+        }
+
+        @Override
+        public void startCorpus(final JsonNode corpus) {
+            sheet = workbook.createSheet(corpus.get("name").asText());
+            sheet.trackColumnsForAutoSizing(Arrays.asList(0, 1, 2));
+            rowCount = 3;
+
+            topHeader(sheet, metadata, styles);
+            metricsHeader(sheet, metadata, styles);
+            versionsHeader(sheet, metadata, styles);
+
+            writeMetrics(corpus, sheet.createRow(rowCount++), styles);
+            writeLatencyRow(0, corpus.get("name").asText(), corpus);
+        }
+
+        @Override
+        public void startTopic(final JsonNode topic) {
+            final Row topicRow = sheet.createRow(rowCount++);
+            topicRow.createCell(0, CellType.STRING).setCellValue(topic.get("name").asText());
+            writeMetrics(topic, topicRow, styles);
+            writeLatencyRow(1, topic.get("name").asText(), topic);
+        }
+
+        @Override
+        public void startQueryGroup(final JsonNode queryGroup) {
+            final Row groupRow = sheet.createRow(rowCount++);
+            groupRow.createCell(1, CellType.STRING).setCellValue(queryGroup.get("name").asText());
+            writeMetrics(queryGroup, groupRow, styles);
+            writeLatencyRow(2, queryGroup.get("name").asText(), queryGroup);
+        }
+
+        @Override
+        public void query(final JsonNode query) {
+            final String text = pretty(query.get("query"));
+            final Row queryRow = sheet.createRow(rowCount++);
+            queryRow.createCell(2, CellType.STRING).setCellValue(text);
+            adjustHeight(queryRow, text);
+            writeMetrics(query, queryRow, styles);
+            writeLatencyRow(3, text, query);
+        }
+
+        @Override
+        public void endCorpus(final JsonNode corpus) {
+            for (int i = 0; i < 3; i++) {
+                sheet.autoSizeColumn(i);
+            }
+        }
+
+        @Override
+        public void endEvaluation(final JsonNode evaluation) {
+            if (latencySheet != null) {
+                for (int i = 0; i < LATENCY_LEVELS.length; i++) {
+                    latencySheet.autoSizeColumn(i);
+                }
+                workbook.setSheetOrder(LATENCY_SHEET, workbook.getNumberOfSheets() - 1);
+            }
+
+            plugin.getReportOutputDirectory().mkdirs();
+
+            try (final OutputStream out =
+                         new FileOutputStream(
+                                 new File(plugin.getReportOutputDirectory(), plugin.getOutputName() + ".xlsx"))) {
+                workbook.write(out);
+            } catch (final IOException exception) {
+                throw new RuntimeException(exception);
+            } finally {
+                workbook.dispose();
+            }
+        }
+
+        @Override
+        public void failed(final Throwable failure) {
+            workbook.dispose();
+        }
+
+        /**
+         * Creates the latency sheet, with the latency of each version, for every level of the evaluation.
+         */
+        private void createLatencySheet() {
+            latencySheet = workbook.createSheet(LATENCY_SHEET);
+            latencySheet.trackColumnsForAutoSizing(Arrays.asList(0, 1, 2, 3));
+
+            final Row versionsRow = latencySheet.createRow(0);
+            final Row statisticsRow = latencySheet.createRow(1);
+            for (int i = 0; i < LATENCY_LEVELS.length; i++) {
+                final Cell cell = versionsRow.createCell(i, CellType.STRING);
+                cell.setCellValue(LATENCY_LEVELS[i]);
+                cell.setCellStyle(styles.boldAndCentered);
+            }
+
+            int column = LATENCY_LEVELS.length;
+            for (final String version : metadata.versions) {
+                final int first = column;
+                final Cell versionCell = versionsRow.createCell(first, CellType.STRING);
+                versionCell.setCellValue(version + " (ms)");
+                versionCell.setCellStyle(styles.boldAndCentered);
+                for (final String statistic : LATENCY_STATISTICS) {
+                    final Cell cell = statisticsRow.createCell(column++, CellType.STRING);
+                    cell.setCellValue(statistic);
+                    cell.setCellStyle(styles.boldAndCentered);
+                }
+                try {
+                    latencySheet.addMergedRegion(new CellRangeAddress(0, 0, first, column - 1));
+                } catch (final Exception ignore) {
+                }
+            }
+            latencyRowCount = 2;
+        }
+
+        private void writeLatencyRow(final int level, final String name, final JsonNode ownerNode) {
+            if (latencySheet == null) {
+                if (!ownerNode.has("latency")) {
+                    return;
+                }
+                createLatencySheet();
+            }
+
+            final Row row = latencySheet.createRow(latencyRowCount++);
+            row.createCell(level, CellType.STRING).setCellValue(name);
+
+            final JsonNode latency = ownerNode.path("latency");
+            int column = LATENCY_LEVELS.length;
+            for (final String version : metadata.versions) {
+                final JsonNode versionLatency = latency.path(version);
+                for (final String statistic : LATENCY_STATISTICS) {
+                    final JsonNode value = versionLatency.path(statistic);
+                    if (value.isNumber() && versionLatency.path("count").asLong() > 0) {
+                        row.createCell(column, CellType.NUMERIC).setCellValue(value.asDouble());
+                    }
+                    column++;
+                }
+            }
+        }
 
-        final CellStyle bold = sheet.getWorkbook().createCellStyle();
-        final Font font = sheet.getWorkbook().createFont();
-        font.setBold(true);
-        bold.setFont(font);
+        /**
+         * Makes the row tall enough for all the lines of the (pretty printed) query.
+         */
+        private void adjustHeight(final Row row, final String query) {
+            int numLines = 1;
+            for (int i = 0; i < query.length(); i++) {
+                if (query.charAt(i) == '\n') numLines++;
+            }
+
+            if (numLines > 1) {
+                final float rowHeight = computeRowHeightInPoints(workbook.getFontAt((short) 0).getFontHeightInPoints(), numLines, sheet);
+                if (rowHeight >= sheet.getDefaultRowHeightInPoints() + 1) {
+                    row.setHeightInPoints(rowHeight);
+                }
+            }
+        }
+    }
 
-        final CellStyle boldAndCentered = sheet.getWorkbook().createCellStyle();
-        boldAndCentered.setFont(font);
-        boldAndCentered.setAlignment(HorizontalAlignment.CENTER);
+    private void topHeader(final Sheet sheet, final EvaluationMetadata metadata, final Styles styles) {
+        final Row header = sheet.createRow(0);
 
         final Cell topicHeaderCell = header.createCell(0, CellType.STRING);
         topicHeaderCell.setCellValue("Topic");
-        topicHeaderCell.setCellStyle(bold);
+        topicHeaderCell.setCellStyle(styles.bold);
 
         final Cell qgHeaderCell = header.createCell(1, CellType.STRING);
         qgHeaderCell.setCellValue("Query Group");
-        qgHeaderCell.setCellStyle(bold);
+        qgHeaderCell.setCellStyle(styles.bold);
 
         final Cell qHeaderCell = header.createCell(2, CellType.STRING);
         qHeaderCell.setCellValue("Query");
-        qHeaderCell.setCellStyle(bold);
+        qHeaderCell.setCellStyle(styles.bold);
 
         final Cell mHeaderCell = header.createCell(3, CellType.STRING);
         mHeaderCell.setCellValue("Metric");
-        mHeaderCell.setCellStyle(bold);
+        mHeaderCell.setCellStyle(styles.bold);
 
         try {
             sheet.addMergedRegion(
@@ -83,15 +305,8 @@ public class SpreadsheetOutputFormat implements OutputFormat {
         } catch (final Exception ignore) {}
     }
 
-    private void metricsHeader(final XSSFSheet sheet, final EvaluationMetadata metadata) {
-        final XSSFRow header = sheet.createRow(1);
-
-        final CellStyle bold = sheet.getWorkbook().createCellStyle();
-        final XSSFFont font = sheet.getWorkbook().createFont();
-        font.setBold(true);
-        bold.setFont(font);
-        bold.setAlignment(HorizontalAlignment.CENTER);
-        font.getCTFont().addNewB();
+    private void metricsHeader(final Sheet sheet, final EvaluationMetadata metadata, final Styles styles) {
+        final Row header = sheet.createRow(1);
 
         final AtomicInteger counter = new AtomicInteger(0);
         metadata.metrics
@@ -99,7 +314,7 @@ public class SpreadsheetOutputFormat implements OutputFormat {
                     final int columnIndex = 3 + (counter.getAndIncrement() * ((metadata.howManyVersions() * 2) - 1));
                     final Cell qgHeaderCell = header.createCell(columnIndex, CellType.STRING);
                     qgHeaderCell.setCellValue(name);
-                    qgHeaderCell.setCellStyle(bold);
+                    qgHeaderCell.setCellStyle(styles.boldAndCentered);
                    try {
                         sheet.addMergedRegion(
                                 new CellRangeAddress(
@@ -112,15 +327,8 @@ public class SpreadsheetOutputFormat implements OutputFormat {
                 });
     }
 
-    private void versionsHeader(final XSSFSheet sheet, final EvaluationMetadata metadata) {
-        final XSSFRow header = sheet.createRow(2);
-
-        final CellStyle bold = sheet.getWorkbook().createCellStyle();
-        final XSSFFont font = sheet.getWorkbook().createFont();
-        font.setBold(true);
-        bold.setFont(font);
-        bold.setAlignment(HorizontalAlignment.CENTER);
-        font.getCTFont().addNewB();
+    private void versionsHeader(final Sheet sheet, final EvaluationMetadata metadata, final Styles styles) {
+        final Row header = sheet.createRow(2);
 
         final AtomicInteger versionCounter = new AtomicInteger(3);
         metadata.metrics.forEach(metric -> {
@@ -129,7 +337,7 @@ public class SpreadsheetOutputFormat implements OutputFormat {
                             final int columnIndex = versionCounter.getAndIncrement();
                             final Cell qgHeaderCell = header.createCell(columnIndex, CellType.STRING);
                             qgHeaderCell.setCellValue(name);
-                            qgHeaderCell.setCellStyle(bold);
+                            qgHeaderCell.setCellStyle(styles.boldAndCentered);
                         });
 
             LinkedList<Integer> deltaColumns = new LinkedList<>();
@@ -141,7 +349,7 @@ public class SpreadsheetOutputFormat implements OutputFormat {
                             deltaColumns.add(columnIndex);
                             final Cell qgHeaderCell = header.createCell(columnIndex, CellType.STRING);
                             qgHeaderCell.setCellValue("DELTA");
-                            qgHeaderCell.setCellStyle(bold);
+                            qgHeaderCell.setCellStyle(styles.boldAndCentered);
                         });
                 try {
                     sheet.addMergedRegion(
@@ -157,10 +365,10 @@ public class SpreadsheetOutputFormat implements OutputFormat {
         });
     }
 
-    private void writeMetrics(final JsonNode ownerNode, final XSSFRow row) {
+    private void writeMetrics(final JsonNode ownerNode, final Row row, final Styles styles) {
         AtomicInteger counter = new AtomicInteger();
 
-        ownerNode.get("metrics").fields()
+        ownerNode.path("metrics").fields()
                 .forEachRemaining(entry -> {
                     entry.getValue().get("versions").fields()
                             .forEachRemaining(vEntry -> {
@@ -180,143 +388,25 @@ public class SpreadsheetOutputFormat implements OutputFormat {
                         final Cell vCell = row.createCell(3 + counter.getAndIncrement(), CellType.NUMERIC);
                         vCell.setCellValue(v);
                         if (v == 0) {
-                            vCell.setCellStyle(yellow);
+                            vCell.setCellStyle(styles.yellow);
                         } else if (v > 0) {
-                            vCell.setCellStyle(green);
+                            vCell.setCellStyle(styles.green);
                         } else {
-                            vCell.setCellStyle(red);
+                            vCell.setCellStyle(styles.red);
                         }
                     });
                 });
 
     }
 
-    private CellStyle green;
-    private CellStyle red;
-    private CellStyle yellow;
-
     @Override
-    public void writeReport(final JsonNode data, EvaluationMetadata metadata, final Locale locale, final RREMavenReport plugin) {
-        final XSSFWorkbook workbook = new XSSFWorkbook();
-        final CellStyle topAlign = workbook.createCellStyle();
-        topAlign.setVerticalAlignment(VerticalAlignment.TOP);
-
-        final Font redFont = workbook.createFont();
-        redFont.setBold(true);
-        redFont.setColor(IndexedColors.RED.getIndex());
-
-        final Font greenFont = workbook.createFont();
-        greenFont.setBold(true);
-        greenFont.setColor(IndexedColors.GREEN.getIndex());
-
-        final Font yFont = workbook.createFont();
-        yFont.setBold(true);
-        yFont.setColor(IndexedColors.ORANGE.getIndex());
-
-        green = workbook.createCellStyle();
-        green.setFont(greenFont);
-
-        red = workbook.createCellStyle();
-        red.setFont(redFont);
-
-        yellow = workbook.createCellStyle();
-        yellow.setFont(yFont);
-
-        all(data, "corpora")
-                .forEach(corpus -> {
-                    final AtomicInteger rowCount = new AtomicInteger(3);
-                    final String name = corpus.get("name").asText();
-                    final XSSFSheet spreadsheet = workbook.createSheet(name);
-
-                    topHeader(spreadsheet, metadata);
-                    metricsHeader(spreadsheet, metadata);
-                    versionsHeader(spreadsheet, metadata);
-
-                    final XSSFRow corpusRow = spreadsheet.createRow(rowCount.getAndIncrement());
-                    // final Cell nCell = corpusRow.createCell(0, CellType.STRING);
-                    //nCell.setCellValue(name);
-
-                    writeMetrics(corpus, corpusRow);
-
-                    all(corpus, "topics")
-                            .forEach(topic -> {
-                                final XSSFRow topicRow = spreadsheet.createRow(rowCount.getAndIncrement());
-                                final Cell topicCell = topicRow.createCell(0, CellType.STRING);
-
-                                final String topicName = topic.get("name").asText();
-                                topicCell.setCellValue(topicName);
-
-                                writeMetrics(topic, topicRow);
-
-                                all(topic, "query-groups")
-                                        .forEach(group -> {
-                                            final XSSFRow groupRow = spreadsheet.createRow(rowCount.getAndIncrement());
-                                            final Cell groupCell = groupRow.createCell(1, CellType.STRING);
-                                            groupCell.setCellValue(group.get("name").asText());
-
-                                            writeMetrics(group, groupRow);
-
-                                            all(group, "query-evaluations")
-                                                    .forEach(qeval -> {
-                                                        final XSSFRow qRow = spreadsheet.createRow(rowCount.getAndIncrement());
-                                                        final Cell qCell = qRow.createCell(2, CellType.STRING);
-                                                        qCell.setCellValue(pretty(qeval.get("query")));
-
-                                                        writeMetrics(qeval, qRow);
-                                                    });
-
-                                        });
-                            });
-
-                    for (int i = 0; i < (metadata.howManyVersions() * metadata.howManyMetrics() + 2); i++) {
-                        spreadsheet.autoSizeColumn(i);
-                    }
-
-                    XSSFCellStyle style = workbook.createCellStyle();
-                    style.setWrapText(true);
-                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(spreadsheet.iterator(), Spliterator.ORDERED), false)
-                            .skip(5)
-                            .filter(Objects::nonNull)
-                            .forEach(row -> {
-                                XSSFCell c = (XSSFCell) row.getCell(2);
-                                ofNullable(c).ifPresent(poiCell -> {
-                                    float tallestCell = -1;
-                                    String value = poiCell.getStringCellValue();
-                                    int numLines = 1;
-                                    for (int i = 0; i < value.length(); i++) {
-                                        if (value.charAt(i) == '\n') numLines++;
-                                    }
-                                    float cellHeight = computeRowHeightInPoints(poiCell.getCellStyle().getFont().getFontHeightInPoints(), numLines, spreadsheet);
-                                    if (cellHeight > tallestCell) {
-                                        tallestCell = cellHeight;
-                                    }
-
-                                    float defaultRowHeightInPoints = spreadsheet.getDefaultRowHeightInPoints();
-                                    float rowHeight = tallestCell;
-                                    if (rowHeight < defaultRowHeightInPoints + 1) {
-                                        rowHeight = -1;    // resets to the default
-                                    }
-
-                                    row.setHeightInPoints(rowHeight);
-                                });
-
-                            });
-                });
-
-
-
-        plugin.getReportOutputDirectory().mkdirs();
-
-        try (final OutputStream out =
-                     new FileOutputStream(
-                             new File(plugin.getReportOutputDirectory(), plugin.getOutputName() + ".xlsx"))) {
-            workbook.write(out);
-        } catch (final IOException exception) {
-            throw new RuntimeException(exception);
-        }
+    public EvaluationVisitor reportWriter(final EvaluationMetadata metadata, final Locale locale, final RREMavenReport plugin) {
+        final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return new SpreadsheetWriter(workbook, metadata, plugin);
     }
 
-    private float computeRowHeightInPoints(int fontSizeInPoints, int numLines, XSSFSheet sheet) {
+    private float computeRowHeightInPoints(int fontSizeInPoints, int numLines, Sheet sheet) {
         float lineHeightInPoints = 1.3f * fontSizeInPoints;
         float rowHeightInPoints = lineHeightInPoints * numLines;
         rowHeightInPoints = Math.round(rowHeightInPoints * 4) / 4f;
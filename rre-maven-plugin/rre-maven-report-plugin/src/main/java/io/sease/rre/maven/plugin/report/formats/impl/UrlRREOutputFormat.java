@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.sease.rre.maven.plugin.report.RREMavenReport;
 import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
 import io.sease.rre.maven.plugin.report.formats.OutputFormat;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
 import okhttp3.*;
 
 import java.io.File;
@@ -36,7 +37,16 @@ import static java.util.Objects.requireNonNull;
 public class UrlRREOutputFormat implements OutputFormat {
 
     @Override
-    public void writeReport(JsonNode data, EvaluationMetadata metadata, Locale locale, RREMavenReport plugin) {
+    public EvaluationVisitor reportWriter(EvaluationMetadata metadata, Locale locale, RREMavenReport plugin) {
+        return new EvaluationVisitor() {
+            @Override
+            public void endEvaluation(final JsonNode evaluation) {
+                send(plugin);
+            }
+        };
+    }
+
+    private void send(RREMavenReport plugin) {
         try {
             Request request = new Request.Builder()
                     .url(requireNonNull(HttpUrl.parse(plugin.getEndpoint() + "/evaluation")))
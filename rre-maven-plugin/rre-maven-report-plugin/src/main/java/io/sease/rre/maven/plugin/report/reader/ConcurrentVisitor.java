@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Forwards the members of an evaluation to several visitors, each running on its own thread: a single read of the
+ * evaluation feeds all of them concurrently.
+ *
+ * Each visitor has a bounded queue of pending notifications, so the reader is slowed down to the pace of the
+ * slowest visitor rather than buffering the evaluation. A visitor which fails is told of its own failure and then
+ * not notified anymore (its notifications are discarded), and its failure is thrown by {@link #close()}, once the
+ * other visitors are done.
+ * The same member objects are passed to all visitors, which must not modify them.
+ *
+ * @since 1.2
+ */
+public class ConcurrentVisitor implements EvaluationVisitor, AutoCloseable {
+    /**
+     * The maximum number of pending notifications of each visitor.
+     */
+    static final int QUEUE_CAPACITY = 1024;
+
+    private static final Consumer<EvaluationVisitor> END = visitor -> {};
+
+    private static class Subscriber implements Runnable {
+        private final EvaluationVisitor visitor;
+        private final BlockingQueue<Consumer<EvaluationVisitor>> notifications = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile Throwable failure;
+
+        private Subscriber(final EvaluationVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Consumer<EvaluationVisitor> notification;
+                while ((notification = notifications.take()) != END) {
+                    if (failure == null) {
+                        try {
+                            notification.accept(visitor);
+                        } catch (final Throwable throwable) {
+                            failure = throwable;
+                            failed(throwable);
+                        }
+                    }
+                }
+            } catch (final InterruptedException exception) {
+                failure = exception;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void failed(final Throwable throwable) {
+            try {
+                visitor.failed(throwable);
+            } catch (final Throwable another) {
+                throwable.addSuppressed(another);
+            }
+        }
+    }
+
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * Builds a new visitor, starting a thread for each of the given visitors.
+     *
+     * @param visitors the visitors which will be notified.
+     */
+    public ConcurrentVisitor(final List<? extends EvaluationVisitor> visitors) {
+        for (final EvaluationVisitor visitor : visitors) {
+            final Subscriber subscriber = new Subscriber(visitor);
+            final Thread thread = new Thread(subscriber, "rre-report-" + subscribers.size());
+            thread.setDaemon(true);
+            thread.start();
+
+            subscribers.add(subscriber);
+            threads.add(thread);
+        }
+    }
+
+    @Override
+    public void startEvaluation(final JsonNode evaluation) {
+        notify(visitor -> visitor.startEvaluation(evaluation));
+    }
+
+    @Override
+    public void startCorpus(final JsonNode corpus) {
+        notify(visitor -> visitor.startCorpus(corpus));
+    }
+
+    @Override
+    public void startTopic(final JsonNode topic) {
+        notify(visitor -> visitor.startTopic(topic));
+    }
+
+    @Override
+    public void startQueryGroup(final JsonNode queryGroup) {
+        notify(visitor -> visitor.startQueryGroup(queryGroup));
+    }
+
+    @Override
+    public void query(final JsonNode query) {
+        notify(visitor -> visitor.query(query));
+    }
+
+    @Override
+    public void endQueryGroup(final JsonNode queryGroup) {
+        notify(visitor -> visitor.endQueryGroup(queryGroup));
+    }
+
+    @Override
+    public void endTopic(final JsonNode topic) {
+        notify(visitor -> visitor.endTopic(topic));
+    }
+
+    @Override
+    public void endCorpus(final JsonNode corpus) {
+        notify(visitor -> visitor.endCorpus(corpus));
+    }
+
+    @Override
+    public void endEvaluation(final JsonNode evaluation) {
+        notify(visitor -> visitor.endEvaluation(evaluation));
+    }
+
+    @Override
+    public void failed(final Throwable failure) {
+        notify(visitor -> visitor.failed(failure));
+    }
+
+    /**
+     * Waits until all visitors have processed their notifications.
+     *
+     * @throws IllegalStateException if a visitor failed, with the failure as its cause (further failures are
+     *                               suppressed exceptions).
+     */
+    @Override
+    public void close() {
+        notify(END);
+
+        IllegalStateException failure = null;
+        for (int i = 0; i < subscribers.size(); i++) {
+            try {
+                threads.get(i).join();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the report writers", exception);
+            }
+
+            final Throwable cause = subscribers.get(i).failure;
+            if (cause != null) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Unable to write the report: " + cause.getMessage(), cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void notify(final Consumer<EvaluationVisitor> notification) {
+        try {
+            for (final Subscriber subscriber : subscribers) {
+                subscriber.notifications.put(notification);
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while notifying the report writers", exception);
+        }
+    }
+}
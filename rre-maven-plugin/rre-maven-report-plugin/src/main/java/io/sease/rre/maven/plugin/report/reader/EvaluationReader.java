@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.reader;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads an evaluation (as produced by the JSON persistence handler) one token at a time, notifying its members to
+ * an {@link EvaluationVisitor}: at any time, only the member being notified (and the fields of its ancestors) is held in
+ * memory, regardless of the evaluation size.
+ *
+ * The reader doesn't rely on the order of the fields. Anyway, when the children of a member come before its name or
+ * its metrics, they are buffered until the end of the member, so streaming is effective only when children come
+ * last - which is what the JSON persistence handler does.
+ *
+ * @since 1.2
+ */
+public class EvaluationReader {
+    private enum Level {
+        EVALUATION("name", "corpora"),
+        CORPUS("name", "topics"),
+        TOPIC("name", "query-groups"),
+        QUERY_GROUP("name", "query-evaluations"),
+        QUERY("query", null);
+
+        private final String nameField;
+        private final String childrenField;
+
+        Level(final String nameField, final String childrenField) {
+            this.nameField = nameField;
+            this.childrenField = childrenField;
+        }
+
+        Level next() {
+            return values()[ordinal() + 1];
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Reads the given evaluation file.
+     *
+     * @param file    the JSON evaluation file.
+     * @param visitor the visitor which will be notified.
+     * @throws IOException in case of I/O failure, or if the JSON is not a valid evaluation.
+     */
+    public void read(final File file, final EvaluationVisitor visitor) throws IOException {
+        try (final JsonParser parser = mapper.getFactory().createParser(file)) {
+            read(parser, visitor);
+        }
+    }
+
+    /**
+     * Reads an evaluation from the given stream.
+     *
+     * @param in      the stream of the JSON evaluation.
+     * @param visitor the visitor which will be notified.
+     * @throws IOException in case of I/O failure, or if the JSON is not a valid evaluation.
+     */
+    public void read(final InputStream in, final EvaluationVisitor visitor) throws IOException {
+        try (final JsonParser parser = mapper.getFactory().createParser(in)) {
+            read(parser, visitor);
+        }
+    }
+
+    /**
+     * Reads an evaluation from the given parser.
+     *
+     * If the evaluation can't be read, or the visitor fails, the visitor is notified of the failure before it is
+     * thrown.
+     *
+     * @param parser  the parser of the JSON evaluation, positioned before or at its start.
+     * @param visitor the visitor which will be notified.
+     * @throws IOException in case of I/O failure, or if the JSON is not a valid evaluation.
+     */
+    public void read(final JsonParser parser, final EvaluationVisitor visitor) throws IOException {
+        if (parser.getCodec() == null) {
+            parser.setCodec(mapper);
+        }
+        if (!parser.hasCurrentToken()) {
+            parser.nextToken();
+        }
+        if (!parser.isExpectedStartObjectToken()) {
+            throw new JsonParseException(parser, "Expected an evaluation object");
+        }
+
+        try {
+            member(parser, Level.EVALUATION, visitor);
+        } catch (final IOException | RuntimeException exception) {
+            visitor.failed(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Reads a member object, with the parser positioned at its start. The member is started as soon as its name and
+     * metrics have been read; if its children are found before, they are buffered and read at the end of the member.
+     */
+    private void member(final JsonParser parser, final Level level, final EvaluationVisitor visitor) throws IOException {
+        if (level == Level.QUERY) {
+            visitor.query(parser.readValueAsTree());
+            return;
+        }
+
+        final ObjectNode member = mapper.createObjectNode();
+        boolean started = false;
+        TokenBuffer pending = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+
+            if (level.childrenField.equals(field)) {
+                if (!started && member.has(level.nameField) && member.has("metrics")) {
+                    start(level, member, visitor);
+                    started = true;
+                }
+
+                if (started) {
+                    children(parser, level.next(), visitor);
+                } else {
+                    pending = new TokenBuffer(parser);
+                    pending.copyCurrentStructure(parser);
+                }
+            } else {
+                member.set(field, parser.readValueAsTree());
+            }
+        }
+
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected end of input");
+        }
+
+        if (!started) {
+            start(level, member, visitor);
+        }
+
+        if (pending != null) {
+            try (final JsonParser buffered = pending.asParser(parser.getCodec())) {
+                buffered.nextToken();
+                children(buffered, level.next(), visitor);
+            }
+        }
+
+        end(level, member, visitor);
+    }
+
+    /**
+     * Reads each member of a children array, with the parser positioned at its start.
+     */
+    private void children(final JsonParser parser, final Level level, final EvaluationVisitor visitor) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == null) {
+                throw new JsonParseException(parser, "Unexpected end of input");
+            } else if (parser.currentToken() == JsonToken.START_OBJECT) {
+                member(parser, level, visitor);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void start(final Level level, final JsonNode member, final EvaluationVisitor visitor) {
+        switch (level) {
+            case EVALUATION:
+                visitor.startEvaluation(member);
+                break;
+            case CORPUS:
+                visitor.startCorpus(member);
+                break;
+            case TOPIC:
+                visitor.startTopic(member);
+                break;
+            case QUERY_GROUP:
+                visitor.startQueryGroup(member);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void end(final Level level, final JsonNode member, final EvaluationVisitor visitor) {
+        switch (level) {
+            case EVALUATION:
+                visitor.endEvaluation(member);
+                break;
+            case CORPUS:
+                visitor.endCorpus(member);
+                break;
+            case TOPIC:
+                visitor.endTopic(member);
+                break;
+            case QUERY_GROUP:
+                visitor.endQueryGroup(member);
+                break;
+            default:
+                break;
+        }
+    }
+}
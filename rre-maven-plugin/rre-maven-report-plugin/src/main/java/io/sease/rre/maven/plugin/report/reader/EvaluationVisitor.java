@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Receives the members of an evaluation, in document order, while an {@link EvaluationReader} streams through it.
+ *
+ * Each member is passed as a JSON object holding its own fields (name, metrics, latency...) but not its children,
+ * which are notified between its start and end callbacks. Query evaluations are leaves, so they are passed whole,
+ * results included. If the evaluation can't be read to its end, {@link #failed(Throwable)} is called instead of
+ * {@link #endEvaluation(JsonNode)}. All methods do nothing by default.
+ *
+ * @since 1.2
+ */
+public interface EvaluationVisitor {
+    /**
+     * Called at the start of the evaluation, before its corpora.
+     *
+     * @param evaluation the evaluation fields.
+     */
+    default void startEvaluation(final JsonNode evaluation) {
+    }
+
+    /**
+     * Called at the start of a corpus, before its topics.
+     *
+     * @param corpus the corpus fields.
+     */
+    default void startCorpus(final JsonNode corpus) {
+    }
+
+    /**
+     * Called at the start of a topic, before its query groups.
+     *
+     * @param topic the topic fields.
+     */
+    default void startTopic(final JsonNode topic) {
+    }
+
+    /**
+     * Called at the start of a query group, before its queries.
+     *
+     * @param queryGroup the query group fields.
+     */
+    default void startQueryGroup(final JsonNode queryGroup) {
+    }
+
+    /**
+     * Called for each query evaluation.
+     *
+     * @param query the query evaluation.
+     */
+    default void query(final JsonNode query) {
+    }
+
+    /**
+     * Called at the end of a query group, after its queries.
+     *
+     * @param queryGroup the query group fields, including those found after the queries.
+     */
+    default void endQueryGroup(final JsonNode queryGroup) {
+    }
+
+    /**
+     * Called at the end of a topic, after its query groups.
+     *
+     * @param topic the topic fields, including those found after the query groups.
+     */
+    default void endTopic(final JsonNode topic) {
+    }
+
+    /**
+     * Called at the end of a corpus, after its topics.
+     *
+     * @param corpus the corpus fields, including those found after the topics.
+     */
+    default void endCorpus(final JsonNode corpus) {
+    }
+
+    /**
+     * Called at the end of the evaluation, after its corpora.
+     *
+     * @param evaluation the evaluation fields, including those found after the corpora.
+     */
+    default void endEvaluation(final JsonNode evaluation) {
+    }
+
+    /**
+     * Called, instead of {@link #endEvaluation(JsonNode)}, when the evaluation can't be read to its end or when a
+     * notification to this visitor failed: no further notification will follow, so the visitor should release
+     * whatever it holds.
+     *
+     * @param failure the reason of the failure.
+     */
+    default void failed(final Throwable failure) {
+    }
+}
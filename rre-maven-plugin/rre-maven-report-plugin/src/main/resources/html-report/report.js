@@ -0,0 +1,178 @@
+/*
+ * RRE static HTML report: expands the query groups, loading their queries from the shards.
+ *
+ * A shard is a script calling rreShard(id, data), where data is the gzip compressed (and base64 encoded) JSON array
+ * of its queries. Scripts are used, rather than fetch, so that the report can be opened from the file system.
+ */
+(function () {
+    "use strict";
+
+    var table = document.getElementById("report");
+    var metrics = JSON.parse(table.dataset.metrics);
+    var versions = JSON.parse(table.dataset.versions);
+    var pending = {};
+
+    window.rreShard = function (id, data) {
+        var callback = pending[id];
+        delete pending[id];
+        if (callback) {
+            callback(data);
+        }
+    };
+
+    function inflate(base64) {
+        var binary = atob(base64);
+        var bytes = new Uint8Array(binary.length);
+        for (var i = 0; i < binary.length; i++) {
+            bytes[i] = binary.charCodeAt(i);
+        }
+        var stream = new Blob([bytes]).stream().pipeThrough(new DecompressionStream("gzip"));
+        return new Response(stream).text().then(JSON.parse);
+    }
+
+    function loadShard(id) {
+        return new Promise(function (resolve, reject) {
+            var script = document.createElement("script");
+            pending[id] = function (data) {
+                inflate(data).then(resolve, reject);
+            };
+            script.src = "shards/" + id + ".js";
+            script.onload = function () {
+                script.remove();
+            };
+            script.onerror = function () {
+                delete pending[id];
+                script.remove();
+                reject(new Error("Unable to load shard " + id));
+            };
+            document.head.appendChild(script);
+        });
+    }
+
+    function cell(row, text, className) {
+        var td = row.insertCell();
+        td.textContent = text;
+        if (className) {
+            td.className = className;
+        }
+        return td;
+    }
+
+    function format(value) {
+        return value === null || value === undefined ? "" : value.toFixed(4);
+    }
+
+    function queryRow(query, group) {
+        var row = document.createElement("tr");
+        row.className = "query";
+        row.dataset.group = group;
+        cell(row, query.query.replace(/\s+/g, " "), "name").title = query.query;
+
+        metrics.forEach(function (metric, m) {
+            var values = query.metrics[metric] || [];
+            versions.forEach(function (version, v) {
+                cell(row, format(values[v]), "metric m" + m);
+            });
+            for (var v = 1; v < versions.length; v++) {
+                var delta = values[v] === null || values[v - 1] === null || values[v] === undefined
+                    ? null
+                    : values[v] - values[v - 1];
+                var trend = delta > 0 ? "up" : delta < 0 ? "down" : "same";
+                cell(row, format(delta), "metric m" + m + " delta " + trend);
+            }
+        });
+
+        row.addEventListener("click", function () {
+            toggleDetails(row, query);
+        });
+        return row;
+    }
+
+    function toggleDetails(row, query) {
+        var next = row.nextElementSibling;
+        if (next && next.classList.contains("details")) {
+            next.remove();
+            return;
+        }
+
+        var details = document.createElement("tr");
+        details.className = "details";
+        details.dataset.group = row.dataset.group;
+        var td = details.insertCell();
+        td.colSpan = row.cells.length;
+
+        var text = document.createElement("pre");
+        text.textContent = query.query;
+        td.appendChild(text);
+
+        Object.keys(query.results).forEach(function (version) {
+            var result = query.results[version];
+            var hits = document.createElement("pre");
+            hits.textContent = version + ": " + result["total-hits"] + " hits\n" + result.hits.map(function (hit) {
+                return "  " + JSON.stringify(hit);
+            }).join("\n");
+            td.appendChild(hits);
+        });
+        row.after(details);
+    }
+
+    function collapse(group) {
+        group.classList.remove("open", "loading");
+        table.querySelectorAll("tr[data-group='" + group.id + "']").forEach(function (row) {
+            row.remove();
+        });
+    }
+
+    function expand(group) {
+        var generation = (group.generation || 0) + 1;
+        var shards = Number(group.dataset.shards);
+        var last = group;
+        var index = 0;
+
+        group.generation = generation;
+        group.classList.add("open", "loading");
+
+        (function next() {
+            if (group.generation !== generation) {
+                return;
+            }
+            if (index >= shards) {
+                group.classList.remove("loading");
+                return;
+            }
+            loadShard(group.id + "-" + index++).then(function (queries) {
+                if (group.generation !== generation) {
+                    return;
+                }
+                queries.forEach(function (query) {
+                    var row = queryRow(query, group.id);
+                    last.after(row);
+                    last = row;
+                });
+                next();
+            }, function (error) {
+                group.classList.remove("loading");
+                window.alert(error.message);
+            });
+        })();
+    }
+
+    table.addEventListener("click", function (event) {
+        var row = event.target.closest("tr.group");
+        if (!row) {
+            return;
+        }
+        if (row.classList.contains("open")) {
+            row.generation = (row.generation || 0) + 1;
+            collapse(row);
+        } else {
+            expand(row);
+        }
+    });
+
+    document.getElementById("metric").addEventListener("change", function (event) {
+        var metric = event.target.value;
+        document.getElementById("metric-filter").textContent =
+            metric === "" ? "" : ".metric:not(.m" + metric + ") { display: none; }";
+    });
+})();
@@ -25,7 +25,7 @@ public class Main {
     public static void main(String a[]) throws Exception {
         RREMavenReport report = new RREMavenReport() {
             @Override
-            File evaluationOutputFile() {
+            public File evaluationOutputFile() {
                 return new File("/Users/agazzarini/workspaces/rated-ranking-evaluator/rre-maven-plugin/rre-maven-solr-plugin/target/rre/evaluation.json");
             }
 
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.formats.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.maven.plugin.report.RREMavenReport;
+import io.sease.rre.maven.plugin.report.domain.EvaluationMetadata;
+import io.sease.rre.maven.plugin.report.reader.EvaluationReader;
+import io.sease.rre.maven.plugin.report.reader.EvaluationVisitor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the {@link HtmlOutputFormat}.
+ *
+ * @since 1.2
+ */
+public class HtmlOutputFormatTest {
+
+    private static final Pattern SHARD = Pattern.compile("rreShard\\(\"([^\"]+)\",\"([^\"]+)\"\\);\n");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final EvaluationMetadata metadata = new EvaluationMetadata(Arrays.asList("v1.0", "v1.1"), Arrays.asList("P", "R"));
+
+    private RREMavenReport plugin;
+    private File report;
+
+    @Before
+    public void setupPlugin() {
+        plugin = new RREMavenReport();
+        plugin.setReportOutputDirectory(folder.getRoot());
+        report = new File(folder.getRoot(), plugin.getOutputName());
+    }
+
+    @Test
+    public void report_writesGroupRowsAndShards() throws Exception {
+        final int queries = HtmlOutputFormat.SHARD_SIZE + HtmlOutputFormat.SHARD_SIZE / 2;
+        write(evaluation(queries, 3));
+
+        final String index = new String(Files.readAllBytes(new File(report, "index.html").toPath()), StandardCharsets.UTF_8);
+        assertTrue(index.contains("<tr class=\"corpus\"><td class=\"name\">c</td>"));
+        assertTrue(index.contains("<tr class=\"topic\"><td class=\"name\">t &amp; co</td>"));
+        assertTrue(index.contains("<tr class=\"group\" id=\"g0\" data-shards=\"2\" data-queries=\"" + queries + "\"><td class=\"name\">g0</td>"
+                + "<td class=\"metric m0\">0.5000</td><td class=\"metric m0\">0.7500</td><td class=\"metric m0 delta up\">0.2500</td>"));
+        assertTrue(index.contains("<tr class=\"group\" id=\"g1\" data-shards=\"1\" data-queries=\"3\"><td class=\"name\">g1</td>"));
+        assertTrue(index.endsWith("</html>\n"));
+        assertTrue(new File(report, "report.css").isFile());
+        assertTrue(new File(report, "report.js").isFile());
+
+        final String[] shards = new File(report, "shards").list();
+        Arrays.sort(shards);
+        assertArrayEquals(new String[]{"g0-0.js", "g0-1.js", "g1-0.js"}, shards);
+
+        final JsonNode first = shard("g0-0");
+        assertEquals(HtmlOutputFormat.SHARD_SIZE, first.size());
+        assertEquals("q0-0", first.get(0).path("query").asText());
+
+        final JsonNode second = shard("g0-1");
+        assertEquals(queries - HtmlOutputFormat.SHARD_SIZE, second.size());
+        final JsonNode query = second.get(0);
+        assertEquals("q0-" + HtmlOutputFormat.SHARD_SIZE, query.path("query").asText());
+        assertEquals(mapper.readTree("{\"P\": [0.5, 0.75], \"R\": [0.25, null]}"), query.path("metrics"));
+        assertEquals(42, query.path("results").path("v1.1").path("total-hits").asInt());
+        assertEquals(HtmlOutputFormat.MAX_HITS, query.path("results").path("v1.1").path("hits").size());
+        assertEquals("d0", query.path("results").path("v1.1").path("hits").get(0).path("id").asText());
+
+        assertEquals(3, shard("g1-0").size());
+    }
+
+    @Test
+    public void report_removesShardsOfPreviousReport() throws Exception {
+        write(evaluation(HtmlOutputFormat.SHARD_SIZE * 3, 1));
+        assertTrue(new File(report, "shards/g0-2.js").isFile());
+
+        write(evaluation(1, 1));
+
+        final String[] shards = new File(report, "shards").list();
+        Arrays.sort(shards);
+        assertArrayEquals(new String[]{"g0-0.js", "g1-0.js"}, shards);
+    }
+
+    @Test
+    public void failed_closesIndex() throws Exception {
+        final EvaluationVisitor writer = new HtmlOutputFormat().reportWriter(metadata, Locale.ROOT, plugin);
+        final byte[] data = mapper.writeValueAsBytes(evaluation(10, 1));
+
+        try {
+            new EvaluationReader().read(new ByteArrayInputStream(Arrays.copyOf(data, data.length / 2)), writer);
+            fail("A truncated evaluation should not be read");
+        } catch (final IOException expected) {
+            // Expected
+        }
+
+        // The index is buffered: what has been written so far is there only if it has been closed
+        final String index = new String(Files.readAllBytes(new File(report, "index.html").toPath()), StandardCharsets.UTF_8);
+        assertTrue(index.contains("<tr class=\"corpus\">"));
+        assertFalse(index.contains("</html>"));
+    }
+
+    private void write(final JsonNode evaluation) throws IOException {
+        final EvaluationVisitor writer = new HtmlOutputFormat().reportWriter(metadata, Locale.ROOT, plugin);
+        new EvaluationReader().read(new ByteArrayInputStream(mapper.writeValueAsBytes(evaluation)), writer);
+    }
+
+    /**
+     * Returns the queries of a shard, decoding its script.
+     */
+    private JsonNode shard(final String id) throws IOException {
+        final String script = new String(Files.readAllBytes(new File(report, "shards/" + id + ".js").toPath()), StandardCharsets.UTF_8);
+        final Matcher matcher = SHARD.matcher(script);
+        assertTrue(matcher.matches());
+        assertEquals(id, matcher.group(1));
+
+        try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(matcher.group(2))))) {
+            return mapper.readTree(in);
+        }
+    }
+
+    /**
+     * Builds an evaluation with a corpus, a topic and two query groups, with the given number of queries.
+     */
+    private ObjectNode evaluation(final int firstGroupQueries, final int secondGroupQueries) {
+        final ArrayNode groups = mapper.createArrayNode();
+        final int[] queries = {firstGroupQueries, secondGroupQueries};
+        for (int g = 0; g < queries.length; g++) {
+            final ArrayNode evaluations = mapper.createArrayNode();
+            for (int q = 0; q < queries[g]; q++) {
+                final ObjectNode query = member("query", "q" + g + "-" + q, "query-evaluations", null);
+                final ObjectNode result = query.putObject("results").putObject("v1.1");
+                result.put("total-hits", 42);
+                final ArrayNode hits = result.putArray("hits");
+                for (int h = 0; h < HtmlOutputFormat.MAX_HITS * 2; h++) {
+                    hits.addObject().put("id", "d" + h);
+                }
+                evaluations.add(query);
+            }
+            groups.add(member("name", "g" + g, "query-evaluations", evaluations));
+        }
+
+        final ArrayNode topics = mapper.createArrayNode().add(member("name", "t & co", "query-groups", groups));
+        final ArrayNode corpora = mapper.createArrayNode().add(member("name", "c", "topics", topics));
+        return member("name", "e", "corpora", corpora);
+    }
+
+    private ObjectNode member(final String nameField, final String name, final String childrenField, final JsonNode children) {
+        final ObjectNode member = mapper.createObjectNode();
+        member.put(nameField, name);
+
+        final ObjectNode metrics = member.putObject("metrics");
+        final ObjectNode precision = metrics.putObject("P").putObject("versions");
+        precision.putObject("v1.0").put("value", 0.5);
+        precision.putObject("v1.1").put("value", 0.75);
+        metrics.putObject("R").putObject("versions").putObject("v1.0").put("value", 0.25);
+
+        if (children != null) {
+            member.set(childrenField, children);
+        }
+        return member;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the {@link ConcurrentVisitor}.
+ *
+ * @since 1.2
+ */
+public class ConcurrentVisitorTest {
+
+    /**
+     * Records each notification, slowly if required.
+     */
+    private static class RecordingVisitor implements EvaluationVisitor {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final long delayMs;
+        volatile Throwable failure;
+
+        private RecordingVisitor(final long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public void startEvaluation(final JsonNode evaluation) {
+            record("startEvaluation");
+        }
+
+        @Override
+        public void startCorpus(final JsonNode corpus) {
+            record("startCorpus:" + corpus.path("name").asText());
+        }
+
+        @Override
+        public void query(final JsonNode query) {
+            record("query:" + query.path("query").asText());
+        }
+
+        @Override
+        public void endCorpus(final JsonNode corpus) {
+            record("endCorpus:" + corpus.path("name").asText());
+        }
+
+        @Override
+        public void endEvaluation(final JsonNode evaluation) {
+            record("endEvaluation");
+        }
+
+        @Override
+        public void failed(final Throwable failure) {
+            this.failure = failure;
+        }
+
+        private void record(final String event) {
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void close_waitsForAllVisitors() {
+        final RecordingVisitor fast = new RecordingVisitor(0);
+        final RecordingVisitor slow = new RecordingVisitor(2);
+
+        final ConcurrentVisitor visitor = new ConcurrentVisitor(Arrays.asList(fast, slow));
+        visit(visitor, 20);
+        visitor.close();
+
+        final List<String> expected = expectedEvents(20);
+        assertEquals(expected, fast.events);
+        assertEquals(expected, slow.events);
+        assertNull(fast.failure);
+        assertNull(slow.failure);
+        assertFalse(threadsAlive());
+    }
+
+    @Test
+    public void failingVisitor_doesNotAffectTheOthers() {
+        final IllegalArgumentException cause = new IllegalArgumentException("Broken writer");
+        final RecordingVisitor healthy = new RecordingVisitor(0);
+        final AtomicInteger queriesAfterFailure = new AtomicInteger();
+        final RecordingVisitor failing = new RecordingVisitor(0) {
+            @Override
+            public void query(final JsonNode query) {
+                if (failure != null) {
+                    queriesAfterFailure.incrementAndGet();
+                }
+                if ("q3".equals(query.path("query").asText())) {
+                    throw cause;
+                }
+                super.query(query);
+            }
+        };
+
+        final ConcurrentVisitor visitor = new ConcurrentVisitor(Arrays.asList(failing, healthy));
+        visit(visitor, 10);
+        try {
+            visitor.close();
+            fail("The failure of a visitor must be thrown on close");
+        } catch (final IllegalStateException expected) {
+            assertSame(cause, expected.getCause());
+        }
+
+        assertEquals(expectedEvents(10), healthy.events);
+        assertNull(healthy.failure);
+        assertSame(cause, failing.failure);
+        assertEquals(Arrays.asList("startEvaluation", "startCorpus:c", "query:q0", "query:q1", "query:q2"), failing.events);
+        assertEquals(0, queriesAfterFailure.get());
+    }
+
+    @Test
+    public void close_suppressesFurtherFailures() {
+        final RuntimeException first = new RuntimeException("first");
+        final RuntimeException second = new RuntimeException("second");
+        final ConcurrentVisitor visitor = new ConcurrentVisitor(Arrays.asList(
+                new EvaluationVisitor() {
+                    @Override
+                    public void startEvaluation(final JsonNode evaluation) {
+                        throw first;
+                    }
+                },
+                new EvaluationVisitor() {
+                    @Override
+                    public void endEvaluation(final JsonNode evaluation) {
+                        throw second;
+                    }
+                }));
+
+        visit(visitor, 1);
+        try {
+            visitor.close();
+            fail("The failures of the visitors must be thrown on close");
+        } catch (final IllegalStateException expected) {
+            assertSame(first, expected.getCause());
+            assertEquals(1, expected.getSuppressed().length);
+            assertSame(second, expected.getSuppressed()[0]);
+        }
+    }
+
+    @Test
+    public void failed_isForwardedToAllVisitors() {
+        final RecordingVisitor first = new RecordingVisitor(0);
+        final RecordingVisitor second = new RecordingVisitor(0);
+        final RuntimeException failure = new RuntimeException("Truncated input");
+
+        final ConcurrentVisitor visitor = new ConcurrentVisitor(Arrays.asList(first, second));
+        visitor.startEvaluation(mapper.createObjectNode());
+        visitor.failed(failure);
+        visitor.close();
+
+        assertSame(failure, first.failure);
+        assertSame(failure, second.failure);
+        assertEquals(Collections.singletonList("startEvaluation"), first.events);
+    }
+
+    @Test(timeout = 10_000)
+    public void notifications_areBoundedByTheSlowestVisitor() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingVisitor stuck = new RecordingVisitor(0) {
+            @Override
+            public void startEvaluation(final JsonNode evaluation) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                super.startEvaluation(evaluation);
+            }
+        };
+
+        final ConcurrentVisitor visitor = new ConcurrentVisitor(Arrays.asList(new RecordingVisitor(0), stuck));
+        final AtomicInteger sent = new AtomicInteger();
+        final int total = ConcurrentVisitor.QUEUE_CAPACITY * 2;
+        final Thread reader = new Thread(() -> {
+            visitor.startEvaluation(mapper.createObjectNode());
+            sent.incrementAndGet();
+            for (int i = 1; i < total; i++) {
+                visitor.query(query(i));
+                sent.incrementAndGet();
+            }
+        });
+        reader.start();
+
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        while (sent.get() < ConcurrentVisitor.QUEUE_CAPACITY) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+
+        // The stuck visitor holds one notification, its queue the others: the reader waits for it
+        assertEquals(ConcurrentVisitor.QUEUE_CAPACITY + 1, sent.get());
+        assertTrue(reader.isAlive());
+
+        release.countDown();
+        reader.join();
+        visitor.close();
+
+        assertEquals(total, sent.get());
+        assertEquals(total, stuck.events.size());
+    }
+
+    private void visit(final ConcurrentVisitor visitor, final int queries) {
+        final ObjectNode corpus = mapper.createObjectNode().put("name", "c");
+        visitor.startEvaluation(mapper.createObjectNode());
+        visitor.startCorpus(corpus);
+        for (int i = 0; i < queries; i++) {
+            visitor.query(query(i));
+        }
+        visitor.endCorpus(corpus);
+        visitor.endEvaluation(mapper.createObjectNode());
+    }
+
+    private ObjectNode query(final int i) {
+        return mapper.createObjectNode().put("query", "q" + i);
+    }
+
+    private static List<String> expectedEvents(final int queries) {
+        final List<String> events = new ArrayList<>();
+        events.add("startEvaluation");
+        events.add("startCorpus:c");
+        for (int i = 0; i < queries; i++) {
+            events.add("query:q" + i);
+        }
+        events.add("endCorpus:c");
+        events.add("endEvaluation");
+        return events;
+    }
+
+    private static boolean threadsAlive() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().startsWith("rre-report-") && thread.isAlive());
+    }
+}
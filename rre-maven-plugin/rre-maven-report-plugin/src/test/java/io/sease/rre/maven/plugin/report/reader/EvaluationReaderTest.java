@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.maven.plugin.report.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the {@link EvaluationReader}.
+ *
+ * @since 1.2
+ */
+public class EvaluationReaderTest {
+
+    /**
+     * Records each notification as "callback:name", where the name also tells whether the member metrics were there.
+     */
+    private static class RecordingVisitor implements EvaluationVisitor {
+        private final List<String> events = new ArrayList<>();
+        private Throwable failure;
+
+        @Override
+        public void startEvaluation(final JsonNode evaluation) {
+            record("startEvaluation", evaluation);
+        }
+
+        @Override
+        public void startCorpus(final JsonNode corpus) {
+            record("startCorpus", corpus);
+        }
+
+        @Override
+        public void startTopic(final JsonNode topic) {
+            record("startTopic", topic);
+        }
+
+        @Override
+        public void startQueryGroup(final JsonNode queryGroup) {
+            record("startQueryGroup", queryGroup);
+        }
+
+        @Override
+        public void query(final JsonNode query) {
+            events.add("query:" + query.path("query").asText() + (query.has("results") ? "+results" : ""));
+        }
+
+        @Override
+        public void endQueryGroup(final JsonNode queryGroup) {
+            record("endQueryGroup", queryGroup);
+        }
+
+        @Override
+        public void endTopic(final JsonNode topic) {
+            record("endTopic", topic);
+        }
+
+        @Override
+        public void endCorpus(final JsonNode corpus) {
+            record("endCorpus", corpus);
+        }
+
+        @Override
+        public void endEvaluation(final JsonNode evaluation) {
+            record("endEvaluation", evaluation);
+        }
+
+        @Override
+        public void failed(final Throwable failure) {
+            this.failure = failure;
+        }
+
+        private void record(final String callback, final JsonNode member) {
+            assertFalse("Children must not be passed with their parent", member.has("corpora")
+                    || member.has("topics") || member.has("query-groups") || member.has("query-evaluations"));
+            events.add(callback + ":" + member.path("name").asText() + (member.has("metrics") ? "+metrics" : ""));
+        }
+    }
+
+    private final EvaluationReader reader = new EvaluationReader();
+
+    @Test
+    public void read_notifiesMembersInDocumentOrder() throws Exception {
+        final RecordingVisitor visitor = read(
+                "{ 'name': 'e', 'metrics': {}, 'corpora': [" +
+                        "{ 'name': 'c1', 'metrics': {}, 'topics': [" +
+                        "  { 'name': 't1', 'metrics': {}, 'query-groups': [" +
+                        "    { 'name': 'g1', 'metrics': {}, 'query-evaluations': [" +
+                        "      { 'query': 'q1', 'metrics': {}, 'results': {} }," +
+                        "      { 'query': 'q2', 'metrics': {} } ] }," +
+                        "    { 'name': 'g2', 'metrics': {}, 'query-evaluations': [] } ] } ] }," +
+                        "{ 'name': 'c2', 'metrics': {}, 'topics': [] } ] }");
+
+        assertEquals(Arrays.asList(
+                "startEvaluation:e+metrics",
+                "startCorpus:c1+metrics",
+                "startTopic:t1+metrics",
+                "startQueryGroup:g1+metrics",
+                "query:q1+results",
+                "query:q2",
+                "endQueryGroup:g1+metrics",
+                "startQueryGroup:g2+metrics",
+                "endQueryGroup:g2+metrics",
+                "endTopic:t1+metrics",
+                "endCorpus:c1+metrics",
+                "startCorpus:c2+metrics",
+                "endCorpus:c2+metrics",
+                "endEvaluation:e+metrics"), visitor.events);
+        assertEquals(null, visitor.failure);
+    }
+
+    @Test
+    public void read_buffersChildrenFoundBeforeNameAndMetrics() throws Exception {
+        final RecordingVisitor visitor = read(
+                "{ 'corpora': [" +
+                        "{ 'topics': [" +
+                        "  { 'name': 't1', 'query-groups': [" +
+                        "    { 'query-evaluations': [ { 'query': 'q1' } ], 'metrics': {}, 'name': 'g1' } ]," +
+                        "    'metrics': {} } ]," +
+                        "  'name': 'c1', 'metrics': {} } ]," +
+                        "'name': 'e', 'metrics': {} }");
+
+        assertEquals(Arrays.asList(
+                "startEvaluation:e+metrics",
+                "startCorpus:c1+metrics",
+                "startTopic:t1+metrics",
+                "startQueryGroup:g1+metrics",
+                "query:q1",
+                "endQueryGroup:g1+metrics",
+                "endTopic:t1+metrics",
+                "endCorpus:c1+metrics",
+                "endEvaluation:e+metrics"), visitor.events);
+    }
+
+    @Test
+    public void read_passesFieldsFoundAfterChildrenToEnd() throws Exception {
+        final RecordingVisitor visitor = read(
+                "{ 'name': 'e', 'metrics': {}, 'corpora': [ { 'name': 'c1', 'metrics': {}, 'topics': [], 'latency': {} } ] }");
+
+        assertEquals(Arrays.asList(
+                "startEvaluation:e+metrics",
+                "startCorpus:c1+metrics",
+                "endCorpus:c1+metrics",
+                "endEvaluation:e+metrics"), visitor.events);
+    }
+
+    @Test
+    public void read_failsOnTruncatedInput() {
+        final RecordingVisitor visitor = new RecordingVisitor();
+        try {
+            reader.read(stream("{ 'name': 'e', 'metrics': {}, 'corpora': [ { 'name': 'c1', 'metrics': {}, 'topics': [ { 'na"),
+                    visitor);
+            fail("Truncated input must not be read");
+        } catch (final IOException expected) {
+            assertEquals(expected, visitor.failure);
+            assertEquals(Arrays.asList("startEvaluation:e+metrics", "startCorpus:c1+metrics"), visitor.events);
+        }
+    }
+
+    @Test
+    public void read_failsOnTruncatedChildrenArray() {
+        final RecordingVisitor visitor = new RecordingVisitor();
+        try {
+            reader.read(stream("{ 'name': 'e', 'metrics': {}, 'corpora': [ { 'name': 'c1', 'metrics': {}, 'topics': [] }"),
+                    visitor);
+            fail("Truncated input must not be read");
+        } catch (final IOException expected) {
+            assertTrue(visitor.events.contains("endCorpus:c1+metrics"));
+            assertFalse(visitor.events.contains("endEvaluation:e+metrics"));
+            assertEquals(expected, visitor.failure);
+        }
+    }
+
+    @Test
+    public void read_notifiesVisitorFailure() throws Exception {
+        final IllegalStateException failure = new IllegalStateException("Broken visitor");
+        final RecordingVisitor visitor = new RecordingVisitor() {
+            @Override
+            public void startTopic(final JsonNode topic) {
+                throw failure;
+            }
+        };
+
+        try {
+            reader.read(stream("{ 'name': 'e', 'metrics': {}, 'corpora': [ { 'name': 'c1', 'metrics': {}, 'topics': [ { 'name': 't1' } ] } ] }"),
+                    visitor);
+            fail("The visitor failure must be thrown");
+        } catch (final IllegalStateException expected) {
+            assertEquals(failure, expected);
+            assertEquals(failure, visitor.failure);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsNonObjectInput() throws Exception {
+        read("[]");
+    }
+
+    private RecordingVisitor read(final String json) throws IOException {
+        final RecordingVisitor visitor = new RecordingVisitor();
+        reader.read(stream(json), visitor);
+        return visitor;
+    }
+
+    private static ByteArrayInputStream stream(final String json) {
+        return new ByteArrayInputStream(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -16,7 +16,10 @@
  */
 package io.sease.rre.persistence.impl;
 
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.monitoring.Monitoring;
 import io.sease.rre.persistence.PersistenceException;
 import io.sease.rre.persistence.PersistenceHandler;
 import io.sease.rre.persistence.impl.connector.ElasticsearchConnector;
@@ -58,6 +61,11 @@ public class ElasticsearchPersistenceHandler implements PersistenceHandler {
     static final long DEFAULT_RUN_INTERVAL = 500;
     static final int DEFAULT_BATCHSIZE = 500;
 
+    static final String QUEUE_SIZE_METER = "rre.persistence.queue.size";
+    static final String BULK_LATENCY_METER = "rre.persistence.bulk";
+    static final String STORED_ITEMS_METER = "rre.persistence.items";
+    static final String HANDLER_TAG = "handler";
+
     private final TransferQueue<Query> queryQueue = new LinkedTransferQueue<>();
 
     private String name;
@@ -102,6 +110,8 @@ public class ElasticsearchPersistenceHandler implements PersistenceHandler {
         threadpoolSize = (int) configuration.getOrDefault(THREADPOOL_KEY, DEFAULT_THREADPOOL);
         runIntervalMs = (long) configuration.getOrDefault(RUN_INTERVAL_KEY, DEFAULT_RUN_INTERVAL);
         batchSize = (int) configuration.getOrDefault(BATCH_SIZE_KEY, DEFAULT_BATCHSIZE);
+
+        Monitoring.registry().gaugeCollectionSize(QUEUE_SIZE_METER, Tags.of(HANDLER_TAG, name), queryQueue);
     }
 
     @Override
@@ -219,7 +229,12 @@ public class ElasticsearchPersistenceHandler implements PersistenceHandler {
                         .map(QueryVersionReport::fromQuery)
                         .flatMap(List::stream)
                         .collect(Collectors.toList());
-                elasticsearch.storeItems(index, reports);
+                Timer.builder(BULK_LATENCY_METER)
+                        .tag(HANDLER_TAG, name)
+                        .publishPercentileHistogram()
+                        .register(Monitoring.registry())
+                        .record(() -> elasticsearch.storeItems(index, reports));
+                Monitoring.registry().counter(STORED_ITEMS_METER, HANDLER_TAG, name).increment(reports.size());
             }
         }
     }
@@ -51,10 +51,17 @@ public class QueryVersionReport {
     private final Collection<VersionMetric> metrics;
     private final Map<String, BigDecimal> metricValues;
     private final Collection<Result> results;
+    private final Latency latency;
 
     public QueryVersionReport(String id, String corpora, String topic, String queryGroup, String queryText,
                               String version, long totalHits, Collection<VersionMetric> metrics,
                               Collection<Result> results) {
+        this(id, corpora, topic, queryGroup, queryText, version, totalHits, metrics, results, null);
+    }
+
+    public QueryVersionReport(String id, String corpora, String topic, String queryGroup, String queryText,
+                              String version, long totalHits, Collection<VersionMetric> metrics,
+                              Collection<Result> results, Latency latency) {
         this.id = id;
         this.corpora = corpora;
         this.topic = topic;
@@ -66,6 +73,7 @@ public class QueryVersionReport {
         this.metricValues = metrics.stream()
                 .collect(Collectors.toMap(VersionMetric::getSanitisedName, VersionMetric::getValue));
         this.results = results;
+        this.latency = latency;
     }
 
     /**
@@ -106,7 +114,7 @@ public class QueryVersionReport {
                 .map(v -> new QueryVersionReport(
                         createId(corpus, topic, queryGroup, query.getName(), v),
                         corpus, topic, queryGroup, queryText, v, versionHits.get(v),
-                        versionMetrics.get(v).values(), results.get(v)))
+                        versionMetrics.get(v).values(), results.get(v), query.getLatency().get(v)))
                 .collect(Collectors.toList());
     }
 
@@ -184,6 +192,14 @@ public class QueryVersionReport {
         return results;
     }
 
+    /**
+     * @return the latency of this query version, or {@code null} if none
+     * was recorded.
+     */
+    public Latency getLatency() {
+        return latency;
+    }
+
     public static class VersionMetric {
 
         private final String name;
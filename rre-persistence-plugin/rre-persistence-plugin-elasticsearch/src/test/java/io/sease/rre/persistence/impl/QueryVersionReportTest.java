@@ -78,6 +78,7 @@ public class QueryVersionReportTest {
         q.collect(result2, 1, "1.1");
         q.collect(result2, 2, "1.1");
         q.setTotalHits(2, "1.1");
+        q.collectLatency(1500, 2, "1.0");
         q.setIdFieldName("_id");
         q.setRelevantDocuments(relevantDocs);
         q.prepare(metrics);
@@ -108,4 +109,16 @@ public class QueryVersionReportTest {
         assertThat(qvr.getMetricValues().size()).isEqualTo(2);
         assertThat(qvr.getMetricValues()).containsKeys("p", "r");
     }
+
+    @Test
+    public void includesVersionLatency() {
+        List<QueryVersionReport> queryVersions = QueryVersionReport.fromQuery(firstQuery);
+
+        QueryVersionReport qvr = queryVersions.stream().filter(v -> v.getVersion().equals("1.0")).findFirst().get();
+        assertThat(qvr.getLatency().getCount()).isEqualTo(1);
+        assertThat(qvr.getLatency().getTook()).containsEntry("max", 2L);
+
+        QueryVersionReport noLatency = queryVersions.stream().filter(v -> v.getVersion().equals("1.1")).findFirst().get();
+        assertThat(noLatency.getLatency()).isNull();
+    }
 }
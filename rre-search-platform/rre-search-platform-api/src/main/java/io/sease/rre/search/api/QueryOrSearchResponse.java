@@ -28,9 +28,17 @@ import static java.util.Collections.unmodifiableList;
  * @since 1.0
  */
 public class QueryOrSearchResponse {
+    /**
+     * The value of the latency and server time when they are not known.
+     */
+    public static final long UNKNOWN = -1;
+
     private final String failureMessage;
+    private final boolean retryable;
     private final long totalHits;
     private final List<Map<String, Object>> hits;
+    private final long tookMillis;
+    private final long latencyMicros;
 
     /**
      * Builds a new response with the given data.
@@ -39,15 +47,58 @@ public class QueryOrSearchResponse {
      * @param hits      the current hits window.
      */
     public QueryOrSearchResponse(final long totalHits, final List<Map<String, Object>> hits) {
-        this.totalHits = totalHits;
-        this.hits = unmodifiableList(hits);
-        this.failureMessage = null;
+        this(totalHits, hits, UNKNOWN);
+    }
+
+    /**
+     * Builds a new response with the given data.
+     *
+     * @param totalHits  the total hits of this response.
+     * @param hits       the current hits window.
+     * @param tookMillis the time taken to execute the query, as reported by
+     *                   the search platform (eg. Elasticsearch "took", or Solr
+     *                   "QTime").
+     */
+    public QueryOrSearchResponse(final long totalHits, final List<Map<String, Object>> hits, final long tookMillis) {
+        this(null, false, totalHits, unmodifiableList(hits), tookMillis, UNKNOWN);
     }
 
     public QueryOrSearchResponse(final String failureMessage) {
-        this.totalHits = 0;
-        this.hits = null;
+        this(failureMessage, false);
+    }
+
+    /**
+     * Builds a new failed response.
+     *
+     * @param failureMessage the reason for the failure.
+     * @param retryable      {@code true} if the failure is transient (eg. a
+     *                       connection error, or an overloaded server), and
+     *                       the same request may succeed if sent again.
+     */
+    public QueryOrSearchResponse(final String failureMessage, final boolean retryable) {
+        this(failureMessage, retryable, 0, null, UNKNOWN, UNKNOWN);
+    }
+
+    private QueryOrSearchResponse(final String failureMessage, final boolean retryable, final long totalHits,
+                                  final List<Map<String, Object>> hits, final long tookMillis, final long latencyMicros) {
         this.failureMessage = failureMessage;
+        this.retryable = retryable;
+        this.totalHits = totalHits;
+        this.hits = hits;
+        this.tookMillis = tookMillis;
+        this.latencyMicros = latencyMicros;
+    }
+
+    /**
+     * Returns a copy of this response, carrying the latency observed by
+     * the client. Responses may be shared between several callers, each
+     * observing its own latency, so this does not modify the response.
+     *
+     * @param latencyMicros the latency observed by the client, in microseconds.
+     * @return a copy of this response with the given latency.
+     */
+    public QueryOrSearchResponse withLatency(final long latencyMicros) {
+        return new QueryOrSearchResponse(failureMessage, retryable, totalHits, hits, tookMillis, latencyMicros);
     }
 
     public boolean isFailed(){
@@ -58,6 +109,14 @@ public class QueryOrSearchResponse {
         return failureMessage;
     }
 
+    /**
+     * @return {@code true} if this is a failed response which may succeed
+     * if the request is sent again.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
     /**
      * Returns the total hits number associated with this response.
      *
@@ -75,4 +134,23 @@ public class QueryOrSearchResponse {
     public List<Map<String, Object>> hits() {
         return hits;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the time taken to execute the query, as reported by the
+     * search platform.
+     *
+     * @return the server-side query time in milliseconds, or {@link #UNKNOWN}.
+     */
+    public long tookMillis() {
+        return tookMillis;
+    }
+
+    /**
+     * Returns the latency of the request, as observed by the client.
+     *
+     * @return the client-side latency in microseconds, or {@link #UNKNOWN}.
+     */
+    public long latencyMicros() {
+        return latencyMicros;
+    }
+}
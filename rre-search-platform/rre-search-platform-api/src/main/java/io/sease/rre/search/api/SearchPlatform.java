@@ -16,6 +16,8 @@
  */
 package io.sease.rre.search.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import java.io.Closeable;
 import java.io.File;
 import java.util.Map;
@@ -58,6 +60,23 @@ public interface SearchPlatform extends Closeable {
         return (indexName + "_" + version).toLowerCase();
     }
 
+    /**
+     * Returns a description of the target which will answer queries for the
+     * given index and version - eg. the endpoint and index name. Two
+     * versions with the same request target are expected to return the same
+     * response for the same query, allowing duplicate requests to be
+     * skipped.
+     * The default implementation returns the fully qualified domain name,
+     * so requests are never shared between versions.
+     *
+     * @param indexName the index name.
+     * @param version   the current version.
+     * @return a description of the target of the requests.
+     */
+    default String getRequestTarget(final String indexName, final String version) {
+        return getFullyQualifiedDomainName(indexName, version);
+    }
+
     /**
      * Starts this search platform.
      */
@@ -86,6 +105,37 @@ public interface SearchPlatform extends Closeable {
      */
     QueryOrSearchResponse executeQuery(String collection, String version, String query, final String[] fields, int maxRows);
 
+    /**
+     * Executes the given (already parsed) JSON query.
+     * Platforms whose queries are JSON documents should override this method,
+     * together with {@link #isJsonQuerySupported()}, in order to build the
+     * native request directly from the given node, without parsing the query
+     * string on each execution.
+     * The default implementation serializes the node and delegates to
+     * {@link #executeQuery(String, String, String, String[], int)}.
+     *
+     * @param collection the index name that holds the data.
+     * @param version    the id of the configuration version
+     * @param query      the query, as a JSON node.
+     * @param fields     the fields to return.
+     * @param maxRows    the maximum number of rows that will be returned.
+     * @return the response of the query execution.
+     */
+    default QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, final String[] fields, int maxRows) {
+        return executeQuery(collection, version, query.toString(), fields, maxRows);
+    }
+
+    /**
+     * Does this platform accept queries as JSON nodes? If so, rendered query
+     * templates will be parsed once by the caller and passed to
+     * {@link #executeQuery(String, String, JsonNode, String[], int)}.
+     *
+     * @return {@code true} if the platform expects JSON queries.
+     */
+    default boolean isJsonQuerySupported() {
+        return false;
+    }
+
     /**
      * Returns the name of this search platform.
      *
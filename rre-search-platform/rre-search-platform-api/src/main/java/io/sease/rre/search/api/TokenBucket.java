@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter, used by search platforms to keep the load
+ * on a search cluster under a fixed number of queries per second.
+ * <p>
+ * The bucket holds up to {@code burst} permits, refilled at the configured
+ * rate. Callers reserve a permit in arrival order, and wait until their
+ * reservation is due - so requests sharing a bucket (eg. from different
+ * versions pointing at the same hosts) are served first-come, first-served.
+ *
+ * @since 1.2
+ */
+public class TokenBucket {
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier clock;
+
+    private double permits;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond the sustained rate of permits.
+     * @param burst            the maximum number of permits which may be
+     *                         taken without waiting.
+     */
+    public TokenBucket(final double permitsPerSecond, final int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(final double permitsPerSecond, final int burst, final LongSupplier clock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be greater than zero: " + permitsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1: " + burst);
+        }
+
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.clock = clock;
+        this.permits = burst;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Build a bucket from optional settings.
+     *
+     * @param permitsPerSecond the sustained rate, or {@code null} for no limit.
+     * @param burst            the burst size, or {@code null} to allow one
+     *                         second's worth of permits.
+     * @return the bucket, or {@code null} if no rate is set.
+     */
+    public static TokenBucket of(final Double permitsPerSecond, final Integer burst) {
+        if (permitsPerSecond == null) {
+            return null;
+        }
+        return new TokenBucket(permitsPerSecond, burst != null ? burst : (int) Math.max(1, Math.ceil(permitsPerSecond)));
+    }
+
+    /**
+     * Take a permit, waiting until one is available.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        final long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Reserve a permit.
+     *
+     * @return the time to wait before the permit may be used, in nanoseconds.
+     */
+    synchronized long reserve() {
+        final long now = clock.getAsLong();
+        permits = Math.min(capacity, permits + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+
+        // Permits may go negative - later callers wait for the debt to be repaid
+        permits -= 1;
+        return permits >= 0 ? 0 : (long) Math.ceil(-permits / permitsPerNano);
+    }
+}
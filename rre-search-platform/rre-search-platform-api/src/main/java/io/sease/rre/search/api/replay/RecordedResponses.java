@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.replay;
+
+import io.sease.rre.search.api.QueryOrSearchResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.sease.rre.search.api.replay.RecordingFormat.FOOTER_LENGTH;
+import static io.sease.rre.search.api.replay.RecordingFormat.FORMAT_VERSION;
+import static io.sease.rre.search.api.replay.RecordingFormat.HEADER_LENGTH;
+import static io.sease.rre.search.api.replay.RecordingFormat.MAGIC;
+
+/**
+ * Read-only view of a recording file written by {@link ResponseRecorder}.
+ * The file is memory-mapped and its index read on opening; responses are
+ * decoded when they are looked up. Instances are safe for concurrent use.
+ *
+ * @since 1.2
+ */
+class RecordedResponses implements Closeable {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final MappedByteBuffer buffer;
+    private final Map<String, long[]> index;
+    private final Set<String> collections = new HashSet<>();
+    private final boolean jsonQueries;
+
+    RecordedResponses(File file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Recording file " + file + " is too large to be mapped");
+            }
+            if (size < HEADER_LENGTH + FOOTER_LENGTH) {
+                throw new IOException("Recording file " + file + " is truncated");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(buffer.limit() - 4) != MAGIC) {
+            throw new IOException(file + " is not a complete recording file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported recording format version " + buffer.getInt(4) + " in " + file);
+        }
+        jsonQueries = buffer.getInt(8) == 1;
+
+        final ByteBuffer in = buffer.duplicate();
+        in.position((int) buffer.getLong(buffer.limit() - FOOTER_LENGTH));
+        final int count = in.getInt();
+        index = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            final String collection = readUTF(in);
+            final String version = readUTF(in);
+            final byte[] key = new byte[in.getInt()];
+            in.get(key);
+            index.put(new String(key, StandardCharsets.UTF_8), new long[]{in.getLong(), in.getInt()});
+            collections.add(collection + SEPARATOR + version);
+        }
+    }
+
+    /**
+     * Read a string written by {@link java.io.DataOutput#writeUTF}, ie. in
+     * modified UTF-8, preceded by its length.
+     */
+    private static String readUTF(ByteBuffer in) throws IOException {
+        final int length = in.getShort(in.position()) & 0xFFFF;
+        final byte[] bytes = new byte[length + 2];
+        in.get(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    /**
+     * Look up a recorded response.
+     *
+     * @param key the query key, as built by {@link RecordingFormat#key}.
+     * @return the response, or an empty optional if nothing was recorded for the key.
+     * @throws IOException if the response cannot be decoded.
+     */
+    Optional<QueryOrSearchResponse> get(String key) throws IOException {
+        final long[] entry = index.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        final byte[] data = new byte[(int) entry[1]];
+        final ByteBuffer in = buffer.duplicate();
+        in.position((int) entry[0]);
+        in.get(data);
+        try (final InputStream stream = new ByteArrayInputStream(data)) {
+            return Optional.of(RecordingFormat.decode(stream));
+        }
+    }
+
+    /**
+     * @param collection the collection name.
+     * @param version    the configuration version.
+     * @return {@code true} if any responses were recorded for the collection and version.
+     */
+    boolean contains(String collection, String version) {
+        return collections.contains(collection + SEPARATOR + version);
+    }
+
+    /**
+     * @return {@code true} if the queries were recorded as JSON nodes, rather than as strings.
+     */
+    boolean isJsonQueries() {
+        return jsonQueries;
+    }
+
+    /**
+     * @return the number of recorded responses.
+     */
+    int size() {
+        return index.size();
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released when the buffer is garbage collected
+    }
+}
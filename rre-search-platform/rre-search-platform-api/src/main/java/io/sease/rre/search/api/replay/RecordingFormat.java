@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.replay;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Shared definitions for the recorded responses file.
+ * <p>
+ * The file is laid out as:
+ * <pre>
+ * header: magic (int), format version (int), JSON query keys (int, 1 or 0)
+ * data:   [length (int), deflated JSON response (bytes)]*
+ * index:  entry count (int), [collection (UTF), version (UTF), key length (int), key (UTF-8 bytes), offset (long), length (int)]*
+ * footer: index offset (long), magic (int)
+ * </pre>
+ * Responses are only decoded when they are requested, so the index is the
+ * only part of the file held on the heap when replaying.
+ *
+ * @since 1.2
+ */
+final class RecordingFormat {
+
+    static final int MAGIC = 0x52524552;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_LENGTH = 12;
+    static final int FOOTER_LENGTH = 12;
+
+    private static final char SEPARATOR = '\u0000';
+    private static final String TOTAL_HITS = "total";
+    private static final String HITS = "hits";
+    private static final TypeReference<List<Map<String, Object>>> HITS_TYPE = new TypeReference<List<Map<String, Object>>>() {
+    };
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private RecordingFormat() {
+    }
+
+    /**
+     * Builds the key identifying the execution of a query string, which is
+     * used verbatim: queries are passed to the recorded platform as strings
+     * only if it doesn't support JSON queries, in which case the query may
+     * be anything its templates render.
+     *
+     * @param collection the collection name.
+     * @param version    the configuration version.
+     * @param query      the query.
+     * @param fields     the fields requested.
+     * @param maxRows    the maximum number of rows requested.
+     * @return the key for the query execution.
+     */
+    static String key(String collection, String version, String query, String[] fields, int maxRows) {
+        return collection + SEPARATOR + version + SEPARATOR + query + SEPARATOR + String.join(",", fields) + SEPARATOR + maxRows;
+    }
+
+    /**
+     * Builds the key identifying the execution of a JSON query.
+     *
+     * @param collection the collection name.
+     * @param version    the configuration version.
+     * @param query      the query.
+     * @param fields     the fields requested.
+     * @param maxRows    the maximum number of rows requested.
+     * @return the key for the query execution.
+     */
+    static String key(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+        return collection + SEPARATOR + version + SEPARATOR + query.toString() + SEPARATOR + String.join(",", fields) + SEPARATOR + maxRows;
+    }
+
+    static byte[] encode(QueryOrSearchResponse response) throws IOException {
+        final ObjectNode node = MAPPER.createObjectNode();
+        node.put(TOTAL_HITS, response.totalHits());
+        node.set(HITS, MAPPER.valueToTree(response.hits()));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final OutputStream deflater = new DeflaterOutputStream(out)) {
+            MAPPER.writeValue(deflater, node);
+        }
+        return out.toByteArray();
+    }
+
+    static QueryOrSearchResponse decode(InputStream in) throws IOException {
+        try (final InputStream inflater = new InflaterInputStream(in)) {
+            final JsonNode node = MAPPER.readTree(inflater);
+            final List<Map<String, Object>> hits = MAPPER.convertValue(node.get(HITS), HITS_TYPE);
+            return new QueryOrSearchResponse(node.get(TOTAL_HITS).asLong(), hits);
+        }
+    }
+}
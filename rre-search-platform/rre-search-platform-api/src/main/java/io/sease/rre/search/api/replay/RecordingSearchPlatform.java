@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * A {@link SearchPlatform} decorator recording every successful response
+ * returned by the wrapped platform, keyed by the collection, version,
+ * query, fields and maximum rows requested. The recording may be used by
+ * a {@link ReplaySearchPlatform} to re-run the evaluation without querying
+ * the original search platform.
+ * <p>
+ * The recording is completed when the platform is stopped or closed.
+ *
+ * @since 1.2
+ */
+public class RecordingSearchPlatform implements SearchPlatform {
+
+    private final SearchPlatform delegate;
+    private final File recordingFile;
+
+    private ResponseRecorder recorder;
+
+    /**
+     * @param delegate      the platform whose responses should be recorded.
+     * @param recordingFile the file the responses should be written to.
+     */
+    public RecordingSearchPlatform(SearchPlatform delegate, File recordingFile) {
+        this.delegate = delegate;
+        this.recordingFile = recordingFile;
+    }
+
+    @Override
+    public void beforeStart(Map<String, Object> configuration) {
+        try {
+            recorder = new ResponseRecorder(recordingFile, delegate.isJsonQuerySupported());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create recording file " + recordingFile, e);
+        }
+        delegate.beforeStart(configuration);
+    }
+
+    @Override
+    public void load(File dataToBeIndexed, File configFolder, String collection, String version) {
+        delegate.load(dataToBeIndexed, configFolder, collection, version);
+    }
+
+    @Override
+    public String getFullyQualifiedDomainName(String indexName, String version) {
+        return delegate.getFullyQualifiedDomainName(indexName, version);
+    }
+
+    @Override
+    public String getRequestTarget(String indexName, String version) {
+        return delegate.getRequestTarget(indexName, version);
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    @Override
+    public void afterStart() {
+        delegate.afterStart();
+    }
+
+    @Override
+    public void beforeStop() {
+        try {
+            finishRecording();
+        } finally {
+            delegate.beforeStop();
+        }
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, String query, String[] fields, int maxRows) {
+        final QueryOrSearchResponse response = delegate.executeQuery(collection, version, query, fields, maxRows);
+        record(collection, version, RecordingFormat.key(collection, version, query, fields, maxRows), response);
+        return response;
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+        final QueryOrSearchResponse response = delegate.executeQuery(collection, version, query, fields, maxRows);
+        record(collection, version, RecordingFormat.key(collection, version, query, fields, maxRows), response);
+        return response;
+    }
+
+    private void record(String collection, String version, String key, QueryOrSearchResponse response) {
+        // Failures are not recorded, so they are retried when re-recording
+        if (recorder != null && response != null && !response.isFailed()) {
+            try {
+                recorder.record(collection, version, key, response);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to record response to " + recordingFile, e);
+            }
+        }
+    }
+
+    /**
+     * Queries are requested as the delegate expects them, and recorded as
+     * such: the recording tells the replay which form to request.
+     */
+    @Override
+    public boolean isJsonQuerySupported() {
+        return delegate.isJsonQuerySupported();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isRefreshRequired() {
+        return delegate.isRefreshRequired();
+    }
+
+    @Override
+    public boolean isSearchPlatformConfiguration(String indexName, File file) {
+        return delegate.isSearchPlatformConfiguration(indexName, file);
+    }
+
+    @Override
+    public boolean isCorporaRequired() {
+        return delegate.isCorporaRequired();
+    }
+
+    @Override
+    public boolean checkCollection(String collection, String version) {
+        return delegate.checkCollection(collection, version);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finishRecording();
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private void finishRecording() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to complete recording file " + recordingFile, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * A {@link SearchPlatform} serving the responses captured by a
+ * {@link RecordingSearchPlatform}, allowing metrics to be recomputed (eg.
+ * after a ratings change) without running any search engine.
+ * <p>
+ * The recording file is passed to the constructor, or set using the
+ * {@value #RECORDING_FILE} key in the search platform configuration. Queries
+ * which were not recorded return a failed response.
+ *
+ * @since 1.2
+ */
+public class ReplaySearchPlatform implements SearchPlatform {
+
+    public static final String RECORDING_FILE = "recordingFile";
+
+    private static final String NAME = "Replay";
+
+    private File recordingFile;
+    private RecordedResponses responses;
+
+    public ReplaySearchPlatform() {
+        // Recording file set from the platform configuration
+    }
+
+    /**
+     * @param recordingFile the recording to replay.
+     */
+    public ReplaySearchPlatform(File recordingFile) {
+        this.recordingFile = recordingFile;
+    }
+
+    @Override
+    public void beforeStart(Map<String, Object> configuration) {
+        recordingFile = ofNullable(configuration.get(RECORDING_FILE))
+                .map(Object::toString)
+                .map(File::new)
+                .orElse(recordingFile);
+        if (recordingFile == null) {
+            throw new IllegalArgumentException("Required configuration missing! No " + RECORDING_FILE + " set!");
+        }
+
+        try {
+            responses = new RecordedResponses(recordingFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open recording file " + recordingFile, e);
+        }
+    }
+
+    @Override
+    public void load(File dataToBeIndexed, File configFolder, String collection, String version) {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void start() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void afterStart() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void beforeStop() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, String query, String[] fields, int maxRows) {
+        return replay(RecordingFormat.key(collection, version, query, fields, maxRows), collection, version);
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+        return replay(RecordingFormat.key(collection, version, query, fields, maxRows), collection, version);
+    }
+
+    private QueryOrSearchResponse replay(String key, String collection, String version) {
+        try {
+            return responses.get(key)
+                    .orElseGet(() -> new QueryOrSearchResponse("No recorded response for query on " + collection + " version " + version));
+        } catch (IOException e) {
+            return new QueryOrSearchResponse("Unable to read recorded response :: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queries are requested in the same form as when they were recorded,
+     * so that the replay keys match the recorded ones.
+     */
+    @Override
+    public boolean isJsonQuerySupported() {
+        return responses != null && responses.isJsonQueries();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isRefreshRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean isSearchPlatformConfiguration(String indexName, File file) {
+        return false;
+    }
+
+    @Override
+    public boolean isCorporaRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean checkCollection(String collection, String version) {
+        return responses != null && responses.contains(collection, version);
+    }
+
+    @Override
+    public void close() {
+        if (responses != null) {
+            responses.close();
+        }
+    }
+}
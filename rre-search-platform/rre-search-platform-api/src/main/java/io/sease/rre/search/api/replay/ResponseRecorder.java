@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.replay;
+
+import io.sease.rre.search.api.QueryOrSearchResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.sease.rre.search.api.replay.RecordingFormat.FORMAT_VERSION;
+import static io.sease.rre.search.api.replay.RecordingFormat.HEADER_LENGTH;
+import static io.sease.rre.search.api.replay.RecordingFormat.MAGIC;
+
+/**
+ * Writes query responses to a recording file, which may later be read by
+ * {@link RecordedResponses}. Responses are appended as they are recorded;
+ * the index is written when the recorder is closed.
+ *
+ * @since 1.2
+ */
+class ResponseRecorder implements Closeable {
+
+    private final DataOutputStream out;
+    private final Map<String, Entry> index = new LinkedHashMap<>();
+
+    private long position;
+    private boolean closed;
+
+    /**
+     * @param file        the recording file.
+     * @param jsonQueries whether the queries are recorded as JSON nodes,
+     *                    rather than as strings.
+     * @throws IOException if the file cannot be created.
+     */
+    ResponseRecorder(File file, boolean jsonQueries) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(jsonQueries ? 1 : 0);
+        position = HEADER_LENGTH;
+    }
+
+    /**
+     * Record a response. Only the first response recorded for any given key
+     * is kept.
+     *
+     * @param collection the collection that was queried.
+     * @param version    the configuration version that was queried.
+     * @param key        the query key, as built by {@link RecordingFormat#key}.
+     * @param response   the response.
+     * @return {@code true} if the response was recorded.
+     * @throws IOException if the response cannot be written.
+     */
+    synchronized boolean record(String collection, String version, String key, QueryOrSearchResponse response) throws IOException {
+        if (closed || index.containsKey(key)) {
+            return false;
+        }
+
+        final byte[] data = RecordingFormat.encode(response);
+        out.writeInt(data.length);
+        out.write(data);
+        index.put(key, new Entry(collection, version, position + 4, data.length));
+        position += 4 + data.length;
+        return true;
+    }
+
+    /**
+     * @return the number of responses recorded so far.
+     */
+    synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            final long indexOffset = position;
+            out.writeInt(index.size());
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                final byte[] key = e.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeUTF(e.getValue().collection);
+                out.writeUTF(e.getValue().version);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(e.getValue().offset);
+                out.writeInt(e.getValue().length);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static class Entry {
+        private final String collection;
+        private final String version;
+        private final long offset;
+        private final int length;
+
+        private Entry(String collection, String version, long offset, int length) {
+            this.collection = collection;
+            this.version = version;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for recording and replaying search platform responses.
+ *
+ * @since 1.2
+ */
+public class ReplaySearchPlatformTest {
+
+    private static final String COLLECTION = "test";
+    private static final String VERSION = "v1.0";
+    private static final String[] FIELDS = new String[]{"id", "score"};
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void replay_returnsRecordedResponses() throws Exception {
+        final File recording = new File(tempFolder.getRoot(), "responses.rec");
+        final AtomicInteger calls = new AtomicInteger();
+
+        try (SearchPlatform platform = new RecordingSearchPlatform(new StubSearchPlatform(calls), recording)) {
+            platform.beforeStart(Collections.emptyMap());
+            platform.executeQuery(COLLECTION, VERSION, "{ \"q\": \"first\" }", FIELDS, 10);
+            platform.executeQuery(COLLECTION, VERSION, "q=second&defType=edismax", FIELDS, 10);
+            platform.executeQuery(COLLECTION, VERSION, "fail", FIELDS, 10);
+            platform.beforeStop();
+        }
+        assertEquals(3, calls.get());
+
+        try (SearchPlatform replay = new ReplaySearchPlatform()) {
+            final Map<String, Object> configuration = new HashMap<>();
+            configuration.put(ReplaySearchPlatform.RECORDING_FILE, recording.getAbsolutePath());
+            replay.beforeStart(configuration);
+
+            assertTrue(replay.checkCollection(COLLECTION, VERSION));
+            assertFalse(replay.checkCollection(COLLECTION, "v2.0"));
+
+            final QueryOrSearchResponse first = replay.executeQuery(COLLECTION, VERSION, "{ \"q\": \"first\" }", FIELDS, 10);
+            assertFalse(first.isFailed());
+            assertEquals(42, first.totalHits());
+            assertEquals("{ \"q\": \"first\" }", first.hits().get(0).get("id"));
+            assertEquals(1.5, first.hits().get(0).get("score"));
+
+            final QueryOrSearchResponse second = replay.executeQuery(COLLECTION, VERSION, "q=second&defType=edismax", FIELDS, 10);
+            assertEquals("q=second&defType=edismax", second.hits().get(0).get("id"));
+
+            // Query strings are matched verbatim; different rows, and failed responses, are not recorded
+            assertTrue(replay.executeQuery(COLLECTION, VERSION, "{\"q\":\"first\"}", FIELDS, 10).isFailed());
+            assertTrue(replay.executeQuery(COLLECTION, VERSION, "{ \"q\": \"first\" }", FIELDS, 20).isFailed());
+            assertTrue(replay.executeQuery(COLLECTION, VERSION, "fail", FIELDS, 10).isFailed());
+        }
+    }
+
+    @Test
+    public void replay_returnsResponsesRecordedAsJson() throws Exception {
+        final File recording = new File(tempFolder.getRoot(), "responses.rec");
+        final ObjectMapper mapper = new ObjectMapper();
+        final AtomicInteger calls = new AtomicInteger();
+
+        try (SearchPlatform platform = new RecordingSearchPlatform(new JsonStubSearchPlatform(calls), recording)) {
+            platform.beforeStart(Collections.emptyMap());
+            platform.executeQuery(COLLECTION, VERSION, mapper.readTree("{ \"q\": \"first\" }"), FIELDS, 10);
+            platform.beforeStop();
+        }
+        assertEquals(1, calls.get());
+
+        try (SearchPlatform replay = new ReplaySearchPlatform(recording)) {
+            replay.beforeStart(Collections.emptyMap());
+
+            final QueryOrSearchResponse first = replay.executeQuery(COLLECTION, VERSION, mapper.readTree("{\"q\":\"first\"}"), FIELDS, 10);
+            assertFalse(first.isFailed());
+            assertEquals("{\"q\":\"first\"}", first.hits().get(0).get("id"));
+        }
+    }
+
+    @Test
+    public void replay_readsNonAsciiCollectionNames() throws Exception {
+        final File recording = new File(tempFolder.getRoot(), "responses.rec");
+        final String collection = "t\u00e9st\u0000\ud83d\udd0d";
+
+        try (SearchPlatform platform = new RecordingSearchPlatform(new StubSearchPlatform(new AtomicInteger()), recording)) {
+            platform.beforeStart(Collections.emptyMap());
+            platform.executeQuery(collection, VERSION, "q=first", FIELDS, 10);
+            platform.beforeStop();
+        }
+
+        try (SearchPlatform replay = new ReplaySearchPlatform()) {
+            replay.beforeStart(Collections.singletonMap(ReplaySearchPlatform.RECORDING_FILE, recording.getAbsolutePath()));
+
+            assertTrue(replay.checkCollection(collection, VERSION));
+            assertFalse(replay.executeQuery(collection, VERSION, "q=first", FIELDS, 10).isFailed());
+        }
+    }
+
+    @Test
+    public void recordingAndReplay_requestQueriesAsTheRecordedPlatform() throws Exception {
+        final File strings = new File(tempFolder.getRoot(), "strings.rec");
+        final File json = new File(tempFolder.getRoot(), "json.rec");
+        final SearchPlatform stringRecording = new RecordingSearchPlatform(new StubSearchPlatform(new AtomicInteger()), strings);
+        final SearchPlatform jsonRecording = new RecordingSearchPlatform(new JsonStubSearchPlatform(new AtomicInteger()), json);
+
+        assertFalse(stringRecording.isJsonQuerySupported());
+        assertTrue(jsonRecording.isJsonQuerySupported());
+
+        for (SearchPlatform platform : new SearchPlatform[]{stringRecording, jsonRecording}) {
+            platform.beforeStart(Collections.emptyMap());
+            platform.close();
+        }
+
+        try (SearchPlatform replay = new ReplaySearchPlatform(strings)) {
+            replay.beforeStart(Collections.emptyMap());
+            assertFalse(replay.isJsonQuerySupported());
+        }
+        try (SearchPlatform replay = new ReplaySearchPlatform(json)) {
+            replay.beforeStart(Collections.emptyMap());
+            assertTrue(replay.isJsonQuerySupported());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replay_requiresRecordingFile() {
+        new ReplaySearchPlatform().beforeStart(Collections.emptyMap());
+    }
+
+    private static class JsonStubSearchPlatform extends StubSearchPlatform {
+        private JsonStubSearchPlatform(AtomicInteger calls) {
+            super(calls);
+        }
+
+        @Override
+        public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+            return executeQuery(collection, version, query.toString(), fields, maxRows);
+        }
+
+        @Override
+        public boolean isJsonQuerySupported() {
+            return true;
+        }
+    }
+
+    private static class StubSearchPlatform implements SearchPlatform {
+        private final AtomicInteger calls;
+
+        private StubSearchPlatform(AtomicInteger calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public void beforeStart(Map<String, Object> configuration) {
+        }
+
+        @Override
+        public void load(File dataToBeIndexed, File configFolder, String collection, String version) {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void afterStart() {
+        }
+
+        @Override
+        public void beforeStop() {
+        }
+
+        @Override
+        public QueryOrSearchResponse executeQuery(String collection, String version, String query, String[] fields, int maxRows) {
+            calls.incrementAndGet();
+            if (query.equals("fail")) {
+                return new QueryOrSearchResponse("failed");
+            }
+
+            final Map<String, Object> hit = new HashMap<>();
+            hit.put("id", query);
+            hit.put("score", 1.5);
+            final List<Map<String, Object>> hits = Collections.singletonList(hit);
+            return new QueryOrSearchResponse(42, hits);
+        }
+
+        @Override
+        public String getName() {
+            return "Stub";
+        }
+
+        @Override
+        public boolean isRefreshRequired() {
+            return false;
+        }
+
+        @Override
+        public boolean isSearchPlatformConfiguration(String indexName, File file) {
+            return false;
+        }
+
+        @Override
+        public boolean isCorporaRequired() {
+            return false;
+        }
+
+        @Override
+        public boolean checkCollection(String collection, String version) {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
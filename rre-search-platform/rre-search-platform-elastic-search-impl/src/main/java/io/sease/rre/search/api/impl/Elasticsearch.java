@@ -242,6 +242,15 @@ public class Elasticsearch implements SearchPlatform {
 
     @Override
     public QueryOrSearchResponse executeQuery(final String collection, String version, final String query, final String[] fields, final int maxRows) {
+        try {
+            return executeQuery(collection, version, mapper.readTree(query), fields, maxRows);
+        } catch (final IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(final String collection, String version, final JsonNode query, final String[] fields, final int maxRows) {
         String indexName = getFullyQualifiedDomainName(collection, version);
         try {
             final SearchResponse qresponse = proxy.search(buildSearchRequest(indexName, query, fields, maxRows)).actionGet();
@@ -254,10 +263,14 @@ public class Elasticsearch implements SearchPlatform {
         }
     }
 
-    SearchRequest buildSearchRequest(final String indexName, final String query, final String[] fields, final int maxRows) throws IOException {
-        final String q = mapper.writeValueAsString(mapper.readTree(query).get("query"));
+    @Override
+    public boolean isJsonQuerySupported() {
+        return true;
+    }
+
+    SearchRequest buildSearchRequest(final String indexName, final JsonNode query, final String[] fields, final int maxRows) throws IOException {
         final SearchSourceBuilder qBuilder = new SearchSourceBuilder()
-                .query(QueryBuilders.wrapperQuery(q))
+                .query(QueryBuilders.wrapperQuery(mapper.writeValueAsBytes(query.get("query"))))
                 .size(maxRows)
                 .fetchSource(fields, null);
         return new SearchRequest(indexName).source(qBuilder);
@@ -272,7 +285,8 @@ public class Elasticsearch implements SearchPlatform {
                             result.put("_id", hit.getId());
                             return result;
                         })
-                        .collect(toList()));
+                        .collect(toList()),
+                searchResponse.getTook().millis());
     }
 
     @Override
@@ -18,8 +18,10 @@ package io.sease.rre.search.api.impl;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.TokenBucket;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -58,6 +60,8 @@ public class ExternalElasticsearch extends Elasticsearch {
 
     private final Map<String, IndexSettings> indexSettings = new HashMap<>();
     private final Map<String, RestHighLevelClient> indexClients = new HashMap<>();
+    private final Map<String, TokenBucket> hostRateLimiters = new HashMap<>();
+    private final Map<String, TokenBucket> clientRateLimiters = new HashMap<>();
 
     @Override
     public void beforeStart(Map<String, Object> configuration) {
@@ -79,9 +83,7 @@ public class ExternalElasticsearch extends Elasticsearch {
             // Load the index settings for this version of the search platform
             IndexSettings settings = mapper.readValue(settingsFile, IndexSettings.class);
             indexSettings.put(getFullyQualifiedDomainName(collection, version), settings);
-            if (indexClients.get(version) == null) {
-                indexClients.put(version, initialiseClient(settings.getHostUrls(), settings.getUser(), settings.getPassword()));
-            }
+            setSettings(settings, version);
         } catch (IOException e) {
             LOGGER.error("Could not read settings from " + settingsFile.getName() + " :: " + e.getMessage());
         }
@@ -90,9 +92,19 @@ public class ExternalElasticsearch extends Elasticsearch {
     void setSettings(IndexSettings settings, String version) {
         if (indexClients.get(version) == null) {
             indexClients.put(version, initialiseClient(settings.getHostUrls(), settings.getUser(), settings.getPassword()));
+
+            // Clients targeting the same hosts share their rate limit
+            if (settings.getMaxQueriesPerSecond() != null) {
+                clientRateLimiters.put(version, hostRateLimiters.computeIfAbsent(String.valueOf(settings.getHostUrls()),
+                        k -> TokenBucket.of(settings.getMaxQueriesPerSecond(), settings.getBurst())));
+            }
         }
     }
 
+    TokenBucket getRateLimiter(String version) {
+        return clientRateLimiters.get(version);
+    }
+
     private RestHighLevelClient initialiseClient(List<String> hosts, String user, String password) {
         // Convert hosts to HTTP host objects
         HttpHost[] httpHosts = hosts.stream()
@@ -114,7 +126,7 @@ public class ExternalElasticsearch extends Elasticsearch {
     }
 
     @Override
-    public QueryOrSearchResponse executeQuery(final String collection, final String version, final String query, final String[] fields, final int maxRows) {
+    public QueryOrSearchResponse executeQuery(final String collection, final String version, final JsonNode query, final String[] fields, final int maxRows) {
 
         try {
             final SearchRequest request = buildSearchRequest(resolveIndexName(collection, version), query, fields, maxRows);
@@ -122,20 +134,49 @@ public class ExternalElasticsearch extends Elasticsearch {
             return convertResponse(response);
         } catch (final ElasticsearchException e) {
             LOGGER.error("Caught ElasticsearchException :: " + e.getMessage());
-            return new QueryOrSearchResponse(e.getMessage());
+            return new QueryOrSearchResponse(e.getMessage(), isRetryable(e.status().getStatus()));
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            LOGGER.error("Caught IOException querying " + collection + " version " + version + " :: " + e.getMessage());
+            return new QueryOrSearchResponse(e.getMessage(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new QueryOrSearchResponse("Interrupted waiting for rate limiter");
         }
     }
 
-    private SearchResponse runQuery(final String clientId, final SearchRequest request) throws IOException {
+    /**
+     * Server errors, and requests rejected because the cluster is
+     * overloaded, may succeed if sent again.
+     *
+     * @param status the HTTP status of the failed request.
+     * @return {@code true} if the request may be retried.
+     */
+    static boolean isRetryable(final int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private SearchResponse runQuery(final String clientId, final SearchRequest request) throws IOException, InterruptedException {
         RestHighLevelClient client = indexClients.get(clientId);
         if (client == null) {
             throw new RuntimeException("No HTTP client found for index " + clientId);
         }
+
+        final TokenBucket rateLimiter = clientRateLimiters.get(clientId);
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
         return client.search(request, RequestOptions.DEFAULT);
     }
 
+    @Override
+    public String getRequestTarget(String indexName, String version) {
+        final IndexSettings settings = indexSettings.get(getFullyQualifiedDomainName(indexName, version));
+        if (settings == null) {
+            return super.getRequestTarget(indexName, version);
+        }
+        return settings.getHostUrls() + "|" + settings.getUser() + "|" + resolveIndexName(indexName, version);
+    }
+
     @Override
     public String getName() {
         return NAME;
@@ -201,14 +242,24 @@ public class ExternalElasticsearch extends Elasticsearch {
         @JsonProperty("password")
         private final String password;
 
+        @JsonProperty("maxQueriesPerSecond")
+        private final Double maxQueriesPerSecond;
+
+        @JsonProperty("burst")
+        private final Integer burst;
+
         public IndexSettings(@JsonProperty("hostUrls") List<String> hostUrls,
                              @JsonProperty("index") String index,
                              @JsonProperty("user") String user,
-                             @JsonProperty("password") String password) {
+                             @JsonProperty("password") String password,
+                             @JsonProperty("maxQueriesPerSecond") Double maxQueriesPerSecond,
+                             @JsonProperty("burst") Integer burst) {
             this.hostUrls = hostUrls;
             this.index = index;
             this.user = user;
             this.password = password;
+            this.maxQueriesPerSecond = maxQueriesPerSecond;
+            this.burst = burst;
         }
 
         public List<String> getHostUrls() {
@@ -226,6 +277,22 @@ public class ExternalElasticsearch extends Elasticsearch {
         public String getPassword() {
             return password;
         }
+
+        /**
+         * @return the maximum rate at which queries may be sent to the
+         * Elasticsearch hosts, or {@code null} if the rate is not limited.
+         */
+        public Double getMaxQueriesPerSecond() {
+            return maxQueriesPerSecond;
+        }
+
+        /**
+         * @return the number of queries which may be sent at once, before
+         * the rate limit applies.
+         */
+        public Integer getBurst() {
+            return burst;
+        }
     }
 
     void addClient(String version, RestHighLevelClient client) {
@@ -23,8 +23,11 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.util.Collections;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ExternalElasticsearchTest {
@@ -58,4 +61,18 @@ public class ExternalElasticsearchTest {
         File configFile = tempFolder.newFile(ExternalElasticsearch.SETTINGS_FILE);
         assertTrue(platform.isSearchPlatformConfiguration(INDEX_NAME, configFile));
     }
+
+    @Test
+    public void setSettings_sharesRateLimiterForSameHosts() throws Exception {
+        ExternalElasticsearch.IndexSettings settings = new ExternalElasticsearch.IndexSettings(
+                Collections.singletonList("http://localhost:9200"), null, null, null, 10.0, null);
+        ExternalElasticsearch externalPlatform = (ExternalElasticsearch) platform;
+
+        externalPlatform.setSettings(settings, "v1.0");
+        externalPlatform.setSettings(settings, "v1.1");
+
+        assertNotNull(externalPlatform.getRateLimiter("v1.0"));
+        assertSame(externalPlatform.getRateLimiter("v1.0"), externalPlatform.getRateLimiter("v1.1"));
+        externalPlatform.close();
+    }
 }
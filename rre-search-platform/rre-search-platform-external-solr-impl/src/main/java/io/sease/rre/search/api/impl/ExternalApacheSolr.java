@@ -17,6 +17,7 @@
 package io.sease.rre.search.api.impl;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -57,6 +58,7 @@ public class ExternalApacheSolr implements SearchPlatform {
     private final static Logger LOGGER = LoggerFactory.getLogger(ExternalApacheSolr.class);
 
     private static final String NAME = "External Apache Solr";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
     static final String SETTINGS_FILE = "solr-settings.json";
 
     private final SolrClientManager clientManager = new SolrClientManager();
@@ -103,13 +105,21 @@ public class ExternalApacheSolr implements SearchPlatform {
 
     @Override
     public QueryOrSearchResponse executeQuery(String collection, String version, String queryString, String[] fields, int maxRows) {
+        try {
+            return executeQuery(collection, version, MAPPER.readTree(queryString), fields, maxRows);
+        } catch (IOException e) {
+            LOGGER.error("Unable to parse query :: " + e.getMessage());
+            return new QueryOrSearchResponse(e.getMessage());
+        }
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode queryDef, String[] fields, int maxRows) {
         try {
             final SolrQuery query =
                     new SolrQuery()
                             .setRows(maxRows)
                             .setFields(fields);
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode queryDef = mapper.readTree(queryString);
 
             for (final Iterator<Map.Entry<String, JsonNode>> iterator = queryDef.fields(); iterator.hasNext(); ) {
                 final Map.Entry<String, JsonNode> field = iterator.next();
@@ -119,26 +129,49 @@ public class ExternalApacheSolr implements SearchPlatform {
                 } else {
                     // Either an array or an object - use writeValueAsString() instead
                     // to convert to a string. Useful for writing JSON queries without escaping them.
-                    value = mapper.writeValueAsString(field.getValue());
+                    value = MAPPER.writeValueAsString(field.getValue());
                 }
                 query.add(field.getKey(), value);
             }
 
+            clientManager.acquirePermit(version);
             return of(clientManager.getSolrClient(version)
                     .query(resolveCollectionName(collection, version), query, SolrRequest.METHOD.POST))
                     .map(response ->
                             new QueryOrSearchResponse(
                                     response.getResults().getNumFound(),
-                                    new ArrayList<>(response.getResults())))
+                                    new ArrayList<>(response.getResults()),
+                                    response.getQTime()))
                     .get();
         } catch (SolrException e) {
             LOGGER.error("Caught Solr exception :: " + e.getMessage());
+            return new QueryOrSearchResponse(e.getMessage(), e.code() == 429 || e.code() >= 500);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Unable to convert query parameter to string :: " + e.getMessage());
             return new QueryOrSearchResponse(e.getMessage());
-        } catch (final Exception exception) {
-            throw new RuntimeException(exception);
+        } catch (SolrServerException | IOException e) {
+            LOGGER.error("Caught exception querying " + collection + " version " + version + " :: " + e.getMessage());
+            return new QueryOrSearchResponse(e.getMessage(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new QueryOrSearchResponse("Interrupted waiting for rate limiter");
         }
     }
 
+    @Override
+    public boolean isJsonQuerySupported() {
+        return true;
+    }
+
+    @Override
+    public String getRequestTarget(String indexName, String version) {
+        final SolrSettings settings = settingsMap.get(getFullyQualifiedDomainName(indexName, version));
+        if (settings == null) {
+            return SearchPlatform.super.getRequestTarget(indexName, version);
+        }
+        return settings.getHostsKey() + "|" + resolveCollectionName(indexName, version);
+    }
+
     @Override
     public String getName() {
         return NAME;
@@ -202,19 +235,27 @@ public class ExternalApacheSolr implements SearchPlatform {
         private final Integer connectionTimeout;
         @JsonProperty("socketTimeoutMillis")
         private final Integer socketTimeout;
+        @JsonProperty("maxQueriesPerSecond")
+        private final Double maxQueriesPerSecond;
+        @JsonProperty("burst")
+        private final Integer burst;
 
         public SolrSettings(@JsonProperty("baseUrls") List<String> baseUrls,
                             @JsonProperty("collectionName") String collectionName,
                             @JsonProperty("zkHosts") List<String> zkHosts,
                             @JsonProperty("zkChroot") String zkChroot,
                             @JsonProperty("connectionTimeoutMillis") Integer connectionTimeout,
-                            @JsonProperty("socketTimeoutMillis") Integer socketTimeout) throws IllegalArgumentException {
+                            @JsonProperty("socketTimeoutMillis") Integer socketTimeout,
+                            @JsonProperty("maxQueriesPerSecond") Double maxQueriesPerSecond,
+                            @JsonProperty("burst") Integer burst) throws IllegalArgumentException {
             this.baseUrls = baseUrls;
             this.collectionName = collectionName;
             this.zkHosts = zkHosts;
             this.zkChroot = (zkChroot != null && zkChroot.length() > 0 ? zkChroot : null);
             this.connectionTimeout = connectionTimeout;
             this.socketTimeout = socketTimeout;
+            this.maxQueriesPerSecond = maxQueriesPerSecond;
+            this.burst = burst;
 
             // Check that the required properties are set
             validate();
@@ -253,5 +294,28 @@ public class ExternalApacheSolr implements SearchPlatform {
         public Integer getSocketTimeout() {
             return socketTimeout;
         }
+
+        /**
+         * @return the maximum rate at which queries may be sent to the Solr
+         * hosts, or {@code null} if the rate is not limited.
+         */
+        public Double getMaxQueriesPerSecond() {
+            return maxQueriesPerSecond;
+        }
+
+        /**
+         * @return the number of queries which may be sent at once, before
+         * the rate limit applies.
+         */
+        public Integer getBurst() {
+            return burst;
+        }
+
+        /**
+         * @return a key identifying the hosts targeted by these settings.
+         */
+        String getHostsKey() {
+            return hasZookeeperSettings() ? zkHosts + getZkChroot().orElse("") : String.valueOf(baseUrls);
+        }
     }
 }
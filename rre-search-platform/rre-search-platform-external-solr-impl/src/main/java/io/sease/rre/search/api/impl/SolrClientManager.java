@@ -16,6 +16,7 @@
  */
 package io.sease.rre.search.api.impl;
 
+import io.sease.rre.search.api.TokenBucket;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
@@ -38,6 +39,8 @@ class SolrClientManager implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(SolrClientManager.class);
 
     private final Map<String, SolrClient> indexClients = new HashMap<>();
+    private final Map<String, TokenBucket> hostRateLimiters = new HashMap<>();
+    private final Map<String, TokenBucket> indexRateLimiters = new HashMap<>();
 
     /**
      * Build a SolrClient instance, associating it with a specific target index
@@ -63,6 +66,30 @@ class SolrClientManager implements Closeable {
         }
 
         indexClients.put(targetIndexName, client);
+
+        // Clients targeting the same hosts share their rate limit
+        if (settings.getMaxQueriesPerSecond() != null) {
+            indexRateLimiters.put(targetIndexName, hostRateLimiters.computeIfAbsent(settings.getHostsKey(),
+                    k -> TokenBucket.of(settings.getMaxQueriesPerSecond(), settings.getBurst())));
+        }
+    }
+
+    /**
+     * Wait until a query may be sent using the client for a specific target
+     * index, according to the rate limit configured for its hosts.
+     *
+     * @param targetIndexName the name of the index/core being queried.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void acquirePermit(String targetIndexName) throws InterruptedException {
+        final TokenBucket rateLimiter = getRateLimiter(targetIndexName);
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
+    }
+
+    TokenBucket getRateLimiter(String targetIndexName) {
+        return indexRateLimiters.get(targetIndexName);
     }
 
     /**
@@ -33,6 +33,7 @@ import java.util.stream.Collectors;
 import static java.util.Arrays.asList;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * Unit tests for the SolrClientManager class.
@@ -61,7 +62,7 @@ public class SolrClientManagerTest {
     @Test
     public void buildsHttpSolrClientForSingleHost() {
         ExternalApacheSolr.SolrSettings settings = new ExternalApacheSolr.SolrSettings(
-                Collections.singletonList("http://localhost:8983/solr"), null, null, null, null, null);
+                Collections.singletonList("http://localhost:8983/solr"), null, null, null, null, null, null, null);
 
         clientManager.buildSolrClient(TARGET_INDEX, settings);
 
@@ -83,7 +84,7 @@ public class SolrClientManagerTest {
                 .map(jsr -> "http://localhost:" + jsr.getLocalPort() + "/solr")
                 .collect(Collectors.toList());
 
-        ExternalApacheSolr.SolrSettings settings = new ExternalApacheSolr.SolrSettings(baseUrls, null, null, null, null, null);
+        ExternalApacheSolr.SolrSettings settings = new ExternalApacheSolr.SolrSettings(baseUrls, null, null, null, null, null, null, null);
 
         clientManager.buildSolrClient(TARGET_INDEX, settings);
 
@@ -96,11 +97,23 @@ public class SolrClientManagerTest {
     @Test
     public void buildsCloudSolrClientForZkHosts() {
         ExternalApacheSolr.SolrSettings settings = new ExternalApacheSolr.SolrSettings(
-                null, null, asList("localhost:2181", "localhost:2182"), null, null, null);
+                null, null, asList("localhost:2181", "localhost:2182"), null, null, null, null, null);
 
         clientManager.buildSolrClient(TARGET_INDEX, settings);
 
         assertNotNull(clientManager.getSolrClient(TARGET_INDEX));
         assertTrue(clientManager.getSolrClient(TARGET_INDEX) instanceof CloudSolrClient);
     }
+
+    @Test
+    public void sharesRateLimiterBetweenClientsForSameHosts() {
+        ExternalApacheSolr.SolrSettings settings = new ExternalApacheSolr.SolrSettings(
+                Collections.singletonList("http://localhost:8983/solr"), null, null, null, null, null, 10.0, 5);
+
+        clientManager.buildSolrClient(TARGET_INDEX, settings);
+        clientManager.buildSolrClient("other", settings);
+
+        assertNotNull(clientManager.getRateLimiter(TARGET_INDEX));
+        assertSame(clientManager.getRateLimiter(TARGET_INDEX), clientManager.getRateLimiter("other"));
+    }
 }
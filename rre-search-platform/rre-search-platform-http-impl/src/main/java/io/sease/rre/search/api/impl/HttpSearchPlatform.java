@@ -0,0 +1,527 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.impl;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * A generic {@link SearchPlatform} implementation, sending the rendered query
+ * templates to an arbitrary HTTP/JSON search endpoint - eg. a custom search
+ * API in front of Solr or Elasticsearch.
+ * <p>
+ * Each configuration version holds an {@value #SETTINGS_FILE} file, declaring
+ * the endpoint URL and the JSON pointers used to extract the hits and total
+ * hit count from the responses. The HTTP client (connection pool and request
+ * dispatcher) is shared between all versions, and is configured through the
+ * search platform configuration:
+ * <ul>
+ * <li>maxRequests - the maximum number of concurrent requests (default {@value #DEFAULT_MAX_REQUESTS});</li>
+ * <li>maxRequestsPerHost - the maximum number of concurrent requests to a single host (default {@value #DEFAULT_MAX_REQUESTS_PER_HOST});</li>
+ * <li>maxIdleConnections - the number of keep-alive connections held in the pool (default {@value #DEFAULT_MAX_IDLE_CONNECTIONS});</li>
+ * <li>keepAliveMillis - how long idle connections are kept alive (default {@value #DEFAULT_KEEP_ALIVE_MILLIS}).</li>
+ * </ul>
+ * HTTP/2 is negotiated automatically for HTTPS endpoints, allowing requests
+ * to be multiplexed over a single connection; cleartext endpoints may enable
+ * it with the http2PriorKnowledge setting. Responses are transparently
+ * gzip-decoded, and request bodies may optionally be gzipped.
+ * <p>
+ * This implementation assumes that the endpoints are ready to use - the
+ * corpus is not loaded to them.
+ *
+ * @since 1.2
+ */
+public class HttpSearchPlatform implements SearchPlatform {
+
+    private static final Logger LOGGER = LogManager.getLogger(HttpSearchPlatform.class);
+
+    private static final String NAME = "HTTP Search Platform";
+    static final String SETTINGS_FILE = "http-settings.json";
+
+    static final int DEFAULT_MAX_REQUESTS = 64;
+    static final int DEFAULT_MAX_REQUESTS_PER_HOST = 16;
+    static final int DEFAULT_MAX_IDLE_CONNECTIONS = 16;
+    static final long DEFAULT_KEEP_ALIVE_MILLIS = 300000;
+
+    private static final String COLLECTION_PLACEHOLDER = "{collection}";
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, HttpSettings> settingsMap = new HashMap<>();
+    private final Map<String, OkHttpClient> collectionClients = new HashMap<>();
+
+    private OkHttpClient client;
+
+    @Override
+    public void beforeStart(Map<String, Object> configuration) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(intValue(configuration, "maxRequests", DEFAULT_MAX_REQUESTS));
+        dispatcher.setMaxRequestsPerHost(intValue(configuration, "maxRequestsPerHost", DEFAULT_MAX_REQUESTS_PER_HOST));
+
+        client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(
+                        intValue(configuration, "maxIdleConnections", DEFAULT_MAX_IDLE_CONNECTIONS),
+                        longValue(configuration, "keepAliveMillis", DEFAULT_KEEP_ALIVE_MILLIS),
+                        TimeUnit.MILLISECONDS))
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Override
+    public void load(File dataToBeIndexed, File settingsFile, String collection, String version) {
+        // Corpus file is not used for this implementation
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        try {
+            // Load the endpoint settings for this version of the search platform
+            HttpSettings settings = mapper.readValue(settingsFile, HttpSettings.class);
+            setSettings(settings, collection, version);
+        } catch (IOException e) {
+            LOGGER.error("Could not read settings from " + settingsFile.getName() + " :: " + e.getMessage());
+        }
+    }
+
+    void setSettings(HttpSettings settings, String collection, String version) {
+        if (client == null) {
+            beforeStart(Collections.emptyMap());
+        }
+
+        settingsMap.put(getFullyQualifiedDomainName(collection, version), settings);
+        collectionClients.put(getFullyQualifiedDomainName(collection, version), buildCollectionClient(settings));
+    }
+
+    /**
+     * Derive a client for a collection version from the shared client, so
+     * that the connection pool and dispatcher are shared while the timeouts
+     * and protocols may vary between collections and versions.
+     *
+     * @param settings the collection version settings.
+     * @return the HTTP client to use for the collection version.
+     */
+    private OkHttpClient buildCollectionClient(HttpSettings settings) {
+        final OkHttpClient.Builder builder = client.newBuilder();
+        ofNullable(settings.getConnectionTimeout()).ifPresent(t -> builder.connectTimeout(t, TimeUnit.MILLISECONDS));
+        ofNullable(settings.getSocketTimeout()).ifPresent(t -> builder.readTimeout(t, TimeUnit.MILLISECONDS));
+        if (settings.isHttp2PriorKnowledge()) {
+            builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void start() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void afterStart() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void beforeStop() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, String query, String[] fields, int maxRows) {
+        try {
+            return executeQuery(collection, version, MAPPER.readTree(query), fields, maxRows);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(String collection, String version, JsonNode query, String[] fields, int maxRows) {
+        final HttpSettings settings = settingsMap.get(getFullyQualifiedDomainName(collection, version));
+        final OkHttpClient collectionClient = collectionClients.get(getFullyQualifiedDomainName(collection, version));
+        if (settings == null || collectionClient == null) {
+            throw new RuntimeException("No HTTP settings found for collection " + collection + " version " + version);
+        }
+
+        try {
+            final Request request = buildRequest(settings, resolveCollectionName(settings, collection), query, fields, maxRows);
+            try (final Response response = execute(collectionClient.newCall(request))) {
+                final ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    LOGGER.error("Caught HTTP error from " + request.url() + " :: " + response.code() + " " + response.message());
+                    return new QueryOrSearchResponse("HTTP " + response.code() + " " + response.message(),
+                            response.code() == 429 || response.code() >= 500);
+                }
+
+                return convertResponse(settings, MAPPER.readTree(body.byteStream()));
+            }
+        } catch (IOException e) {
+            LOGGER.error("Caught IOException querying " + collection + " version " + version + " :: " + e.getMessage());
+            return new QueryOrSearchResponse(e.getMessage(), true);
+        }
+    }
+
+    /**
+     * Run the call through the dispatcher, so that the configured request
+     * limits apply, and wait for its response.
+     *
+     * @param call the call to execute.
+     * @return the response.
+     * @throws IOException if the call fails.
+     */
+    private Response execute(Call call) throws IOException {
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                future.complete(response);
+            }
+        });
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            call.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for response", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    Request buildRequest(HttpSettings settings, String collection, JsonNode query, String[] fields, int maxRows) throws IOException {
+        final HttpUrl url = HttpUrl.parse(settings.getUrl().replace(COLLECTION_PLACEHOLDER, collection));
+        if (url == null) {
+            throw new IOException("Invalid URL: " + settings.getUrl());
+        }
+
+        final Request.Builder builder = new Request.Builder();
+        settings.getHeaders().forEach(builder::header);
+
+        if ("GET".equalsIgnoreCase(settings.getMethod())) {
+            final HttpUrl.Builder urlBuilder = url.newBuilder();
+            for (final Iterator<Map.Entry<String, JsonNode>> iterator = query.fields(); iterator.hasNext(); ) {
+                final Map.Entry<String, JsonNode> field = iterator.next();
+                urlBuilder.addQueryParameter(field.getKey(),
+                        field.getValue().isValueNode() ? field.getValue().asText() : MAPPER.writeValueAsString(field.getValue()));
+            }
+            ofNullable(settings.getRowsParameter()).ifPresent(p -> urlBuilder.addQueryParameter(p, String.valueOf(maxRows)));
+            ofNullable(settings.getFieldsParameter()).ifPresent(p -> urlBuilder.addQueryParameter(p, String.join(",", fields)));
+            return builder.url(urlBuilder.build()).get().build();
+        }
+
+        JsonNode body = query;
+        if (query.isObject() && (settings.getRowsParameter() != null || settings.getFieldsParameter() != null)) {
+            // Copy the query, rather than modifying the (possibly shared) node
+            final ObjectNode copy = ((ObjectNode) query).deepCopy();
+            ofNullable(settings.getRowsParameter()).ifPresent(p -> copy.put(p, maxRows));
+            ofNullable(settings.getFieldsParameter()).ifPresent(p -> {
+                copy.remove(p);
+                for (final String field : fields) {
+                    copy.withArray(p).add(field);
+                }
+            });
+            body = copy;
+        }
+
+        final byte[] content = MAPPER.writeValueAsBytes(body);
+        if (settings.isGzipRequests()) {
+            builder.header("Content-Encoding", "gzip");
+            return builder.url(url).post(RequestBody.create(JSON, gzip(content))).build();
+        }
+
+        return builder.url(url).post(RequestBody.create(JSON, content)).build();
+    }
+
+    QueryOrSearchResponse convertResponse(HttpSettings settings, JsonNode response) {
+        final JsonNode hitsNode = response.at(settings.getHitsPointer());
+        final List<Map<String, Object>> hits = new ArrayList<>(hitsNode.size());
+
+        for (final JsonNode hit : hitsNode) {
+            final JsonNode document = hit.at(settings.getDocumentPointer());
+            if (!document.isObject()) {
+                LOGGER.error("No document found at " + settings.getDocumentPointer() + " in hit " + hits.size() + " :: " + hit);
+                return new QueryOrSearchResponse("No document found at " + settings.getDocumentPointer() + " in hit " + hits.size(), false);
+            }
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> result = MAPPER.convertValue(document, Map.class);
+            settings.getIdPointer().ifPresent(pointer -> result.put(settings.getIdField(), hit.at(pointer).asText()));
+            hits.add(result);
+        }
+
+        final JsonNode totalNode = response.at(settings.getTotalHitsPointer());
+        final long took = settings.getTookPointer()
+                .map(response::at)
+                .filter(JsonNode::isNumber)
+                .map(JsonNode::asLong)
+                .orElse(QueryOrSearchResponse.UNKNOWN);
+        return new QueryOrSearchResponse(totalNode.isMissingNode() ? hits.size() : totalNode.asLong(), hits, took);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(content.length);
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private String resolveCollectionName(HttpSettings settings, String defaultCollection) {
+        return ofNullable(settings.getCollectionName()).orElse(defaultCollection);
+    }
+
+    @Override
+    public String getRequestTarget(String collection, String version) {
+        final HttpSettings settings = settingsMap.get(getFullyQualifiedDomainName(collection, version));
+        if (settings == null) {
+            return SearchPlatform.super.getRequestTarget(collection, version);
+        }
+        return settings.getMethod() + " " + settings.getUrl().replace(COLLECTION_PLACEHOLDER, resolveCollectionName(settings, collection))
+                + " " + settings.getHeaders()
+                + " " + settings.getHitsPointer() + " " + settings.getTotalHitsPointer() + " " + settings.getDocumentPointer()
+                + " " + settings.getIdPointer().map(p -> p + "=" + settings.getIdField()).orElse("")
+                + " " + settings.getRowsParameter() + " " + settings.getFieldsParameter();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isRefreshRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean isSearchPlatformConfiguration(String indexName, File searchEngineStartupSettings) {
+        return searchEngineStartupSettings.isFile() && searchEngineStartupSettings.getName().equals(SETTINGS_FILE);
+    }
+
+    @Override
+    public boolean isCorporaRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean isJsonQuerySupported() {
+        return true;
+    }
+
+    @Override
+    public boolean checkCollection(String collection, String version) {
+        return settingsMap.containsKey(getFullyQualifiedDomainName(collection, version)) && collectionClients.containsKey(getFullyQualifiedDomainName(collection, version));
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        }
+    }
+
+    private static int intValue(Map<String, Object> configuration, String key, int defaultValue) {
+        return ofNullable(configuration.get(key)).map(v -> Integer.parseInt(v.toString())).orElse(defaultValue);
+    }
+
+    private static long longValue(Map<String, Object> configuration, String key, long defaultValue) {
+        return ofNullable(configuration.get(key)).map(v -> Long.parseLong(v.toString())).orElse(defaultValue);
+    }
+
+    public static class HttpSettings {
+
+        @JsonProperty("url")
+        private final String url;
+        @JsonProperty("method")
+        private final String method;
+        @JsonProperty("headers")
+        private final Map<String, String> headers;
+        @JsonProperty("collectionName")
+        private final String collectionName;
+        @JsonProperty("hitsPointer")
+        private final JsonPointer hitsPointer;
+        @JsonProperty("totalHitsPointer")
+        private final JsonPointer totalHitsPointer;
+        @JsonProperty("documentPointer")
+        private final JsonPointer documentPointer;
+        @JsonProperty("idPointer")
+        private final JsonPointer idPointer;
+        @JsonProperty("tookPointer")
+        private final JsonPointer tookPointer;
+        @JsonProperty("idField")
+        private final String idField;
+        @JsonProperty("rowsParameter")
+        private final String rowsParameter;
+        @JsonProperty("fieldsParameter")
+        private final String fieldsParameter;
+        @JsonProperty("http2PriorKnowledge")
+        private final boolean http2PriorKnowledge;
+        @JsonProperty("gzipRequests")
+        private final boolean gzipRequests;
+        @JsonProperty("connectionTimeoutMillis")
+        private final Integer connectionTimeout;
+        @JsonProperty("socketTimeoutMillis")
+        private final Integer socketTimeout;
+
+        public HttpSettings(@JsonProperty("url") String url,
+                            @JsonProperty("method") String method,
+                            @JsonProperty("headers") Map<String, String> headers,
+                            @JsonProperty("collectionName") String collectionName,
+                            @JsonProperty("hitsPointer") String hitsPointer,
+                            @JsonProperty("totalHitsPointer") String totalHitsPointer,
+                            @JsonProperty("documentPointer") String documentPointer,
+                            @JsonProperty("idPointer") String idPointer,
+                            @JsonProperty("tookPointer") String tookPointer,
+                            @JsonProperty("idField") String idField,
+                            @JsonProperty("rowsParameter") String rowsParameter,
+                            @JsonProperty("fieldsParameter") String fieldsParameter,
+                            @JsonProperty("http2PriorKnowledge") boolean http2PriorKnowledge,
+                            @JsonProperty("gzipRequests") boolean gzipRequests,
+                            @JsonProperty("connectionTimeoutMillis") Integer connectionTimeout,
+                            @JsonProperty("socketTimeoutMillis") Integer socketTimeout) throws IllegalArgumentException {
+            if (url == null || url.isEmpty()) {
+                throw new IllegalArgumentException("Required configuration missing! No search endpoint URL set!");
+            }
+
+            this.url = url;
+            this.method = ofNullable(method).orElse("POST");
+            this.headers = ofNullable(headers).orElse(Collections.emptyMap());
+            this.collectionName = collectionName;
+            this.hitsPointer = JsonPointer.compile(ofNullable(hitsPointer).orElse("/hits"));
+            this.totalHitsPointer = JsonPointer.compile(ofNullable(totalHitsPointer).orElse("/total"));
+            this.documentPointer = JsonPointer.compile(ofNullable(documentPointer).orElse(""));
+            this.idPointer = idPointer == null ? null : JsonPointer.compile(idPointer);
+            this.tookPointer = tookPointer == null ? null : JsonPointer.compile(tookPointer);
+            this.idField = ofNullable(idField).orElse("id");
+            this.rowsParameter = rowsParameter;
+            this.fieldsParameter = fieldsParameter;
+            this.http2PriorKnowledge = http2PriorKnowledge;
+            this.gzipRequests = gzipRequests;
+            this.connectionTimeout = connectionTimeout;
+            this.socketTimeout = socketTimeout;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public String getCollectionName() {
+            return collectionName;
+        }
+
+        public JsonPointer getHitsPointer() {
+            return hitsPointer;
+        }
+
+        public JsonPointer getTotalHitsPointer() {
+            return totalHitsPointer;
+        }
+
+        public JsonPointer getDocumentPointer() {
+            return documentPointer;
+        }
+
+        public Optional<JsonPointer> getIdPointer() {
+            return Optional.ofNullable(idPointer);
+        }
+
+        public Optional<JsonPointer> getTookPointer() {
+            return Optional.ofNullable(tookPointer);
+        }
+
+        public String getIdField() {
+            return idField;
+        }
+
+        public String getRowsParameter() {
+            return rowsParameter;
+        }
+
+        public String getFieldsParameter() {
+            return fieldsParameter;
+        }
+
+        public boolean isHttp2PriorKnowledge() {
+            return http2PriorKnowledge;
+        }
+
+        public boolean isGzipRequests() {
+            return gzipRequests;
+        }
+
+        public Integer getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public Integer getSocketTimeout() {
+            return socketTimeout;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the generic HTTP search platform implementation.
+ *
+ * @since 1.2
+ */
+public class HttpSearchPlatformTest {
+
+    private static final String INDEX_NAME = "test";
+    private static final String VERSION = "v1.0";
+    private static final String[] FIELDS = new String[]{"id", "title"};
+    private static final String RESPONSE = "{ \"took\": 7, \"total\": 12, \"hits\": [ { \"id\": \"1\", \"title\": \"One\" }, { \"id\": \"2\", \"title\": \"Two\" } ] }";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private HttpSearchPlatform platform;
+
+    @Before
+    public void setupPlatform() {
+        server = new MockWebServer();
+        platform = new HttpSearchPlatform();
+        platform.beforeStart(Collections.emptyMap());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        platform.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void isSearchPlatformFile_returnsFalseWhenDirectory() throws Exception {
+        File dummyFile = tempFolder.newFolder();
+        assertFalse(platform.isSearchPlatformConfiguration(INDEX_NAME, dummyFile));
+    }
+
+    @Test
+    public void isSearchPlatformFile_returnsTrueWhenFileIsConfig() throws Exception {
+        File configFile = tempFolder.newFile(HttpSearchPlatform.SETTINGS_FILE);
+        assertTrue(platform.isSearchPlatformConfiguration(INDEX_NAME, configFile));
+    }
+
+    @Test
+    public void load_readsSettingsFile() throws Exception {
+        File settingsFile = tempFolder.newFile(HttpSearchPlatform.SETTINGS_FILE);
+        Files.write(settingsFile.toPath(), "{ \"url\": \"http://localhost/{collection}/search\", \"idPointer\": \"/_id\" }".getBytes(StandardCharsets.UTF_8));
+
+        platform.load(null, settingsFile, INDEX_NAME, VERSION);
+
+        assertTrue(platform.checkCollection(INDEX_NAME, VERSION));
+        assertFalse(platform.checkCollection(INDEX_NAME, "v2.0"));
+    }
+
+    @Test
+    public void executeQuery_postsQueryAndExtractsHits() throws Exception {
+        server.enqueue(new MockResponse().setBody(RESPONSE));
+        server.start();
+        platform.setSettings(settings("POST", false, false), INDEX_NAME, VERSION);
+
+        JsonNode query = mapper.readTree("{ \"q\": \"test\" }");
+        QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, query, FIELDS, 10);
+
+        assertFalse(response.isFailed());
+        assertEquals(12, response.totalHits());
+        assertEquals(7, response.tookMillis());
+        assertEquals(2, response.hits().size());
+        assertEquals("2", response.hits().get(1).get("id"));
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/" + INDEX_NAME + "/search", request.getPath());
+        JsonNode body = mapper.readTree(request.getBody().readUtf8());
+        assertEquals("test", body.get("q").asText());
+        assertEquals(10, body.get("rows").asInt());
+        assertEquals("title", body.get("fl").get(1).asText());
+        // The original query must not be modified
+        assertFalse(query.has("rows"));
+    }
+
+    @Test
+    public void executeQuery_sendsGetParameters() throws Exception {
+        server.enqueue(new MockResponse().setBody(RESPONSE));
+        server.start();
+        platform.setSettings(settings("GET", false, false), INDEX_NAME, VERSION);
+
+        platform.executeQuery(INDEX_NAME, VERSION, "{ \"q\": \"test\" }", FIELDS, 5);
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("GET", request.getMethod());
+        assertEquals("test", request.getRequestUrl().queryParameter("q"));
+        assertEquals("5", request.getRequestUrl().queryParameter("rows"));
+        assertEquals("id,title", request.getRequestUrl().queryParameter("fl"));
+    }
+
+    @Test
+    public void executeQuery_gzipsRequestsAndDecodesResponses() throws Exception {
+        Buffer gzipped = new Buffer();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped.outputStream())) {
+            out.write(RESPONSE.getBytes(StandardCharsets.UTF_8));
+        }
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzipped));
+        server.start();
+        platform.setSettings(settings("POST", false, true), INDEX_NAME, VERSION);
+
+        QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, "{ \"q\": \"test\" }", FIELDS, 10);
+        assertEquals(2, response.hits().size());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        Buffer body = new Buffer();
+        body.writeAll(new GzipSource(request.getBody()));
+        assertEquals("test", mapper.readTree(body.readUtf8()).get("q").asText());
+    }
+
+    @Test
+    public void executeQuery_usesHttp2PriorKnowledge() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.enqueue(new MockResponse().setBody(RESPONSE));
+        server.start();
+        platform.setSettings(settings("POST", true, false), INDEX_NAME, VERSION);
+
+        QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, "{ \"q\": \"test\" }", FIELDS, 10);
+
+        assertEquals(2, response.hits().size());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void executeQuery_returnsErrorResponseOnFailureStatus() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.start();
+        platform.setSettings(settings("POST", false, false), INDEX_NAME, VERSION);
+
+        QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, "{ \"q\": \"test\" }", FIELDS, 10);
+
+        assertTrue(response.isFailed());
+    }
+
+    @Test
+    public void executeQuery_usesClientSettingsOfEachCollection() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.enqueue(new MockResponse().setBody(RESPONSE));
+        server.start();
+        platform.setSettings(settings("POST", false, false), "other", VERSION);
+        platform.setSettings(settings("POST", true, false), INDEX_NAME, VERSION);
+
+        QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, "{ \"q\": \"test\" }", FIELDS, 10);
+
+        assertFalse(response.isFailed());
+        assertEquals(2, response.hits().size());
+    }
+
+    @Test
+    public void executeQuery_failsWhenHitHasNoDocument() throws Exception {
+        server.enqueue(new MockResponse().setBody("{ \"hits\": [ { \"_source\": { \"id\": \"1\" } }, { \"_id\": \"2\" } ] }"));
+        server.start();
+        platform.setSettings(new HttpSearchPlatform.HttpSettings(server.url("/search").toString(),
+                "POST", null, null, null, null, "/_source", null, null, null, null, null, false, false, null, null), INDEX_NAME, VERSION);
+
+        QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, "{ \"q\": \"test\" }", FIELDS, 10);
+
+        assertTrue(response.isFailed());
+        assertTrue(response.getFailureMessage().contains("/_source"));
+    }
+
+    private HttpSearchPlatform.HttpSettings settings(String method, boolean http2, boolean gzip) {
+        return new HttpSearchPlatform.HttpSettings(server.url("/{collection}/search").toString().replace("%7B", "{").replace("%7D", "}"),
+                method, null, null, null, null, null, null, "/took", null, "rows", "fl", http2, gzip, null, null);
+    }
+}
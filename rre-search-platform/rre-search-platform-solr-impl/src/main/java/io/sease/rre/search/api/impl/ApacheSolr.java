@@ -55,6 +55,7 @@ import static java.util.Optional.ofNullable;
  */
 public class ApacheSolr implements SearchPlatform {
 	private final static Logger LOGGER = LogManager.getLogger(ApacheSolr.class);
+	private final static ObjectMapper MAPPER = new ObjectMapper();
 
 	private EmbeddedSolrServer proxy;
 	private File solrHome;
@@ -190,14 +191,21 @@ public class ApacheSolr implements SearchPlatform {
 
 	@Override
 	public QueryOrSearchResponse executeQuery(final String collection, final String version, final String queryString, final String[] fields, final int maxRows) {
+		try {
+			return executeQuery(collection, version, MAPPER.readTree(queryString), fields, maxRows);
+		} catch (final IOException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+	@Override
+	public QueryOrSearchResponse executeQuery(final String collection, final String version, final JsonNode queryDef, final String[] fields, final int maxRows) {
 		String coreName = getFullyQualifiedDomainName(collection, version);
 		try {
 			final SolrQuery query =
 					new SolrQuery()
 							.setRows(maxRows)
 							.setFields(fields);
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode queryDef = mapper.readTree(queryString);
 
 			for (final Iterator<Map.Entry<String, JsonNode>> iterator = queryDef.fields(); iterator.hasNext(); ) {
 				final Map.Entry<String, JsonNode> field = iterator.next();
@@ -207,7 +215,7 @@ public class ApacheSolr implements SearchPlatform {
 				} else {
 					// Either an array or an object - use writeValueAsString() instead
 					// to convert to a string. Useful for writing JSON queries without escaping them.
-					value = mapper.writeValueAsString(field.getValue());
+					value = MAPPER.writeValueAsString(field.getValue());
 				}
 				query.add(field.getKey(), value);
 			}
@@ -216,7 +224,8 @@ public class ApacheSolr implements SearchPlatform {
 					.map(response ->
 							new QueryOrSearchResponse(
 									response.getResults().getNumFound(),
-									new ArrayList<Map<String, Object>>(response.getResults())))
+									new ArrayList<Map<String, Object>>(response.getResults()),
+									response.getQTime()))
 					.get();
 		} catch (SolrException e) {
 			LOGGER.error("Caught Solr exception :: " + e.getMessage());
@@ -226,6 +235,11 @@ public class ApacheSolr implements SearchPlatform {
 		}
 	}
 
+	@Override
+	public boolean isJsonQuerySupported() {
+		return true;
+	}
+
 	@Override
 	public String getName() {
 		return "Apache Solr";
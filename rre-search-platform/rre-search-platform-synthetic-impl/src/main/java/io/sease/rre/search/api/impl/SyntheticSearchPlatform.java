@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import io.sease.rre.search.api.SearchPlatform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-memory {@link SearchPlatform}, serving synthetic ranked results
+ * without a real search engine - for load testing the evaluation
+ * infrastructure and sizing it.
+ * <p>
+ * The results are reproducible: the ranking of a query only depends on the
+ * seed, the collection and the query itself, so that the same query always
+ * returns the same documents. Each version may add noise to that ranking,
+ * replacing a fraction of the documents with random ones, so that the
+ * versions obtain different metric values. The latency and the failures are
+ * drawn at random for each request.
+ * <p>
+ * The platform is configured through the search platform configuration, and
+ * each configuration version may override those settings in a
+ * {@value #SETTINGS_FILE} file:
+ * <ul>
+ * <li>latencyDistribution - fixed, uniform, exponential or lognormal (default fixed);</li>
+ * <li>meanLatencyMillis - the mean simulated latency (default 0);</li>
+ * <li>latencySigma - the shape of the lognormal distribution (default 0.5);</li>
+ * <li>failureRate - the fraction of requests failing with a retryable error (default 0);</li>
+ * <li>minHits, maxHits - the range of the total hit count of each query (default 10 - 100);</li>
+ * <li>documentCount - the number of distinct documents (default 1000);</li>
+ * <li>noise - the fraction of the ranking replaced with random documents (default 0);</li>
+ * <li>idField - the name of the document identifier field (default _id);</li>
+ * <li>seed - the seed the rankings are derived from (default 0).</li>
+ * </ul>
+ *
+ * @since 1.2
+ */
+public class SyntheticSearchPlatform implements SearchPlatform {
+
+    private static final Logger LOGGER = LogManager.getLogger(SyntheticSearchPlatform.class);
+
+    private static final String NAME = "Synthetic Search Platform";
+    static final String SETTINGS_FILE = "synthetic-settings.json";
+    static final String DOCUMENT_ID_PREFIX = "doc";
+    static final String TITLE_FIELD = "title";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, SyntheticSettings> versionSettings = new HashMap<>();
+
+    private SyntheticSettings settings = SyntheticSettings.DEFAULT;
+
+    @Override
+    public void beforeStart(final Map<String, Object> configuration) {
+        settings = SyntheticSettings.DEFAULT.merge(configuration);
+    }
+
+    @Override
+    public void load(final File dataToBeIndexed, final File settingsFile, final String collection, final String version) {
+        // There is no corpus to load, only the settings of the version
+        try {
+            final Map<String, Object> overrides = MAPPER.readValue(settingsFile, new TypeReference<Map<String, Object>>() {
+            });
+            versionSettings.put(getFullyQualifiedDomainName(collection, version), settings.merge(overrides));
+        } catch (IOException e) {
+            LOGGER.error("Could not read settings from " + settingsFile.getName() + " :: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void afterStart() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void beforeStop() {
+        // No-op for this implementation
+    }
+
+    @Override
+    public void close() {
+        versionSettings.clear();
+    }
+
+    @Override
+    public QueryOrSearchResponse executeQuery(final String collection, final String version, final String query, final String[] fields, final int maxRows) {
+        final SyntheticSettings versionSettings = settings(collection, version);
+        final Random random = ThreadLocalRandom.current();
+
+        final long latencyNanos = versionSettings.sampleLatencyNanos(random);
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+
+        if (random.nextDouble() < versionSettings.getFailureRate()) {
+            return new QueryOrSearchResponse("Synthetic failure for query " + query + " version " + version, true);
+        }
+
+        final Random ranking = rankingRandom(versionSettings.getSeed(), collection, query);
+        final int totalHits = versionSettings.getMinHits()
+                + Math.floorMod(ranking.nextInt(), versionSettings.getMaxHits() - versionSettings.getMinHits() + 1);
+        final List<String> ids = rank(
+                ranking,
+                new Random(ranking.nextLong() ^ version.hashCode()),
+                versionSettings.getNoise(),
+                versionSettings.getDocumentCount(),
+                Math.min(maxRows, totalHits));
+
+        final List<Map<String, Object>> hits = new ArrayList<>(ids.size());
+        for (final String id : ids) {
+            final Map<String, Object> hit = new HashMap<>();
+            hit.put(versionSettings.getIdField(), id);
+            hit.put(TITLE_FIELD, "Synthetic document " + id);
+            hits.add(hit);
+        }
+        return new QueryOrSearchResponse(totalHits, hits, latencyNanos / 1_000_000);
+    }
+
+    /**
+     * Returns the noise-free ranking of a query - the documents a version
+     * without noise returns, in order. Synthetic judgments derived from this
+     * ranking are consistent with the results of the platform.
+     *
+     * @param seed          the ranking seed.
+     * @param collection    the collection being queried.
+     * @param query         the query, as sent to the platform.
+     * @param documentCount the number of distinct documents.
+     * @param count         the number of documents to return.
+     * @return the identifiers of the top {@code count} documents.
+     */
+    public static List<String> ranking(final long seed, final String collection, final String query, final int documentCount, final int count) {
+        final Random ranking = rankingRandom(seed, collection, query);
+        // Consume the total hit count, as executeQuery does
+        ranking.nextInt();
+        return rank(ranking, new Random(ranking.nextLong()), 0, documentCount, count);
+    }
+
+    private static Random rankingRandom(final long seed, final String collection, final String query) {
+        return new Random(seed ^ (31L * collection.hashCode() + query.hashCode()));
+    }
+
+    private static List<String> rank(final Random ranking, final Random noise, final double noiseRatio, final int documentCount, final int count) {
+        final Set<String> ids = new LinkedHashSet<>();
+        final int size = Math.min(count, documentCount);
+        while (ids.size() < size) {
+            final int base = ranking.nextInt(documentCount);
+            final boolean replaced = noiseRatio > 0 && noise.nextDouble() < noiseRatio;
+            ids.add(DOCUMENT_ID_PREFIX + (replaced ? noise.nextInt(documentCount) : base));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private SyntheticSettings settings(final String collection, final String version) {
+        final SyntheticSettings loaded = versionSettings.get(getFullyQualifiedDomainName(collection, version));
+        return loaded == null ? settings : loaded;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isRefreshRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean isSearchPlatformConfiguration(final String indexName, final File file) {
+        return file.isFile() && file.getName().equals(SETTINGS_FILE);
+    }
+
+    @Override
+    public boolean isCorporaRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean checkCollection(final String collection, final String version) {
+        return true;
+    }
+}
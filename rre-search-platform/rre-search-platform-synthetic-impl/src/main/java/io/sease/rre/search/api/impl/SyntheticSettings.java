@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.impl;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * The settings of the {@link SyntheticSearchPlatform}: the shape of the
+ * simulated latency, the failure rate, and the size and quality of the
+ * result lists.
+ *
+ * @since 1.2
+ */
+class SyntheticSettings {
+
+    /**
+     * The distributions the simulated latency may be drawn from.
+     */
+    enum LatencyDistribution {
+        /**
+         * Every request takes exactly the mean latency.
+         */
+        FIXED,
+        /**
+         * Uniform between zero and twice the mean latency.
+         */
+        UNIFORM,
+        /**
+         * Exponential, with the given mean - mostly fast requests, some slow ones.
+         */
+        EXPONENTIAL,
+        /**
+         * Log-normal, with the given mean and shape - the long tail typical of real engines.
+         */
+        LOGNORMAL
+    }
+
+    static final SyntheticSettings DEFAULT = new SyntheticSettings(
+            LatencyDistribution.FIXED, 0, 0.5, 0, 10, 100, 1000, 0, "_id", 0);
+
+    private final LatencyDistribution latencyDistribution;
+    private final double meanLatencyMillis;
+    private final double latencySigma;
+    private final double failureRate;
+    private final int minHits;
+    private final int maxHits;
+    private final int documentCount;
+    private final double noise;
+    private final String idField;
+    private final long seed;
+
+    SyntheticSettings(final LatencyDistribution latencyDistribution,
+                      final double meanLatencyMillis,
+                      final double latencySigma,
+                      final double failureRate,
+                      final int minHits,
+                      final int maxHits,
+                      final int documentCount,
+                      final double noise,
+                      final String idField,
+                      final long seed) {
+        if (meanLatencyMillis < 0) {
+            throw new IllegalArgumentException("meanLatencyMillis must not be negative: " + meanLatencyMillis);
+        }
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate must be between 0 and 1: " + failureRate);
+        }
+        if (noise < 0 || noise > 1) {
+            throw new IllegalArgumentException("noise must be between 0 and 1: " + noise);
+        }
+        if (minHits < 0 || maxHits < minHits) {
+            throw new IllegalArgumentException("Invalid hit count range: " + minHits + " - " + maxHits);
+        }
+        if (documentCount < 1) {
+            throw new IllegalArgumentException("documentCount must be positive: " + documentCount);
+        }
+        this.latencyDistribution = latencyDistribution;
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.latencySigma = latencySigma;
+        this.failureRate = failureRate;
+        this.minHits = minHits;
+        this.maxHits = maxHits;
+        this.documentCount = documentCount;
+        this.noise = noise;
+        this.idField = idField;
+        this.seed = seed;
+    }
+
+    /**
+     * Builds new settings, overriding these settings with the values found
+     * in the given configuration.
+     *
+     * @param configuration the configuration - either the search platform
+     *                      configuration, or the settings of a version.
+     * @return the merged settings.
+     */
+    SyntheticSettings merge(final Map<String, Object> configuration) {
+        return new SyntheticSettings(
+                ofNullable(configuration.get("latencyDistribution"))
+                        .map(value -> LatencyDistribution.valueOf(value.toString().toUpperCase(Locale.ROOT)))
+                        .orElse(latencyDistribution),
+                doubleValue(configuration, "meanLatencyMillis", meanLatencyMillis),
+                doubleValue(configuration, "latencySigma", latencySigma),
+                doubleValue(configuration, "failureRate", failureRate),
+                (int) longValue(configuration, "minHits", minHits),
+                (int) longValue(configuration, "maxHits", maxHits),
+                (int) longValue(configuration, "documentCount", documentCount),
+                doubleValue(configuration, "noise", noise),
+                ofNullable(configuration.get("idField")).map(Object::toString).orElse(idField),
+                longValue(configuration, "seed", seed));
+    }
+
+    /**
+     * Draws the latency of a single request.
+     *
+     * @param random the source of randomness.
+     * @return the latency, in nanoseconds.
+     */
+    long sampleLatencyNanos(final Random random) {
+        if (meanLatencyMillis == 0) {
+            return 0;
+        }
+
+        final double millis;
+        switch (latencyDistribution) {
+            case UNIFORM:
+                millis = random.nextDouble() * 2 * meanLatencyMillis;
+                break;
+            case EXPONENTIAL:
+                millis = -Math.log(1 - random.nextDouble()) * meanLatencyMillis;
+                break;
+            case LOGNORMAL:
+                // Choose mu so that the distribution mean is the configured mean
+                final double mu = Math.log(meanLatencyMillis) - latencySigma * latencySigma / 2;
+                millis = Math.exp(mu + latencySigma * random.nextGaussian());
+                break;
+            case FIXED:
+            default:
+                millis = meanLatencyMillis;
+        }
+        return (long) (millis * 1_000_000);
+    }
+
+    LatencyDistribution getLatencyDistribution() {
+        return latencyDistribution;
+    }
+
+    double getMeanLatencyMillis() {
+        return meanLatencyMillis;
+    }
+
+    double getFailureRate() {
+        return failureRate;
+    }
+
+    int getMinHits() {
+        return minHits;
+    }
+
+    int getMaxHits() {
+        return maxHits;
+    }
+
+    int getDocumentCount() {
+        return documentCount;
+    }
+
+    double getNoise() {
+        return noise;
+    }
+
+    String getIdField() {
+        return idField;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    private static double doubleValue(final Map<String, Object> configuration, final String key, final double defaultValue) {
+        return ofNullable(configuration.get(key)).map(value -> Double.parseDouble(value.toString())).orElse(defaultValue);
+    }
+
+    private static long longValue(final Map<String, Object> configuration, final String key, final long defaultValue) {
+        return ofNullable(configuration.get(key)).map(value -> Long.parseLong(value.toString())).orElse(defaultValue);
+    }
+}
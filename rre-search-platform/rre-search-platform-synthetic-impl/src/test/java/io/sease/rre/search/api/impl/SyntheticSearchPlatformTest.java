@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.search.api.impl;
+
+import io.sease.rre.search.api.QueryOrSearchResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the synthetic search platform.
+ *
+ * @since 1.2
+ */
+public class SyntheticSearchPlatformTest {
+
+    private static final String INDEX_NAME = "test";
+    private static final String VERSION = "v1.0";
+    private static final String QUERY = "synthetic query 1";
+    private static final String[] FIELDS = new String[]{"_id", "title"};
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private SyntheticSearchPlatform platform;
+
+    @Before
+    public void setupPlatform() {
+        platform = new SyntheticSearchPlatform();
+        platform.beforeStart(Collections.emptyMap());
+    }
+
+    @Test
+    public void returnsTheSameRankingForTheSameQuery() {
+        final QueryOrSearchResponse first = platform.executeQuery(INDEX_NAME, VERSION, QUERY, FIELDS, 10);
+        final QueryOrSearchResponse second = platform.executeQuery(INDEX_NAME, "v1.1", QUERY, FIELDS, 10);
+
+        assertFalse(first.isFailed());
+        assertEquals(first.totalHits(), second.totalHits());
+        assertEquals(ids(first), ids(second));
+        assertEquals(SyntheticSearchPlatform.ranking(0, INDEX_NAME, QUERY, 1000, 10), ids(first));
+        assertNotEquals(ids(first), ids(platform.executeQuery(INDEX_NAME, VERSION, "another query", FIELDS, 10)));
+    }
+
+    @Test
+    public void limitsHitsToMaxRowsAndTotalHits() {
+        final Map<String, Object> configuration = new HashMap<>();
+        configuration.put("minHits", 3);
+        configuration.put("maxHits", 5);
+        platform.beforeStart(configuration);
+
+        final QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, QUERY, FIELDS, 2);
+        assertTrue(response.totalHits() >= 3 && response.totalHits() <= 5);
+        assertEquals(2, response.hits().size());
+
+        final QueryOrSearchResponse all = platform.executeQuery(INDEX_NAME, VERSION, QUERY, FIELDS, 10);
+        assertEquals(all.totalHits(), all.hits().size());
+    }
+
+    @Test
+    public void failsAtTheConfiguredRate() {
+        platform.beforeStart(Collections.singletonMap("failureRate", "1"));
+
+        final QueryOrSearchResponse response = platform.executeQuery(INDEX_NAME, VERSION, QUERY, FIELDS, 10);
+        assertTrue(response.isFailed());
+        assertTrue(response.isRetryable());
+    }
+
+    @Test
+    public void appliesVersionSettings() throws Exception {
+        final File settings = tempFolder.newFile(SyntheticSearchPlatform.SETTINGS_FILE);
+        Files.write(settings.toPath(), "{ \"noise\": 1, \"idField\": \"id\" }".getBytes(StandardCharsets.UTF_8));
+        assertTrue(platform.isSearchPlatformConfiguration(INDEX_NAME, settings));
+
+        platform.load(null, settings, INDEX_NAME, "v1.1");
+
+        final QueryOrSearchResponse clean = platform.executeQuery(INDEX_NAME, VERSION, QUERY, FIELDS, 10);
+        final QueryOrSearchResponse noisy = platform.executeQuery(INDEX_NAME, "v1.1", QUERY, FIELDS, 10);
+        assertEquals(clean.totalHits(), noisy.totalHits());
+        assertTrue(noisy.hits().get(0).containsKey("id"));
+        assertNotEquals(ids(clean), noisy.hits().stream().map(hit -> hit.get("id")).collect(toList()));
+    }
+
+    @Test
+    public void samplesLatencyWithTheConfiguredMean() {
+        final Random random = new Random(42);
+        for (final String distribution : new String[]{"fixed", "uniform", "exponential", "lognormal"}) {
+            final SyntheticSettings settings = SyntheticSettings.DEFAULT.merge(map("latencyDistribution", distribution, "meanLatencyMillis", "10"));
+            long total = 0;
+            for (int i = 0; i < 10000; i++) {
+                total += settings.sampleLatencyNanos(random);
+            }
+            assertEquals(distribution, 10.0, total / 10000 / 1_000_000.0, 0.5);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidFailureRate() {
+        platform.beforeStart(Collections.singletonMap("failureRate", "1.5"));
+    }
+
+    private static List<Object> ids(final QueryOrSearchResponse response) {
+        return response.hits().stream().map(hit -> hit.get("_id")).collect(toList());
+    }
+
+    private static Map<String, Object> map(final String... keysAndValues) {
+        final Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.controllers;
+
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.server.domain.EvaluationFilter;
+import io.sease.rre.server.domain.Run;
+import io.sease.rre.server.domain.RunComparison;
+import io.sease.rre.server.services.EvaluationHistoryService;
+import io.sease.rre.server.services.EvaluationRepresentationCache;
+import io.sease.rre.server.services.EvaluationWriter;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Endpoints of the evaluation history: the runs received by the server, their evaluations, and their comparison.
+ *
+ * @since 1.2
+ */
+@RestController
+@RequestMapping("/runs")
+public class HistoryController {
+
+    @Autowired
+    private EvaluationHistoryService history;
+
+    @Autowired
+    private EvaluationWriter evaluationWriter;
+
+    @Autowired
+    private EvaluationRepresentationCache representations;
+
+    @ApiOperation(value = "Returns the runs in the evaluation history, most recent first.")
+    @GetMapping(produces = { "application/json" })
+    public List<Run> getRuns() {
+        return history.getRuns();
+    }
+
+    @ApiOperation(value = "Returns a run of the evaluation history.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the run."),
+            @ApiResponse(code = 404, message = "No such run")
+    })
+    @GetMapping(value = "/{id}", produces = { "application/json" })
+    public ResponseEntity<Run> getRun(@PathVariable("id") final String id) {
+        return history.getRun(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ApiOperation(value = "Returns the summary of the evaluation of a run (see /evaluation/summary).")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the evaluation summary."),
+            @ApiResponse(code = 304, message = "Not Modified (If-None-Match matches the summary)"),
+            @ApiResponse(code = 404, message = "No such run"),
+            @ApiResponse(code = 500, message = "System internal failure occurred.")
+    })
+    @GetMapping(value = "/{id}/summary", produces = { "application/json" })
+    public void getRunSummary(
+            @PathVariable("id") final String id,
+            @RequestParam(value = "corpus", required = false) final String corpus,
+            @RequestParam(value = "topic", required = false) final String topic,
+            @RequestParam(value = "group", required = false) final String group,
+            @RequestParam(value = "metric", required = false) final List<String> metrics,
+            @RequestParam(value = "version", required = false) final List<String> versions,
+            final HttpServletRequest request,
+            final HttpServletResponse response) throws IOException {
+        final Optional<Evaluation> evaluation = history.getEvaluation(id);
+        if (!evaluation.isPresent()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final EvaluationFilter filter = new EvaluationFilter(corpus, topic, group, metrics, versions);
+        representations.summary(evaluation.get(), filter).writeTo(request, response);
+    }
+
+    @ApiOperation(value = "Returns a page of the queries of the evaluation of a run (see /evaluation/queries).")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the page of queries."),
+            @ApiResponse(code = 400, message = "Bad Request (invalid cursor or page size)"),
+            @ApiResponse(code = 404, message = "No such run"),
+            @ApiResponse(code = 500, message = "System internal failure occurred.")
+    })
+    @GetMapping(value = "/{id}/queries", produces = { "application/json" })
+    public ResponseEntity<StreamingResponseBody> getRunQueries(
+            @PathVariable("id") final String id,
+            @RequestParam(value = "corpus", required = false) final String corpus,
+            @RequestParam(value = "topic", required = false) final String topic,
+            @RequestParam(value = "group", required = false) final String group,
+            @RequestParam(value = "metric", required = false) final List<String> metrics,
+            @RequestParam(value = "version", required = false) final List<String> versions,
+            @RequestParam(value = "cursor", required = false) final String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") final int limit,
+            @RequestParam(value = "hits", defaultValue = "false") final boolean includeHits) throws IOException {
+        final long position;
+        try {
+            position = EvaluationWriter.decodeCursor(cursor);
+        } catch (final IllegalArgumentException exception) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (limit < 1 || limit > RREController.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        final Optional<Evaluation> evaluation = history.getEvaluation(id);
+        if (!evaluation.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        final EvaluationFilter filter = new EvaluationFilter(corpus, topic, group, metrics, versions);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(out -> evaluationWriter.writeQueries(evaluation.get(), filter, position, limit, includeHits, out));
+    }
+
+    @ApiOperation(value = "Compares the metrics of two runs, returning the largest deltas first.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the comparison."),
+            @ApiResponse(code = 400, message = "Bad Request (invalid level or limit)"),
+            @ApiResponse(code = 404, message = "No such run"),
+            @ApiResponse(code = 500, message = "System internal failure occurred.")
+    })
+    @GetMapping(value = "/{base}/compare/{other}", produces = { "application/json" })
+    public ResponseEntity<RunComparison> compareRuns(
+            @PathVariable("base") final String base,
+            @PathVariable("other") final String other,
+            @RequestParam(value = "level", defaultValue = "query") final String level,
+            @RequestParam(value = "corpus", required = false) final String corpus,
+            @RequestParam(value = "topic", required = false) final String topic,
+            @RequestParam(value = "group", required = false) final String group,
+            @RequestParam(value = "metric", required = false) final List<String> metrics,
+            @RequestParam(value = "version", required = false) final List<String> versions,
+            @RequestParam(value = "limit", defaultValue = "100") final int limit) throws IOException {
+        if (limit < 1 || limit > RREController.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return history.compare(base, other, level, new EvaluationFilter(corpus, topic, group, metrics, versions), limit)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (final IllegalArgumentException exception) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
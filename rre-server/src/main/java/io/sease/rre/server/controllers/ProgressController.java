@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.sease.rre.server.domain.EvaluationProgress;
+import io.sease.rre.server.services.ProgressService;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Endpoints of the live progress of a running evaluation.
+ *
+ * @since 1.2
+ */
+@RestController
+@RequestMapping("/evaluation/progress")
+public class ProgressController {
+
+    @Autowired
+    private ProgressService progressService;
+
+    @ApiOperation(value = "Receives a batch of completed queries from a running evaluation.")
+    @PostMapping
+    public void updateProgress(@RequestBody final JsonNode batch) {
+        progressService.update(batch);
+    }
+
+    @ApiOperation(value = "Returns the progress of the running (or last) evaluation.")
+    @GetMapping(produces = { "application/json" })
+    public EvaluationProgress getProgress() {
+        return progressService.getProgress();
+    }
+
+    @ApiOperation(value = "Streams the progress of the running evaluation, as Server-Sent Events.")
+    @GetMapping(value = "/stream", produces = { "text/event-stream" })
+    public SseEmitter streamProgress() {
+        return progressService.subscribe();
+    }
+}
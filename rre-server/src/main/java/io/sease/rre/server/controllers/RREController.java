@@ -16,29 +16,45 @@
  */
 package io.sease.rre.server.controllers;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.server.domain.EvaluationFilter;
 import io.sease.rre.server.domain.EvaluationMetadata;
 import io.sease.rre.server.services.EvaluationHandlerService;
+import io.sease.rre.server.services.EvaluationRepresentationCache;
+import io.sease.rre.server.services.EvaluationWriter;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 @RestController
 public class RREController {
+    static final int MAX_PAGE_SIZE = 1000;
 
     @Autowired
     private EvaluationHandlerService evaluationHandler;
 
+    @Autowired
+    private EvaluationWriter evaluationWriter;
+
+    @Autowired
+    private EvaluationRepresentationCache representations;
+
     @PostMapping("/evaluation")
-    public void updateEvaluationData(@RequestBody final JsonNode requestBody) throws Exception {
+    public void updateEvaluationData(final InputStream requestBody) throws Exception {
         evaluationHandler.processEvaluationRequest(requestBody);
     }
 
@@ -49,13 +65,66 @@ public class RREController {
     @ApiOperation(value = "Returns the evaluation data.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Method successfully returned the evaluation data."),
+            @ApiResponse(code = 304, message = "Not Modified (If-None-Match matches the current evaluation)"),
             @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 414, message = "Request-URI Too Long"),
             @ApiResponse(code = 500, message = "System internal failure occurred.")
     })
     @GetMapping(value = "/evaluation", produces = { "application/json" })
-    @ResponseBody
-    public Evaluation getEvaluationData() {
-        return evaluationHandler.getEvaluation();
+    public void getEvaluationData(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        representations.evaluation(evaluationHandler.getEvaluation()).writeTo(request, response);
+    }
+
+    @ApiOperation(value = "Returns the evaluation summary: the evaluation hierarchy down to the query groups, with their metrics only.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the evaluation summary."),
+            @ApiResponse(code = 304, message = "Not Modified (If-None-Match matches the current summary)"),
+            @ApiResponse(code = 500, message = "System internal failure occurred.")
+    })
+    @GetMapping(value = "/evaluation/summary", produces = { "application/json" })
+    public void getEvaluationSummary(
+            @RequestParam(value = "corpus", required = false) final String corpus,
+            @RequestParam(value = "topic", required = false) final String topic,
+            @RequestParam(value = "group", required = false) final String group,
+            @RequestParam(value = "metric", required = false) final List<String> metrics,
+            @RequestParam(value = "version", required = false) final List<String> versions,
+            final HttpServletRequest request,
+            final HttpServletResponse response) throws IOException {
+        final EvaluationFilter filter = new EvaluationFilter(corpus, topic, group, metrics, versions);
+        representations.summary(evaluationHandler.getEvaluation(), filter).writeTo(request, response);
+    }
+
+    @ApiOperation(value = "Returns a page of the evaluation queries, with their metrics and, optionally, their results.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the page of queries."),
+            @ApiResponse(code = 400, message = "Bad Request (invalid cursor or page size)"),
+            @ApiResponse(code = 500, message = "System internal failure occurred.")
+    })
+    @GetMapping(value = "/evaluation/queries", produces = { "application/json" })
+    public ResponseEntity<StreamingResponseBody> getEvaluationQueries(
+            @RequestParam(value = "corpus", required = false) final String corpus,
+            @RequestParam(value = "topic", required = false) final String topic,
+            @RequestParam(value = "group", required = false) final String group,
+            @RequestParam(value = "metric", required = false) final List<String> metrics,
+            @RequestParam(value = "version", required = false) final List<String> versions,
+            @RequestParam(value = "cursor", required = false) final String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") final int limit,
+            @RequestParam(value = "hits", defaultValue = "false") final boolean includeHits) {
+        final long position;
+        try {
+            position = EvaluationWriter.decodeCursor(cursor);
+        } catch (final IllegalArgumentException exception) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        final Evaluation evaluation = evaluationHandler.getEvaluation();
+        final EvaluationFilter filter = new EvaluationFilter(corpus, topic, group, metrics, versions);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(out -> evaluationWriter.writeQueries(evaluation, filter, position, limit, includeHits, out));
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.controllers;
+
+import io.sease.rre.server.domain.UploadStatus;
+import io.sease.rre.server.services.EvaluationHandlerException;
+import io.sease.rre.server.services.EvaluationUploadService;
+import io.sease.rre.server.services.UploadConflictException;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Endpoints of the chunked evaluation uploads: an upload is created, its chunks are sent in order (each one possibly
+ * gzip encoded), and it is completed once all of them have been received. If a chunk fails, the upload is resumed
+ * from the offset returned by the status endpoint.
+ *
+ * @since 1.2
+ */
+@RestController
+@RequestMapping("/evaluation/uploads")
+public class UploadController {
+
+    @Autowired
+    private EvaluationUploadService uploadService;
+
+    @ApiOperation(value = "Starts a chunked evaluation upload.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "The upload has been created."),
+            @ApiResponse(code = 503, message = "Too many uploads in progress.")
+    })
+    @PostMapping(produces = { "application/json" })
+    public ResponseEntity<UploadStatus> createUpload() {
+        try {
+            final UploadStatus status = uploadService.create();
+            return ResponseEntity.created(URI.create("/evaluation/uploads/" + status.id)).body(status);
+        } catch (final EvaluationHandlerException exception) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @ApiOperation(value = "Returns the status of an upload, i.e. the offset from which it can be resumed.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Method successfully returned the upload status."),
+            @ApiResponse(code = 404, message = "Unknown (or expired) upload.")
+    })
+    @GetMapping(value = "/{id}", produces = { "application/json" })
+    public ResponseEntity<UploadStatus> getUpload(@PathVariable("id") final String id) {
+        return uploadService.status(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ApiOperation(value = "Appends a chunk, starting at the given offset of the (uncompressed) evaluation data. The chunk can be gzip encoded.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The chunk has been appended."),
+            @ApiResponse(code = 400, message = "The data is not a valid evaluation: the upload has been discarded."),
+            @ApiResponse(code = 404, message = "Unknown (or expired) upload."),
+            @ApiResponse(code = 409, message = "The offset is not the current offset of the upload, which is returned.")
+    })
+    @PutMapping(value = "/{id}", consumes = { "application/json", "application/octet-stream" }, produces = { "application/json" })
+    public ResponseEntity<UploadStatus> appendChunk(
+            @PathVariable("id") final String id,
+            @RequestParam("offset") final long offset,
+            @RequestHeader(value = "Content-Encoding", required = false) final String contentEncoding,
+            final HttpServletRequest request) throws IOException {
+        try (final InputStream data = "gzip".equalsIgnoreCase(contentEncoding)
+                ? new GZIPInputStream(request.getInputStream())
+                : request.getInputStream()) {
+            return uploadService.append(id, offset, data)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (final UploadConflictException exception) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new UploadStatus(id, exception.getOffset()));
+        } catch (final EvaluationHandlerException exception) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @ApiOperation(value = "Completes an upload: the uploaded evaluation replaces the current one.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The evaluation has been updated."),
+            @ApiResponse(code = 400, message = "The data is not a valid evaluation."),
+            @ApiResponse(code = 404, message = "Unknown (or expired) upload."),
+            @ApiResponse(code = 409, message = "Not all the data has been received: the current offset is returned.")
+    })
+    @PostMapping(value = "/{id}/complete", produces = { "application/json" })
+    public ResponseEntity<UploadStatus> completeUpload(
+            @PathVariable("id") final String id,
+            @RequestParam("length") final long length) {
+        try {
+            return uploadService.complete(id, length)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (final UploadConflictException exception) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new UploadStatus(id, exception.getOffset()));
+        } catch (final EvaluationHandlerException exception) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @ApiOperation(value = "Aborts an upload.")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abortUpload(@PathVariable("id") final String id) {
+        return uploadService.abort(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.domain;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Restricts the part of an evaluation returned by the paginated endpoints.
+ * A null name (or an empty set of metrics / versions) means "everything".
+ *
+ * @since 1.2
+ */
+public class EvaluationFilter {
+    public static final EvaluationFilter NONE = new EvaluationFilter(null, null, null, null, null);
+
+    private final String corpus;
+    private final String topic;
+    private final String queryGroup;
+    private final Set<String> metrics;
+    private final Set<String> versions;
+
+    /**
+     * Builds a new filter.
+     *
+     * @param corpus     the corpus name, null for all corpora.
+     * @param topic      the topic name, null for all topics.
+     * @param queryGroup the query group name, null for all groups.
+     * @param metrics    the metric names, null or empty for all metrics.
+     * @param versions   the versions, null or empty for all versions.
+     */
+    public EvaluationFilter(
+            final String corpus,
+            final String topic,
+            final String queryGroup,
+            final Collection<String> metrics,
+            final Collection<String> versions) {
+        this.corpus = corpus;
+        this.topic = topic;
+        this.queryGroup = queryGroup;
+        this.metrics = metrics == null ? Collections.emptySet() : new LinkedHashSet<>(metrics);
+        this.versions = versions == null ? Collections.emptySet() : new LinkedHashSet<>(versions);
+    }
+
+    public boolean includesCorpus(final String name) {
+        return corpus == null || corpus.equals(name);
+    }
+
+    public boolean includesTopic(final String name) {
+        return topic == null || topic.equals(name);
+    }
+
+    public boolean includesQueryGroup(final String name) {
+        return queryGroup == null || queryGroup.equals(name);
+    }
+
+    public boolean includesMetric(final String name) {
+        return metrics.isEmpty() || metrics.contains(name);
+    }
+
+    public boolean includesVersion(final String name) {
+        return versions.isEmpty() || versions.contains(name);
+    }
+
+    /**
+     * Returns a key which identifies this filter: two filters with the same key select the same data.
+     *
+     * @return the key of this filter.
+     */
+    public String key() {
+        return String.join("\u0000",
+                String.valueOf(corpus),
+                String.valueOf(topic),
+                String.valueOf(queryGroup),
+                String.join(",", new TreeSet<>(metrics)),
+                String.join(",", new TreeSet<>(versions)));
+    }
+}
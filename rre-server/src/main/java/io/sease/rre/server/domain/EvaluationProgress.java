@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.domain;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The progress of a running evaluation, as reported by the RRE Server persistence handler: the number of queries
+ * completed so far, and the mean of each metric over them.
+ *
+ * @since 1.2
+ */
+public class EvaluationProgress {
+    public final String run;
+    public final String status;
+    public final long started;
+    public final long updated;
+    public final long queries;
+    public final double queriesPerSecond;
+    public final Map<String, Map<String, BigDecimal>> metrics;
+
+    /**
+     * Builds a new progress snapshot.
+     *
+     * @param run              the run identifier.
+     * @param status           the run status: started, running or completed.
+     * @param started          the time the evaluation started, in milliseconds since the epoch.
+     * @param updated          the time of the last update, in milliseconds since the epoch.
+     * @param queries          the number of queries completed so far.
+     * @param queriesPerSecond the rate of completed queries.
+     * @param metrics          the mean of each metric, by metric name and version.
+     */
+    public EvaluationProgress(
+            final String run,
+            final String status,
+            final long started,
+            final long updated,
+            final long queries,
+            final double queriesPerSecond,
+            final Map<String, Map<String, BigDecimal>> metrics) {
+        this.run = run;
+        this.status = status;
+        this.started = started;
+        this.updated = updated;
+        this.queries = queries;
+        this.queriesPerSecond = queriesPerSecond;
+        this.metrics = metrics;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.math.BigDecimal;
+
+/**
+ * The difference of a metric value between two runs, for a member of the evaluation hierarchy.
+ * The path of the member (corpus, topic, query group and query) is only as deep as its level.
+ *
+ * @since 1.2
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"corpus", "topic", "query-group", "query", "metric", "version", "base", "other", "delta"})
+public class MetricDelta {
+    public final String corpus;
+    public final String topic;
+    @JsonProperty("query-group")
+    public final String queryGroup;
+    public final String query;
+    public final String metric;
+    public final String version;
+    public final BigDecimal base;
+    public final BigDecimal other;
+    public final BigDecimal delta;
+
+    /**
+     * Builds a new metric delta.
+     *
+     * @param corpus     the corpus name, null for the evaluation.
+     * @param topic      the topic name, null above the topic level.
+     * @param queryGroup the query group name, null above the query group level.
+     * @param query      the query, null above the query level.
+     * @param metric     the metric name.
+     * @param version    the version.
+     * @param base       the metric value in the base run.
+     * @param other      the metric value in the other run.
+     */
+    public MetricDelta(
+            final String corpus,
+            final String topic,
+            final String queryGroup,
+            final String query,
+            final String metric,
+            final String version,
+            final BigDecimal base,
+            final BigDecimal other) {
+        this.corpus = corpus;
+        this.topic = topic;
+        this.queryGroup = queryGroup;
+        this.query = query;
+        this.metric = metric;
+        this.version = version;
+        this.base = base;
+        this.other = other;
+        this.delta = other.subtract(base);
+    }
+}
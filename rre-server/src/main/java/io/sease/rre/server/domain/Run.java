@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.domain;
+
+import java.util.List;
+
+/**
+ * A run: an evaluation kept in the evaluation history.
+ *
+ * @since 1.2
+ */
+public class Run {
+    public final String id;
+    public final String name;
+    public final long timestamp;
+    public final int queries;
+    public final List<String> metrics;
+    public final List<String> versions;
+
+    /**
+     * Builds a new run.
+     *
+     * @param id        the run identifier.
+     * @param name      the evaluation name.
+     * @param timestamp the time the evaluation was received, in milliseconds since the epoch.
+     * @param queries   the number of queries of the evaluation.
+     * @param metrics   the metrics of the evaluation.
+     * @param versions  the versions of the evaluation.
+     */
+    public Run(final String id, final String name, final long timestamp, final int queries, final List<String> metrics, final List<String> versions) {
+        this.id = id;
+        this.name = name;
+        this.timestamp = timestamp;
+        this.queries = queries;
+        this.metrics = metrics;
+        this.versions = versions;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public List<String> getMetrics() {
+        return metrics;
+    }
+
+    public List<String> getVersions() {
+        return versions;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.domain;
+
+import java.util.List;
+
+/**
+ * The comparison of two runs: the metric deltas, largest first, at a given level of the evaluation hierarchy.
+ *
+ * @since 1.2
+ */
+public class RunComparison {
+    public final Run base;
+    public final Run other;
+    public final String level;
+    public final int total;
+    public final List<MetricDelta> deltas;
+
+    /**
+     * Builds a new run comparison.
+     *
+     * @param base   the base run.
+     * @param other  the run compared with the base run.
+     * @param level  the level of the evaluation hierarchy compared.
+     * @param total  the number of deltas found, which can be more than the deltas returned.
+     * @param deltas the (largest) deltas.
+     */
+    public RunComparison(final Run base, final Run other, final String level, final int total, final List<MetricDelta> deltas) {
+        this.base = base;
+        this.other = other;
+        this.level = level;
+        this.total = total;
+        this.deltas = deltas;
+    }
+}
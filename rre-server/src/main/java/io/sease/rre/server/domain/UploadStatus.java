@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.domain;
+
+/**
+ * The state of a chunked evaluation upload.
+ *
+ * @since 1.2
+ */
+public class UploadStatus {
+    public final String id;
+    public final long offset;
+
+    /**
+     * Builds a new upload status.
+     *
+     * @param id     the upload identifier.
+     * @param offset the number of (uncompressed) bytes received so far, i.e. the offset of the next chunk.
+     */
+    public UploadStatus(final String id, final long offset) {
+        this.id = id;
+        this.offset = offset;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
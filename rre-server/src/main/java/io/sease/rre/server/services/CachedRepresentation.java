@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON representation computed once and kept gzipped, with its entity tag, so serving it again costs a copy of the
+ * compressed bytes, or nothing at all when the client already has it.
+ *
+ * The entity tag is the MD5 digest of the JSON content. As the gzipped and the decompressed bodies are different
+ * representations, the gzipped one is tagged with a "-gzip" suffix.
+ *
+ * @since 1.2
+ */
+public class CachedRepresentation {
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-" + GZIP;
+
+    /**
+     * Writes the content of a representation.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final byte[] gzipped;
+    private final String etag;
+    private final String gzipEtag;
+
+    private CachedRepresentation(final byte[] gzipped, final String digest) {
+        this.gzipped = gzipped;
+        this.etag = "\"" + digest + "\"";
+        this.gzipEtag = "\"" + digest + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    /**
+     * Computes a representation.
+     *
+     * @param writer the writer of the representation content.
+     * @return the representation.
+     * @throws IOException if the content can't be written.
+     */
+    public static CachedRepresentation of(final ContentWriter writer) throws IOException {
+        final MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final OutputStream out = new DigestOutputStream(new GZIPOutputStream(bytes), md5)) {
+            writer.write(out);
+        }
+        return new CachedRepresentation(bytes.toByteArray(), hex(md5.digest()));
+    }
+
+    /**
+     * Returns the entity tag of the decompressed representation.
+     *
+     * @return the entity tag of the decompressed representation.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Returns the entity tag of the gzipped representation.
+     *
+     * @return the entity tag of the gzipped representation.
+     */
+    public String getGzipEtag() {
+        return gzipEtag;
+    }
+
+    /**
+     * Returns the size of the (gzipped) representation.
+     *
+     * @return the size of the representation, in bytes.
+     */
+    public int size() {
+        return gzipped.length;
+    }
+
+    /**
+     * Sends the representation, or a 304 (Not Modified) response if the client already has it (i.e. if it sent
+     * its entity tag in If-None-Match). The representation is sent gzipped to the clients which accept it, and
+     * decompressed on the fly for the others.
+     *
+     * @param request  the HTTP request.
+     * @param response the HTTP response.
+     * @throws IOException in case of I/O failure.
+     */
+    public void writeTo(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        final boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        if (new ServletWebRequest(request, response).checkNotModified(gzip ? gzipEtag : etag)) {
+            return;
+        }
+
+        response.setContentType(JSON_CONTENT_TYPE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            response.setContentLength(gzipped.length);
+            response.getOutputStream().write(gzipped);
+        } else {
+            try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                StreamUtils.copy(in, response.getOutputStream());
+            }
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
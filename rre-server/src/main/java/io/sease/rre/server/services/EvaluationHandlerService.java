@@ -21,6 +21,8 @@ import io.sease.rre.core.domain.Evaluation;
 import io.sease.rre.server.domain.EvaluationMetadata;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+
 /**
  * An EvaluationHandlerService can be used to process an incoming evaluation
  * update request. It should extract the relevant details from the request,
@@ -46,6 +48,16 @@ public interface EvaluationHandlerService {
      */
     void processEvaluationRequest(final JsonNode requestData) throws EvaluationHandlerException;
 
+    /**
+     * Update the currently held evaluation data, reading the request from
+     * a stream. This avoids holding the whole request in memory, which is
+     * significant when the request is the evaluation itself.
+     *
+     * @param requestData stream of the incoming data giving details of evaluation.
+     * @throws EvaluationHandlerException if the data cannot be read or processed.
+     */
+    void processEvaluationRequest(final InputStream requestData) throws EvaluationHandlerException;
+
     /**
      * Get the current evaluation data.
      *
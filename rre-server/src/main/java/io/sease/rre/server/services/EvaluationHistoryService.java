@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.server.domain.EvaluationFilter;
+import io.sease.rre.server.domain.MetricDelta;
+import io.sease.rre.server.domain.Run;
+import io.sease.rre.server.domain.RunComparison;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps a bounded history of the evaluations received by the server, so runs can be compared without uploading them
+ * again.
+ *
+ * Each run is stored in the history directory as two files: the evaluation itself (gzipped JSON), and its
+ * {@link RunIndex}, which holds all the metric values of the run and is what comparisons are computed on. Indexes and
+ * evaluations are loaded on demand, and the most recently used ones are kept in a cache bounded by the
+ * evaluation.history.cache-size-mb property. The size of an evaluation in memory is approximated with the size of
+ * its JSON.
+ *
+ * When the history holds more than evaluation.history.max-runs runs, the oldest ones are deleted.
+ *
+ * @since 1.2
+ */
+@Service
+public class EvaluationHistoryService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvaluationHistoryService.class);
+
+    static final String INDEX_EXTENSION = ".index";
+    static final String EVALUATION_EXTENSION = ".json.gz";
+
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ConcurrentSkipListMap<String, Run> runs = new ConcurrentSkipListMap<>();
+    private final EvaluationReader reader;
+    private final boolean enabled;
+    private final File directory;
+    private final int maxRuns;
+    private final RunCache cache;
+    private final ExecutorService recorder;
+
+    /**
+     * Builds the history service, loading the runs already stored in the history directory.
+     *
+     * @param reader      the reader of the stored evaluations.
+     * @param enabled     if false, the evaluations aren't recorded.
+     * @param directory   the history directory.
+     * @param maxRuns     the maximum number of runs kept.
+     * @param cacheSizeMb the maximum memory taken by the cached indexes and evaluations, in megabytes.
+     */
+    public EvaluationHistoryService(
+            final EvaluationReader reader,
+            @Value("${evaluation.history.enabled:true}") final boolean enabled,
+            @Value("${evaluation.history.directory:rre-history}") final String directory,
+            @Value("${evaluation.history.max-runs:30}") final int maxRuns,
+            @Value("${evaluation.history.cache-size-mb:256}") final long cacheSizeMb) {
+        this.reader = reader;
+        this.enabled = enabled;
+        this.directory = new File(directory);
+        this.maxRuns = maxRuns;
+        this.cache = new RunCache(cacheSizeMb * 1024 * 1024);
+        this.recorder = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "rre-history-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (enabled) {
+            final File[] indexes = this.directory.listFiles((dir, name) -> name.endsWith(INDEX_EXTENSION));
+            for (final File index : indexes != null ? indexes : new File[0]) {
+                try {
+                    final Run run = RunIndex.readRun(index);
+                    runs.put(run.id, run);
+                } catch (final IOException exception) {
+                    LOGGER.warn("Skipping unreadable run index {}: {}", index, exception.getMessage());
+                }
+            }
+            LOGGER.info("Evaluation history in {} holds {} runs", this.directory.getAbsolutePath(), runs.size());
+        }
+    }
+
+    /**
+     * Records an evaluation as a new run, in the background: runs are recorded one at a time, in the order they
+     * are submitted.
+     *
+     * @param evaluation the evaluation.
+     * @return the new run, once recorded (see {@link #record(Evaluation)}).
+     */
+    public CompletableFuture<Optional<Run>> recordAsync(final Evaluation evaluation) {
+        return CompletableFuture.supplyAsync(() -> record(evaluation), recorder);
+    }
+
+    /**
+     * Records an evaluation as a new run. Failures are logged, as the history is not essential to serve the
+     * evaluation.
+     *
+     * @param evaluation the evaluation.
+     * @return the new run, empty if the history is disabled or the run couldn't be recorded.
+     */
+    public synchronized Optional<Run> record(final Evaluation evaluation) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        final long timestamp = System.currentTimeMillis();
+        String id = RUN_ID_FORMAT.format(Instant.ofEpochMilli(timestamp));
+        for (int suffix = 1; runs.containsKey(id); suffix++) {
+            id = RUN_ID_FORMAT.format(Instant.ofEpochMilli(timestamp)) + "-" + suffix;
+        }
+
+        try {
+            Files.createDirectories(directory.toPath());
+
+            final File evaluationFile = new File(directory, id + EVALUATION_EXTENSION);
+            final File temporaryEvaluationFile = new File(directory, id + EVALUATION_EXTENSION + ".tmp");
+            final long size;
+            try (final CountingOutputStream out = new CountingOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryEvaluationFile))))) {
+                mapper.writeValue(out, evaluation);
+                size = out.count;
+            }
+            Files.move(temporaryEvaluationFile.toPath(), evaluationFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            // The index is written last: a run exists only once its index does
+            final RunIndex index = RunIndex.of(id, timestamp, evaluation);
+            final File temporaryIndexFile = new File(directory, id + INDEX_EXTENSION + ".tmp");
+            index.write(temporaryIndexFile);
+            Files.move(temporaryIndexFile.toPath(), new File(directory, id + INDEX_EXTENSION).toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            runs.put(id, index.run);
+            cache.put(INDEX_EXTENSION + id, index, index.weight());
+            cache.put(EVALUATION_EXTENSION + id, evaluation, size);
+            LOGGER.info("Recorded evaluation run {} ({} queries)", id, index.run.queries);
+
+            while (runs.size() > maxRuns) {
+                delete(runs.firstKey());
+            }
+            return Optional.of(index.run);
+        } catch (final IOException exception) {
+            LOGGER.error("Unable to record evaluation run {}: {}", id, exception.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the runs in the history, most recent first.
+     *
+     * @return the runs in the history.
+     */
+    public List<Run> getRuns() {
+        return new ArrayList<>(runs.descendingMap().values());
+    }
+
+    /**
+     * Returns the run with the given identifier.
+     *
+     * @param id the run identifier.
+     * @return the run, empty if there's no such run.
+     */
+    public Optional<Run> getRun(final String id) {
+        return Optional.ofNullable(runs.get(id));
+    }
+
+    /**
+     * Returns the evaluation of the given run.
+     *
+     * @param id the run identifier.
+     * @return the evaluation, empty if there's no such run.
+     * @throws IOException if the evaluation can't be read.
+     */
+    public Optional<Evaluation> getEvaluation(final String id) throws IOException {
+        if (!runs.containsKey(id)) {
+            return Optional.empty();
+        }
+
+        final Evaluation cached = cache.get(EVALUATION_EXTENSION + id, Evaluation.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        try (final CountingInputStream in = new CountingInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(new File(directory, id + EVALUATION_EXTENSION)))))) {
+            final Evaluation evaluation = reader.read(in);
+            cache.put(EVALUATION_EXTENSION + id, evaluation, in.count);
+            return Optional.of(evaluation);
+        }
+    }
+
+    /**
+     * Compares the metric values of two runs, at a given level of the evaluation hierarchy. Only the members, metrics
+     * and versions which are in both runs are compared.
+     *
+     * @param baseId    the identifier of the base run.
+     * @param otherId   the identifier of the run compared with the base run.
+     * @param levelName the level of the evaluation hierarchy: evaluation, corpus, topic, group or query.
+     * @param filter    the filter which restricts the members, metrics and versions compared.
+     * @param limit     the maximum number of deltas returned.
+     * @return the comparison, with the largest (absolute) deltas first, empty if any of the runs doesn't exist.
+     * @throws IOException              if the index of a run can't be read.
+     * @throws IllegalArgumentException if the level is not valid.
+     */
+    public Optional<RunComparison> compare(
+            final String baseId,
+            final String otherId,
+            final String levelName,
+            final EvaluationFilter filter,
+            final int limit) throws IOException {
+        final RunIndex.Level level = RunIndex.Level.of(levelName);
+        final RunIndex base = index(baseId);
+        final RunIndex other = index(otherId);
+        if (base == null || other == null) {
+            return Optional.empty();
+        }
+
+        final List<MetricDelta> deltas = new ArrayList<>();
+        for (int member = 0; member < base.members.size(); member++) {
+            final RunIndex.Member baseMember = base.members.get(member);
+            if (baseMember.level != level || !includes(filter, baseMember)) continue;
+
+            final int otherMember = other.position(baseMember);
+            if (otherMember < 0) continue;
+
+            for (final String metric : base.run.metrics) {
+                if (!filter.includesMetric(metric)) continue;
+                for (final String version : base.run.versions) {
+                    if (!filter.includesVersion(version)) continue;
+
+                    final BigDecimal baseValue = base.value(member, metric, version);
+                    final BigDecimal otherValue = other.value(otherMember, metric, version);
+                    if (baseValue != null && otherValue != null) {
+                        deltas.add(new MetricDelta(
+                                baseMember.path(0), baseMember.path(1), baseMember.path(2), baseMember.path(3),
+                                metric, version, baseValue, otherValue));
+                    }
+                }
+            }
+        }
+
+        deltas.sort(Comparator.comparing((MetricDelta delta) -> delta.delta.abs()).reversed());
+        return Optional.of(new RunComparison(
+                base.run,
+                other.run,
+                level.name().toLowerCase(Locale.ROOT),
+                deltas.size(),
+                new ArrayList<>(deltas.subList(0, Math.min(limit, deltas.size())))));
+    }
+
+    private boolean includes(final EvaluationFilter filter, final RunIndex.Member member) {
+        return (member.path(0) == null || filter.includesCorpus(member.path(0)))
+                && (member.path(1) == null || filter.includesTopic(member.path(1)))
+                && (member.path(2) == null || filter.includesQueryGroup(member.path(2)));
+    }
+
+    private RunIndex index(final String id) throws IOException {
+        if (!runs.containsKey(id)) {
+            return null;
+        }
+
+        RunIndex index = cache.get(INDEX_EXTENSION + id, RunIndex.class);
+        if (index == null) {
+            index = RunIndex.read(new File(directory, id + INDEX_EXTENSION));
+            cache.put(INDEX_EXTENSION + id, index, index.weight());
+        }
+        return index;
+    }
+
+    private void delete(final String id) {
+        runs.remove(id);
+        cache.remove(INDEX_EXTENSION + id);
+        cache.remove(EVALUATION_EXTENSION + id);
+        for (final String extension : new String[]{INDEX_EXTENSION, EVALUATION_EXTENSION}) {
+            final File file = new File(directory, id + extension);
+            if (file.exists() && !file.delete()) {
+                LOGGER.warn("Unable to delete {}", file);
+            }
+        }
+        LOGGER.info("Deleted evaluation run {}", id);
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = in.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
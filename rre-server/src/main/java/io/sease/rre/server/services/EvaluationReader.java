@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.sease.rre.core.domain.*;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.server.domain.StaticMetric;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds an {@link Evaluation} from its JSON representation (as produced by the JSON persistence handler), one token
+ * at a time, so the whole document is never held in memory as a tree: the only data retained is the evaluation model
+ * itself.
+ *
+ * Hits are the bulk of an evaluation, and they are only needed by the query detail views: they can be skipped with
+ * the evaluation.retain-hits property, in which case only the total hits of each query version are kept.
+ *
+ * The reader doesn't rely on the order of the fields. Anyway, when the children of a member (e.g. the topics of a
+ * corpus) come before its name, they are buffered until the name is found, so streaming is effective only when
+ * names come first - which is what the JSON persistence handler does.
+ *
+ * @since 1.2
+ */
+@Component
+public class EvaluationReader {
+
+    @FunctionalInterface
+    private interface FieldReader<M> {
+        void read(JsonParser parser, M member) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+        void read() throws IOException;
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final boolean retainHits;
+
+    /**
+     * Builds a new reader.
+     *
+     * @param retainHits if false, the hits of the queries are skipped.
+     */
+    public EvaluationReader(@Value("${evaluation.retain-hits:true}") final boolean retainHits) {
+        this.retainHits = retainHits;
+    }
+
+    /**
+     * Reads an evaluation from the given stream.
+     *
+     * @param in the stream of the JSON evaluation.
+     * @return the evaluation.
+     * @throws IOException in case of I/O failure, or if the JSON is not a valid evaluation.
+     */
+    public Evaluation read(final InputStream in) throws IOException {
+        try (final JsonParser parser = mapper.getFactory().createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Reads an evaluation from the given parser.
+     *
+     * @param parser the parser of the JSON evaluation, positioned before or at its start.
+     * @return the evaluation.
+     * @throws IOException in case of I/O failure, or if the JSON is not a valid evaluation.
+     */
+    public Evaluation read(final JsonParser parser) throws IOException {
+        if (parser.getCodec() == null) {
+            parser.setCodec(mapper);
+        }
+        if (!parser.hasCurrentToken()) {
+            parser.nextToken();
+        }
+        if (!parser.isExpectedStartObjectToken()) {
+            throw new JsonParseException(parser, "Expected an evaluation object");
+        }
+
+        final Evaluation evaluation = new Evaluation();
+        member(parser, "name", name -> (Evaluation) evaluation.setName(name),
+                Collections.singletonMap("corpora", this::corpora));
+        return evaluation;
+    }
+
+    private void corpora(final JsonParser parser, final Evaluation evaluation) throws IOException {
+        array(parser, () -> member(parser, "name", name -> evaluation.findOrCreate(name, Corpus::new),
+                Collections.singletonMap("topics", this::topics)));
+    }
+
+    private void topics(final JsonParser parser, final Corpus corpus) throws IOException {
+        array(parser, () -> member(parser, "name", name -> corpus.findOrCreate(name, Topic::new),
+                Collections.singletonMap("query-groups", this::queryGroups)));
+    }
+
+    private void queryGroups(final JsonParser parser, final Topic topic) throws IOException {
+        array(parser, () -> member(parser, "name", name -> topic.findOrCreate(name, QueryGroup::new),
+                Collections.singletonMap("query-evaluations", this::queries)));
+    }
+
+    private void queries(final JsonParser parser, final QueryGroup group) throws IOException {
+        array(parser, () -> member(parser, "query", name -> group.findOrCreate(name, Query::new),
+                Collections.singletonMap("results", this::results)));
+    }
+
+    private void results(final JsonParser parser, final Query query) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final MutableQueryOrSearchResponse response =
+                    query.getResults().computeIfAbsent(parser.getCurrentName(), version -> new MutableQueryOrSearchResponse());
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("total-hits".equals(field)) {
+                    response.setTotalHits(parser.getValueAsLong(), null);
+                } else if ("hits".equals(field) && retainHits && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        @SuppressWarnings("unchecked") final Map<String, Object> hit = parser.readValueAs(Map.class);
+                        response.collect(hit, -1, null);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a domain member object: its name, its metrics and the fields which have a dedicated reader (i.e. its
+     * children). The member is created (and attached to its parent) as soon as its name is found; the metrics and
+     * the children found before are buffered until then.
+     *
+     * @param parser    the parser, positioned at the start of the member object.
+     * @param nameField the name of the field which holds the member name.
+     * @param factory   creates the member with the given name.
+     * @param readers   the readers of the other fields of the member, by field name.
+     */
+    private <M extends DomainMember<?>> void member(
+            final JsonParser parser,
+            final String nameField,
+            final Function<String, M> factory,
+            final Map<String, FieldReader<M>> readers) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        M member = null;
+        Map<String, Metric> metrics = null;
+        Map<String, TokenBuffer> pending = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+
+            if (nameField.equals(field)) {
+                member = factory.apply(parser.getValueAsString());
+                if (metrics != null) {
+                    member.getMetrics().putAll(metrics);
+                }
+                if (pending != null) {
+                    for (final Map.Entry<String, TokenBuffer> entry : pending.entrySet()) {
+                        try (final JsonParser buffered = entry.getValue().asParser(parser.getCodec())) {
+                            buffered.nextToken();
+                            readers.get(entry.getKey()).read(buffered, member);
+                        }
+                    }
+                }
+            } else if ("metrics".equals(field)) {
+                if (member == null) {
+                    metrics = new LinkedHashMap<>();
+                    metrics(parser, metrics);
+                } else {
+                    metrics(parser, member.getMetrics());
+                }
+            } else if (readers.containsKey(field)) {
+                if (member == null) {
+                    final TokenBuffer buffer = new TokenBuffer(parser);
+                    buffer.copyCurrentStructure(parser);
+                    if (pending == null) {
+                        pending = new LinkedHashMap<>();
+                    }
+                    pending.put(field, buffer);
+                } else {
+                    readers.get(field).read(parser, member);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (member == null) {
+            throw new JsonParseException(parser, "Missing \"" + nameField + "\" field");
+        }
+    }
+
+    /**
+     * Reads a {"metric name": {"versions": {"version": {"value": value}}}} object.
+     */
+    private void metrics(final JsonParser parser, final Map<String, Metric> target) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final StaticMetric metric = new StaticMetric(parser.getCurrentName());
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String field = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_OBJECT && "versions".equals(field)) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            final String version = parser.getCurrentName();
+                            parser.nextToken();
+                            final BigDecimal value = value(parser);
+                            if (value != null) {
+                                metric.collect(version, value);
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            target.put(metric.getName(), metric);
+        }
+    }
+
+    /**
+     * Reads a {"value": value} object.
+     */
+    private BigDecimal value(final JsonParser parser) throws IOException {
+        BigDecimal value = null;
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("value".equals(field)) {
+                    value = new BigDecimal(parser.getValueAsDouble()).setScale(4, RoundingMode.CEILING);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return value;
+    }
+
+    /**
+     * Reads each element of an array with the given reader, which is called with the parser positioned at the
+     * start of the element.
+     */
+    private void array(final JsonParser parser, final ElementReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == null) {
+                throw new JsonParseException(parser, "Unexpected end of input");
+            }
+            reader.read();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.server.domain.EvaluationFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the JSON representations of evaluations: the whole evaluation and its summaries. An evaluation isn't
+ * modified once it has been built, so its representations are valid for as long as the evaluation exists, and
+ * replacing the evaluation is all it takes to invalidate them. The representations are held weakly by their
+ * evaluation, so they go away with it.
+ *
+ * At most {@link #MAX_VIEWS} representations are kept for each evaluation (the least recently used ones are evicted),
+ * as the summary can be requested with any combination of filters.
+ *
+ * @since 1.2
+ */
+@Service
+public class EvaluationRepresentationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvaluationRepresentationCache.class);
+
+    static final int MAX_VIEWS = 64;
+
+    private static final String EVALUATION_VIEW = "evaluation";
+    private static final String SUMMARY_VIEW = "summary";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Evaluation, Map<String, CachedRepresentation>> representations = new WeakHashMap<>();
+
+    private final EvaluationWriter evaluationWriter;
+
+    @Autowired
+    public EvaluationRepresentationCache(final EvaluationWriter evaluationWriter) {
+        this.evaluationWriter = evaluationWriter;
+    }
+
+    /**
+     * Returns the representation of the whole evaluation.
+     *
+     * @param evaluation the evaluation.
+     * @return the representation of the evaluation.
+     * @throws IOException if the representation can't be computed.
+     */
+    public CachedRepresentation evaluation(final Evaluation evaluation) throws IOException {
+        return get(evaluation, EVALUATION_VIEW, out -> mapper.writeValue(out, evaluation));
+    }
+
+    /**
+     * Returns the representation of the summary of an evaluation (see {@link EvaluationWriter#writeSummary}).
+     *
+     * @param evaluation the evaluation.
+     * @param filter     the summary filter.
+     * @return the representation of the summary.
+     * @throws IOException if the representation can't be computed.
+     */
+    public CachedRepresentation summary(final Evaluation evaluation, final EvaluationFilter filter) throws IOException {
+        return get(evaluation, SUMMARY_VIEW + filter.key(), out -> evaluationWriter.writeSummary(evaluation, filter, out));
+    }
+
+    /**
+     * Computes the representations which are requested the most - the whole evaluation and its unfiltered summary -
+     * so they are ready before the evaluation is served.
+     *
+     * @param evaluation the evaluation.
+     */
+    public void precompute(final Evaluation evaluation) {
+        try {
+            final long start = System.currentTimeMillis();
+            final CachedRepresentation representation = evaluation(evaluation);
+            summary(evaluation, EvaluationFilter.NONE);
+            LOGGER.debug("Evaluation representations computed in {} ms ({} bytes gzipped)",
+                    System.currentTimeMillis() - start, representation.size());
+        } catch (final IOException exception) {
+            LOGGER.error("Unable to compute the evaluation representations: {}", exception.getMessage());
+        }
+    }
+
+    private CachedRepresentation get(
+            final Evaluation evaluation,
+            final String view,
+            final CachedRepresentation.ContentWriter writer) throws IOException {
+        final Map<String, CachedRepresentation> views;
+        synchronized (representations) {
+            views = representations.computeIfAbsent(evaluation, key -> Collections.synchronizedMap(
+                    new LinkedHashMap<String, CachedRepresentation>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(final Map.Entry<String, CachedRepresentation> eldest) {
+                            return size() > MAX_VIEWS;
+                        }
+                    }));
+        }
+
+        final CachedRepresentation cached = views.get(view);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Computed outside of any lock: concurrent requests may both compute a missing representation, which is harmless
+        final CachedRepresentation representation = CachedRepresentation.of(writer);
+        views.put(view, representation);
+        return representation;
+    }
+}
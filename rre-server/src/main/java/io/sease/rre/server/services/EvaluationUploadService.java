@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.server.domain.UploadStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Receives an evaluation in chunks, so that large evaluations can be sent in several (compressed) requests, and an
+ * interrupted upload can be resumed from the last chunk received rather than from scratch.
+ *
+ * Chunks are appended to a file, and the evaluation is read from that file while it grows: by the time the last chunk
+ * arrives, the evaluation has already been built, and completing the upload only swaps it in. A chunk which isn't
+ * valid evaluation data fails the upload as soon as it is read.
+ *
+ * Uploads which are neither completed nor updated within the expiry time are discarded.
+ *
+ * @since 1.2
+ */
+@Service
+public class EvaluationUploadService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvaluationUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * An upload in progress. Its state is guarded by the upload itself, which is also notified whenever data is
+     * appended or the state changes.
+     */
+    private static class Upload {
+        private final String id;
+        private final File file;
+        private final OutputStream out;
+
+        private long offset;
+        private boolean writing;
+        private boolean complete;
+        private boolean aborted;
+        private long lastAccess = System.currentTimeMillis();
+        private Future<Evaluation> evaluation;
+
+        private Upload(final String id, final File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.out = new FileOutputStream(file);
+        }
+
+        private UploadStatus status() {
+            return new UploadStatus(id, offset);
+        }
+    }
+
+    /**
+     * Reads the data of an upload, as it is appended: at the end of the data received so far, reading blocks until
+     * the next chunk, or until the upload is completed (end of stream) or aborted (failure).
+     */
+    private static class UploadInputStream extends InputStream {
+        private final Upload upload;
+        private final RandomAccessFile file;
+        private long position;
+
+        private UploadInputStream(final Upload upload) throws IOException {
+            this.upload = upload;
+            this.file = new RandomAccessFile(upload.file, "r");
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+
+            final int available;
+            synchronized (upload) {
+                while (position >= upload.offset && !upload.complete && !upload.aborted) {
+                    try {
+                        upload.wait();
+                    } catch (final InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for upload " + upload.id);
+                    }
+                }
+
+                if (upload.aborted) {
+                    throw new IOException("Upload " + upload.id + " has been aborted");
+                }
+                if (position >= upload.offset) {
+                    return -1;
+                }
+                available = (int) Math.min(length, upload.offset - position);
+            }
+
+            file.seek(position);
+            final int read = file.read(buffer, offset, available);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final ExecutorService readers;
+
+    private final EvaluationReader reader;
+    private final HttpEvaluationHandlerService evaluationHandler;
+    private final File directory;
+    private final int maxActive;
+    private final long expiryMs;
+
+    /**
+     * Builds the upload service.
+     *
+     * @param reader            the reader of the uploaded evaluations.
+     * @param evaluationHandler the handler which the completed evaluations are passed to.
+     * @param directory         the directory where the uploads are assembled.
+     * @param maxActive         the maximum number of uploads in progress.
+     * @param expiryMs          the time after which an upload which is not updated is discarded.
+     */
+    public EvaluationUploadService(
+            final EvaluationReader reader,
+            final HttpEvaluationHandlerService evaluationHandler,
+            @Value("${evaluation.upload.directory:rre-uploads}") final String directory,
+            @Value("${evaluation.upload.max-active:4}") final int maxActive,
+            @Value("${evaluation.upload.expiry-ms:3600000}") final long expiryMs) {
+        this.reader = reader;
+        this.evaluationHandler = evaluationHandler;
+        this.directory = new File(directory);
+        this.maxActive = maxActive;
+        this.expiryMs = expiryMs;
+
+        final AtomicInteger threads = new AtomicInteger();
+        this.readers = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "rre-upload-reader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a new upload.
+     *
+     * @return the status of the new upload.
+     * @throws EvaluationHandlerException if too many uploads are in progress, or the upload file can't be created.
+     */
+    public UploadStatus create() throws EvaluationHandlerException {
+        expire();
+        if (uploads.size() >= maxActive) {
+            throw new EvaluationHandlerException("Too many uploads in progress (" + uploads.size() + ")");
+        }
+
+        final Upload upload;
+        try {
+            directory.mkdirs();
+            final String id = UUID.randomUUID().toString();
+            upload = new Upload(id, new File(directory, id + ".json"));
+            final InputStream in = new UploadInputStream(upload);
+            upload.evaluation = readers.submit(() -> reader.read(in));
+        } catch (final IOException exception) {
+            throw new EvaluationHandlerException("Unable to create the upload", exception);
+        }
+
+        uploads.put(upload.id, upload);
+        LOGGER.info("Evaluation upload {} started", upload.id);
+        return upload.status();
+    }
+
+    /**
+     * Returns the status of an upload.
+     *
+     * @param id the upload identifier.
+     * @return the status of the upload, or empty if it doesn't exist.
+     */
+    public Optional<UploadStatus> status(final String id) {
+        return Optional.ofNullable(uploads.get(id)).map(upload -> {
+            synchronized (upload) {
+                return upload.status();
+            }
+        });
+    }
+
+    /**
+     * Appends a chunk to an upload. If the chunk is interrupted, the data received until then is kept, and the
+     * upload can be resumed from its current offset.
+     *
+     * @param id     the upload identifier.
+     * @param offset the offset of the chunk, which must be the current offset of the upload.
+     * @param data   the (uncompressed) chunk data.
+     * @return the status of the upload, or empty if it doesn't exist.
+     * @throws UploadConflictException    if the offset is not the current offset, or another chunk is being received.
+     * @throws EvaluationHandlerException if the data received is not a valid evaluation (the upload is discarded).
+     * @throws IOException                in case of I/O failure while receiving the chunk.
+     */
+    public Optional<UploadStatus> append(final String id, final long offset, final InputStream data)
+            throws UploadConflictException, EvaluationHandlerException, IOException {
+        expire();
+        final Upload upload = uploads.get(id);
+        if (upload == null) {
+            return Optional.empty();
+        }
+
+        synchronized (upload) {
+            if (upload.writing || upload.complete || upload.offset != offset) {
+                throw new UploadConflictException("Expected a chunk at offset " + upload.offset, upload.offset);
+            }
+            upload.writing = true;
+        }
+
+        try {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                checkReadable(upload);
+                upload.out.write(buffer, 0, read);
+                synchronized (upload) {
+                    upload.offset += read;
+                    upload.lastAccess = System.currentTimeMillis();
+                    upload.notifyAll();
+                }
+            }
+        } finally {
+            synchronized (upload) {
+                upload.writing = false;
+            }
+        }
+
+        checkReadable(upload);
+        synchronized (upload) {
+            return Optional.of(upload.status());
+        }
+    }
+
+    /**
+     * Completes an upload: the evaluation replaces the current one.
+     *
+     * @param id     the upload identifier.
+     * @param length the total length of the (uncompressed) evaluation data.
+     * @return the status of the upload, or empty if it doesn't exist.
+     * @throws UploadConflictException    if not all the data has been received.
+     * @throws EvaluationHandlerException if the data received is not a valid evaluation.
+     */
+    public Optional<UploadStatus> complete(final String id, final long length)
+            throws UploadConflictException, EvaluationHandlerException {
+        final Upload upload = uploads.get(id);
+        if (upload == null) {
+            return Optional.empty();
+        }
+
+        synchronized (upload) {
+            if (upload.writing || upload.offset != length) {
+                throw new UploadConflictException("Expected " + length + " bytes, received " + upload.offset, upload.offset);
+            }
+            upload.complete = true;
+            upload.notifyAll();
+        }
+
+        try {
+            evaluationHandler.setEvaluation(upload.evaluation.get());
+            LOGGER.info("Evaluation upload {} completed ({} bytes)", id, length);
+            return Optional.of(upload.status());
+        } catch (final ExecutionException exception) {
+            LOGGER.warn("Evaluation upload {} is not a valid evaluation: {}", id, exception.getCause().getMessage());
+            throw new EvaluationHandlerException("Unable to read the evaluation data", exception.getCause());
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new EvaluationHandlerException("Interrupted while reading the evaluation data", exception);
+        } finally {
+            discard(upload);
+        }
+    }
+
+    /**
+     * Aborts an upload, discarding the data received.
+     *
+     * @param id the upload identifier.
+     * @return false if the upload doesn't exist.
+     */
+    public boolean abort(final String id) {
+        final Upload upload = uploads.get(id);
+        if (upload != null) {
+            discard(upload);
+            LOGGER.info("Evaluation upload {} aborted", id);
+        }
+        return upload != null;
+    }
+
+    /**
+     * Fails (and discards) the upload if the data received so far is not a valid evaluation.
+     */
+    private void checkReadable(final Upload upload) throws EvaluationHandlerException {
+        if (upload.evaluation.isDone()) {
+            try {
+                upload.evaluation.get();
+            } catch (final ExecutionException exception) {
+                LOGGER.warn("Evaluation upload {} is not a valid evaluation: {}", upload.id, exception.getCause().getMessage());
+                discard(upload);
+                throw new EvaluationHandlerException("Unable to read the evaluation data", exception.getCause());
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new EvaluationHandlerException("Interrupted while reading the evaluation data", exception);
+            }
+        }
+    }
+
+    private void discard(final Upload upload) {
+        uploads.remove(upload.id, upload);
+        synchronized (upload) {
+            if (!upload.complete) {
+                upload.aborted = true;
+            }
+            upload.notifyAll();
+        }
+
+        try {
+            upload.out.close();
+        } catch (final IOException exception) {
+            LOGGER.warn("Unable to close upload {}", upload.id, exception);
+        }
+        if (!upload.file.delete()) {
+            LOGGER.warn("Unable to delete upload file {}", upload.file);
+        }
+    }
+
+    /**
+     * Discards the uploads which have not been updated within the expiry time.
+     */
+    private void expire() {
+        final long now = System.currentTimeMillis();
+        uploads.values().forEach(upload -> {
+            final boolean expired;
+            synchronized (upload) {
+                expired = !upload.writing && !upload.complete && now - upload.lastAccess > expiryMs;
+            }
+            if (expired) {
+                LOGGER.info("Evaluation upload {} expired", upload.id);
+                discard(upload);
+            }
+        });
+    }
+}
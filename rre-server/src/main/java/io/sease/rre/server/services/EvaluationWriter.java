@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.core.domain.*;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.core.domain.metrics.ValueFactory;
+import io.sease.rre.server.domain.EvaluationFilter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams (parts of) an evaluation as JSON, straight to an output stream, without building an intermediate tree.
+ * It backs the lightweight endpoints used by the dashboard for loading the evaluation lazily:
+ *
+ * <ul>
+ * <li>the summary, which is the evaluation metadata (metrics and versions) and the evaluation hierarchy down to the
+ * query groups, with their aggregate metrics only;</li>
+ * <li>the query pages, which are the queries of the evaluation, in hierarchy order, a page at a time.</li>
+ * </ul>
+ *
+ * Query pages are addressed by an opaque cursor, which is the position of the first query of the page amongst the
+ * queries matching the same filter.
+ *
+ * @since 1.2
+ */
+@Component
+public class EvaluationWriter {
+    private final JsonFactory factory = new ObjectMapper().getFactory();
+
+    /**
+     * Writes the summary of the given evaluation.
+     *
+     * @param evaluation the evaluation.
+     * @param filter     the filter which restricts the corpora, topics, query groups, metrics and versions written.
+     * @param out        the output stream.
+     * @throws IOException in case of I/O failure.
+     */
+    public void writeSummary(final Evaluation evaluation, final EvaluationFilter filter, final OutputStream out) throws IOException {
+        try (final JsonGenerator generator = factory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("name", evaluation.getName());
+
+            final Set<String> versions = new LinkedHashSet<>();
+            generator.writeObjectFieldStart("metadata");
+            generator.writeArrayFieldStart("metrics");
+            for (final Metric metric : evaluation.getMetrics().values()) {
+                if (filter.includesMetric(metric.getName())) {
+                    generator.writeString(metric.getName());
+                    metric.getVersions().keySet().stream().filter(filter::includesVersion).forEach(versions::add);
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("versions");
+            for (final String version : versions) {
+                generator.writeString(version);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            writeMetrics(generator, evaluation, filter);
+
+            generator.writeArrayFieldStart("corpora");
+            for (final Corpus corpus : evaluation.getChildren()) {
+                if (!filter.includesCorpus(corpus.getName())) continue;
+                generator.writeStartObject();
+                generator.writeStringField("name", corpus.getName());
+                writeMetrics(generator, corpus, filter);
+
+                generator.writeArrayFieldStart("topics");
+                for (final Topic topic : corpus.getChildren()) {
+                    if (!filter.includesTopic(topic.getName())) continue;
+                    generator.writeStartObject();
+                    generator.writeStringField("name", topic.getName());
+                    writeMetrics(generator, topic, filter);
+
+                    generator.writeArrayFieldStart("query-groups");
+                    for (final QueryGroup group : topic.getChildren()) {
+                        if (!filter.includesQueryGroup(group.getName())) continue;
+                        generator.writeStartObject();
+                        generator.writeStringField("name", group.getName());
+                        writeMetrics(generator, group, filter);
+                        generator.writeNumberField("query-count", group.getChildren().size());
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes a page of queries of the given evaluation, followed by the cursor of the next page (null if this is the
+     * last page).
+     *
+     * @param evaluation  the evaluation.
+     * @param filter      the filter which restricts the queries, metrics and versions written.
+     * @param position    the position of the first query of the page (see {@link #decodeCursor(String)}).
+     * @param limit       the maximum number of queries in the page.
+     * @param includeHits if true, the results (total hits and hits, for each version) of the queries are written too.
+     * @param out         the output stream.
+     * @throws IOException in case of I/O failure.
+     */
+    public void writeQueries(
+            final Evaluation evaluation,
+            final EvaluationFilter filter,
+            final long position,
+            final int limit,
+            final boolean includeHits,
+            final OutputStream out) throws IOException {
+        try (final JsonGenerator generator = factory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+
+            long offset = 0;
+            int written = 0;
+            Long next = null;
+
+            pages:
+            for (final Corpus corpus : evaluation.getChildren()) {
+                if (!filter.includesCorpus(corpus.getName())) continue;
+                for (final Topic topic : corpus.getChildren()) {
+                    if (!filter.includesTopic(topic.getName())) continue;
+                    for (final QueryGroup group : topic.getChildren()) {
+                        if (!filter.includesQueryGroup(group.getName())) continue;
+
+                        final List<Query> queries = group.getChildren();
+                        final int size = queries.size();
+                        // Whole groups before the cursor are skipped without visiting their queries
+                        for (int index = (int) Math.min(size, Math.max(0, position - offset)); index < size; index++) {
+                            if (written == limit) {
+                                next = offset + index;
+                                break pages;
+                            }
+                            writeQuery(generator, corpus, topic, group, queries.get(index), filter, includeHits);
+                            written++;
+                        }
+                        offset += size;
+                    }
+                }
+            }
+            generator.writeEndArray();
+
+            if (next != null) {
+                generator.writeStringField("next-cursor", encodeCursor(next));
+            } else {
+                generator.writeNullField("next-cursor");
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Returns the opaque cursor which addresses the page starting at the given position.
+     *
+     * @param position the position of the first query of the page.
+     * @return the cursor.
+     */
+    public static String encodeCursor(final long position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the position addressed by the given cursor.
+     *
+     * @param cursor the cursor, null for the first page.
+     * @return the position of the first query of the page.
+     * @throws IllegalArgumentException if the cursor is not valid.
+     */
+    public static long decodeCursor(final String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+
+        final long position;
+        try {
+            position = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (final IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        if (position < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return position;
+    }
+
+    private void writeQuery(
+            final JsonGenerator generator,
+            final Corpus corpus,
+            final Topic topic,
+            final QueryGroup group,
+            final Query query,
+            final EvaluationFilter filter,
+            final boolean includeHits) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("corpus", corpus.getName());
+        generator.writeStringField("topic", topic.getName());
+        generator.writeStringField("query-group", group.getName());
+        generator.writeStringField("query", query.getName());
+        writeMetrics(generator, query, filter);
+
+        if (includeHits) {
+            generator.writeObjectFieldStart("results");
+            for (final Map.Entry<String, MutableQueryOrSearchResponse> entry : query.getResults().entrySet()) {
+                if (!filter.includesVersion(entry.getKey())) continue;
+                generator.writeObjectFieldStart(entry.getKey());
+                generator.writeNumberField("total-hits", entry.getValue().totalHits());
+                generator.writeFieldName("hits");
+                generator.writeObject(entry.getValue().hits());
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the metrics of a domain member, as a {"metric name": {"version": value}} object.
+     */
+    private void writeMetrics(final JsonGenerator generator, final DomainMember<?> member, final EvaluationFilter filter) throws IOException {
+        generator.writeObjectFieldStart("metrics");
+        for (final Metric metric : member.getMetrics().values()) {
+            if (!filter.includesMetric(metric.getName())) continue;
+            generator.writeObjectFieldStart(metric.getName());
+            for (final Map.Entry<String, ValueFactory> entry : metric.getVersions().entrySet()) {
+                if (!filter.includesVersion(entry.getKey())) continue;
+                final BigDecimal value = entry.getValue().value();
+                generator.writeFieldName(entry.getKey());
+                if (value != null) {
+                    generator.writeNumber(value);
+                } else {
+                    generator.writeNull();
+                }
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+}
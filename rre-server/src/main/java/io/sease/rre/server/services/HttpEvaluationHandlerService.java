@@ -18,124 +18,125 @@ package io.sease.rre.server.services;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.sease.rre.core.domain.*;
+import io.sease.rre.core.domain.Evaluation;
 import io.sease.rre.server.domain.EvaluationMetadata;
-import io.sease.rre.server.domain.StaticMetric;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-
-import static java.util.stream.StreamSupport.stream;
 
 /**
  * Implementation of the evaluation manager service which will extract a
  * complete Evaluation object from the request data.
  *
+ * The evaluation is read incrementally from the request stream, and swapped
+ * in, together with its metadata, only once it has been completely built:
+ * until then, the previous evaluation is still served. Its most requested
+ * representations are computed before the swap, so they are ready when it
+ * is first served. Each evaluation is also recorded in the evaluation history,
+ * in the background.
+ *
  * @author Matt Pearce (matt@flax.co.uk)
  */
 @Service
 @Profile({"http", "default"})
 public class HttpEvaluationHandlerService implements EvaluationHandlerService {
 
+    /**
+     * An evaluation and its metadata, which are always replaced together.
+     */
+    private static class Snapshot {
+        private final Evaluation evaluation;
+        private final EvaluationMetadata metadata;
+
+        private Snapshot(final Evaluation evaluation, final EvaluationMetadata metadata) {
+            this.evaluation = evaluation;
+            this.metadata = metadata;
+        }
+    }
+
     private final ObjectMapper mapper = new ObjectMapper();
+    private final EvaluationReader reader;
+    private final EvaluationHistoryService history;
+    private final EvaluationRepresentationCache representations;
 
-    private Evaluation evaluation = new Evaluation();
-    private EvaluationMetadata metadata = new EvaluationMetadata(Collections.emptyList(), Collections.emptyList());
+    private volatile Snapshot snapshot = new Snapshot(
+            new Evaluation(),
+            new EvaluationMetadata(Collections.emptyList(), Collections.emptyList()));
+
+    /**
+     * Builds the evaluation handler.
+     *
+     * @param reader          the reader of the evaluation data.
+     * @param history         the history which records each evaluation.
+     * @param representations the cache of the evaluation representations.
+     */
+    @Autowired
+    public HttpEvaluationHandlerService(
+            final EvaluationReader reader,
+            final EvaluationHistoryService history,
+            final EvaluationRepresentationCache representations) {
+        this.reader = reader;
+        this.history = history;
+        this.representations = representations;
+    }
 
     @Override
     public void processEvaluationRequest(final JsonNode requestData) throws EvaluationHandlerException {
-        evaluation = make(requestData);
+        setEvaluation(make(requestData));
+    }
+
+    @Override
+    public void processEvaluationRequest(final InputStream requestData) throws EvaluationHandlerException {
+        try {
+            setEvaluation(reader.read(requestData));
+        } catch (final IOException exception) {
+            throw new EvaluationHandlerException("Unable to read the evaluation data", exception);
+        }
     }
 
     @Override
     public Evaluation getEvaluation() {
-        return evaluation;
+        return snapshot.evaluation;
     }
 
     @Override
     public EvaluationMetadata getEvaluationMetadata() {
-        return metadata;
+        return snapshot.metadata;
     }
 
     void setEvaluation(Evaluation eval) {
-        this.evaluation = eval;
-        this.metadata = extractEvaluationMetadata(eval);
+        representations.precompute(eval);
+        this.snapshot = new Snapshot(eval, extractEvaluationMetadata(eval));
+        history.recordAsync(eval);
     }
 
     ObjectMapper getMapper() {
         return mapper;
     }
 
+    EvaluationReader getReader() {
+        return reader;
+    }
+
     /**
      * Creates an evaluation object from the input JSON data.
      *
      * @param data the JSON payload.
      * @return a session evaluation instance.
+     * @throws EvaluationHandlerException if the data is not a valid evaluation.
      */
-    protected Evaluation make(final JsonNode data) {
-        final Evaluation evaluation = new Evaluation();
-        evaluation.setName(data.get("name").asText());
-
-        metrics(data, evaluation);
-
-        data.get("corpora").iterator().forEachRemaining(corpusNode -> {
-            final String cname = corpusNode.get("name").asText();
-            final Corpus corpus = evaluation.findOrCreate(cname, Corpus::new);
-
-            metrics(corpusNode, corpus);
-
-            corpusNode.get("topics").iterator().forEachRemaining(topicNode -> {
-                final String tname = topicNode.get("name").asText();
-                final Topic topic = corpus.findOrCreate(tname, Topic::new);
-                metrics(topicNode, topic);
-
-                topicNode.get("query-groups").iterator().forEachRemaining(groupNode -> {
-                    final String gname = groupNode.get("name").asText();
-                    final QueryGroup group = topic.findOrCreate(gname, QueryGroup::new);
-                    metrics(groupNode, group);
-
-                    groupNode.get("query-evaluations").iterator().forEachRemaining(queryNode -> {
-                        final String qename = queryNode.get("query").asText();
-                        final Query q = group.findOrCreate(qename, Query::new);
-                        metrics(queryNode, q);
-
-
-                        queryNode.get("results").fields().forEachRemaining(resultsEntry -> {
-                            final MutableQueryOrSearchResponse versionedResponse =
-                                    q.getResults().computeIfAbsent(
-                                            resultsEntry.getKey(),
-                                            version -> new MutableQueryOrSearchResponse());
-
-                            JsonNode content = resultsEntry.getValue();
-                            versionedResponse.setTotalHits(content.get("total-hits").asLong(), null);
-
-                            stream(content.get("hits").spliterator(), false)
-                                    .map(hit -> mapper.convertValue(hit, Map.class))
-                                    .forEach(hit -> versionedResponse.collect(hit, -1, null));
-                        });
-                    });
-                });
-            });
-        });
-
-        return evaluation;
-    }
-
-    private void metrics(final JsonNode data, final DomainMember parent) {
-        data.get("metrics").fields().forEachRemaining(entry -> {
-            final StaticMetric metric = new StaticMetric(entry.getKey());
-
-            entry.getValue().get("versions").fields().forEachRemaining(vEntry -> {
-                metric.collect(vEntry.getKey(), new BigDecimal(vEntry.getValue().get("value").asDouble()).setScale(4, RoundingMode.CEILING));
-            });
-            parent.getMetrics().put(metric.getName(), metric);
-        });
+    protected Evaluation make(final JsonNode data) throws EvaluationHandlerException {
+        try {
+            return reader.read(mapper.treeAsTokens(data));
+        } catch (final IOException exception) {
+            throw new EvaluationHandlerException("Unable to read the evaluation data", exception);
+        }
     }
 
     /**
@@ -145,6 +146,10 @@ public class HttpEvaluationHandlerService implements EvaluationHandlerService {
      * @return the evaluation metadata.
      */
     public static EvaluationMetadata extractEvaluationMetadata(final Evaluation evaluation) {
+        if (evaluation.getChildren().isEmpty() || evaluation.getChildren().get(0).getMetrics().isEmpty()) {
+            return new EvaluationMetadata(Collections.emptyList(), Collections.emptyList());
+        }
+
         final List<String> metrics = new ArrayList<>(
                 evaluation.getChildren()
                         .iterator().next()
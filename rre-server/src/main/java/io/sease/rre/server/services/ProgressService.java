@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.server.domain.EvaluationProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks the progress of the running evaluation, from the batches of completed queries posted by the RRE Server
+ * persistence handler, and pushes it to the subscribed consoles as Server-Sent Events.
+ *
+ * Events are never sent by the thread which receives a batch, so a slow console can't slow down the evaluation.
+ * Each subscriber has its own sender, which runs only while the subscriber has a pending event, so a stalled console
+ * can't hold up the others either. Each subscriber holds at most one pending event: if a new snapshot arrives before
+ * the previous one has been sent, the previous one is dropped, as the new one supersedes it.
+ *
+ * @since 1.2
+ */
+@Service
+public class ProgressService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressService.class);
+
+    static final String PROGRESS_EVENT = "progress";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders;
+    private final long timeoutMs;
+
+    // Running state, guarded by this
+    private String run;
+    private String status = "idle";
+    private long started;
+    private long queries;
+    private final Map<String, Map<String, double[]>> sums = new LinkedHashMap<>();
+
+    private volatile EvaluationProgress progress = snapshot();
+
+    /**
+     * Builds the progress service.
+     *
+     * @param timeoutMs the timeout of a subscription, after which the console reconnects.
+     */
+    public ProgressService(@Value("${evaluation.progress.timeout-ms:1800000}") final long timeoutMs) {
+        final AtomicInteger threads = new AtomicInteger();
+        // At most one sender runs for each subscriber, so the pool is bounded by the number of subscribers
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "rre-progress-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Updates the progress with a batch posted by the persistence handler. A batch of a new run resets the progress.
+     *
+     * @param batch the batch: {"run", "status", "started", "queries": [{"metrics": {"metric name": {"version": value}}}]}.
+     */
+    public void update(final JsonNode batch) {
+        final EvaluationProgress snapshot;
+        synchronized (this) {
+            final String batchRun = batch.path("run").asText();
+            if (!batchRun.equals(run)) {
+                run = batchRun;
+                started = batch.path("started").asLong(System.currentTimeMillis());
+                queries = 0;
+                sums.clear();
+            }
+            status = batch.path("status").asText("running");
+
+            for (final JsonNode query : batch.path("queries")) {
+                queries++;
+                query.path("metrics").fields().forEachRemaining(metric ->
+                        metric.getValue().fields().forEachRemaining(version -> {
+                            final double[] sum = sums
+                                    .computeIfAbsent(metric.getKey(), name -> new LinkedHashMap<>())
+                                    .computeIfAbsent(version.getKey(), name -> new double[2]);
+                            sum[0] += version.getValue().asDouble();
+                            sum[1]++;
+                        }));
+            }
+            snapshot = snapshot();
+            progress = snapshot;
+        }
+
+        publish(snapshot);
+    }
+
+    /**
+     * Returns the current progress.
+     *
+     * @return the current progress.
+     */
+    public EvaluationProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Subscribes to the progress events. The current progress is sent straight away.
+     *
+     * @return the emitter of the events.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMs));
+    }
+
+    /**
+     * Subscribes the given emitter to the progress events.
+     *
+     * @param emitter the emitter of the events.
+     * @return the emitter.
+     */
+    SseEmitter subscribe(final SseEmitter emitter) {
+        final Subscriber subscriber = new Subscriber(emitter);
+        // A failed request completes too, as emitters have no error callback
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        try {
+            subscriber.offer(mapper.writeValueAsString(progress));
+        } catch (final JsonProcessingException e) {
+            LOGGER.error("Unable to serialize the evaluation progress: {}", e.getMessage());
+        }
+        return subscriber.emitter;
+    }
+
+    private void publish(final EvaluationProgress snapshot) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Serialized once for all the subscribers
+            final String event = mapper.writeValueAsString(snapshot);
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        } catch (final JsonProcessingException e) {
+            LOGGER.error("Unable to serialize the evaluation progress: {}", e.getMessage());
+        }
+    }
+
+    private EvaluationProgress snapshot() {
+        final Map<String, Map<String, BigDecimal>> means = new LinkedHashMap<>();
+        sums.forEach((metric, versions) -> {
+            final Map<String, BigDecimal> metricMeans = new LinkedHashMap<>();
+            versions.forEach((version, sum) ->
+                    metricMeans.put(version, BigDecimal.valueOf(sum[0] / sum[1]).setScale(4, RoundingMode.HALF_UP)));
+            means.put(metric, metricMeans);
+        });
+
+        final long now = System.currentTimeMillis();
+        final double seconds = (now - started) / 1000.0;
+        return new EvaluationProgress(run, status, started, now, queries, seconds > 0 ? queries / seconds : 0, means);
+    }
+
+    /**
+     * A subscribed console, with its (single) pending event.
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(final SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(final String event) {
+            pending.set(event);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                String event;
+                while ((event = pending.getAndSet(null)) != null) {
+                    emitter.send(SseEmitter.event().name(PROGRESS_EVENT).data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (final IOException | IllegalStateException e) {
+                LOGGER.debug("Progress subscriber gone: {}", e.getMessage());
+                subscribers.remove(this);
+                pending.set(null);
+            } finally {
+                sending.set(false);
+            }
+
+            // An event may have been offered after the loop ended, and before the flag was cleared
+            if (pending.get() != null && subscribers.contains(this) && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache, bounded by the (approximate) memory taken by its entries rather than by their number.
+ * The most recently added entry is always retained, even if it is alone above the limit.
+ *
+ * @since 1.2
+ */
+class RunCache {
+    private static class Entry {
+        private final Object value;
+        private final long weight;
+
+        private Entry(final Object value, final long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private long weight;
+
+    /**
+     * Builds a new cache.
+     *
+     * @param maxWeight the maximum memory taken by the entries, in bytes.
+     */
+    RunCache(final long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the value associated with the given key, if it is cached.
+     *
+     * @param key  the key.
+     * @param type the value type.
+     * @return the value, null if it isn't cached.
+     */
+    synchronized <T> T get(final String key, final Class<T> type) {
+        final Entry entry = entries.get(key);
+        return entry != null ? type.cast(entry.value) : null;
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entries if needed.
+     *
+     * @param key    the key.
+     * @param value  the value.
+     * @param weight the memory taken by the value, in bytes.
+     */
+    synchronized void put(final String key, final Object value, final long weight) {
+        remove(key);
+        entries.put(key, new Entry(value, weight));
+        this.weight += weight;
+
+        final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (this.weight > maxWeight && entries.size() > 1) {
+            this.weight -= eldest.next().getValue().weight;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes the value associated with the given key.
+     *
+     * @param key the key.
+     */
+    synchronized void remove(final String key) {
+        final Entry entry = entries.remove(key);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import io.sease.rre.core.domain.*;
+import io.sease.rre.core.domain.metrics.Metric;
+import io.sease.rre.core.domain.metrics.ValueFactory;
+import io.sease.rre.server.domain.Run;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * The metric values of a run, for every member of its evaluation hierarchy, indexed by member, metric and version.
+ * A run index is a small fraction of its evaluation (no hits, no latencies), so comparing runs doesn't need their
+ * evaluations to be loaded.
+ *
+ * The index is stored in a compact binary file: a header, which describes the run, followed by the member paths and
+ * the values, as a members x metrics x versions matrix (NaN stands for a missing value).
+ *
+ * @since 1.2
+ */
+class RunIndex {
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The levels of the evaluation hierarchy.
+     */
+    enum Level {
+        EVALUATION, CORPUS, TOPIC, GROUP, QUERY;
+
+        /**
+         * Returns the level with the given (case insensitive) name.
+         *
+         * @param name the level name.
+         * @return the level.
+         * @throws IllegalArgumentException if there's no such level.
+         */
+        static Level of(final String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * A member of the evaluation hierarchy, identified by its path.
+     */
+    static class Member {
+        final Level level;
+        final String[] path;
+
+        private Member(final Level level, final String[] path) {
+            this.level = level;
+            this.path = path;
+        }
+
+        String key() {
+            return String.join("\u0000", path);
+        }
+
+        String path(final int depth) {
+            return depth < path.length ? path[depth] : null;
+        }
+    }
+
+    final Run run;
+    final List<Member> members;
+    private final Map<String, Integer> memberPositions;
+    private final Map<String, Integer> metricPositions;
+    private final Map<String, Integer> versionPositions;
+    private final double[] values;
+
+    private RunIndex(final Run run, final List<Member> members, final double[] values) {
+        this.run = run;
+        this.members = members;
+        this.values = values;
+        this.memberPositions = positions(members.stream().map(Member::key).toArray(String[]::new));
+        this.metricPositions = positions(run.metrics.toArray(new String[0]));
+        this.versionPositions = positions(run.versions.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the value of a metric, for the given member and version.
+     *
+     * @param member  the member position.
+     * @param metric  the metric name.
+     * @param version the version.
+     * @return the value, null if it's missing.
+     */
+    BigDecimal value(final int member, final String metric, final String version) {
+        final Integer metricPosition = metricPositions.get(metric);
+        final Integer versionPosition = versionPositions.get(version);
+        if (metricPosition == null || versionPosition == null) {
+            return null;
+        }
+
+        final double value = values[(member * metricPositions.size() + metricPosition) * versionPositions.size() + versionPosition];
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+
+    /**
+     * Returns the position of the member with the same path of the given member.
+     *
+     * @param member a member, usually of another run.
+     * @return the position of the member, -1 if there's no such member in this run.
+     */
+    int position(final Member member) {
+        return memberPositions.getOrDefault(member.key(), -1);
+    }
+
+    /**
+     * Returns the approximate size of this index in memory.
+     *
+     * @return the approximate size of this index, in bytes.
+     */
+    long weight() {
+        return values.length * 8L + members.size() * 128L;
+    }
+
+    /**
+     * Builds the index of an evaluation.
+     *
+     * @param id         the run identifier.
+     * @param timestamp  the time the evaluation was received.
+     * @param evaluation the evaluation.
+     * @return the index of the evaluation.
+     */
+    static RunIndex of(final String id, final long timestamp, final Evaluation evaluation) {
+        final Set<String> metrics = new LinkedHashSet<>();
+        final Set<String> versions = new LinkedHashSet<>();
+        final List<Member> members = new ArrayList<>();
+        final List<DomainMember<?>> sources = new ArrayList<>();
+        int queries = 0;
+
+        members.add(new Member(Level.EVALUATION, new String[0]));
+        sources.add(evaluation);
+        for (final Corpus corpus : evaluation.getChildren()) {
+            members.add(new Member(Level.CORPUS, new String[]{corpus.getName()}));
+            sources.add(corpus);
+            for (final Topic topic : corpus.getChildren()) {
+                members.add(new Member(Level.TOPIC, new String[]{corpus.getName(), topic.getName()}));
+                sources.add(topic);
+                for (final QueryGroup group : topic.getChildren()) {
+                    members.add(new Member(Level.GROUP, new String[]{corpus.getName(), topic.getName(), group.getName()}));
+                    sources.add(group);
+                    for (final Query query : group.getChildren()) {
+                        members.add(new Member(Level.QUERY, new String[]{corpus.getName(), topic.getName(), group.getName(), query.getName()}));
+                        sources.add(query);
+                        queries++;
+                    }
+                }
+            }
+        }
+
+        for (final DomainMember<?> source : sources) {
+            for (final Metric metric : source.getMetrics().values()) {
+                metrics.add(metric.getName());
+                versions.addAll(metric.getVersions().keySet());
+            }
+        }
+
+        final Run run = new Run(id, evaluation.getName(), timestamp, queries, new ArrayList<>(metrics), new ArrayList<>(versions));
+        final double[] values = new double[members.size() * metrics.size() * versions.size()];
+        Arrays.fill(values, Double.NaN);
+
+        final RunIndex index = new RunIndex(run, members, values);
+        for (int member = 0; member < sources.size(); member++) {
+            for (final Metric metric : sources.get(member).getMetrics().values()) {
+                final int metricPosition = index.metricPositions.get(metric.getName());
+                for (final Map.Entry<String, ValueFactory> entry : metric.getVersions().entrySet()) {
+                    final BigDecimal value = entry.getValue().value();
+                    if (value != null) {
+                        values[(member * metrics.size() + metricPosition) * versions.size() + index.versionPositions.get(entry.getKey())] = value.doubleValue();
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Writes this index to the given file.
+     *
+     * @param file the index file.
+     * @throws IOException in case of I/O failure.
+     */
+    void write(final File file) throws IOException {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            writeHeader(out);
+            out.writeInt(members.size());
+            for (final Member member : members) {
+                out.writeByte(member.level.ordinal());
+                for (final String name : member.path) {
+                    out.writeUTF(name);
+                }
+            }
+            out.writeInt(values.length);
+            for (final double value : values) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Reads an index from the given file.
+     *
+     * @param file the index file.
+     * @return the index.
+     * @throws IOException in case of I/O failure, or if the file is not a valid index.
+     */
+    static RunIndex read(final File file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            final Run run = readHeader(in);
+            final int size = in.readInt();
+            final List<Member> members = new ArrayList<>(size);
+            for (int member = 0; member < size; member++) {
+                final Level level = Level.values()[in.readByte()];
+                final String[] path = new String[level.ordinal()];
+                for (int depth = 0; depth < path.length; depth++) {
+                    path[depth] = in.readUTF();
+                }
+                members.add(new Member(level, path));
+            }
+
+            final double[] values = new double[in.readInt()];
+            if (values.length != size * run.metrics.size() * run.versions.size()) {
+                throw new IOException("Corrupted run index " + file);
+            }
+            for (int value = 0; value < values.length; value++) {
+                values[value] = in.readDouble();
+            }
+            return new RunIndex(run, members, values);
+        }
+    }
+
+    /**
+     * Reads the header of an index file, which describes the run.
+     *
+     * @param file the index file.
+     * @return the run.
+     * @throws IOException in case of I/O failure, or if the file is not a valid index.
+     */
+    static Run readRun(final File file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return readHeader(in);
+        }
+    }
+
+    private void writeHeader(final DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(run.id);
+        out.writeUTF(run.name);
+        out.writeLong(run.timestamp);
+        out.writeInt(run.queries);
+        writeStrings(out, run.metrics);
+        writeStrings(out, run.versions);
+    }
+
+    private static Run readHeader(final DataInputStream in) throws IOException {
+        final int format = in.readInt();
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Unsupported run index format " + format);
+        }
+        return new Run(in.readUTF(), in.readUTF(), in.readLong(), in.readInt(), readStrings(in), readStrings(in));
+    }
+
+    private static void writeStrings(final DataOutputStream out, final List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (final String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final List<String> strings = new ArrayList<>(size);
+        for (int string = 0; string < size; string++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static Map<String, Integer> positions(final String[] keys) {
+        final Map<String, Integer> positions = new HashMap<>(keys.length * 2);
+        for (int position = 0; position < keys.length; position++) {
+            positions.put(keys[position], position);
+        }
+        return positions;
+    }
+}
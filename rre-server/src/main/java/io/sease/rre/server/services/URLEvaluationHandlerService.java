@@ -20,11 +20,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.sease.rre.core.domain.Evaluation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -44,6 +45,14 @@ public class URLEvaluationHandlerService extends HttpEvaluationHandlerService im
 
     private URLEvaluationUpdater updater = null;
 
+    @Autowired
+    public URLEvaluationHandlerService(
+            final EvaluationReader reader,
+            final EvaluationHistoryService history,
+            final EvaluationRepresentationCache representations) {
+        super(reader, history, representations);
+    }
+
     @Override
     public void processEvaluationRequest(JsonNode requestData) throws EvaluationHandlerException {
         try {
@@ -63,6 +72,17 @@ public class URLEvaluationHandlerService extends HttpEvaluationHandlerService im
         }
     }
 
+    @Override
+    public void processEvaluationRequest(final InputStream requestData) throws EvaluationHandlerException {
+        // The request only holds the URL of the evaluation data
+        try {
+            processEvaluationRequest(getMapper().readTree(requestData));
+        } catch (IOException e) {
+            LOGGER.error("Caught IOException reading request: {}", e.getMessage());
+            throw new EvaluationHandlerException(e);
+        }
+    }
+
     private URLEvaluationUpdater createUpdaterThread(URL evaluationUrl) {
         URLEvaluationUpdater thread = new URLEvaluationUpdater(evaluationUrl);
         // Run the thread in the background
@@ -83,17 +103,16 @@ public class URLEvaluationHandlerService extends HttpEvaluationHandlerService im
         public void run() {
             try {
                 LOGGER.info("Building evaluation from URL {}", evaluationUrl);
-                final JsonNode evaluationNode = readNodeFromUrl(evaluationUrl);
-                setEvaluation(make(evaluationNode));
+                setEvaluation(readEvaluationFromUrl(evaluationUrl));
                 LOGGER.debug("Evaluation build complete");
             } catch (IOException e) {
                 LOGGER.error("Caught IOException building evaluation: {}", e.getMessage());
             }
         }
 
-        private JsonNode readNodeFromUrl(URL evaluationUrl) throws IOException {
-            try {
-                return getMapper().readTree(evaluationUrl);
+        private Evaluation readEvaluationFromUrl(URL evaluationUrl) throws IOException {
+            try (final InputStream in = evaluationUrl.openStream()) {
+                return getReader().read(in);
             } catch (IOException e) {
                 LOGGER.error("Caught IOException reading JSON from {}: {}", evaluationUrl, e.getMessage());
                 throw e;
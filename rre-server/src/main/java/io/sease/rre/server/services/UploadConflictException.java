@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+/**
+ * Thrown when a chunk doesn't start at the current offset of its upload (e.g. it has already been received, or a
+ * previous chunk is missing), or when an upload is completed before all its data has been received.
+ *
+ * @since 1.2
+ */
+public class UploadConflictException extends Exception {
+    private final long offset;
+
+    /**
+     * Builds a new exception.
+     *
+     * @param message the detail message.
+     * @param offset  the current offset of the upload.
+     */
+    public UploadConflictException(final String message, final long offset) {
+        super(message);
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the current offset of the upload, from which the client should resume.
+     *
+     * @return the current offset of the upload.
+     */
+    public long getOffset() {
+        return offset;
+    }
+}
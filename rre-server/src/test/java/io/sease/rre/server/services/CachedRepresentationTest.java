@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the {@link CachedRepresentation} entity tags and content negotiation.
+ *
+ * @since 1.2
+ */
+public class CachedRepresentationTest {
+
+    private static final byte[] JSON = "{\"name\":\"evaluation\"}".getBytes(StandardCharsets.UTF_8);
+
+    private CachedRepresentation representation;
+
+    @Before
+    public void setupRepresentation() throws IOException {
+        representation = CachedRepresentation.of(out -> out.write(JSON));
+    }
+
+    @Test
+    public void etags_hashTheJsonContent() {
+        final String digest = DigestUtils.md5DigestAsHex(JSON);
+
+        assertEquals("\"" + digest + "\"", representation.getEtag());
+        assertEquals("\"" + digest + "-gzip\"", representation.getGzipEtag());
+    }
+
+    @Test
+    public void writeTo_sendsGzippedRepresentationWithItsOwnEtag() throws IOException {
+        final MockHttpServletResponse response = get("gzip, deflate", null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(representation.getGzipEtag(), response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(JSON, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void writeTo_sendsDecompressedRepresentationWithItsOwnEtag() throws IOException {
+        final MockHttpServletResponse response = get(null, null);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(representation.getEtag(), response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(JSON, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void writeTo_isNotModifiedOnlyForTheSameEncoding() throws IOException {
+        assertEquals(304, get("gzip", representation.getGzipEtag()).getStatus());
+        assertEquals(304, get(null, representation.getEtag()).getStatus());
+
+        // A decompressed body cached by the client doesn't stand for the gzipped one, and vice versa
+        final MockHttpServletResponse gzipped = get("gzip", representation.getEtag());
+        assertEquals(200, gzipped.getStatus());
+        assertNotEquals(0, gzipped.getContentAsByteArray().length);
+        assertEquals(200, get(null, representation.getGzipEtag()).getStatus());
+    }
+
+    private MockHttpServletResponse get(final String acceptEncoding, final String ifNoneMatch) throws IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/evaluation");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        representation.writeTo(request, response);
+        return response;
+    }
+
+    private static byte[] gunzip(final byte[] gzipped) throws IOException {
+        try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import io.sease.rre.core.domain.Corpus;
+import io.sease.rre.core.domain.DomainMember;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.domain.QueryGroup;
+import io.sease.rre.core.domain.Topic;
+import io.sease.rre.server.domain.EvaluationFilter;
+import io.sease.rre.server.domain.MetricDelta;
+import io.sease.rre.server.domain.Run;
+import io.sease.rre.server.domain.RunComparison;
+import io.sease.rre.server.domain.StaticMetric;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the {@link EvaluationHistoryService}.
+ *
+ * @since 1.2
+ */
+public class EvaluationHistoryServiceTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final EvaluationReader reader = new EvaluationReader(true);
+    private EvaluationHistoryService history;
+
+    @Before
+    public void setupHistory() {
+        history = new EvaluationHistoryService(reader, true, folder.getRoot().getAbsolutePath(), 30, 1);
+    }
+
+    @Test
+    public void compare_onlyComparesMembersAndVersionsOfBothRuns() throws IOException {
+        // The base run has q1 and q2 on v1.0 and v1.1, the other run has q2 and q3 on v1.1 and v1.2
+        final Run base = history.record(evaluation(new String[]{"q1", "q2"}, new String[]{"v1.0", "v1.1"}, 0.5)).get();
+        final Run other = history.record(evaluation(new String[]{"q2", "q3"}, new String[]{"v1.1", "v1.2"}, 0.8)).get();
+
+        final RunComparison queries = history.compare(base.id, other.id, "query", EvaluationFilter.NONE, 10).get();
+
+        assertEquals("query", queries.level);
+        assertEquals(1, queries.total);
+        final MetricDelta delta = queries.deltas.get(0);
+        assertEquals("q2", delta.query);
+        assertEquals("g1", delta.queryGroup);
+        assertEquals("v1.1", delta.version);
+        assertEquals(0, new BigDecimal("0.3").compareTo(delta.delta));
+
+        final RunComparison evaluations = history.compare(base.id, other.id, "evaluation", EvaluationFilter.NONE, 10).get();
+        assertEquals(1, evaluations.total);
+        assertNull(evaluations.deltas.get(0).corpus);
+    }
+
+    @Test
+    public void compare_sortsAndLimitsDeltas() throws IOException {
+        final Evaluation baseEvaluation = evaluation(new String[]{"q1", "q2", "q3"}, new String[]{"v1.0"}, 0.5);
+        final Evaluation otherEvaluation = evaluation(new String[]{"q1", "q2", "q3"}, new String[]{"v1.0"}, 0.5);
+        final QueryGroup group = otherEvaluation.getChildren().get(0).getChildren().get(0).getChildren().get(0);
+        // Values are collected once per version: replace the metrics of the first two queries
+        group.getChildren().get(0).getMetrics().remove("P");
+        group.getChildren().get(1).getMetrics().remove("P");
+        metric(group.getChildren().get(0), "v1.0", 0.6);
+        metric(group.getChildren().get(1), "v1.0", 0.1);
+        final Run base = history.record(baseEvaluation).get();
+        final Run other = history.record(otherEvaluation).get();
+
+        final RunComparison comparison = history.compare(base.id, other.id, "query", EvaluationFilter.NONE, 2).get();
+
+        assertEquals(3, comparison.total);
+        assertEquals(2, comparison.deltas.size());
+        assertEquals("q2", comparison.deltas.get(0).query);
+        assertEquals("q1", comparison.deltas.get(1).query);
+
+        final EvaluationFilter filter = new EvaluationFilter(null, null, null, null, Collections.singletonList("v2.0"));
+        assertEquals(0, history.compare(base.id, other.id, "query", filter, 2).get().total);
+    }
+
+    @Test
+    public void compare_readsIndexesOfStoredRuns() throws IOException {
+        final Run base = history.record(evaluation(new String[]{"q1"}, new String[]{"v1.0"}, 0.5)).get();
+        final Run other = history.record(evaluation(new String[]{"q1"}, new String[]{"v1.0"}, 0.7)).get();
+
+        final EvaluationHistoryService restarted = new EvaluationHistoryService(reader, true, folder.getRoot().getAbsolutePath(), 30, 1);
+
+        assertEquals(Arrays.asList(other.id, base.id), Arrays.asList(restarted.getRuns().get(0).id, restarted.getRuns().get(1).id));
+        assertEquals(1, restarted.compare(base.id, other.id, "group", EvaluationFilter.NONE, 10).get().total);
+        assertEquals("history", restarted.getEvaluation(base.id).get().getName());
+    }
+
+    @Test
+    public void compare_isEmptyForMissingRuns() throws IOException {
+        final Run base = history.record(evaluation(new String[]{"q1"}, new String[]{"v1.0"}, 0.5)).get();
+
+        assertFalse(history.compare(base.id, "missing", "query", EvaluationFilter.NONE, 10).isPresent());
+        assertFalse(history.compare("missing", base.id, "query", EvaluationFilter.NONE, 10).isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compare_rejectsInvalidLevel() throws IOException {
+        final Run base = history.record(evaluation(new String[]{"q1"}, new String[]{"v1.0"}, 0.5)).get();
+
+        history.compare(base.id, base.id, "page", EvaluationFilter.NONE, 10);
+    }
+
+    @Test
+    public void recordAsync_recordsInTheBackground() throws Exception {
+        final Optional<Run> run = history.recordAsync(evaluation(new String[]{"q1"}, new String[]{"v1.0"}, 0.5)).get(10, TimeUnit.SECONDS);
+
+        assertTrue(run.isPresent());
+        assertEquals(run.get().id, history.getRuns().get(0).id);
+    }
+
+    @Test
+    public void record_keepsMaxRuns() {
+        final EvaluationHistoryService bounded = new EvaluationHistoryService(reader, true, folder.getRoot().getAbsolutePath(), 2, 1);
+        for (int run = 0; run < 3; run++) {
+            bounded.record(evaluation(new String[]{"q1"}, new String[]{"v1.0"}, 0.5));
+        }
+
+        assertEquals(2, bounded.getRuns().size());
+        assertEquals(4, folder.getRoot().listFiles().length);
+    }
+
+    /**
+     * Builds an evaluation with a single corpus, topic and query group, where every member has a P value for each
+     * version.
+     */
+    private static Evaluation evaluation(final String[] queries, final String[] versions, final double value) {
+        final Evaluation evaluation = new Evaluation();
+        evaluation.setName("history");
+        final Corpus corpus = evaluation.findOrCreate("c1", Corpus::new);
+        final Topic topic = corpus.findOrCreate("t1", Topic::new);
+        final QueryGroup group = topic.findOrCreate("g1", QueryGroup::new);
+        for (final String version : versions) {
+            metric(evaluation, version, value);
+            metric(corpus, version, value);
+            metric(topic, version, value);
+            metric(group, version, value);
+            for (final String query : queries) {
+                metric(group.findOrCreate(query, Query::new), version, value);
+            }
+        }
+        return evaluation;
+    }
+
+    private static void metric(final DomainMember<?> member, final String version, final double value) {
+        ((StaticMetric) member.getMetrics().computeIfAbsent("P", StaticMetric::new)).collect(version, BigDecimal.valueOf(value));
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.core.domain.*;
+import io.sease.rre.server.domain.EvaluationMetadata;
+import io.sease.rre.server.domain.StaticMetric;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the streaming {@link EvaluationReader}.
+ *
+ * @since 1.2
+ */
+public class EvaluationReaderTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final TypeReference<Map<String, Object>> HIT_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void read_buildsSameModelAsTree() throws IOException {
+        final JsonNode data = evaluation("first", true);
+
+        final Evaluation evaluation = new EvaluationReader(true).read(stream(data));
+
+        assertEquals(mapper.valueToTree(make(data)), mapper.valueToTree(evaluation));
+        assertEquals(2, evaluation.getChildren().size());
+        assertEquals(3, query(evaluation).getResults().get("v1.1").hits().size());
+    }
+
+    @Test
+    public void read_buffersChildrenBeforeName() throws IOException {
+        final JsonNode nameFirst = evaluation("first", true);
+        final JsonNode nameLast = evaluation("first", false);
+        assertNotEquals(mapper.writeValueAsString(nameFirst), mapper.writeValueAsString(nameLast));
+
+        final Evaluation evaluation = new EvaluationReader(true).read(stream(nameLast));
+
+        assertEquals(mapper.valueToTree(make(nameFirst)), mapper.valueToTree(evaluation));
+    }
+
+    @Test
+    public void read_skipsHitsUnlessRetained() throws IOException {
+        final Evaluation evaluation = new EvaluationReader(false).read(stream(evaluation("first", true)));
+
+        final Query query = query(evaluation);
+        assertEquals(42, query.getResults().get("v1.1").totalHits());
+        assertTrue(query.getResults().get("v1.1").hits().isEmpty());
+        assertEquals(new BigDecimal("0.5000"), query.getMetrics().get("P").getVersions().get("v1.0").value());
+    }
+
+    @Test
+    public void read_rejectsTruncatedAndInvalidInput() throws IOException {
+        final EvaluationReader reader = new EvaluationReader(true);
+        final byte[] data = mapper.writeValueAsBytes(evaluation("first", true));
+
+        for (final int length : new int[]{0, 1, data.length / 3, data.length / 2, data.length - 1}) {
+            try {
+                reader.read(new ByteArrayInputStream(Arrays.copyOf(data, length)));
+                fail("Input truncated at " + length + " bytes should be rejected");
+            } catch (IOException expected) {
+                // Expected
+            }
+        }
+
+        for (final String invalid : new String[]{"[]", "{\"corpora\": []}", "{\"name\": \"e\", \"corpora\": [{\"topics\": []}]}"}) {
+            try {
+                reader.read(new ByteArrayInputStream(invalid.getBytes(StandardCharsets.UTF_8)));
+                fail("Input " + invalid + " should be rejected");
+            } catch (JsonParseException expected) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void processEvaluationRequest_keepsPreviousSnapshotOnFailure() throws Exception {
+        final EvaluationReader reader = new EvaluationReader(true);
+        final HttpEvaluationHandlerService service = new HttpEvaluationHandlerService(
+                reader,
+                new EvaluationHistoryService(reader, false, folder.getRoot().getAbsolutePath(), 30, 1),
+                new EvaluationRepresentationCache(new EvaluationWriter()));
+
+        service.processEvaluationRequest(stream(evaluation("first", true)));
+        final Evaluation first = service.getEvaluation();
+        final EvaluationMetadata metadata = service.getEvaluationMetadata();
+        assertEquals("first", first.getName());
+        assertEquals(Arrays.asList("v1.0", "v1.1"), metadata.versions);
+
+        final byte[] second = mapper.writeValueAsBytes(evaluation("second", true));
+        try {
+            service.processEvaluationRequest(new ByteArrayInputStream(Arrays.copyOf(second, second.length / 2)));
+            fail("A truncated evaluation should be rejected");
+        } catch (EvaluationHandlerException expected) {
+            // Expected
+        }
+        assertSame(first, service.getEvaluation());
+        assertSame(metadata, service.getEvaluationMetadata());
+
+        service.processEvaluationRequest(new ByteArrayInputStream(second));
+        assertEquals("second", service.getEvaluation().getName());
+    }
+
+    private ByteArrayInputStream stream(final JsonNode data) throws IOException {
+        return new ByteArrayInputStream(mapper.writeValueAsBytes(data));
+    }
+
+    private static Query query(final Evaluation evaluation) {
+        return evaluation.getChildren().get(0).getChildren().get(0).getChildren().get(0).getChildren().get(0);
+    }
+
+    /**
+     * Builds an evaluation, as written by the JSON persistence handler, with the member names written either before
+     * or after their metrics and children.
+     */
+    private ObjectNode evaluation(final String name, final boolean nameFirst) {
+        final ArrayNode corpora = mapper.createArrayNode();
+        for (int c = 0; c < 2; c++) {
+            final ArrayNode topics = mapper.createArrayNode();
+            for (int t = 0; t < 2; t++) {
+                final ArrayNode groups = mapper.createArrayNode();
+                for (int g = 0; g < 2; g++) {
+                    final ArrayNode queries = mapper.createArrayNode();
+                    for (int q = 0; q < 2; q++) {
+                        queries.add(member("query", "q" + c + t + g + q, metrics(q), "results", results(q), nameFirst));
+                    }
+                    groups.add(member("name", "g" + g, metrics(g), "query-evaluations", queries, nameFirst));
+                }
+                topics.add(member("name", "t" + t, metrics(t), "query-groups", groups, nameFirst));
+            }
+            corpora.add(member("name", "c" + c, metrics(c), "topics", topics, nameFirst));
+        }
+        return member("name", name, metrics(0), "corpora", corpora, nameFirst);
+    }
+
+    private ObjectNode member(final String nameField, final String name, final JsonNode metrics,
+                              final String childrenField, final JsonNode children, final boolean nameFirst) {
+        final ObjectNode member = mapper.createObjectNode();
+        if (nameFirst) {
+            member.put(nameField, name);
+        }
+        member.set(childrenField, children);
+        member.set("metrics", metrics);
+        if (!nameFirst) {
+            member.put(nameField, name);
+        }
+        return member;
+    }
+
+    private ObjectNode metrics(final int seed) {
+        final ObjectNode metrics = mapper.createObjectNode();
+        for (final String metric : new String[]{"P", "R"}) {
+            final ObjectNode versions = metrics.putObject(metric).putObject("versions");
+            versions.putObject("v1.0").put("value", 0.5 + seed / 10.0);
+            versions.putObject("v1.1").put("value", 1.0 / (seed + 3));
+        }
+        return metrics;
+    }
+
+    private ObjectNode results(final int seed) {
+        final ObjectNode results = mapper.createObjectNode();
+        for (int v = 0; v < 2; v++) {
+            final ObjectNode version = results.putObject("v1." + v);
+            version.put("total-hits", 42 + seed);
+            final ArrayNode hits = version.putArray("hits");
+            for (int h = 0; h <= v + 1; h++) {
+                final ObjectNode hit = hits.addObject();
+                hit.put("id", "doc" + h);
+                hit.put("score", 2.5 - h);
+                hit.putArray("tags").add("a").add("b");
+                if (h == 0) {
+                    hit.put("_isRelevant", true);
+                    hit.put("_gain", 3);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Builds an evaluation from its JSON tree, as the handler service did before the evaluation was read
+     * incrementally.
+     */
+    private Evaluation make(final JsonNode data) {
+        final Evaluation evaluation = new Evaluation();
+        evaluation.setName(data.get("name").asText());
+        metrics(data, evaluation);
+
+        data.get("corpora").forEach(corpusNode -> {
+            final Corpus corpus = evaluation.findOrCreate(corpusNode.get("name").asText(), Corpus::new);
+            metrics(corpusNode, corpus);
+            corpusNode.get("topics").forEach(topicNode -> {
+                final Topic topic = corpus.findOrCreate(topicNode.get("name").asText(), Topic::new);
+                metrics(topicNode, topic);
+                topicNode.get("query-groups").forEach(groupNode -> {
+                    final QueryGroup group = topic.findOrCreate(groupNode.get("name").asText(), QueryGroup::new);
+                    metrics(groupNode, group);
+                    groupNode.get("query-evaluations").forEach(queryNode -> {
+                        final Query query = group.findOrCreate(queryNode.get("query").asText(), Query::new);
+                        metrics(queryNode, query);
+                        queryNode.get("results").fields().forEachRemaining(entry -> {
+                            final MutableQueryOrSearchResponse response =
+                                    query.getResults().computeIfAbsent(entry.getKey(), version -> new MutableQueryOrSearchResponse());
+                            response.setTotalHits(entry.getValue().get("total-hits").asLong(), null);
+                            StreamSupport.stream(entry.getValue().get("hits").spliterator(), false)
+                                    .map(hit -> mapper.<Map<String, Object>>convertValue(hit, HIT_TYPE))
+                                    .forEach(hit -> response.collect(hit, -1, null));
+                        });
+                    });
+                });
+            });
+        });
+        return evaluation;
+    }
+
+    private void metrics(final JsonNode data, final DomainMember<?> member) {
+        data.get("metrics").fields().forEachRemaining(entry -> {
+            final StaticMetric metric = new StaticMetric(entry.getKey());
+            entry.getValue().get("versions").fields().forEachRemaining(version -> metric.collect(version.getKey(),
+                    new BigDecimal(version.getValue().get("value").asDouble()).setScale(4, RoundingMode.CEILING)));
+            member.getMetrics().put(metric.getName(), metric);
+        });
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import io.sease.rre.server.domain.UploadStatus;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the {@link EvaluationUploadService}.
+ *
+ * @since 1.2
+ */
+public class EvaluationUploadServiceTest {
+
+    private static final byte[] EVALUATION = (
+            "{\"name\": \"uploaded\", \"metrics\": {}, \"corpora\": [" +
+                    "{\"name\": \"c\", \"metrics\": {}, \"topics\": [" +
+                    "{\"name\": \"t\", \"metrics\": {}, \"query-groups\": [" +
+                    "{\"name\": \"g\", \"metrics\": {}, \"query-evaluations\": [" +
+                    "{\"query\": \"q\", \"metrics\": {}, \"results\": {}}]}]}]}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpEvaluationHandlerService handler;
+    private File directory;
+
+    @Before
+    public void setupHandler() throws IOException {
+        final EvaluationReader reader = new EvaluationReader(true);
+        handler = new HttpEvaluationHandlerService(
+                reader,
+                new EvaluationHistoryService(reader, false, folder.newFolder("history").getAbsolutePath(), 30, 1),
+                new EvaluationRepresentationCache(new EvaluationWriter()));
+        directory = new File(folder.getRoot(), "uploads");
+    }
+
+    @Test
+    public void append_inOrderThenComplete() throws Exception {
+        final EvaluationUploadService service = service(4, 60_000);
+        final String id = service.create().getId();
+
+        long offset = 0;
+        for (final byte[] chunk : chunks(EVALUATION, 3)) {
+            final UploadStatus status = service.append(id, offset, new ByteArrayInputStream(chunk)).get();
+            offset += chunk.length;
+            assertEquals(offset, status.getOffset());
+        }
+        assertEquals(EVALUATION.length, service.status(id).get().getOffset());
+
+        assertTrue(service.complete(id, EVALUATION.length).isPresent());
+        assertEquals("uploaded", handler.getEvaluation().getName());
+        assertFalse(service.status(id).isPresent());
+        assertUploadFilesDeleted();
+    }
+
+    @Test
+    public void append_rejectsWrongOffset() throws Exception {
+        final EvaluationUploadService service = service(4, 60_000);
+        final String id = service.create().getId();
+        final byte[][] chunks = chunks(EVALUATION, 2);
+        service.append(id, 0, new ByteArrayInputStream(chunks[0]));
+
+        for (final long offset : new long[]{0, chunks[0].length + 1}) {
+            try {
+                service.append(id, offset, new ByteArrayInputStream(chunks[1]));
+                fail("A chunk at offset " + offset + " should be rejected");
+            } catch (final UploadConflictException expected) {
+                assertEquals(chunks[0].length, expected.getOffset());
+            }
+        }
+
+        service.append(id, chunks[0].length, new ByteArrayInputStream(chunks[1]));
+        service.complete(id, EVALUATION.length);
+        assertEquals("uploaded", handler.getEvaluation().getName());
+    }
+
+    @Test
+    public void append_keepsInterruptedChunk() throws Exception {
+        final EvaluationUploadService service = service(4, 60_000);
+        final String id = service.create().getId();
+        final int half = EVALUATION.length / 2;
+
+        try {
+            service.append(id, 0, new InputStream() {
+                private int position;
+
+                @Override
+                public int read() throws IOException {
+                    if (position == half) {
+                        throw new IOException("Connection reset");
+                    }
+                    return EVALUATION[position++] & 0xFF;
+                }
+            });
+            fail("The interrupted chunk should fail");
+        } catch (final IOException expected) {
+            // Expected
+        }
+
+        assertEquals(half, service.status(id).get().getOffset());
+        final byte[] rest = Arrays.copyOfRange(EVALUATION, half, EVALUATION.length);
+        service.append(id, half, new ByteArrayInputStream(rest));
+        service.complete(id, EVALUATION.length);
+        assertEquals("uploaded", handler.getEvaluation().getName());
+    }
+
+    @Test
+    public void complete_rejectsMissingData() throws Exception {
+        final EvaluationUploadService service = service(4, 60_000);
+        final String id = service.create().getId();
+        final byte[][] chunks = chunks(EVALUATION, 2);
+        service.append(id, 0, new ByteArrayInputStream(chunks[0]));
+
+        try {
+            service.complete(id, EVALUATION.length);
+            fail("An upload without all its data should not be completed");
+        } catch (final UploadConflictException expected) {
+            assertEquals(chunks[0].length, expected.getOffset());
+        }
+
+        assertEquals(chunks[0].length, service.status(id).get().getOffset());
+        service.append(id, chunks[0].length, new ByteArrayInputStream(chunks[1]));
+        service.complete(id, EVALUATION.length);
+        assertEquals("uploaded", handler.getEvaluation().getName());
+    }
+
+    @Test(timeout = 10_000)
+    public void append_failsEarlyOnInvalidData() throws Exception {
+        final EvaluationUploadService service = service(4, 60_000);
+        final String id = service.create().getId();
+        final String before = handler.getEvaluation().getName();
+
+        final byte[] invalid = "[{\"name\": ".getBytes(StandardCharsets.UTF_8);
+        long offset = 0;
+        try {
+            // The data is read in the background: the failure is reported by one of the next chunks
+            while (true) {
+                offset = service.append(id, offset, new ByteArrayInputStream(invalid)).get().getOffset();
+                Thread.sleep(10);
+            }
+        } catch (final EvaluationHandlerException expected) {
+            // Expected
+        }
+
+        assertFalse(service.status(id).isPresent());
+        assertFalse(service.append(id, offset, new ByteArrayInputStream(invalid)).isPresent());
+        assertEquals(before, handler.getEvaluation().getName());
+        assertUploadFilesDeleted();
+    }
+
+    @Test
+    public void abort_discardsUploadAndFreesItsSlot() throws Exception {
+        final EvaluationUploadService service = service(1, 60_000);
+        final String id = service.create().getId();
+        service.append(id, 0, new ByteArrayInputStream(chunks(EVALUATION, 2)[0]));
+
+        try {
+            service.create();
+            fail("No more than one upload should be in progress");
+        } catch (final EvaluationHandlerException expected) {
+            // Expected
+        }
+
+        assertTrue(service.abort(id));
+        assertFalse(service.abort(id));
+        assertFalse(service.status(id).isPresent());
+        assertFalse(service.complete(id, EVALUATION.length).isPresent());
+        assertUploadFilesDeleted();
+
+        service.create();
+    }
+
+    @Test
+    public void create_expiresIdleUploads() throws Exception {
+        final EvaluationUploadService service = service(1, 50);
+        final String id = service.create().getId();
+        service.append(id, 0, new ByteArrayInputStream(chunks(EVALUATION, 2)[0]));
+
+        Thread.sleep(200);
+
+        final String next = service.create().getId();
+        assertFalse(service.status(id).isPresent());
+        assertTrue(service.status(next).isPresent());
+        assertArrayEquals(new String[]{next + ".json"}, directory.list());
+    }
+
+    private EvaluationUploadService service(final int maxActive, final long expiryMs) {
+        return new EvaluationUploadService(
+                new EvaluationReader(true), handler, directory.getAbsolutePath(), maxActive, expiryMs);
+    }
+
+    private void assertUploadFilesDeleted() {
+        final String[] files = directory.list();
+        assertTrue(files == null || files.length == 0);
+    }
+
+    private static byte[][] chunks(final byte[] data, final int count) {
+        final byte[][] chunks = new byte[count][];
+        final int size = (data.length + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            chunks[i] = Arrays.copyOfRange(data, Math.min(i * size, data.length), Math.min((i + 1) * size, data.length));
+        }
+        return chunks;
+    }
+}
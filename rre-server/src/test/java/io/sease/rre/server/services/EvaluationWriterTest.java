@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sease.rre.core.domain.Corpus;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.domain.QueryGroup;
+import io.sease.rre.core.domain.Topic;
+import io.sease.rre.server.domain.EvaluationFilter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the paging of queries in {@link EvaluationWriter}.
+ *
+ * @since 1.2
+ */
+public class EvaluationWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final EvaluationWriter writer = new EvaluationWriter();
+
+    /**
+     * c1/t1/g1 (3 queries), c1/t1/g2 (2), c1/t2/g3 (4), c2/t3/g4 (1).
+     */
+    private final Evaluation evaluation = evaluation();
+
+    @Test
+    public void pagesContainEveryQueryOnce() throws IOException {
+        final List<String> all = queries(evaluation, EvaluationFilter.NONE);
+        assertEquals(10, all.size());
+
+        for (int limit = 1; limit <= 11; limit++) {
+            assertEquals("Limit " + limit, all, readAllPages(EvaluationFilter.NONE, limit));
+        }
+    }
+
+    @Test
+    public void filteredPagesContainEveryMatchingQueryOnce() throws IOException {
+        final EvaluationFilter topic = new EvaluationFilter("c1", "t2", null, null, null);
+        final EvaluationFilter group = new EvaluationFilter(null, null, "g2", null, null);
+
+        for (int limit = 1; limit <= 5; limit++) {
+            assertEquals(Arrays.asList("c1/t2/g3/q0", "c1/t2/g3/q1", "c1/t2/g3/q2", "c1/t2/g3/q3"), readAllPages(topic, limit));
+            assertEquals(Arrays.asList("c1/t1/g2/q0", "c1/t1/g2/q1"), readAllPages(group, limit));
+        }
+    }
+
+    @Test
+    public void cursorSkipsWholeGroups() throws IOException {
+        final JsonNode page = page(EvaluationFilter.NONE, 4, 2);
+
+        assertEquals(Arrays.asList("c1/t1/g2/q1", "c1/t2/g3/q0"), names(page));
+        assertEquals(6, EvaluationWriter.decodeCursor(page.get("next-cursor").asText()));
+    }
+
+    @Test
+    public void cursorAtGroupBoundary() throws IOException {
+        final JsonNode first = page(EvaluationFilter.NONE, 0, 3);
+        assertEquals(Arrays.asList("c1/t1/g1/q0", "c1/t1/g1/q1", "c1/t1/g1/q2"), names(first));
+        assertEquals(3, EvaluationWriter.decodeCursor(first.get("next-cursor").asText()));
+
+        final JsonNode second = page(EvaluationFilter.NONE, 3, 2);
+        assertEquals(Arrays.asList("c1/t1/g2/q0", "c1/t1/g2/q1"), names(second));
+        assertEquals(5, EvaluationWriter.decodeCursor(second.get("next-cursor").asText()));
+    }
+
+    @Test
+    public void lastPageHasNoNextCursor() throws IOException {
+        final JsonNode last = page(EvaluationFilter.NONE, 9, 1);
+        assertEquals(Arrays.asList("c2/t3/g4/q0"), names(last));
+        assertTrue(last.get("next-cursor").isNull());
+
+        final JsonNode exact = page(EvaluationFilter.NONE, 0, 10);
+        assertEquals(10, exact.get("items").size());
+        assertTrue(exact.get("next-cursor").isNull());
+    }
+
+    @Test
+    public void cursorPastTheEndReturnsAnEmptyPage() throws IOException {
+        for (final long position : new long[]{10, 11, Long.MAX_VALUE}) {
+            final JsonNode page = page(EvaluationFilter.NONE, position, 5);
+            assertEquals(0, page.get("items").size());
+            assertTrue(page.get("next-cursor").isNull());
+        }
+    }
+
+    @Test
+    public void cursorCountsOnlyMatchingQueries() throws IOException {
+        final EvaluationFilter filter = new EvaluationFilter(null, null, "g3", null, null);
+        final JsonNode page = page(filter, 2, 10);
+
+        assertEquals(Arrays.asList("c1/t2/g3/q2", "c1/t2/g3/q3"), names(page));
+        assertTrue(page.get("next-cursor").isNull());
+    }
+
+    @Test
+    public void decodeCursor_roundTrips() {
+        assertEquals(0, EvaluationWriter.decodeCursor(null));
+        assertEquals(0, EvaluationWriter.decodeCursor(""));
+        for (final long position : new long[]{0, 1, 42, Long.MAX_VALUE}) {
+            assertEquals(position, EvaluationWriter.decodeCursor(EvaluationWriter.encodeCursor(position)));
+        }
+    }
+
+    @Test
+    public void decodeCursor_rejectsInvalidCursors() {
+        final String[] invalid = {
+                "not base64!",
+                Base64.getUrlEncoder().encodeToString("abc".getBytes(StandardCharsets.UTF_8)),
+                Base64.getUrlEncoder().encodeToString("-1".getBytes(StandardCharsets.UTF_8)),
+                Base64.getUrlEncoder().encodeToString("99999999999999999999".getBytes(StandardCharsets.UTF_8))
+        };
+
+        for (final String cursor : invalid) {
+            try {
+                EvaluationWriter.decodeCursor(cursor);
+                fail("Cursor " + cursor + " should be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertEquals("Invalid cursor: " + cursor, expected.getMessage());
+            }
+        }
+    }
+
+    private List<String> readAllPages(final EvaluationFilter filter, final int limit) throws IOException {
+        final List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            final JsonNode page = page(filter, EvaluationWriter.decodeCursor(cursor), limit);
+            assertTrue(page.get("items").size() <= limit);
+            names.addAll(names(page));
+            cursor = page.get("next-cursor").isNull() ? null : page.get("next-cursor").asText();
+        } while (cursor != null);
+        return names;
+    }
+
+    private JsonNode page(final EvaluationFilter filter, final long position, final int limit) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeQueries(evaluation, filter, position, limit, false, out);
+        return mapper.readTree(out.toByteArray());
+    }
+
+    private static List<String> names(final JsonNode page) {
+        final List<String> names = new ArrayList<>();
+        page.get("items").forEach(item -> names.add(String.join("/",
+                item.get("corpus").asText(), item.get("topic").asText(), item.get("query-group").asText(), item.get("query").asText())));
+        return names;
+    }
+
+    private static List<String> queries(final Evaluation evaluation, final EvaluationFilter filter) {
+        final List<String> names = new ArrayList<>();
+        for (final Corpus corpus : evaluation.getChildren()) {
+            if (!filter.includesCorpus(corpus.getName())) continue;
+            for (final Topic topic : corpus.getChildren()) {
+                if (!filter.includesTopic(topic.getName())) continue;
+                for (final QueryGroup group : topic.getChildren()) {
+                    if (!filter.includesQueryGroup(group.getName())) continue;
+                    for (final Query query : group.getChildren()) {
+                        names.add(String.join("/", corpus.getName(), topic.getName(), group.getName(), query.getName()));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static Evaluation evaluation() {
+        final Evaluation evaluation = new Evaluation();
+        addGroup(evaluation, "c1", "t1", "g1", 3);
+        addGroup(evaluation, "c1", "t1", "g2", 2);
+        addGroup(evaluation, "c1", "t2", "g3", 4);
+        addGroup(evaluation, "c2", "t3", "g4", 1);
+        return evaluation;
+    }
+
+    private static void addGroup(final Evaluation evaluation, final String corpus, final String topic, final String group, final int size) {
+        final QueryGroup queryGroup = evaluation.findOrCreate(corpus, Corpus::new)
+                .findOrCreate(topic, Topic::new)
+                .findOrCreate(group, QueryGroup::new);
+        for (int i = 0; i < size; i++) {
+            queryGroup.findOrCreate("q" + i, Query::new);
+        }
+    }
+}
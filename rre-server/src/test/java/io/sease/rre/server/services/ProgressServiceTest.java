@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sease.rre.server.domain.EvaluationProgress;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the {@link ProgressService}.
+ *
+ * @since 1.2
+ */
+public class ProgressServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ProgressService service = new ProgressService(60000);
+
+    @Test
+    public void update_aggregatesMetricsOfRun() {
+        service.update(batch("run-1", "running", 0.5, 0.25));
+        service.update(batch("run-1", "completed", 1.0));
+
+        final EvaluationProgress progress = service.getProgress();
+        assertEquals("run-1", progress.run);
+        assertEquals("completed", progress.status);
+        assertEquals(3, progress.queries);
+        assertEquals(new BigDecimal("0.5833"), progress.metrics.get("P").get("v1.0"));
+        assertEquals(new BigDecimal("0.2917"), progress.metrics.get("P").get("v1.1"));
+    }
+
+    @Test
+    public void update_resetsOnNewRun() {
+        service.update(batch("run-1", "running", 0.5, 0.25));
+
+        service.update(batch("run-2", "running", 1.0));
+
+        final EvaluationProgress progress = service.getProgress();
+        assertEquals("run-2", progress.run);
+        assertEquals(1, progress.queries);
+        assertEquals(new BigDecimal("1.0000"), progress.metrics.get("P").get("v1.0"));
+    }
+
+    @Test
+    public void slowSubscribers_onlyGetLatestSnapshotAndDoNotHoldUpOthers() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingEmitter slow = new RecordingEmitter(release);
+        final RecordingEmitter stalled = new RecordingEmitter(release);
+        final RecordingEmitter fast = new RecordingEmitter(null);
+        service.subscribe(slow);
+        service.subscribe(stalled);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        service.subscribe(fast);
+
+        for (int batch = 1; batch <= 5; batch++) {
+            service.update(batch("run-1", "running", batch / 10.0));
+            fast.awaitQueries(batch);
+        }
+        release.countDown();
+        slow.awaitQueries(5);
+        stalled.awaitQueries(5);
+
+        // The initial progress, then only the latest of the snapshots sent while the first was blocked
+        assertEquals(2, slow.events.size());
+        assertEquals(5, slow.events.get(1).get("queries").asLong());
+        assertEquals(2, stalled.events.size());
+        assertEquals(6, fast.events.size());
+    }
+
+    private ObjectNode batch(final String run, final String status, final double... values) {
+        final ObjectNode batch = mapper.createObjectNode();
+        batch.put("run", run);
+        batch.put("status", status);
+        batch.put("started", 1000L);
+        final ArrayNode queries = batch.putArray("queries");
+        for (final double value : values) {
+            final ObjectNode metric = queries.addObject().putObject("metrics").putObject("P");
+            metric.put("v1.0", value);
+            metric.put("v1.1", value / 2);
+        }
+        return batch;
+    }
+
+    /**
+     * An emitter which records the events sent, and optionally blocks its first send until released.
+     */
+    private class RecordingEmitter extends SseEmitter {
+        private final List<JsonNode> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        private RecordingEmitter(final CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(final SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            for (final DataWithMediaType part : builder.build()) {
+                final Object data = part.getData();
+                if (data instanceof String && ((String) data).startsWith("{")) {
+                    events.add(mapper.readTree((String) data));
+                }
+            }
+        }
+
+        private void awaitQueries(final long queries) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (events.isEmpty() || events.get(events.size() - 1).get("queries").asLong() < queries) {
+                assertTrue("Timed out waiting for " + queries + " queries", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+        }
+    }
+}
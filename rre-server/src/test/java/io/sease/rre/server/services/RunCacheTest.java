@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the weight bounded {@link RunCache}.
+ *
+ * @since 1.2
+ */
+public class RunCacheTest {
+
+    @Test
+    public void put_evictsLeastRecentlyUsedEntries() {
+        final RunCache cache = new RunCache(100);
+        cache.put("a", "A", 40);
+        cache.put("b", "B", 40);
+        assertEquals("A", cache.get("a", String.class));
+
+        cache.put("c", "C", 40);
+
+        assertEquals("A", cache.get("a", String.class));
+        assertNull(cache.get("b", String.class));
+        assertEquals("C", cache.get("c", String.class));
+    }
+
+    @Test
+    public void put_retainsLatestEntryAboveLimit() {
+        final RunCache cache = new RunCache(100);
+        cache.put("a", "A", 40);
+
+        cache.put("b", "B", 150);
+
+        assertNull(cache.get("a", String.class));
+        assertEquals("B", cache.get("b", String.class));
+    }
+
+    @Test
+    public void putAndRemove_releaseWeight() {
+        final RunCache cache = new RunCache(100);
+        cache.put("a", "A", 60);
+        cache.put("a", "A2", 60);
+        cache.put("b", "B", 40);
+        assertEquals("A2", cache.get("a", String.class));
+        assertEquals("B", cache.get("b", String.class));
+
+        cache.remove("a");
+        cache.put("c", "C", 60);
+
+        assertNull(cache.get("a", String.class));
+        assertEquals("B", cache.get("b", String.class));
+        assertEquals("C", cache.get("c", String.class));
+    }
+}
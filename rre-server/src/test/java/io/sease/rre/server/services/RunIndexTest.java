@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sease.rre.server.services;
+
+import io.sease.rre.core.domain.Corpus;
+import io.sease.rre.core.domain.DomainMember;
+import io.sease.rre.core.domain.Evaluation;
+import io.sease.rre.core.domain.Query;
+import io.sease.rre.core.domain.QueryGroup;
+import io.sease.rre.core.domain.Topic;
+import io.sease.rre.server.domain.Run;
+import io.sease.rre.server.domain.StaticMetric;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the {@link RunIndex} binary format.
+ *
+ * @since 1.2
+ */
+public class RunIndexTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndRead_roundTrips() throws IOException {
+        final RunIndex index = RunIndex.of("run-1", 1234L, evaluation());
+        final File file = folder.newFile("run-1.index");
+        index.write(file);
+
+        final RunIndex read = RunIndex.read(file);
+
+        assertRun(index.run, read.run);
+        assertRun(index.run, RunIndex.readRun(file));
+        assertEquals(index.members.size(), read.members.size());
+        for (int member = 0; member < index.members.size(); member++) {
+            assertEquals(index.members.get(member).level, read.members.get(member).level);
+            assertArrayEquals(index.members.get(member).path, read.members.get(member).path);
+            assertEquals(member, read.position(index.members.get(member)));
+            for (final String metric : index.run.metrics) {
+                for (final String version : index.run.versions) {
+                    assertEquals(index.value(member, metric, version), read.value(member, metric, version));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void of_indexesEveryMemberAndValue() {
+        final RunIndex index = RunIndex.of("run-1", 1234L, evaluation());
+
+        assertEquals("evaluation", index.run.name);
+        assertEquals(3, index.run.queries);
+        assertEquals(Arrays.asList("P", "R"), index.run.metrics);
+        assertEquals(Arrays.asList("v1.0", "v1.1"), index.run.versions);
+        assertEquals(8, index.members.size());
+        assertEquals(RunIndex.Level.QUERY, index.members.get(4).level);
+        assertArrayEquals(new String[]{"c1", "t1", "g1", "qè"}, index.members.get(4).path);
+
+        assertEquals(new BigDecimal("0.25"), index.value(4, "P", "v1.0"));
+        // R was only collected for v1.0 on queries
+        assertNull(index.value(4, "R", "v1.1"));
+        assertNull(index.value(4, "missing", "v1.0"));
+        assertNull(index.value(4, "P", "missing"));
+    }
+
+    @Test
+    public void read_rejectsTruncatedIndex() throws IOException {
+        final File file = folder.newFile("run-1.index");
+        RunIndex.of("run-1", 1234L, evaluation()).write(file);
+        try (final RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+            truncated.setLength(truncated.length() - 3);
+        }
+
+        try {
+            RunIndex.read(file);
+            fail("A truncated index should be rejected");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+
+    private static void assertRun(final Run expected, final Run actual) {
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.name, actual.name);
+        assertEquals(expected.timestamp, actual.timestamp);
+        assertEquals(expected.queries, actual.queries);
+        assertEquals(expected.metrics, actual.metrics);
+        assertEquals(expected.versions, actual.versions);
+    }
+
+    /**
+     * c1/t1/g1 with queries "qè", "q2", and c1/t1/g2 with query "q3". Every member has P for both versions,
+     * queries also have R for v1.0 only.
+     */
+    static Evaluation evaluation() {
+        final Evaluation evaluation = new Evaluation();
+        evaluation.setName("evaluation");
+        final Corpus corpus = evaluation.findOrCreate("c1", Corpus::new);
+        final Topic topic = corpus.findOrCreate("t1", Topic::new);
+        final QueryGroup first = topic.findOrCreate("g1", QueryGroup::new);
+        final QueryGroup second = topic.findOrCreate("g2", QueryGroup::new);
+        final Query[] queries = {
+                first.findOrCreate("qè", Query::new),
+                first.findOrCreate("q2", Query::new),
+                second.findOrCreate("q3", Query::new)};
+
+        for (final DomainMember<?> member : new DomainMember<?>[]{evaluation, corpus, topic, first, second}) {
+            metric(member, "P", "0.5", "0.6");
+        }
+        for (int query = 0; query < queries.length; query++) {
+            metric(queries[query], "P", String.valueOf(0.25 * (query + 1)), "0.5");
+            metric(queries[query], "R", "1", null);
+        }
+        return evaluation;
+    }
+
+    static void metric(final DomainMember<?> member, final String name, final String first, final String second) {
+        final StaticMetric metric = new StaticMetric(name);
+        metric.collect("v1.0", new BigDecimal(first));
+        if (second != null) {
+            metric.collect("v1.1", new BigDecimal(second));
+        }
+        member.getMetrics().put(name, metric);
+    }
+}